@@ -0,0 +1,104 @@
+import java.util.Random;
+
+import model.AxialCoords;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import model.Tile;
+import strategy.AlphaBetaStrategy;
+import strategy.Evaluator;
+import strategy.PatternEvaluator;
+import strategy.TranspositionTable;
+
+/**
+ * Compares PatternEvaluator with scoring by the difference in tiles, on the 8x8 board and a
+ * hexagonal board of side 5. It times both evaluators over positions from random games, then
+ * plays the given number of games (40 by default) between two searches of the same depth that
+ * differ only in their evaluator, each from a few random opening moves and with the colours
+ * swapped every game.
+ */
+public final class EvaluatorBenchmark {
+  private static final int DEFAULT_GAMES = 40;
+  private static final int DEPTH = 3;
+  private static final int RANDOM_PLIES = 4;
+  // keeps the scores from being optimised away
+  private static volatile long sink;
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+    report("square 8", new SquareBitboardReversi(), games);
+    report("hex 5", new HexBitboardReversi(5), games);
+  }
+
+  private static void report(String name, Reversi start, int games) {
+    start.startGame();
+    Random rand = new Random(23);
+    Evaluator pattern = new PatternEvaluator();
+    System.out.println(name);
+    System.out.printf("disc difference: %,.0f evaluations/s%n",
+            time(start, Evaluator.DISC_DIFFERENCE, new Random(1)));
+    System.out.printf("pattern:         %,.0f evaluations/s%n", time(start, pattern, new Random(1)));
+
+    int wins = 0;
+    int losses = 0;
+    for (int i = 0; i < games; i++) {
+      Reversi game = start.copyGame();
+      playRandom(game, RANDOM_PLIES, rand);
+      Tile patternSide = i % 2 == 0 ? Tile.BLACK : Tile.WHITE;
+      AlphaBetaStrategy patternSearch =
+              new AlphaBetaStrategy(60_000, DEPTH, new TranspositionTable(4), pattern);
+      AlphaBetaStrategy discSearch = new AlphaBetaStrategy(60_000, DEPTH,
+              new TranspositionTable(4), Evaluator.DISC_DIFFERENCE);
+      int offset = game.getSideLen() - 1;
+      while (!game.isGameOver()) {
+        Tile turn = game.getTurn();
+        AxialCoords move = (turn == patternSide ? patternSearch : discSearch)
+                .chooseMove(game, turn).get();
+        game.makeMove(move.getR() + offset, move.getQ() + offset);
+      }
+      int diff = game.getScore(patternSide) - game.getScore(patternSide.getOpposite());
+      wins += diff > 0 ? 1 : 0;
+      losses += diff < 0 ? 1 : 0;
+    }
+    System.out.printf("pattern against disc difference at depth %d: %d won, %d lost, %d drawn"
+            + "%n%n", DEPTH, wins, losses, games - wins - losses);
+  }
+
+  // evaluates positions from random games for a second, after a second to warm up, and returns
+  // the evaluations per second
+  private static double time(Reversi start, Evaluator evaluator, Random rand) {
+    evaluate(start, evaluator, rand);
+    return evaluate(start, evaluator, rand);
+  }
+
+  private static double evaluate(Reversi start, Evaluator evaluator, Random rand) {
+    long evaluations = 0;
+    long sum = 0;
+    long begin = System.nanoTime();
+    long end = begin + 1_000_000_000L;
+    while (System.nanoTime() < end) {
+      Reversi game = start.copyGame();
+      while (!game.isGameOver()) {
+        for (int i = 0; i < 100; i++) {
+          sum += evaluator.evaluate(game, game.getTurn());
+        }
+        evaluations += 100;
+        playRandom(game, 1, rand);
+      }
+    }
+    sink = sum;
+    return evaluations / ((System.nanoTime() - begin) / 1e9);
+  }
+
+  private static void playRandom(Reversi game, int plies, Random rand) {
+    int boardLen = game.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    for (int ply = 0; ply < plies && !game.isGameOver(); ply++) {
+      int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+      game.makeMove(move / boardLen, move % boardLen);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import archive.GameRecord;
+import archive.GameRecordReader;
+import archive.GameRecordWriter;
+import model.Reversi;
+import model.SquareBitboardReversi;
+
+/**
+ * Measures the game record format: how many bytes a game takes, and how fast records are
+ * written, read back and replayed. It plays a pool of random 8x8 games, writes the given number
+ * of records (1,000,000 by default) drawn from the pool to a temporary file, and reads them all
+ * back.
+ */
+public final class GameRecordBenchmark {
+  private static final int DEFAULT_RECORDS = 1_000_000;
+  private static final int POOL_SIZE = 10_000;
+  private static final int REPLAYED = 100_000;
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws IOException {
+    int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RECORDS;
+    GameRecord[] pool = new GameRecord[POOL_SIZE];
+    Random rand = new Random(0);
+    for (int i = 0; i < pool.length; i++) {
+      pool[i] = playRandomGame(rand);
+    }
+
+    Path file = Files.createTempFile("games", ".rvgr");
+    try {
+      long start = System.nanoTime();
+      try (GameRecordWriter writer = new GameRecordWriter(file)) {
+        for (int i = 0; i < numRecords; i++) {
+          writer.write(pool[i % pool.length]);
+        }
+      }
+      double writeSeconds = (System.nanoTime() - start) / 1e9;
+      long bytes = Files.size(file);
+
+      start = System.nanoTime();
+      long plies = 0;
+      try (GameRecordReader reader = new GameRecordReader(file)) {
+        for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+          plies += record.size();
+        }
+      }
+      double readSeconds = (System.nanoTime() - start) / 1e9;
+
+      start = System.nanoTime();
+      int replayed = 0;
+      try (GameRecordReader reader = new GameRecordReader(file)) {
+        for (GameRecord record = reader.read(); record != null && replayed < REPLAYED;
+             record = reader.read()) {
+          record.replay();
+          replayed++;
+        }
+      }
+      double replaySeconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf("%,d records, %,d plies, %,.1f MB, %.1f bytes/game%n",
+              numRecords, plies, bytes / 1e6, (double) bytes / numRecords);
+      System.out.printf("write  %8.2f s %,12.0f records/s %8.1f MB/s%n",
+              writeSeconds, numRecords / writeSeconds, bytes / 1e6 / writeSeconds);
+      System.out.printf("read   %8.2f s %,12.0f records/s %8.1f MB/s%n",
+              readSeconds, numRecords / readSeconds, bytes / 1e6 / readSeconds);
+      System.out.printf("replay %8.2f s %,12.0f records/s%n",
+              replaySeconds, replayed / replaySeconds);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static GameRecord playRandomGame(Random rand) {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    int[] moves = new int[64];
+    int[] plies = new int[130];
+    int count = 0;
+    while (!game.isGameOver()) {
+      int numMoves = game.legalMoves(game.getTurn(), moves);
+      if (numMoves == 0) {
+        game.pass();
+        plies[count++] = Reversi.PASS;
+      } else {
+        int move = moves[rand.nextInt(numMoves)];
+        game.makeMove(move / 8, move % 8);
+        plies[count++] = move;
+      }
+    }
+    return new GameRecord(GameRecord.BoardType.SQUARE, 8, plies, count);
+  }
+}
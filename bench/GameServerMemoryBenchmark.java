@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import model.HexBitboardReversi;
+import model.ReversiModel;
+import model.Tile;
+import server.GameRegistry;
+import server.GameSession;
+
+/**
+ * Measures how much heap a GameRegistry needs per idle game. It starts the given number of games
+ * (50,000 by default) with both seats taken and one move played in each, waits for their
+ * mailboxes to empty, and prints the heap used after a full collection, in total and per game.
+ * Run it with a heap limit, such as -Xmx1g, to check that the games fit.
+ */
+public final class GameServerMemoryBenchmark {
+  private static final int DEFAULT_GAMES = 50_000;
+  private static final int SIDE_LEN = 6;
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+    report("ReversiModel", games, false);
+    report("HexBitboardReversi", games, true);
+  }
+
+  private static void report(String name, int games, boolean bitboard)
+          throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors());
+    long before = usedHeap();
+    GameRegistry registry = new GameRegistry(
+            sideLen -> bitboard ? new HexBitboardReversi(sideLen) : new ReversiModel(sideLen),
+            executor);
+    // the clients only drop their messages, as if they were waiting on the other player
+    Consumer<String> client = message -> { };
+    List<GameSession> sessions = new ArrayList<>(games);
+    long start = System.nanoTime();
+    for (int i = 0; i < games; i++) {
+      GameSession session = registry.create(SIDE_LEN);
+      session.join(Tile.BLACK, client).makeMoveFeatures(1, -2);
+      session.join(Tile.WHITE, client);
+      sessions.add(session);
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    long used = usedHeap() - before;
+    System.out.printf("%-20s %,8d games %,10.1f MB %,8d bytes/game %6.2f s to create%n",
+            name, registry.size(), used / 1e6, used / games, seconds);
+    sessions.clear();
+  }
+
+  private static long usedHeap() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
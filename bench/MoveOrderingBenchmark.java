@@ -0,0 +1,104 @@
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import strategy.AlphaBetaStrategy;
+import strategy.Evaluator;
+import strategy.MoveOrdering;
+import strategy.PatternEvaluator;
+import strategy.TranspositionTable;
+
+/**
+ * Measures how much move ordering shrinks an alpha-beta search, on the 8x8 board and a
+ * hexagonal board of side 5. Every position of a set from random games is searched to the same
+ * fixed depth by searches that differ only in the MoveOrdering heuristics they use, each with a
+ * fresh table, and the positions searched and time taken are reported against those of
+ * searching the moves in the order they are generated. The number of positions per board can
+ * be given (20 by default).
+ */
+public final class MoveOrderingBenchmark {
+  private static final int DEFAULT_POSITIONS = 20;
+  private static final int MIN_RANDOM_PLIES = 8;
+  private static final int MAX_RANDOM_PLIES = 24;
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) {
+    int positions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_POSITIONS;
+    report("square 8", new SquareBitboardReversi(), 7, positions);
+    report("hex 5", new HexBitboardReversi(5), 8, positions);
+  }
+
+  private static void report(String name, Reversi start, int depth, int count) {
+    start.startGame();
+    Random rand = new Random(25);
+    List<Reversi> positions = new ArrayList<>();
+    while (positions.size() < count) {
+      Reversi game = start.copyGame();
+      playRandom(game, MIN_RANDOM_PLIES + rand.nextInt(MAX_RANDOM_PLIES - MIN_RANDOM_PLIES + 1),
+              rand);
+      if (!game.isGameOver()) {
+        positions.add(game);
+      }
+    }
+    Evaluator evaluator = new PatternEvaluator();
+    Map<String, Set<MoveOrdering.Heuristic>> orderings = new LinkedHashMap<>();
+    orderings.put("unordered", EnumSet.noneOf(MoveOrdering.Heuristic.class));
+    orderings.put("hash move", EnumSet.of(MoveOrdering.Heuristic.HASH_MOVE));
+    orderings.put("+ killers",
+            EnumSet.of(MoveOrdering.Heuristic.HASH_MOVE, MoveOrdering.Heuristic.KILLERS));
+    orderings.put("+ history",
+            EnumSet.of(MoveOrdering.Heuristic.HASH_MOVE, MoveOrdering.Heuristic.HISTORY));
+    orderings.put("+ mobility",
+            EnumSet.of(MoveOrdering.Heuristic.HASH_MOVE, MoveOrdering.Heuristic.MOBILITY));
+    orderings.put("all", EnumSet.allOf(MoveOrdering.Heuristic.class));
+    // warms up every search so that the first ones measured aren't charged for compiling it
+    for (Set<MoveOrdering.Heuristic> heuristics : orderings.values()) {
+      search(positions.subList(0, Math.min(3, count)), depth, evaluator, heuristics);
+    }
+
+    System.out.printf("%s, %d positions at depth %d%n", name, count, depth);
+    long[] unordered = null;
+    for (Map.Entry<String, Set<MoveOrdering.Heuristic>> entry : orderings.entrySet()) {
+      long[] result = search(positions, depth, evaluator, entry.getValue());
+      if (unordered == null) {
+        unordered = result;
+      }
+      System.out.printf("%-10s %,13d nodes (%5.1f%%) %8.2f s (%5.1f%%)%n", entry.getKey(),
+              result[0], 100.0 * result[0] / unordered[0], result[1] / 1e9,
+              100.0 * result[1] / unordered[1]);
+    }
+    System.out.println();
+  }
+
+  // searches every position and returns the positions searched and the nanoseconds taken
+  private static long[] search(List<Reversi> positions, int depth, Evaluator evaluator,
+                               Set<MoveOrdering.Heuristic> heuristics) {
+    long nodes = 0;
+    long begin = System.nanoTime();
+    for (Reversi position : positions) {
+      AlphaBetaStrategy strategy = new AlphaBetaStrategy(600_000, depth,
+              new TranspositionTable(4), evaluator, heuristics);
+      strategy.chooseMove(position, position.getTurn());
+      nodes += strategy.getNodesSearched();
+    }
+    return new long[] {nodes, System.nanoTime() - begin};
+  }
+
+  private static void playRandom(Reversi game, int plies, Random rand) {
+    int boardLen = game.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    for (int ply = 0; ply < plies && !game.isGameOver(); ply++) {
+      int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+      game.makeMove(move / boardLen, move % boardLen);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+import java.util.Random;
+
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.Tile;
+import strategy.ParallelAlphaBetaStrategy;
+import strategy.TranspositionTable;
+
+/**
+ * Measures how much faster ParallelAlphaBetaStrategy searches with more threads. For every side
+ * length from 4 to 10 it plays a fixed number of seeded random moves from the start of a
+ * HexBitboardReversi game, then times a search of that position to a fixed depth with 1, 2, 4,
+ * 8 and 16 threads. Every search gets a fresh table, and the speedup is the time taken with one
+ * thread divided by the time taken with more. The speedup can't exceed the number of processors
+ * of the machine running the benchmark.
+ */
+public final class ParallelSearchBenchmark {
+  private static final int[] THREADS = {1, 2, 4, 8, 16};
+  private static final int DEFAULT_DEPTH = 12;
+  private static final int RANDOM_MOVES = 6;
+  private static final int TABLE_MEGABYTES = 64;
+  private static final long TIME_LIMIT_MILLIS = 3_600_000;
+
+  /**
+   * Runs the benchmark and prints the time and speedup for every side length and thread count.
+   * The first argument, if given, is the depth to search to.
+   */
+  public static void main(String[] args) {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+    System.out.printf("%d processors, depth %d%n", Runtime.getRuntime().availableProcessors(),
+            depth);
+    System.out.printf("%4s %7s %10s %14s %8s%n", "side", "threads", "ms", "nodes", "speedup");
+    // one untimed search so the JIT has compiled the search before anything is measured
+    search(position(6), depth, 1).close();
+    for (int sideLen = 4; sideLen <= 10; sideLen++) {
+      Reversi position = position(sideLen);
+      double baseline = 0;
+      for (int threads : THREADS) {
+        try (ParallelAlphaBetaStrategy strategy = search(position, depth, threads)) {
+          double millis = Math.max(1, strategy.getElapsedMillis());
+          if (threads == 1) {
+            baseline = millis;
+          }
+          System.out.printf("%4d %7d %10.0f %,14d %8.2f%n", sideLen, threads, millis,
+                  strategy.getNodesSearched(), baseline / millis);
+        }
+      }
+    }
+  }
+
+  private static ParallelAlphaBetaStrategy search(Reversi position, int depth, int threads) {
+    ParallelAlphaBetaStrategy strategy = new ParallelAlphaBetaStrategy(TIME_LIMIT_MILLIS,
+            depth, threads, new TranspositionTable(TABLE_MEGABYTES));
+    strategy.chooseMove(position, position.getTurn());
+    return strategy;
+  }
+
+  // the position reached by the same random moves every run
+  private static Reversi position(int sideLen) {
+    Reversi model = new HexBitboardReversi(sideLen);
+    model.startGame();
+    Random rand = new Random(sideLen);
+    int boardLen = model.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    for (int i = 0; i < RANDOM_MOVES && !model.isGameOver(); i++) {
+      Tile turn = model.getTurn();
+      int count = model.legalMoves(turn, moves);
+      if (count == 0) {
+        model.pass();
+      } else {
+        int move = moves[rand.nextInt(count)];
+        model.makeMove(move / boardLen, move % boardLen);
+      }
+    }
+    return model;
+  }
+}
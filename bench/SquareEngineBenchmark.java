@@ -0,0 +1,63 @@
+import java.util.Random;
+import java.util.function.Supplier;
+
+import model.Reversi;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+
+/**
+ * Measures how many positions per second SquareReversi and SquareBitboardReversi can play
+ * through. Both engines play the same seeded random games: at every node the legal moves are
+ * listed with isLegalMove, then a random one is played (or the player passes if there is none).
+ */
+public final class SquareEngineBenchmark {
+  private static final int WARMUP_GAMES = 1_000;
+  private static final int MEASURED_GAMES = 5_000;
+
+  /**
+   * Runs the benchmark and prints nodes per second for each engine.
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : MEASURED_GAMES;
+    report("SquareReversi", SquareReversi::new, games);
+    report("SquareBitboardReversi", SquareBitboardReversi::new, games);
+  }
+
+  private static void report(String name, Supplier<Reversi> engine, int games) {
+    playRandomGames(engine, WARMUP_GAMES);
+    long start = System.nanoTime();
+    long nodes = playRandomGames(engine, games);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-22s %,12d nodes %8.2f s %,14.0f nodes/s%n",
+            name, nodes, seconds, nodes / seconds);
+  }
+
+  // returns the number of positions visited
+  private static long playRandomGames(Supplier<Reversi> engine, int games) {
+    Random rand = new Random(0);
+    int[] legal = new int[64];
+    long nodes = 0;
+    for (int game = 0; game < games; game++) {
+      Reversi model = engine.get();
+      model.startGame();
+      while (!model.isGameOver()) {
+        nodes++;
+        int count = 0;
+        for (int i = 0; i < 8; i++) {
+          for (int j = 0; j < 8; j++) {
+            if (model.isLegalMove(i, j)) {
+              legal[count++] = i * 8 + j;
+            }
+          }
+        }
+        if (count == 0) {
+          model.pass();
+        } else {
+          int move = legal[rand.nextInt(count)];
+          model.makeMove(move / 8, move % 8);
+        }
+      }
+    }
+    return nodes;
+  }
+}
@@ -0,0 +1,75 @@
+import java.util.HashSet;
+import java.util.Set;
+
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import model.Symmetry;
+
+/**
+ * Measures how much canonicalising positions shrinks a cache of them. For the 8x8 board and a
+ * hexagonal board of side 5, it walks every line of play from the start to the given number of
+ * plies (8 by default) and counts the distinct positions at each ply by positionHash() and by
+ * canonical hash, then times Symmetry.canonicalize().
+ */
+public final class SymmetryBenchmark {
+  private static final int DEFAULT_PLIES = 8;
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) {
+    int plies = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PLIES;
+    report("square 8", new SquareBitboardReversi(), plies);
+    report("hex 5", new HexBitboardReversi(5), plies);
+  }
+
+  private static void report(String name, Reversi game, int plies) {
+    game.startGame();
+    Symmetry symmetry = Symmetry.of(game);
+    System.out.printf("%s, %d symmetries%n", name, symmetry.size());
+    System.out.printf("%4s %12s %12s %8s%n", "ply", "positions", "canonical", "ratio");
+    for (int ply = 1; ply <= plies; ply++) {
+      Set<Long> positions = new HashSet<>();
+      Set<Long> canonical = new HashSet<>();
+      walk(game, symmetry, ply, positions, canonical);
+      System.out.printf("%4d %,12d %,12d %8.2f%n", ply, positions.size(), canonical.size(),
+              (double) positions.size() / canonical.size());
+    }
+
+    // canonicalise every position of the last ply a few times over
+    long calls = 0;
+    long start = System.nanoTime();
+    for (int round = 0; round < 3; round++) {
+      calls += walk(game, symmetry, plies, new HashSet<>(), new HashSet<>());
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("canonicalize: %,.0f positions/s%n%n", calls / seconds);
+  }
+
+  // adds the hashes of every position the given number of plies from the game's, and returns
+  // the number of positions reached
+  private static long walk(Reversi game, Symmetry symmetry, int plies, Set<Long> positions,
+                           Set<Long> canonical) {
+    if (plies == 0 || game.isGameOver()) {
+      positions.add(game.positionHash());
+      canonical.add(symmetry.canonicalize(game).getHash());
+      return 1;
+    }
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    int numMoves = game.legalMoves(game.getTurn(), moves);
+    if (numMoves == 0) {
+      game.pushMove(Reversi.PASS);
+      long count = walk(game, symmetry, plies - 1, positions, canonical);
+      game.popMove();
+      return count;
+    }
+    long count = 0;
+    for (int i = 0; i < numMoves; i++) {
+      game.pushMove(moves[i]);
+      count += walk(game, symmetry, plies - 1, positions, canonical);
+      game.popMove();
+    }
+    return count;
+  }
+}
@@ -0,0 +1,26 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler, so that every result reports the bytes
+ * allocated per operation next to the time taken.
+ */
+public final class BenchmarkMain {
+
+  /**
+   * Runs every benchmark, or those whose name matches the regular expression given as the first
+   * argument.
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : "benchmark\\..*")
+            .addProfiler(GCProfiler.class)
+            .build();
+    new Runner(options).run();
+  }
+}
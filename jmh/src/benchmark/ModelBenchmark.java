@@ -0,0 +1,75 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Reversi;
+import model.ReversiModel;
+import model.Tile;
+
+/**
+ * Measures the methods of ReversiModel that read a position, on hex boards of several sizes
+ * and at several points of a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+  @Param({"3", "6", "10", "20"})
+  public int sideLen;
+
+  @Param({"EARLY", "MID", "LATE"})
+  public Positions.Phase phase;
+
+  private Reversi position;
+  private Tile turn;
+  private int moveRow;
+  private int moveCol;
+  private int cell;
+
+  @Setup
+  public void setUp() {
+    position = Positions.create(new ReversiModel(sideLen), phase);
+    turn = position.getTurn();
+    int move = Positions.firstMove(position);
+    moveRow = move / position.getBoardLen();
+    moveCol = move % position.getBoardLen();
+  }
+
+  @Benchmark
+  public boolean isLegalMove() {
+    // every call checks the next cell, so legal and illegal cells are both measured
+    int boardLen = position.getBoardLen();
+    cell = (cell + 1) % (boardLen * boardLen);
+    return position.isLegalMove(cell / boardLen, cell % boardLen);
+  }
+
+  @Benchmark
+  public int getScoreOfMove() {
+    return position.getScoreOfMove(moveRow, moveCol, turn);
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return position.isGameOver();
+  }
+
+  @Benchmark
+  public Tile[][] copyGameBoard() {
+    return position.copyGameBoard();
+  }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import java.util.Random;
+
+import model.Reversi;
+import model.Tile;
+
+/**
+ * Creates the positions the benchmarks run on, by playing seeded random moves from the start of
+ * a game until a given share of the board is filled. The same arguments always give the same
+ * position.
+ */
+public final class Positions {
+  /**
+   * How far into the game a position is. This is a benchmark parameter, so it has to be public
+   * for the code JMH generates.
+   */
+  public enum Phase {
+    EARLY(0.1), MID(0.5), LATE(0.85);
+
+    private final double filled;
+
+    Phase(double filled) {
+      this.filled = filled;
+    }
+  }
+
+  private static final long SEED = 42;
+
+  private Positions() {
+  }
+
+  /**
+   * Plays random moves on the given unstarted game until the given phase is reached. Moves that
+   * would end the game are avoided, so the position always has a player to move; if every move
+   * would end it, the position is returned as it is.
+   *
+   * @param game  the game to play on.
+   * @param phase how much of the board to fill.
+   * @return the game, in the reached position.
+   */
+  static Reversi create(Reversi game, Phase phase) {
+    game.startGame();
+    Random rand = new Random(SEED);
+    int boardLen = game.getBoardLen();
+    int cells = 0;
+    for (Tile[] row : game.copyGameBoard()) {
+      for (Tile tile : row) {
+        cells += tile == null ? 0 : 1;
+      }
+    }
+    int[] moves = new int[boardLen * boardLen];
+    while (game.getScore(Tile.BLACK) + game.getScore(Tile.WHITE) < phase.filled * cells) {
+      int count = game.legalMoves(game.getTurn(), moves);
+      if (count == 0) {
+        game.pass();
+        continue;
+      }
+      int chosen = -1;
+      for (int tries = 0; tries < count && chosen < 0; tries++) {
+        int move = moves[(rand.nextInt(count) + tries) % count];
+        Reversi next = game.copyGame();
+        next.makeMove(move / boardLen, move % boardLen);
+        if (!next.isGameOver()) {
+          chosen = move;
+        }
+      }
+      if (chosen < 0) {
+        break;
+      }
+      game.makeMove(chosen / boardLen, chosen % boardLen);
+    }
+    return game;
+  }
+
+  /**
+   * Returns the first legal move of the player to move in the given position.
+   *
+   * @param game the position.
+   * @return the move packed as row * boardLen + col, or Reversi.PASS if there is none.
+   */
+  static int firstMove(Reversi game) {
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    return game.legalMoves(game.getTurn(), moves) == 0 ? Reversi.PASS : moves[0];
+  }
+}
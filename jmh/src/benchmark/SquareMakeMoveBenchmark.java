@@ -0,0 +1,106 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Reversi;
+import model.SquareReversi;
+
+/**
+ * Measures makeMove() of SquareReversi at several points of a game, and the pushMove() and
+ * popMove() pair that searches use instead, in the same way as MakeMoveBenchmark does for
+ * ReversiModel. SquareReversi only has one board size, so unlike the hex benchmarks these have
+ * no side length.
+ */
+@State(Scope.Thread)
+@Fork(1)
+public class SquareMakeMoveBenchmark {
+  /**
+   * The number of makeMove() calls timed together, each on a copy of its own.
+   */
+  public static final int BATCH = 1000;
+
+  @Param({"EARLY", "MID", "LATE"})
+  public Positions.Phase phase;
+
+  private Reversi position;
+  private int moveRow;
+  private int moveCol;
+  private int move;
+  private Reversi game;
+
+  /**
+   * The copies a batch of makeMove benchmarks plays on, made before the batch.
+   */
+  @State(Scope.Thread)
+  public static class Copies {
+    private final Reversi[] games = new Reversi[BATCH];
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void copyPositions(SquareMakeMoveBenchmark bench) {
+      for (int i = 0; i < BATCH; i++) {
+        games[i] = bench.position.copyGame();
+      }
+      next = 0;
+    }
+
+    // the next copy, which no call has played on yet
+    private Reversi take() {
+      return games[next++];
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    position = Positions.create(new SquareReversi(), phase);
+    move = Positions.firstMove(position);
+    moveRow = move / position.getBoardLen();
+    moveCol = move % position.getBoardLen();
+    game = position.copyGame();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 20, batchSize = BATCH)
+  @Measurement(iterations = 50, batchSize = BATCH)
+  public Reversi squareReversiMakeMove(Copies copies) {
+    Reversi copy = copies.take();
+    copy.makeMove(moveRow, moveCol);
+    return copy;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 20, batchSize = BATCH)
+  @Measurement(iterations = 50, batchSize = BATCH)
+  public Reversi squareReversiCopyGameBaseline(Copies copies) {
+    return copies.take();
+  }
+
+  // takes the move back at once, so the position is the same for every call without a copy
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public Reversi squareReversiPushPopMove() {
+    game.pushMove(move);
+    game.popMove();
+    return game;
+  }
+}
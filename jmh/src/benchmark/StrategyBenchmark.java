@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.AxialCoords;
+import model.Reversi;
+import model.ReversiModel;
+import model.Tile;
+import strategy.AvoidCellsNextToCorners;
+import strategy.CaptureMostPieces;
+import strategy.FallibleReversiStrategy;
+import strategy.GoForCorners;
+
+/**
+ * Measures chooseMove() of every Strategy on hex boards of several sizes and at several points
+ * of a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+  @Param({"CaptureMostPieces", "GoForCorners", "AvoidCellsNextToCorners"})
+  public String strategy;
+
+  @Param({"3", "6", "10", "20"})
+  public int sideLen;
+
+  @Param({"EARLY", "MID", "LATE"})
+  public Positions.Phase phase;
+
+  private FallibleReversiStrategy chooser;
+  private Reversi position;
+  private Tile turn;
+
+  @Setup
+  public void setUp() {
+    switch (strategy) {
+      case "CaptureMostPieces":
+        chooser = new CaptureMostPieces();
+        break;
+      case "GoForCorners":
+        chooser = new GoForCorners();
+        break;
+      case "AvoidCellsNextToCorners":
+        chooser = new AvoidCellsNextToCorners();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown strategy: " + strategy);
+    }
+    position = Positions.create(new ReversiModel(sideLen), phase);
+    turn = position.getTurn();
+  }
+
+  @Benchmark
+  public Optional<AxialCoords> chooseMove() {
+    return chooser.chooseMove(position, turn);
+  }
+}
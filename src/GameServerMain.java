@@ -0,0 +1,42 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import model.ReversiModel;
+import server.GameRegistry;
+import server.GameServer;
+
+/**
+ * Runs a headless Reversi game server on the loopback address until it is killed.
+ */
+public final class GameServerMain {
+
+  /**
+   * Entry point for the game server. It only returns once the JVM is shutting down, since every
+   * thread of the server is a daemon and wouldn't keep the JVM alive by itself.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    // all arguments are optional, in this order: port, number of threads that run the games
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+            : Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    GameServer server = new GameServer(new GameRegistry(ReversiModel::new, executor), port);
+    CountDownLatch stopped = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        server.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        executor.shutdown();
+        stopped.countDown();
+      }
+    }));
+    server.start();
+    System.out.println("Listening on port " + server.getPort());
+    stopped.await();
+  }
+}
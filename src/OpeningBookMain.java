@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Random;
+
+import archive.GameRecord;
+import archive.GameRecordReader;
+import archive.GameRecordWriter;
+import model.AxialCoords;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import strategy.AlphaBetaStrategy;
+import strategy.OpeningBook;
+import strategy.TranspositionTable;
+
+/**
+ * Makes opening books. It can play a corpus of self-play games on the square board and append
+ * their records to a file, and build a book from the finished games of a record file.
+ */
+public final class OpeningBookMain {
+  private static final int OPENING_MOVES = 4;
+  private static final int SEARCH_DEPTH = 3;
+
+  /**
+   * Entry point for making opening books.
+   */
+  public static void main(String[] args) throws IOException {
+    // selfplay records games [seed], or build records book [depth] [minGames]
+    if (args.length < 3) {
+      throw new IllegalArgumentException("Usage: OpeningBookMain selfplay records games [seed]"
+              + " | build records book [depth] [minGames]");
+    }
+    Path records = Paths.get(args[1]);
+    switch (args[0].toLowerCase()) {
+      case "selfplay":
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 2024;
+        selfPlay(records, Integer.parseInt(args[2]), seed);
+        break;
+      case "build":
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+        int minGames = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+        OpeningBook.Builder builder = new OpeningBook.Builder(depth, minGames);
+        int games = 0;
+        try (GameRecordReader reader = new GameRecordReader(records)) {
+          for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+            games += builder.add(record) ? 1 : 0;
+          }
+        }
+        OpeningBook book = builder.build();
+        book.write(Paths.get(args[2]));
+        System.out.printf("%,d games, %,d positions%n", games, book.size());
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown mode: " + args[0]);
+    }
+  }
+
+  // plays games between two alpha-beta searches, each from a few random moves
+  private static void selfPlay(Path records, int games, long seed) throws IOException {
+    Random rand = new Random(seed);
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(1_000, SEARCH_DEPTH,
+            new TranspositionTable(4));
+    int[] moves = new int[64];
+    int[] plies = new int[128];
+    try (GameRecordWriter writer = new GameRecordWriter(records)) {
+      for (int i = 0; i < games; i++) {
+        Reversi game = new SquareBitboardReversi();
+        game.startGame();
+        int count = 0;
+        while (!game.isGameOver()) {
+          int move;
+          if (count < OPENING_MOVES) {
+            move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+          } else {
+            Optional<AxialCoords> choice = strategy.chooseMove(game, game.getTurn());
+            move = choice.map(c -> (c.getR() + 7) * 8 + c.getQ() + 7).orElse(Reversi.PASS);
+          }
+          if (move == Reversi.PASS) {
+            game.pass();
+          } else {
+            game.makeMove(move / 8, move % 8);
+          }
+          plies[count++] = move;
+        }
+        writer.write(new GameRecord(GameRecord.BoardType.SQUARE, 8, plies, count));
+      }
+    }
+  }
+}
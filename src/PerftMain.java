@@ -0,0 +1,70 @@
+import java.util.Map;
+
+import model.HexBitboardReversi;
+import model.Perft;
+import model.Reversi;
+import model.ReversiModel;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+
+/**
+ * Runs perft from the start of a game and prints the number of positions at each depth, how
+ * long it took and how many positions per second that is.
+ */
+public final class PerftMain {
+
+  /**
+   * Entry point for perft.
+   */
+  public static void main(String[] args) {
+    // REQUIRED: engine (hex, hexbitboard, square or squarebitboard), REQUIRED: depth,
+    // side length (hex engines only), OPTIONAL: divide
+    if (args.length < 2) {
+      throw new IllegalArgumentException(
+              "Usage: PerftMain engine depth [sideLen] [divide]");
+    }
+    String engine = args[0].toLowerCase();
+    int depth = Integer.parseInt(args[1]);
+    boolean hex = engine.startsWith("hex");
+    int sideLen = hex ? Integer.parseInt(args[2]) : 8;
+    boolean divide = args[args.length - 1].equalsIgnoreCase("divide");
+
+    Reversi model = createEngine(engine, sideLen);
+    model.startGame();
+    if (divide) {
+      int boardLen = model.getBoardLen();
+      long total = 0;
+      for (Map.Entry<Integer, Long> entry : Perft.divide(model, depth).entrySet()) {
+        int move = entry.getKey();
+        String name = move == Reversi.PASS ? "pass"
+                : "(" + move / boardLen + ", " + move % boardLen + ")";
+        System.out.printf("%-10s %,15d%n", name, entry.getValue());
+        total += entry.getValue();
+      }
+      System.out.printf("%-10s %,15d%n", "total", total);
+      return;
+    }
+    for (int d = 1; d <= depth; d++) {
+      long start = System.nanoTime();
+      long nodes = Perft.perft(model, d);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("perft(%d) = %,15d %9.3f s %,14.0f nodes/s%n",
+              d, nodes, seconds, nodes / Math.max(seconds, 1e-9));
+    }
+  }
+
+  private static Reversi createEngine(String engine, int sideLen) {
+    switch (engine) {
+      case "hex":
+        return new ReversiModel(sideLen);
+      case "hexbitboard":
+        return new HexBitboardReversi(sideLen);
+      case "square":
+        return new SquareReversi();
+      case "squarebitboard":
+        return new SquareBitboardReversi();
+      default:
+        throw new IllegalArgumentException("Unknown engine: " + engine);
+    }
+  }
+}
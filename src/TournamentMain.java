@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import model.SquareBitboardReversi;
+import strategy.AlphaBetaStrategy;
+import strategy.CaptureMostPieces;
+import strategy.GoForCorners;
+import strategy.MonteCarloStrategy;
+import strategy.PatternEvaluator;
+import strategy.TranspositionTable;
+import tournament.Entrant;
+import tournament.MatchResult;
+import tournament.Sprt;
+import tournament.Tournament;
+
+/**
+ * Plays a headless tournament between the built-in strategies on the square board and prints
+ * the results.
+ */
+public final class TournamentMain {
+  private static final int OPENING_MOVES = 4;
+  private static final long SEED = 2024;
+
+  /**
+   * Entry point for a tournament.
+   */
+  public static void main(String[] args) throws IOException {
+    // all arguments are optional, in this order:
+    // mode (roundrobin or sprt), number of game pairs, number of threads, evaluation weights
+    String mode = args.length > 0 ? args[0].toLowerCase() : "roundrobin";
+    int gamePairs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int threads = args.length > 2 ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+    PatternEvaluator evaluator = args.length > 3 ? PatternEvaluator.read(Paths.get(args[3]))
+            : new PatternEvaluator();
+    Tournament tournament =
+            new Tournament(SquareBitboardReversi::new, OPENING_MOVES, threads, SEED);
+
+    switch (mode) {
+      case "roundrobin":
+        List<MatchResult> results = tournament.roundRobin(List.of(
+                new Entrant("CaptureMostPieces", CaptureMostPieces::new),
+                new Entrant("GoForCorners", GoForCorners::new),
+                new Entrant("AlphaBeta(3)", () -> new AlphaBetaStrategy(1_000, 3,
+                        new TranspositionTable(4))),
+                new Entrant("AlphaBeta(3) patterns", () -> new AlphaBetaStrategy(1_000, 3,
+                        new TranspositionTable(4), evaluator)),
+                new Entrant("MonteCarlo(500)", () -> new MonteCarloStrategy(
+                        MonteCarloStrategy.DEFAULT_EXPLORATION, 1_000, 500, 1, 1 << 16))),
+                gamePairs);
+        for (MatchResult result : results) {
+          System.out.println(result);
+        }
+        break;
+      case "sprt":
+        Sprt test = new Sprt(0, 50, 0.05, 0.05);
+        MatchResult result = tournament.sprt(
+                new Entrant("AlphaBeta(4)", () -> new AlphaBetaStrategy(1_000, 4,
+                        new TranspositionTable(4))),
+                new Entrant("AlphaBeta(2)", () -> new AlphaBetaStrategy(1_000, 2,
+                        new TranspositionTable(4))),
+                test, gamePairs);
+        System.out.println(result);
+        System.out.printf("LLR %.2f (%.2f, %.2f): %s%n",
+                test.logLikelihoodRatio(result.getWins(), result.getDraws(), result.getLosses()),
+                test.getLowerBound(), test.getUpperBound(),
+                test.test(result.getWins(), result.getDraws(), result.getLosses()));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown mode: " + mode);
+    }
+  }
+}
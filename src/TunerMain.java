@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import archive.GameRecord;
+import archive.GameRecordReader;
+import archive.GameRecordWriter;
+import model.AxialCoords;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import strategy.AlphaBetaStrategy;
+import strategy.EvaluationFeatures;
+import strategy.EvaluationTuner;
+import strategy.PatternEvaluator;
+import strategy.TrainingSet;
+import strategy.TranspositionTable;
+
+/**
+ * Tunes the weights of PatternEvaluator. It can play a corpus of self-play games on any board
+ * and append their records to a file, and fit weights to the finished games of a record file,
+ * one set of weights per board in it, saving them to a weights file that PatternEvaluator.read()
+ * loads. Weights already in the weights file are tuned further, and those of boards without
+ * games are kept.
+ */
+public final class TunerMain {
+  private static final int OPENING_MOVES = 6;
+  // the chance of a random move after the opening, so that games don't repeat each other
+  private static final double RANDOM_MOVE_CHANCE = 0.1;
+  private static final int SEARCH_DEPTH = 2;
+  private static final double LEARNING_RATE = 1.0;
+
+  /**
+   * Entry point for tuning evaluation weights.
+   */
+  public static void main(String[] args) throws IOException {
+    // selfplay records games board [seed], where board is "square" or the side length of a
+    // hexagonal board, or tune records weights [steps] [threads]
+    if (args.length < 3 || args[0].equalsIgnoreCase("selfplay") && args.length < 4) {
+      throw new IllegalArgumentException("Usage: TunerMain selfplay records games board [seed]"
+              + " | tune records weights [steps] [threads]");
+    }
+    Path records = Paths.get(args[1]);
+    switch (args[0].toLowerCase()) {
+      case "selfplay":
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 2024;
+        selfPlay(records, Integer.parseInt(args[2]), args[3], seed);
+        break;
+      case "tune":
+        int steps = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+        int threads = args.length > 4 ? Integer.parseInt(args[4])
+                : Runtime.getRuntime().availableProcessors();
+        tune(records, Paths.get(args[2]), steps, threads);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown mode: " + args[0]);
+    }
+  }
+
+  private static void tune(Path records, Path weightsFile, int steps, int threads)
+          throws IOException {
+    PatternEvaluator evaluator = Files.exists(weightsFile) ? PatternEvaluator.read(weightsFile)
+            : new PatternEvaluator();
+    Map<EvaluationFeatures, TrainingSet> sets = new LinkedHashMap<>();
+    long start = System.nanoTime();
+    try (GameRecordReader reader = new GameRecordReader(records)) {
+      for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+        EvaluationFeatures features = record.getBoardType() == GameRecord.BoardType.SQUARE
+                ? EvaluationFeatures.ofSquare(record.getSideLen())
+                : EvaluationFeatures.ofHex(record.getSideLen());
+        sets.computeIfAbsent(features, key -> new TrainingSet(key, OPENING_MOVES)).add(record);
+      }
+    }
+    System.out.printf("read %,d positions in %.1f s%n", sets.values().stream()
+            .mapToLong(TrainingSet::size).sum(), (System.nanoTime() - start) / 1e9);
+
+    for (TrainingSet set : sets.values()) {
+      EvaluationFeatures features = set.getFeatures();
+      if (set.size() == 0) {
+        continue;
+      }
+      start = System.nanoTime();
+      EvaluationTuner tuner = new EvaluationTuner(set, threads);
+      int[] weights = evaluator.getWeights(features);
+      double scale = tuner.fitScale(weights);
+      int[] tuned = tuner.tune(weights, scale, steps, LEARNING_RATE);
+      double[] losses = tuner.getLosses();
+      System.out.printf("%s %d: %,d positions, scale %.5f, loss %.4f -> %.4f in %.1f s%n",
+              features.isHex() ? "hex" : "square", features.getSideLen(), set.size(), scale,
+              losses[0], tuner.loss(tuned, scale), (System.nanoTime() - start) / 1e9);
+      evaluator = evaluator.withWeights(features, tuned);
+    }
+    evaluator.write(weightsFile);
+  }
+
+  // plays games between alpha-beta searches with the current weights, each from a few random
+  // moves and with a random move now and then
+  private static void selfPlay(Path records, int games, String board, long seed)
+          throws IOException {
+    Random rand = new Random(seed);
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(1_000, SEARCH_DEPTH,
+            new TranspositionTable(4), new PatternEvaluator());
+    try (GameRecordWriter writer = new GameRecordWriter(records)) {
+      for (int i = 0; i < games; i++) {
+        Reversi game = board.equalsIgnoreCase("square") ? new SquareBitboardReversi()
+                : new HexBitboardReversi(Integer.parseInt(board));
+        game.startGame();
+        int boardLen = game.getBoardLen();
+        int offset = game.getSideLen() - 1;
+        int[] moves = new int[boardLen * boardLen];
+        int[] plies = new int[2 * boardLen * boardLen];
+        int count = 0;
+        while (!game.isGameOver()) {
+          int numMoves = game.legalMoves(game.getTurn(), moves);
+          int move;
+          if (numMoves == 0) {
+            move = Reversi.PASS;
+          } else if (count < OPENING_MOVES || rand.nextDouble() < RANDOM_MOVE_CHANCE) {
+            move = moves[rand.nextInt(numMoves)];
+          } else {
+            Optional<AxialCoords> choice = strategy.chooseMove(game, game.getTurn());
+            move = choice.map(c -> (c.getR() + offset) * boardLen + c.getQ() + offset)
+                    .orElse(Reversi.PASS);
+          }
+          if (move == Reversi.PASS) {
+            game.pass();
+          } else {
+            game.makeMove(move / boardLen, move % boardLen);
+          }
+          plies[count++] = move;
+        }
+        writer.write(new GameRecord(GameRecord.typeOf(game), game.getSideLen(), plies, count));
+      }
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package archive;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.HexBitboardReversi;
+import model.ReadonlyReversi;
+import model.Reversi;
+import model.SquareBitboardReversi;
+
+/**
+ * The moves of one game of Reversi, in the compact form GameRecordWriter stores them in. Each
+ * record is:
+ * <ul>
+ *   <li>one header byte: the board type in the top bit (0 for hexagonal, 1 for square) and the
+ *       side length in the other seven,</li>
+ *   <li>the number of plies, as an unsigned 16-bit big-endian number,</li>
+ *   <li>one byte per ply: the index of the cell played, counting only the cells on the board in
+ *       row-major order, or PASS_MARKER for a pass.</li>
+ * </ul>
+ * So an 8x8 game of 60 moves takes 63 bytes. The plies are the calls to makeMove() and pass()
+ * the players made; the passes a model makes by itself are not recorded, since replaying the
+ * moves makes them again. Cell indexes must fit in a byte, so hexagonal boards can have sides of
+ * at most 9.
+ */
+public final class GameRecord {
+  /**
+   * The byte that marks a pass.
+   */
+  public static final int PASS_MARKER = 0xFF;
+
+  /**
+   * The largest side length a hexagonal board can have in a record.
+   */
+  public static final int MAX_HEX_SIDE_LEN = 9;
+
+  /**
+   * The shape of the board a game was played on.
+   */
+  public enum BoardType {
+    /**
+     * A hexagonal board, played with ReversiModel or HexBitboardReversi.
+     */
+    HEX,
+    /**
+     * The 8x8 square board, played with SquareReversi or SquareBitboardReversi.
+     */
+    SQUARE
+  }
+
+  // the packed move (row * boardLen + col) of every cell index, for each board
+  private static final Map<Integer, int[]> CELLS = new ConcurrentHashMap<>();
+
+  private final BoardType type;
+  private final int sideLen;
+  private final byte[] plies;
+
+  // takes the plies as they are stored, which must not be changed afterward
+  GameRecord(BoardType type, int sideLen, byte[] plies) {
+    this.type = type;
+    this.sideLen = sideLen;
+    this.plies = plies;
+  }
+
+  /**
+   * Constructs a GameRecord from moves packed as in legalMoves().
+   *
+   * @param type    the shape of the board.
+   * @param sideLen the side length of the board, which is 8 for a square board.
+   * @param moves   the moves, packed as row * boardLen + col, or Reversi.PASS for a pass.
+   * @param count   the number of moves to take from the array.
+   * @throws IllegalArgumentException if the board can't be recorded or a move isn't on it.
+   */
+  public GameRecord(BoardType type, int sideLen, int[] moves, int count) {
+    int[] cells = cells(type, sideLen);
+    if (count < 0 || count > 0xFFFF || count > moves.length) {
+      throw new IllegalArgumentException("Invalid number of moves");
+    }
+    int boardLen = boardLen(type, sideLen);
+    byte[] plies = new byte[count];
+    for (int i = 0; i < count; i++) {
+      plies[i] = (byte) indexOf(cells, boardLen, moves[i]);
+    }
+    this.type = type;
+    this.sideLen = sideLen;
+    this.plies = plies;
+  }
+
+  // returns the cell index of the given packed move, or PASS_MARKER for a pass
+  private static int indexOf(int[] cells, int boardLen, int move) {
+    if (move == Reversi.PASS) {
+      return PASS_MARKER;
+    }
+    if (move >= 0 && move < boardLen * boardLen) {
+      // the cells are in ascending order, since they are numbered in row-major order
+      int index = Arrays.binarySearch(cells, move);
+      if (index >= 0) {
+        return index;
+      }
+    }
+    throw new IllegalArgumentException("Move " + move + " is not on the board");
+  }
+
+  /**
+   * Returns the type of board of the given game.
+   *
+   * @param game the game.
+   * @return SQUARE if the board is as wide as its sides are long, otherwise HEX.
+   */
+  public static BoardType typeOf(ReadonlyReversi game) {
+    return game.getBoardLen() == game.getSideLen() ? BoardType.SQUARE : BoardType.HEX;
+  }
+
+  // returns the packed move of every cell on the given board, in row-major order, throwing
+  // IllegalArgumentException if it can't be recorded
+  static int[] cells(BoardType type, int sideLen) {
+    if (type == BoardType.SQUARE ? sideLen != 8 : sideLen < 3 || sideLen > MAX_HEX_SIDE_LEN) {
+      throw new IllegalArgumentException("Cannot record a " + type + " board of side "
+              + sideLen);
+    }
+    return CELLS.computeIfAbsent(type == BoardType.SQUARE ? 0 : sideLen, key -> {
+      int boardLen = boardLen(type, sideLen);
+      int[] cells = new int[boardLen * boardLen];
+      int count = 0;
+      for (int row = 0; row < boardLen; row++) {
+        for (int col = 0; col < boardLen; col++) {
+          // the cells of a hexagonal board are those within sideLen - 1 of the center
+          if (type == BoardType.SQUARE
+                  || (row + col >= sideLen - 1 && row + col <= 3 * (sideLen - 1))) {
+            cells[count++] = row * boardLen + col;
+          }
+        }
+      }
+      return Arrays.copyOf(cells, count);
+    });
+  }
+
+  private static int boardLen(BoardType type, int sideLen) {
+    return type == BoardType.SQUARE ? sideLen : sideLen + sideLen - 1;
+  }
+
+  /**
+   * Returns the shape of the board.
+   *
+   * @return the board type.
+   */
+  public BoardType getBoardType() {
+    return type;
+  }
+
+  /**
+   * Returns the side length of the board.
+   *
+   * @return the side length.
+   */
+  public int getSideLen() {
+    return sideLen;
+  }
+
+  /**
+   * Returns the number of plies in the game.
+   *
+   * @return the number of moves and passes.
+   */
+  public int size() {
+    return plies.length;
+  }
+
+  /**
+   * Returns the given ply.
+   *
+   * @param ply the index of the ply, from 0.
+   * @return the move packed as row * boardLen + col, or Reversi.PASS for a pass.
+   * @throws IndexOutOfBoundsException if there is no such ply.
+   */
+  public int getMove(int ply) {
+    int index = plies[ply] & 0xFF;
+    return index == PASS_MARKER ? Reversi.PASS : cells(type, sideLen)[index];
+  }
+
+  // returns the plies as they are stored, which must not be changed
+  byte[] plies() {
+    return plies;
+  }
+
+  /**
+   * Starts a new game on this record's board, for playing the record one ply at a time. The
+   * game takes no snapshots, which would cost more than the moves, so its getSnapshot() throws
+   * IllegalStateException unless they are turned back on with setSnapshotsPublished().
+   *
+   * @return the started game, a SquareBitboardReversi or HexBitboardReversi.
+   */
+  public Reversi newGame() {
+    if (type == BoardType.SQUARE) {
+      SquareBitboardReversi game = new SquareBitboardReversi();
+      game.setSnapshotsPublished(false);
+      game.startGame();
+      return game;
+    }
+    HexBitboardReversi game = new HexBitboardReversi(sideLen);
+    game.setSnapshotsPublished(false);
+    game.startGame();
+    return game;
+  }
+
+  /**
+   * Starts a new game on this record's board and plays every ply of the record in it. The plies
+   * are played without snapshots, as in newGame(), and the game takes them again once the last
+   * ply is played.
+   *
+   * @return the game after the last ply.
+   * @throws IllegalStateException if a ply is not legal in the game.
+   */
+  public Reversi replay() {
+    Reversi game = newGame();
+    int boardLen = game.getBoardLen();
+    int[] cells = cells(type, sideLen);
+    for (byte ply : plies) {
+      int index = ply & 0xFF;
+      if (index == PASS_MARKER) {
+        game.pass();
+      } else if (index < cells.length) {
+        game.makeMove(cells[index] / boardLen, cells[index] % boardLen);
+      } else {
+        throw new IllegalStateException("Cell " + index + " is not on the board");
+      }
+    }
+    if (game instanceof SquareBitboardReversi) {
+      ((SquareBitboardReversi) game).setSnapshotsPublished(true);
+    } else {
+      ((HexBitboardReversi) game).setSnapshotsPublished(true);
+    }
+    return game;
+  }
+}
@@ -0,0 +1,76 @@
+package archive;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads the GameRecords of a file written by GameRecordWriter one at a time, in the order they
+ * were written, without loading the whole file. A reader is not thread safe.
+ */
+public final class GameRecordReader implements Closeable {
+  private final DataInputStream in;
+
+  /**
+   * Opens the given file and checks its header.
+   *
+   * @param file the file to read.
+   * @throws IOException if the file can't be opened or isn't a game record file.
+   */
+  public GameRecordReader(Path file) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    byte[] magic = new byte[GameRecordWriter.MAGIC.length];
+    try {
+      in.readFully(magic);
+      if (!Arrays.equals(magic, GameRecordWriter.MAGIC)) {
+        throw new IOException(file + " is not a game record file");
+      }
+      int version = in.readUnsignedByte();
+      if (version != GameRecordWriter.VERSION) {
+        throw new IOException("Unsupported game record version " + version);
+      }
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the record, or null at the end of the file.
+   * @throws IOException if the file can't be read, or ends in the middle of a record or has an
+   *                     invalid one.
+   */
+  public GameRecord read() throws IOException {
+    int header = in.read();
+    if (header < 0) {
+      return null;
+    }
+    GameRecord.BoardType type = (header & 0x80) != 0 ? GameRecord.BoardType.SQUARE
+            : GameRecord.BoardType.HEX;
+    int sideLen = header & 0x7F;
+    try {
+      GameRecord.cells(type, sideLen);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid record header: " + e.getMessage());
+    }
+    byte[] plies = new byte[in.readUnsignedShort()];
+    try {
+      in.readFully(plies);
+    } catch (EOFException e) {
+      throw new EOFException("The file ends in the middle of a record");
+    }
+    return new GameRecord(type, sideLen, plies);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
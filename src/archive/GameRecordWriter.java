@@ -0,0 +1,75 @@
+package archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends GameRecords to a file, in the format GameRecord describes, behind a short file header
+ * (GameRecordWriter.MAGIC and a version byte). Records are buffered, so they are only certain
+ * to be in the file once the writer is flushed or closed. A writer is not thread safe.
+ */
+public final class GameRecordWriter implements Closeable {
+  /**
+   * The bytes a game record file starts with.
+   */
+  static final byte[] MAGIC = {'R', 'V', 'G', 'R'};
+
+  /**
+   * The version of the format, written after MAGIC.
+   */
+  static final int VERSION = 1;
+
+  private final OutputStream out;
+
+  /**
+   * Opens the given file for appending, creating it with a file header if it doesn't exist or
+   * is empty.
+   *
+   * @param file the file to append to.
+   * @throws IOException if the file can't be opened.
+   */
+  public GameRecordWriter(Path file) throws IOException {
+    boolean empty = !Files.exists(file) || Files.size(file) == 0;
+    this.out = new BufferedOutputStream(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+    if (empty) {
+      out.write(MAGIC);
+      out.write(VERSION);
+    }
+  }
+
+  /**
+   * Appends a record.
+   *
+   * @param record the record.
+   * @throws IOException if the record can't be written.
+   */
+  public void write(GameRecord record) throws IOException {
+    byte[] plies = record.plies();
+    int header = (record.getBoardType() == GameRecord.BoardType.SQUARE ? 0x80 : 0)
+            | record.getSideLen();
+    out.write(header);
+    out.write(plies.length >>> 8);
+    out.write(plies.length & 0xFF);
+    out.write(plies);
+  }
+
+  /**
+   * Writes the buffered records to the file.
+   *
+   * @throws IOException if they can't be written.
+   */
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
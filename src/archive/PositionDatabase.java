@@ -0,0 +1,345 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A persistent map from position hash to the result of analysing the position (its score, the
+ * depth it was searched to and its best move), for opening books and analysis caches. The map
+ * is a file that is mapped into memory, so opening it reads nothing, and processes that open the
+ * same file share one copy of it through the operating system's page cache and see each other's
+ * writes.
+ *
+ * <p>The file is a 4 KB header followed by a power-of-two number of 64-byte buckets, each of
+ * four entries of two longs. A position can only be stored in the bucket its hash picks, so a
+ * lookup reads one bucket, which never crosses a page. Once a bucket is full a new position
+ * replaces its shallowest entry, unless every entry was searched deeper. As in
+ * TranspositionTable, each entry is stored as (key XOR data, data), so an entry torn by two
+ * writers at once reads as a miss instead of as a wrong result, and no locks are needed.
+ *
+ * <p>A hash says nothing about the board it came from, so a database holds the positions of one
+ * board, which its header records, and it can only be opened for that board. A database must
+ * not be used after it is closed.
+ */
+public final class PositionDatabase implements Closeable {
+  /**
+   * Returned by probe() when the position is not in the database. No stored entry is 0.
+   */
+  public static final long MISS = 0;
+
+  /**
+   * The bytes a position database file starts with.
+   */
+  static final byte[] MAGIC = {'R', 'V', 'P', 'D'};
+
+  /**
+   * The version of the format, written after MAGIC.
+   */
+  static final int VERSION = 1;
+
+  private static final VarHandle LONGS =
+          MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  // the header takes a whole page, so that every bucket is within one page
+  private static final int HEADER_BYTES = 4096;
+  private static final int ENTRIES_PER_BUCKET = 4;
+  private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+  private static final int BYTES_PER_BUCKET = ENTRIES_PER_BUCKET * BYTES_PER_ENTRY;
+  // one mapping can't be larger than 2 GB, so larger files are mapped in segments
+  private static final int SEGMENT_SHIFT = 30;
+  private static final int BUCKETS_PER_SEGMENT = (1 << SEGMENT_SHIFT) / BYTES_PER_BUCKET;
+
+  // data layout: score (32 bits) | move + 1 (16 bits) | depth (8 bits) | 1 (8 bits), so that
+  // no stored data is MISS
+  private static final int MOVE_SHIFT = 16;
+  private static final int DEPTH_SHIFT = 8;
+  private static final long PRESENT = 1;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer[] segments;
+  private final long bucketMask;
+  private final boolean readOnly;
+
+  private PositionDatabase(FileChannel channel, long buckets, boolean readOnly)
+          throws IOException {
+    this.channel = channel;
+    this.bucketMask = buckets - 1;
+    this.readOnly = readOnly;
+    FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY
+            : FileChannel.MapMode.READ_WRITE;
+    this.segments = new MappedByteBuffer[(int) ((buckets - 1) / BUCKETS_PER_SEGMENT + 1)];
+    for (int i = 0; i < segments.length; i++) {
+      long first = (long) i * BUCKETS_PER_SEGMENT;
+      long size = Math.min(BUCKETS_PER_SEGMENT, buckets - first) * BYTES_PER_BUCKET;
+      segments[i] = channel.map(mode, HEADER_BYTES + first * BYTES_PER_BUCKET, size);
+    }
+  }
+
+  /**
+   * Opens the given database of positions of the given board for reading and writing, creating
+   * it if the file doesn't exist or is empty. The number of buckets of a new database is rounded
+   * down to a power of two; an existing one keeps the size it was created with.
+   *
+   * @param file      the file of the database.
+   * @param type      the type of board the positions are on.
+   * @param sideLen   the side length of the board, which is 8 for a square board.
+   * @param megabytes the size of the database if it has to be created.
+   * @return the database.
+   * @throws IllegalArgumentException if the size is not positive or the board can't be recorded.
+   * @throws IOException              if the file can't be opened, isn't a position database or
+   *                                  holds the positions of another board.
+   */
+  public static PositionDatabase open(Path file, GameRecord.BoardType type, int sideLen,
+                                      int megabytes) throws IOException {
+    if (megabytes <= 0) {
+      throw new IllegalArgumentException("Size of database must be positive");
+    }
+    int board = board(type, sideLen);
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long buckets;
+      // another process may be creating the same file
+      FileLock lock = channel.lock();
+      try {
+        if (channel.size() == 0) {
+          buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+          writeHeader(channel, buckets, board);
+        } else {
+          buckets = readHeader(channel, file, board);
+        }
+      } finally {
+        lock.release();
+      }
+      return new PositionDatabase(channel, buckets, false);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens an existing database of positions of the given board for reading only.
+   *
+   * @param file    the file of the database.
+   * @param type    the type of board the positions are on.
+   * @param sideLen the side length of the board, which is 8 for a square board.
+   * @return the database, whose store() throws IllegalStateException.
+   * @throws IllegalArgumentException if the board can't be recorded.
+   * @throws IOException              if the file can't be opened, isn't a position database or
+   *                                  holds the positions of another board.
+   */
+  public static PositionDatabase openReadOnly(Path file, GameRecord.BoardType type, int sideLen)
+          throws IOException {
+    int board = board(type, sideLen);
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new PositionDatabase(channel, readHeader(channel, file, board), true);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  // the board as the header stores it, the top bit set for a square board as in an opening book
+  private static int board(GameRecord.BoardType type, int sideLen) {
+    if (type == null) {
+      throw new IllegalArgumentException("Board type cannot be null");
+    }
+    GameRecord.cells(type, sideLen);
+    return (type == GameRecord.BoardType.SQUARE ? 0x80 : 0) | sideLen;
+  }
+
+  private static void writeHeader(FileChannel channel, long buckets, int board)
+          throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(MAGIC).putInt(VERSION).putLong(buckets).put((byte) board).clear();
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+    // writing the last byte sizes the file, which reads as zeros (empty buckets) until written
+    channel.write(ByteBuffer.allocate(1), HEADER_BYTES + buckets * BYTES_PER_BUCKET - 1);
+  }
+
+  // returns the number of buckets the header gives, checking that it belongs to the file and
+  // that the file holds positions of the given board
+  private static long readHeader(FileChannel channel, Path file, int board) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(MAGIC.length + Integer.BYTES + Long.BYTES + 1)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    int read = 0;
+    while (header.hasRemaining() && read >= 0) {
+      read = channel.read(header, header.position());
+    }
+    header.flip();
+    if (header.remaining() < header.capacity()) {
+      throw new IOException(file + " is not a position database");
+    }
+    byte[] magic = new byte[MAGIC.length];
+    header.get(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException(file + " is not a position database");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported position database version " + version);
+    }
+    long buckets = header.getLong();
+    if (buckets <= 0 || Long.bitCount(buckets) != 1
+            || channel.size() != HEADER_BYTES + buckets * BYTES_PER_BUCKET) {
+      throw new IOException(file + " is not a complete position database");
+    }
+    int fileBoard = header.get() & 0xFF;
+    if (fileBoard != board) {
+      GameRecord.BoardType type = (fileBoard & 0x80) != 0 ? GameRecord.BoardType.SQUARE
+              : GameRecord.BoardType.HEX;
+      throw new IOException(file + " holds positions of a " + type + " board of side "
+              + (fileBoard & 0x7F));
+    }
+    return buckets;
+  }
+
+  /**
+   * Looks up the given position.
+   *
+   * @param key the hash of the position.
+   * @return the stored data, to be read with score(), move() and depth(), or MISS if the
+   *         position is not in the database.
+   */
+  public long probe(long key) {
+    long bucket = bucket(key);
+    ByteBuffer segment = segments[(int) (bucket / BUCKETS_PER_SEGMENT)];
+    int base = (int) (bucket % BUCKETS_PER_SEGMENT) * BYTES_PER_BUCKET;
+    for (int i = base; i < base + BYTES_PER_BUCKET; i += BYTES_PER_ENTRY) {
+      long data = (long) LONGS.getOpaque(segment, i + Long.BYTES);
+      if (data != MISS && ((long) LONGS.getOpaque(segment, i) ^ data) == key) {
+        return data;
+      }
+    }
+    return MISS;
+  }
+
+  /**
+   * Stores the result of analysing the given position. A position already stored is only
+   * replaced by a search at least as deep.
+   *
+   * @param key   the hash of the position.
+   * @param move  the best move (packed as row * boardLen + col), or -1 if there is none.
+   * @param score the score of the position.
+   * @param depth the depth the position was searched to, from 0 to 255.
+   * @return whether the result was stored, which it isn't if a deeper result is kept instead.
+   * @throws IllegalArgumentException if the depth is out of range.
+   * @throws IllegalStateException    if the database was opened read only.
+   */
+  public boolean store(long key, int move, int score, int depth) {
+    if (readOnly) {
+      throw new IllegalStateException("Database is read only");
+    }
+    if (depth < 0 || depth > 0xFF) {
+      throw new IllegalArgumentException("Depth must be from 0 to 255");
+    }
+    long data = ((long) score << 32)
+            | ((long) ((move + 1) & 0xFFFF) << MOVE_SHIFT)
+            | ((long) depth << DEPTH_SHIFT)
+            | PRESENT;
+
+    long bucket = bucket(key);
+    ByteBuffer segment = segments[(int) (bucket / BUCKETS_PER_SEGMENT)];
+    int base = (int) (bucket % BUCKETS_PER_SEGMENT) * BYTES_PER_BUCKET;
+    // the entry of the same position if there is one, otherwise the first empty or shallowest
+    int slot = base;
+    int slotDepth = Integer.MAX_VALUE;
+    for (int i = base; i < base + BYTES_PER_BUCKET; i += BYTES_PER_ENTRY) {
+      long oldData = (long) LONGS.getOpaque(segment, i + Long.BYTES);
+      if (oldData != MISS && ((long) LONGS.getOpaque(segment, i) ^ oldData) == key) {
+        slot = i;
+        slotDepth = depth(oldData);
+        break;
+      }
+      int oldDepth = oldData == MISS ? -1 : depth(oldData);
+      if (oldDepth < slotDepth) {
+        slot = i;
+        slotDepth = oldDepth;
+      }
+    }
+    if (slotDepth > depth) {
+      return false;
+    }
+    LONGS.setOpaque(segment, slot, key ^ data);
+    LONGS.setOpaque(segment, slot + Long.BYTES, data);
+    return true;
+  }
+
+  /**
+   * Writes the database's changes to the disk. Changes are shared with other processes and
+   * outlive this one without it; this only guards against the operating system failing.
+   *
+   * @throws IOException if the changes can't be written.
+   */
+  public void force() throws IOException {
+    for (MappedByteBuffer segment : segments) {
+      segment.force();
+    }
+  }
+
+  /**
+   * Returns the number of positions the database can hold.
+   *
+   * @return the capacity of the database.
+   */
+  public long getCapacity() {
+    return (bucketMask + 1) * ENTRIES_PER_BUCKET;
+  }
+
+  /**
+   * Closes the file. The memory it is mapped to is released once the database is garbage
+   * collected.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Returns the score stored in the given data.
+   *
+   * @param data the data returned by probe().
+   * @return the stored score.
+   */
+  public static int score(long data) {
+    return (int) (data >> 32);
+  }
+
+  /**
+   * Returns the move stored in the given data.
+   *
+   * @param data the data returned by probe().
+   * @return the stored move, or -1 if there is none.
+   */
+  public static int move(long data) {
+    return (int) ((data >>> MOVE_SHIFT) & 0xFFFF) - 1;
+  }
+
+  /**
+   * Returns the depth stored in the given data.
+   *
+   * @param data the data returned by probe().
+   * @return the depth the position was searched to.
+   */
+  public static int depth(long data) {
+    return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+  }
+
+  private long bucket(long key) {
+    // the low bits of the key pick the bucket, so mix in the high bits first
+    return (key ^ (key >>> 32)) & bucketMask;
+  }
+}
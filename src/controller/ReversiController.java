@@ -1,8 +1,13 @@
 package controller;
 
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 
 import model.AIPlayer;
 import model.AxialCoords;
@@ -18,50 +23,105 @@ import view.ViewFeatures;
  * Represents the controller for a game of Reversi.
  * Implements ViewFeatures and ModelFeatures which is how
  * the controller and its counterparts flow in communication.
+ * An AI player thinks on a copy of the game on a thread of its own, and its move is played
+ * through the same command queue as the view's events, so the view stays responsive while it
+ * thinks and every change to the model happens on one thread.
  */
 public class ReversiController implements ViewFeatures, ModelFeatures {
   private final ReversiModel model;
   private final Player player;
   private final ReversiGUIView view;
+  private final Executor commands;
+  // null unless the player is an AI
+  private final ExecutorService thinker;
+  // the AI's current search, and the number that tells its result from those of older ones,
+  // both only used on the command queue
+  private Future<?> thinking;
+  private int requests;
 
   /**
    * Constructs a ReversiController. The constructor
    * sets itself as a listener for the model and view.
+   * Model changes and AI moves are handled on the Swing event dispatch thread.
    *
    * @param model the model of the Reversi game.
    * @param player the player being controlled by this controller.
    * @param view the view corresponding to this controller.
    */
   public ReversiController(Reversi model, Player player, ReversiGUIView view) {
+    this(model, player, view, SwingUtilities::invokeLater);
+  }
+
+  /**
+   * Constructs a ReversiController that handles model changes and AI moves on the given
+   * command queue. The queue must run its commands one at a time, in order, and should be the
+   * thread the view's events arrive on.
+   *
+   * @param model the model of the Reversi game.
+   * @param player the player being controlled by this controller.
+   * @param view the view corresponding to this controller.
+   * @param commands the queue that model changes are made through.
+   */
+  public ReversiController(Reversi model, Player player, ReversiGUIView view,
+                           Executor commands) {
     this.model = (ReversiModel) model;
     this.player = player;
     this.view = view;
+    this.commands = commands;
+    this.thinker = player instanceof AIPlayer ? Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "ai-" + player.getTileColor());
+      thread.setDaemon(true);
+      return thread;
+    }) : null;
 
     this.view.addFeatures(this);
     this.view.setHotKey(KeyStroke.getKeyStroke("typed m"), "makeMove");
     this.view.setHotKey(KeyStroke.getKeyStroke("typed p"), "pass");
 
     this.model.addFeatures(this);
-    makeAIMove(player.getTileColor());
+    commands.execute(this::makeAIMove);
   }
 
-
-
   @Override
   public void playerChanged(Tile currPlayer) {
     view.enablePlayerActions(player.getTileColor() == currPlayer);
-    makeAIMove(currPlayer);
+    // the model notifies before it finishes the move (an automatic pass, or the end of the
+    // game), so the AI looks at the position once the move that notified is done
+    commands.execute(this::makeAIMove);
   }
 
-  // makes the move on the board if the player changed to an AIPlayer
-  private void makeAIMove(Tile currPlayer) {
-    if (player instanceof AIPlayer && player.getTileColor() == currPlayer) {
-      Optional<AxialCoords> coords = ((AIPlayer) player).chooseNextMove();
-      if (coords.isPresent()) {
-        makeMoveFeatures(coords.get().getQ(), coords.get().getR());
-      } else {
-        passFeatures();
-      }
+  // starts choosing a move on the board if it is the AIPlayer's turn, and drops any older
+  // search, whose position is gone
+  private void makeAIMove() {
+    requests++;
+    if (thinking != null) {
+      thinking.cancel(true);
+      thinking = null;
+      view.showThinking(false);
+    }
+    if (thinker == null || model.isGameOver() || model.getTurn() != player.getTileColor()) {
+      return;
+    }
+    int request = requests;
+    Reversi position = model.copyGame();
+    view.showThinking(true);
+    thinking = thinker.submit(() -> {
+      Optional<AxialCoords> coords = ((AIPlayer) player).chooseNextMove(position);
+      commands.execute(() -> playAIMove(request, coords));
+    });
+  }
+
+  // plays the move the AIPlayer chose, unless the position changed while it was thinking
+  private void playAIMove(int request, Optional<AxialCoords> coords) {
+    if (request != requests) {
+      return;
+    }
+    thinking = null;
+    view.showThinking(false);
+    if (coords.isPresent()) {
+      makeMoveFeatures(coords.get().getQ(), coords.get().getR());
+    } else {
+      passFeatures();
     }
   }
 
@@ -2,9 +2,9 @@ package model;
 
 import java.util.Optional;
 
-import strategy.AvoidCellsNextToCorners;
-import strategy.CaptureMostPieces;
-import strategy.GoForCorners;
+import strategy.MoveFilters;
+import strategy.OpeningBook;
+import strategy.StrategyPipeline;
 
 /**
  * Represents an artificial intelligence (AI) player in a Reversi game.
@@ -13,10 +13,30 @@ public class AIPlayer implements Player {
 
   private final ReadonlyReversi model;
   private final Tile color;
+  private final OpeningBook book;
+  // avoid cells next to corners, or else go for corners, or else capture the most pieces
+  private final StrategyPipeline strategy = StrategyPipeline.firstOf(
+          MoveFilters.AVOID_NEXT_TO_CORNERS, MoveFilters.CORNERS, MoveFilters.MOST_CAPTURES);
 
   public AIPlayer(ReadonlyReversi model, Tile color) {
+    this(model, color, OpeningBook.empty());
+  }
+
+  /**
+   * Constructs an AIPlayer that plays the moves of the given opening book while the game is in
+   * it, and chooses its moves with its strategies after that.
+   * @param model the game to play in.
+   * @param color the color of the player.
+   * @param book  the opening book.
+   * @throws IllegalArgumentException if the book is null.
+   */
+  public AIPlayer(ReadonlyReversi model, Tile color, OpeningBook book) {
+    if (book == null) {
+      throw new IllegalArgumentException("Book cannot be null");
+    }
     this.model = model;
     this.color = color;
+    this.book = book;
   }
 
   @Override
@@ -25,26 +45,29 @@ public class AIPlayer implements Player {
   }
 
   /**
-   * Relies on the implemented strategies to choose the next best move for this player.
+   * Relies on the opening book and then the implemented strategies to choose the next best move
+   * for this player.
    * If no move is returned, then the player does not currently have any legal moves or
    * the game is over.
    * @return Coordinates of the AI player's next move, or Optional.empty() if no moves exist.
    */
   public Optional<AxialCoords> chooseNextMove() {
-    AvoidCellsNextToCorners strat1 = new AvoidCellsNextToCorners();
-    GoForCorners strat2 = new GoForCorners();
-    CaptureMostPieces strat3 = new CaptureMostPieces();
-
-    if (strat1.chooseMove(model, color).isPresent()) {
-      return strat1.chooseMove(model, color);
-    } else if (strat2.chooseMove(model, color).isPresent()) {
-      return strat2.chooseMove(model, color);
-    } else if (strat3.chooseMove(model, color).isPresent()) {
-      return strat3.chooseMove(model, color);
-    } else {
-      // in the controller if the move that is returned is empty then it does not have any
-      // more moves and should pass or game should be over
-      return Optional.empty();
+    // in the controller if the move that is returned is empty then it does not have any
+    // more moves and should pass or game should be over
+    return chooseNextMove(model);
+  }
+
+  /**
+   * Chooses this player's next move in the given position instead of the game it plays in, so
+   * that it can think on a copy of the game while the game itself stays with the GUI.
+   * @param position the position to choose a move in.
+   * @return Coordinates of the AI player's next move, or Optional.empty() if no moves exist.
+   */
+  public Optional<AxialCoords> chooseNextMove(ReadonlyReversi position) {
+    Optional<AxialCoords> bookMove = book.chooseMove(position, color);
+    if (bookMove.isPresent()) {
+      return bookMove;
     }
+    return strategy.chooseMove(position, color);
   }
 }
@@ -0,0 +1,164 @@
+package model;
+
+/**
+ * An immutable copy of a Reversi position, which a model publishes every time its game changes.
+ * A snapshot can be read from any thread without locks, and it stays the same however the game
+ * goes on, so a view can draw a whole frame, or a strategy think about a whole position, without
+ * copying the board first. The board is stored in rows that are never written once published,
+ * and the snapshot after a move only copies the rows that the move changed, sharing the others
+ * with the snapshot before it. The snapshot after a pass shares every row.
+ */
+public final class BoardSnapshot {
+  private final int sideLen;
+  // row indexing and column indexing are the same as in the model's board, with null for cells
+  // that aren't on a hexagonal board
+  private final Tile[][] rows;
+  private final Tile turn;
+  private final boolean gameOver;
+  private final int blackScore;
+  private final int whiteScore;
+  private final long hash;
+
+  private BoardSnapshot(int sideLen, Tile[][] rows, Tile turn, boolean gameOver,
+                        int blackScore, int whiteScore, long hash) {
+    this.sideLen = sideLen;
+    this.rows = rows;
+    this.turn = turn;
+    this.gameOver = gameOver;
+    this.blackScore = blackScore;
+    this.whiteScore = whiteScore;
+    this.hash = hash;
+  }
+
+  // takes a snapshot of the given board, which must not be changed afterward
+  static BoardSnapshot of(int sideLen, Tile[][] board, Tile turn, boolean gameOver, long hash) {
+    int blackScore = 0;
+    int whiteScore = 0;
+    for (Tile[] row : board) {
+      for (Tile tile : row) {
+        if (tile == Tile.BLACK) {
+          blackScore++;
+        } else if (tile == Tile.WHITE) {
+          whiteScore++;
+        }
+      }
+    }
+    return new BoardSnapshot(sideLen, board, turn, gameOver, blackScore, whiteScore, hash);
+  }
+
+  // takes a snapshot of the given board, which differs from this snapshot's only in the given
+  // cells, packed as row * boardLen + col. Only the rows of those cells are copied.
+  BoardSnapshot afterMove(Tile[][] board, int[] cells, int numCells, Tile turn,
+                          boolean gameOver, long hash) {
+    Tile[][] next = rows.clone();
+    int blackScore = this.blackScore;
+    int whiteScore = this.whiteScore;
+    for (int i = 0; i < numCells; i++) {
+      int row = cells[i] / rows.length;
+      int col = cells[i] % rows.length;
+      // a row that is still shared hasn't been copied by an earlier cell
+      if (next[row] == rows[row]) {
+        next[row] = board[row].clone();
+      }
+      Tile before = rows[row][col];
+      Tile after = board[row][col];
+      blackScore += (after == Tile.BLACK ? 1 : 0) - (before == Tile.BLACK ? 1 : 0);
+      whiteScore += (after == Tile.WHITE ? 1 : 0) - (before == Tile.WHITE ? 1 : 0);
+    }
+    return new BoardSnapshot(sideLen, next, turn, gameOver, blackScore, whiteScore, hash);
+  }
+
+  // takes a snapshot of the same board with another player to move
+  BoardSnapshot afterPass(Tile turn, boolean gameOver, long hash) {
+    return new BoardSnapshot(sideLen, rows, turn, gameOver, blackScore, whiteScore, hash);
+  }
+
+  /**
+   * Returns the tile at the given coordinates, in the same coordinates as the model's.
+   *
+   * @param row the row of the tile.
+   * @param col the column of the tile.
+   * @return the tile, or null if the cell isn't on the board.
+   * @throws IllegalArgumentException if the coordinates are outside the board's array.
+   */
+  public Tile getTileAt(int row, int col) {
+    if (row < 0 || row >= rows.length || col < 0 || col >= rows.length) {
+      throw new IllegalArgumentException("Coordinates are outside the board.");
+    }
+    return rows[row][col];
+  }
+
+  /**
+   * Returns a copy of the board, in the same form as the model's copyGameBoard().
+   *
+   * @return the copy.
+   */
+  public Tile[][] copyBoard() {
+    Tile[][] copy = new Tile[rows.length][];
+    for (int i = 0; i < rows.length; i++) {
+      copy[i] = rows[i].clone();
+    }
+    return copy;
+  }
+
+  /**
+   * Returns the player to move, or the player who would have been to move if the game is over.
+   *
+   * @return the player to move.
+   */
+  public Tile getTurn() {
+    return turn;
+  }
+
+  /**
+   * Returns whether the game was over in this position.
+   *
+   * @return true if the game was over.
+   */
+  public boolean isGameOver() {
+    return gameOver;
+  }
+
+  /**
+   * Returns the number of tiles of the given player.
+   *
+   * @param player the player.
+   * @return the player's score.
+   * @throws IllegalArgumentException if the given player is Tile.EMPTY.
+   */
+  public int getScore(Tile player) {
+    if (player == Tile.BLACK) {
+      return blackScore;
+    } else if (player == Tile.WHITE) {
+      return whiteScore;
+    }
+    throw new IllegalArgumentException("Only players have a score.");
+  }
+
+  /**
+   * Returns the number of tiles per side of the board.
+   *
+   * @return the side length.
+   */
+  public int getSideLen() {
+    return sideLen;
+  }
+
+  /**
+   * Returns the length of the board's array, as in the model's getBoardLen().
+   *
+   * @return the board length.
+   */
+  public int getBoardLen() {
+    return rows.length;
+  }
+
+  /**
+   * Returns the model's positionHash() in this position.
+   *
+   * @return the position hash.
+   */
+  public long positionHash() {
+    return hash;
+  }
+}
@@ -0,0 +1,82 @@
+package model;
+
+/**
+ * A position in its canonical orientation, as found by Symmetry.canonicalize(): the hash of the
+ * position once the canonical symmetry is applied, and that symmetry, which maps moves between
+ * the game as it is played and the canonical orientation. Equivalent positions have the same
+ * hash, so a cache keyed by it stores moves in the canonical orientation, with toCanonical(), and
+ * reads them back with toOriginal().
+ */
+public final class CanonicalPosition {
+  private final Symmetry symmetry;
+  private final long hash;
+  // bit t is set for every symmetry t that gives the canonical hash
+  private final int transforms;
+  private final int transform;
+
+  CanonicalPosition(Symmetry symmetry, long hash, int transforms) {
+    this.symmetry = symmetry;
+    this.hash = hash;
+    this.transforms = transforms;
+    this.transform = Integer.numberOfTrailingZeros(transforms);
+  }
+
+  /**
+   * Returns the hash of the canonical position, which every equivalent position shares.
+   *
+   * @return the hash, as positionHash() would give for the canonical position.
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns the symmetry that maps the position to its canonical orientation. If several do, as
+   * they do for a symmetric position, it is the smallest of them.
+   *
+   * @return the symmetry, as numbered by Symmetry.
+   */
+  public int getTransform() {
+    return transform;
+  }
+
+  /**
+   * Maps a move in the game to the canonical orientation. In a symmetric position, moves that
+   * the position's own symmetries map onto each other lead to equivalent positions, and are all
+   * mapped to the same move.
+   *
+   * @param move the move, packed as row * boardLen + col, or Reversi.PASS.
+   * @return the move in the canonical orientation.
+   * @throws IllegalArgumentException if the move isn't on the board.
+   */
+  public int toCanonical(int move) {
+    return smallestImage(move, false);
+  }
+
+  /**
+   * Maps a move in the canonical orientation back to the game. In a symmetric position, where
+   * several equivalent moves map to the same canonical move, this gives the smallest of them, so
+   * the answer depends only on the position and not on the Zobrist keys that chose the
+   * canonical orientation.
+   *
+   * @param move the move in the canonical orientation, packed as row * boardLen + col, or
+   *             Reversi.PASS.
+   * @return the move in the game.
+   * @throws IllegalArgumentException if the move isn't on the board.
+   */
+  public int toOriginal(int move) {
+    return smallestImage(move, true);
+  }
+
+  // maps the move by every symmetry that gives the canonical hash, or by their inverses, and
+  // returns the smallest of its images. For a position that isn't symmetric there is only one.
+  private int smallestImage(int move, boolean inverse) {
+    int smallest = Integer.MAX_VALUE;
+    for (int rest = transforms; rest != 0; rest &= rest - 1) {
+      int t = Integer.numberOfTrailingZeros(rest);
+      smallest = Math.min(smallest,
+              symmetry.transformCell(inverse ? symmetry.inverse(t) : t, move));
+    }
+    return smallest;
+  }
+}
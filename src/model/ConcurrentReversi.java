@@ -0,0 +1,256 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A Reversi game that many threads can read while one thread plays it, such as a game thread
+ * with spectators and analysis threads watching. It wraps another Reversi implementation, which
+ * must not be used directly once wrapped.
+ *
+ * <p>Moves take a StampedLock's write lock. Readers never take a lock: every thread queries its
+ * own copy of the game, which it refreshes after the game changes by copying the game under an
+ * optimistic read, and trying again if a move was made while it copied. So a reader never
+ * blocks the player, and never sees a move half made. Each query is consistent on its own; a
+ * thread that needs several answers about the same position should ask copyGame() or
+ * getSnapshot() once and read those.
+ *
+ * <p>A thread's copy is kept until it calls releaseReader(), which a thread that is done with the
+ * game should do. Listeners are notified after the lock is released, once the move (and any
+ * automatic pass it causes) is complete, so they can query the game. pushMove() and popMove()
+ * take the write lock like makeMove(), but a search belongs on a copy of the game rather than on
+ * the game everyone reads.
+ */
+public final class ConcurrentReversi implements Reversi {
+  private final Reversi game;
+  private final StampedLock lock = new StampedLock();
+  private final List<ModelFeatures> listeners = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<Replica> replicas = ThreadLocal.withInitial(Replica::new);
+
+  // a thread's copy of the game, and the stamp of the optimistic read it was copied under,
+  // which stays valid until the next move
+  private static final class Replica {
+    private Reversi game;
+    private long stamp;
+  }
+
+  /**
+   * Constructs a ConcurrentReversi around the given game, started or not.
+   *
+   * @param game the game to share between threads.
+   * @throws IllegalArgumentException if the game is null.
+   */
+  public ConcurrentReversi(Reversi game) {
+    if (game == null) {
+      throw new IllegalArgumentException("Game cannot be null");
+    }
+    this.game = game;
+  }
+
+  /**
+   * Adds a listener that is told the player to move after every startGame(), makeMove() and
+   * pass(), on the thread that called it.
+   *
+   * @param listener the listener.
+   */
+  public void addFeatures(ModelFeatures listener) {
+    listeners.add(listener);
+  }
+
+  private void notifyListeners() {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    BoardSnapshot snapshot = game.getSnapshot();
+    for (ModelFeatures listener : listeners) {
+      listener.playerChanged(snapshot.getTurn());
+    }
+  }
+
+  // returns this thread's copy of the game, copying the game again if it has changed since
+  private Reversi replica() {
+    Replica replica = replicas.get();
+    if (replica.game != null && lock.validate(replica.stamp)) {
+      return replica.game;
+    }
+    while (true) {
+      long stamp = lock.tryOptimisticRead();
+      // the stamp is 0 while a move is being made
+      if (stamp != 0) {
+        try {
+          Reversi copy = game.copyGame();
+          if (lock.validate(stamp)) {
+            replica.game = copy;
+            replica.stamp = stamp;
+            return copy;
+          }
+        } catch (RuntimeException e) {
+          // a copy of a game in the middle of a move can fail in any way, but one made while
+          // no move was made failed for a real reason, such as the game not being started
+          if (lock.validate(stamp)) {
+            throw e;
+          }
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  @Override
+  public void startGame() throws IllegalStateException {
+    long stamp = lock.writeLock();
+    try {
+      game.startGame();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public void pass() throws IllegalStateException {
+    long stamp = lock.writeLock();
+    try {
+      game.pass();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    notifyListeners();
+  }
+
+  @Override
+  public void makeMove(int row, int col) throws IllegalStateException, IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      game.makeMove(row, col);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Plays a move that can be taken back, under the write lock like makeMove(), so readers see
+   * the game with the move made. Listeners are not notified, as with any pushed move. A search
+   * should still run on a copy of the game: every pushed move makes each reader copy the game
+   * again.
+   */
+  @Override
+  public void pushMove(int move) throws IllegalStateException, IllegalArgumentException {
+    long stamp = lock.writeLock();
+    try {
+      game.pushMove(move);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Takes back the last pushed move, under the write lock like pushMove().
+   */
+  @Override
+  public void popMove() throws IllegalStateException {
+    long stamp = lock.writeLock();
+    try {
+      game.popMove();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Forgets the calling thread's copy of the game. A thread that has finished reading the game,
+   * such as a pooled thread that goes on to other work, should call this, since otherwise the
+   * copy stays reachable for as long as the thread lives. Reading the game again afterwards
+   * simply makes a new copy.
+   */
+  public void releaseReader() {
+    replicas.remove();
+  }
+
+  @Override
+  public boolean isGameOver() throws IllegalStateException {
+    return replica().isGameOver();
+  }
+
+  @Override
+  public Tile getTurn() throws IllegalStateException {
+    return replica().getTurn();
+  }
+
+  @Override
+  public Tile getTileAt(int row, int col) throws IllegalStateException, IllegalArgumentException {
+    return replica().getTileAt(row, col);
+  }
+
+  @Override
+  public Tile getWinner() throws IllegalStateException {
+    return replica().getWinner();
+  }
+
+  @Override
+  public int getSideLen() {
+    return game.getSideLen();
+  }
+
+  @Override
+  public int getBoardLen() {
+    return game.getBoardLen();
+  }
+
+  @Override
+  public int legalMoves(Tile player, int[] out) {
+    return replica().legalMoves(player, out);
+  }
+
+  @Override
+  public boolean isLegalMove(int row, int col) {
+    return replica().isLegalMove(row, col);
+  }
+
+  @Override
+  public int getScore(Tile player) {
+    return replica().getScore(player);
+  }
+
+  @Override
+  public int tilesOf(Tile player, int[] out) {
+    return replica().tilesOf(player, out);
+  }
+
+  @Override
+  public boolean currentPlayerHasLegalMove() {
+    return replica().currentPlayerHasLegalMove();
+  }
+
+  @Override
+  public int getScoreOfMove(int row, int col, Tile player) {
+    return replica().getScoreOfMove(row, col, player);
+  }
+
+  @Override
+  public List<int[]> getNeighbors(int row, int col) {
+    return replica().getNeighbors(row, col);
+  }
+
+  @Override
+  public Tile[][] copyGameBoard() {
+    return replica().copyGameBoard();
+  }
+
+  @Override
+  public Reversi copyGame() {
+    return replica().copyGame();
+  }
+
+  @Override
+  public long positionHash() {
+    return replica().positionHash();
+  }
+
+  @Override
+  public BoardSnapshot getSnapshot() {
+    return replica().getSnapshot();
+  }
+}
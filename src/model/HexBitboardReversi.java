@@ -0,0 +1,661 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a bitboard implementation of a hexagonal Reversi game. It follows the same rules
+ * and coordinate system as ReversiModel, but the board is stored as two occupancy masks (one per
+ * color) packed into long arrays, and legal moves are generated for every cell at once by flood
+ * filling along the six axial directions.
+ */
+public class HexBitboardReversi implements Reversi {
+  private boolean gameStarted = false;
+  private boolean isGameOver = false;
+  private Tile turn;
+  // INVARIANT: turn is never Tile.EMPTY
+  private final int sideLen;
+  private int numPassInARow = 0;
+  private final List<ModelFeatures> listeners = new ArrayList<>();
+  private final Zobrist zobrist;
+  private long hash;
+  // the game as of the last startGame(), makeMove() or pass(), for readers on any thread, or
+  // null while snapshots are turned off
+  private volatile BoardSnapshot snapshot;
+  private boolean publishesSnapshots = true;
+
+  // the board is laid out row by row in the same (row, col) system as ReversiModel, with one
+  // extra padding column at the end of every row. Cell (row, col) is bit row * width + col.
+  // The padding column is never playable, so any shift that wraps around the end of a row lands
+  // on it and gets masked out, which means no per-direction edge masks are needed.
+  private final int boardLen;
+  private final int width;
+  private final int words;
+  private final long[] playable;
+  private final long[] black;
+  private final long[] white;
+  // bit offsets of the six neighbors, ordered top left going clockwise like ReversiModel
+  private final int[] directions;
+
+  // scratch space reused by the flood fill so that move generation does not allocate.
+  // moves holds the legal moves of movesFor, or is stale if movesFor is null
+  private final long[] moves;
+  private Tile movesFor;
+  private final long[] ray;
+  private final long[] step;
+
+  // undo stack for pushMove() and popMove(), with one entry per pushed ply. Each ply's flipped
+  // tiles are stored as a mask of words longs starting at ply * words in historyFlips.
+  private final int[] historyMoves;
+  private final Tile[] historyTurns;
+  private final int[] historyPasses;
+  private final long[] historyFlips;
+  private final long[] historyHashes;
+  private int historySize = 0;
+
+  /**
+   * Constructs a HexBitboardReversi with the given side length.
+   *
+   * @param sideLen the number of tiles per side of the hexagon model.
+   * @throws IllegalArgumentException if the given sideLen is less than 3.
+   */
+  public HexBitboardReversi(int sideLen) {
+    if (sideLen < 3) {
+      throw new IllegalArgumentException("Size of board cannot be less than 3");
+    }
+    this.sideLen = sideLen;
+    this.boardLen = sideLen + sideLen - 1;
+    this.width = boardLen + 1;
+    this.words = (boardLen * width + 63) >>> 6;
+    this.playable = new long[words];
+    this.black = new long[words];
+    this.white = new long[words];
+    this.moves = new long[words];
+    this.ray = new long[words];
+    this.step = new long[words];
+    this.directions = new int[] {-width, -width + 1, 1, width, width - 1, -1};
+
+    // every pushed move fills a cell and there can't be two pushed passes in a row
+    // before the game ends, so the stack never holds more than two plies per cell
+    int maxPlies = 2 * boardLen * boardLen + 2;
+    this.historyMoves = new int[maxPlies];
+    this.historyTurns = new Tile[maxPlies];
+    this.historyPasses = new int[maxPlies];
+    this.historyFlips = new long[maxPlies * words];
+    this.historyHashes = new long[maxPlies];
+    this.zobrist = Zobrist.forCells(boardLen * boardLen, true);
+
+    // the same hexagon that ReversiModel fills with EMPTY tiles
+    for (int row = 0; row < boardLen; row++) {
+      int startCol = Math.max(0, sideLen - 1 - row);
+      int endCol = Math.min(boardLen, boardLen + sideLen - 1 - row);
+      for (int col = startCol; col < endCol; col++) {
+        setBit(playable, bitOf(row, col));
+      }
+    }
+  }
+
+  private void notifyListenersOnActivePlayerChanged() {
+    for (ModelFeatures listener : listeners) {
+      listener.playerChanged(turn);
+    }
+  }
+
+  public void addFeatures(ModelFeatures listener) {
+    listeners.add(listener);
+  }
+
+  private void throwIfGameHasNotStarted() throws IllegalStateException {
+    if (!gameStarted) {
+      throw new IllegalStateException("Game has not started.");
+    }
+  }
+
+  private void throwIfGameIsOver() throws IllegalStateException {
+    if (isGameOver) {
+      throw new IllegalStateException("Game is over.");
+    }
+  }
+
+  @Override
+  public void startGame() {
+    if (!gameStarted) {
+      gameStarted = true;
+    } else {
+      throw new IllegalStateException();
+    }
+
+    turn = Tile.BLACK;
+    placeTile(bitOf(sideLen - 2, sideLen - 1), Tile.BLACK);
+    placeTile(bitOf(sideLen - 1, sideLen), Tile.BLACK);
+    placeTile(bitOf(sideLen, sideLen - 2), Tile.BLACK);
+    placeTile(bitOf(sideLen - 2, sideLen), Tile.WHITE);
+    placeTile(bitOf(sideLen - 1, sideLen - 2), Tile.WHITE);
+    placeTile(bitOf(sideLen, sideLen - 1), Tile.WHITE);
+    publish();
+    notifyListenersOnActivePlayerChanged();
+  }
+
+  @Override
+  public void pass() {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    historySize = 0;
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+
+    // keeps track of how many times pass was called in a row
+    if (numPassInARow == 0) {
+      numPassInARow++;
+    } else if (numPassInARow == 1) {
+      isGameOver = true;
+    }
+    publish();
+    notifyListenersOnActivePlayerChanged();
+  }
+
+  @Override
+  public void makeMove(int row, int col) {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    if (isOutOfBounds(row, col)) {
+      throw new IllegalArgumentException("Move is out of bounds.");
+    }
+    int bit = bitOf(row, col);
+    if (testBit(black, bit) || testBit(white, bit)) {
+      throw new IllegalStateException("This tile is not empty");
+    }
+    long[] own = ownMask(turn);
+    long[] opp = ownMask(turn.getOpposite());
+    if (flip(bit, own, opp, false) == 0) {
+      throw new IllegalStateException("This is an illegal move");
+    }
+
+    historySize = 0;
+
+    // place the tile and update the necessary tiles to their new color
+    flip(bit, own, opp, true);
+    placeTile(bit, turn);
+    movesFor = null;
+
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+    boolean mustPass = !validMoveExists(turn);
+    if (!mustPass) {
+      numPassInARow = 0;
+    }
+    // listeners see the move in the game and its snapshot before the other player passes
+    publish();
+    notifyListenersOnActivePlayerChanged();
+
+    // calls pass on the other player if they have no valid moves
+    if (mustPass) {
+      pass();
+    }
+  }
+
+  @Override
+  public void pushMove(int move) {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+
+    int ply = historySize;
+    historyMoves[ply] = move;
+    historyTurns[ply] = turn;
+    historyPasses[ply] = numPassInARow;
+    historyHashes[ply] = hash;
+
+    if (move == PASS) {
+      numPassInARow++;
+      isGameOver = numPassInARow == 2;
+    } else {
+      int row = move / boardLen;
+      int col = move % boardLen;
+      if (move < 0 || isOutOfBounds(row, col)) {
+        throw new IllegalArgumentException("Move is out of bounds.");
+      }
+      int bit = bitOf(row, col);
+      long[] own = ownMask(turn);
+      long[] opp = ownMask(turn.getOpposite());
+      if (testBit(own, bit) || testBit(opp, bit) || flip(bit, own, opp, false) == 0) {
+        throw new IllegalStateException("This is an illegal move");
+      }
+      // the flipped tiles are the opponent tiles that are gone after flipping
+      int base = ply * words;
+      System.arraycopy(opp, 0, historyFlips, base, words);
+      flip(bit, own, opp, true);
+      for (int i = 0; i < words; i++) {
+        historyFlips[base + i] ^= opp[i];
+      }
+      placeTile(bit, turn);
+      movesFor = null;
+      numPassInARow = 0;
+    }
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+    historySize++;
+  }
+
+  @Override
+  public void popMove() {
+    if (historySize == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+
+    int ply = --historySize;
+    int move = historyMoves[ply];
+    Tile mover = historyTurns[ply];
+    if (move != PASS) {
+      long[] own = ownMask(mover);
+      long[] opp = ownMask(mover.getOpposite());
+      int base = ply * words;
+      for (int i = 0; i < words; i++) {
+        own[i] &= ~historyFlips[base + i];
+        opp[i] |= historyFlips[base + i];
+      }
+      clearBit(own, bitOf(move / boardLen, move % boardLen));
+      movesFor = null;
+    }
+    turn = mover;
+    numPassInARow = historyPasses[ply];
+    hash = historyHashes[ply];
+    isGameOver = false;
+  }
+
+  @Override
+  public Reversi copyGame() {
+    throwIfGameHasNotStarted();
+
+    HexBitboardReversi copy = new HexBitboardReversi(sideLen);
+    copy.gameStarted = true;
+    copy.isGameOver = isGameOver;
+    System.arraycopy(black, 0, copy.black, 0, words);
+    System.arraycopy(white, 0, copy.white, 0, words);
+    copy.turn = turn;
+    copy.numPassInARow = numPassInARow;
+    copy.hash = hash;
+    copy.snapshot = snapshot;
+    copy.publishesSnapshots = publishesSnapshots;
+    return copy;
+  }
+
+  @Override
+  public Tile[][] copyGameBoard() {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    return boardTiles();
+  }
+
+  private Tile[][] boardTiles() {
+    Tile[][] boardCopy = new Tile[boardLen][boardLen];
+    for (int i = 0; i < boardLen; i++) {
+      for (int j = 0; j < boardLen; j++) {
+        if (!isOutOfBounds(i, j)) {
+          boardCopy[i][j] = tileAtBit(bitOf(i, j));
+        }
+      }
+    }
+    return boardCopy;
+  }
+
+  // takes the snapshot of the game that getSnapshot() returns, once a move is complete
+  private void publish() {
+    snapshot = publishesSnapshots ? BoardSnapshot.of(sideLen, boardTiles(), turn, isGameOver(), hash)
+            : null;
+  }
+
+  // returns an ordered list starting at top left going clockwise
+  @Override
+  public List<int[]> getNeighbors(int row, int col) {
+    List<int[]> neighbors = new ArrayList<>();
+    int[] rowOffsets = {-1, -1, 0, 1, 1, 0};
+    int[] colOffsets = {0, 1, 1, 0, -1, -1};
+    for (int i = 0; i < 6; i++) {
+      int neighborRow = row + rowOffsets[i];
+      int neighborCol = col + colOffsets[i];
+      if (!isOutOfBounds(neighborRow, neighborCol)) {
+        neighbors.add(new int[] {neighborRow, neighborCol});
+      }
+    }
+    return neighbors;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    throwIfGameHasNotStarted();
+    if (isGameOver) {
+      return true;
+    }
+    return !validMoveExists(turn) && !validMoveExists(turn.getOpposite());
+  }
+
+  @Override
+  public Tile getTurn() {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    return turn;
+  }
+
+  @Override
+  public Tile getTileAt(int row, int col) {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    if (isOutOfBounds(row, col)) {
+      throw new IllegalArgumentException();
+    }
+    return tileAtBit(bitOf(row, col));
+  }
+
+  @Override
+  public Tile getWinner() {
+    throwIfGameHasNotStarted();
+    if (!isGameOver()) {
+      throw new IllegalStateException();
+    }
+
+    int scoreWhite = getScore(Tile.WHITE);
+    int scoreBlack = getScore(Tile.BLACK);
+
+    if (scoreWhite > scoreBlack) {
+      return Tile.WHITE;
+    } else if (scoreWhite < scoreBlack) {
+      return Tile.BLACK;
+    } else {
+      throw new IllegalStateException("There is no winner. Game ended in a draw.");
+    }
+  }
+
+  @Override
+  public int getSideLen() {
+    return sideLen;
+  }
+
+  @Override
+  public long positionHash() {
+    throwIfGameHasNotStarted();
+    return hash;
+  }
+
+  /**
+   * Turns the snapshots taken after every startGame(), makeMove() and pass() on or off. They are
+   * on unless turned off; replaying recorded games turns them off, since taking a snapshot of
+   * every position costs more than playing the move. While they are off, getSnapshot() throws
+   * IllegalStateException. Turning them on takes a snapshot of the game at once. Like a move,
+   * this must be done on the thread that plays the game.
+   *
+   * @param published whether to take snapshots.
+   * @throws IllegalStateException if snapshots are turned on while plies are pushed, since the
+   *                               board is then not the game's.
+   */
+  public void setSnapshotsPublished(boolean published) {
+    if (published && historySize > 0) {
+      throw new IllegalStateException("Cannot take a snapshot while plies are pushed");
+    }
+    publishesSnapshots = published;
+    if (gameStarted) {
+      publish();
+    }
+  }
+
+  /**
+   * Returns the snapshot of the game, which can be read from any thread.
+   *
+   * @throws IllegalStateException if the game hasn't been started yet, or snapshots are turned
+   *                               off.
+   */
+  @Override
+  public BoardSnapshot getSnapshot() {
+    throwIfGameHasNotStarted();
+    BoardSnapshot published = snapshot;
+    if (published == null) {
+      throw new IllegalStateException("Snapshots are turned off");
+    }
+    return published;
+  }
+
+  @Override
+  public int getBoardLen() {
+    return boardLen;
+  }
+
+  @Override
+  public int legalMoves(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+    if (isGameOver) {
+      return 0;
+    }
+
+    generateMoves(player);
+    int count = 0;
+    for (int i = 0; i < words; i++) {
+      long word = moves[i];
+      while (word != 0) {
+        int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+        out[count++] = cellOf(bit);
+        word &= word - 1;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public boolean isLegalMove(int row, int col) {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    if (isOutOfBounds(row, col)) {
+      return false;
+    }
+    generateMoves(turn);
+    return testBit(moves, bitOf(row, col));
+  }
+
+  @Override
+  public int getScore(Tile player) {
+    throwIfGameHasNotStarted();
+    return popCount(player == Tile.WHITE ? white : black);
+  }
+
+  @Override
+  public int tilesOf(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+
+    long[] tiles = player == Tile.WHITE ? white : black;
+    int count = 0;
+    for (int i = 0; i < words; i++) {
+      long word = tiles[i];
+      while (word != 0) {
+        out[count++] = cellOf((i << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public boolean currentPlayerHasLegalMove() {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+
+    return validMoveExists(turn);
+  }
+
+  @Override
+  public int getScoreOfMove(int row, int col, Tile player) {
+    if (isOutOfBounds(row, col)) {
+      return 0;
+    }
+    return flip(bitOf(row, col), ownMask(player), ownMask(player.getOpposite()), false);
+  }
+
+  // checks if any moves are possible for the given player
+  private boolean validMoveExists(Tile player) {
+    generateMoves(player);
+    for (int i = 0; i < words; i++) {
+      if (moves[i] != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // fills moves with every empty cell that captures at least one tile for the given player.
+  // For each direction, the run of opponent tiles adjacent to own tiles is grown one step at a
+  // time until it stops changing; the empty cells one step past the run are legal moves.
+  private void generateMoves(Tile player) {
+    if (movesFor == player) {
+      return;
+    }
+    long[] own = ownMask(player);
+    long[] opp = ownMask(player.getOpposite());
+    for (int i = 0; i < words; i++) {
+      moves[i] = 0;
+    }
+    for (int dir : directions) {
+      shift(own, dir, ray);
+      boolean grew = and(ray, opp);
+      while (grew) {
+        shift(ray, dir, step);
+        grew = false;
+        for (int i = 0; i < words; i++) {
+          long next = step[i] & opp[i] & ~ray[i];
+          if (next != 0) {
+            ray[i] |= next;
+            grew = true;
+          }
+        }
+      }
+      shift(ray, dir, step);
+      for (int i = 0; i < words; i++) {
+        moves[i] |= step[i] & playable[i] & ~(own[i] | opp[i]);
+      }
+    }
+    movesFor = player;
+  }
+
+  // walks each direction from the given bit and counts the opponent tiles that would be
+  // captured by own playing there. If apply is true, the captured tiles are also flipped.
+  private int flip(int bit, long[] own, long[] opp, boolean apply) {
+    int total = 0;
+    for (int dir : directions) {
+      int curr = bit + dir;
+      int run = 0;
+      while (isPlayableBit(curr) && testBit(opp, curr)) {
+        curr += dir;
+        run++;
+      }
+      if (run > 0 && isPlayableBit(curr) && testBit(own, curr)) {
+        total += run;
+        if (apply) {
+          for (int b = bit + dir; b != curr; b += dir) {
+            clearBit(opp, b);
+            setBit(own, b);
+            hash ^= zobrist.flipKey(cellOf(b));
+          }
+        }
+      }
+    }
+    return total;
+  }
+
+  // shifts src by the given number of bits (positive towards higher bits) into dst
+  private void shift(long[] src, int amount, long[] dst) {
+    if (amount >= 0) {
+      int wordShift = amount >>> 6;
+      int bitShift = amount & 63;
+      for (int i = words - 1; i >= 0; i--) {
+        int j = i - wordShift;
+        long value = 0;
+        if (j >= 0) {
+          value = src[j] << bitShift;
+          if (bitShift != 0 && j > 0) {
+            value |= src[j - 1] >>> (64 - bitShift);
+          }
+        }
+        dst[i] = value;
+      }
+    } else {
+      int wordShift = (-amount) >>> 6;
+      int bitShift = (-amount) & 63;
+      for (int i = 0; i < words; i++) {
+        int j = i + wordShift;
+        long value = 0;
+        if (j < words) {
+          value = src[j] >>> bitShift;
+          if (bitShift != 0 && j + 1 < words) {
+            value |= src[j + 1] << (64 - bitShift);
+          }
+        }
+        dst[i] = value;
+      }
+    }
+  }
+
+  // dst &= mask, returns true if anything is left in dst
+  private boolean and(long[] dst, long[] mask) {
+    boolean any = false;
+    for (int i = 0; i < words; i++) {
+      dst[i] &= mask[i];
+      any |= dst[i] != 0;
+    }
+    return any;
+  }
+
+  // puts a tile of the given color on an empty bit and updates the position hash to match
+  private void placeTile(int bit, Tile tile) {
+    setBit(ownMask(tile), bit);
+    hash ^= zobrist.key(cellOf(bit), tile);
+  }
+
+  // converts a bit index to a cell packed as row * boardLen + col
+  private int cellOf(int bit) {
+    return (bit / width) * boardLen + bit % width;
+  }
+
+  private long[] ownMask(Tile player) {
+    return player == Tile.WHITE ? white : black;
+  }
+
+  private Tile tileAtBit(int bit) {
+    if (testBit(black, bit)) {
+      return Tile.BLACK;
+    } else if (testBit(white, bit)) {
+      return Tile.WHITE;
+    }
+    return Tile.EMPTY;
+  }
+
+  private int bitOf(int row, int col) {
+    return row * width + col;
+  }
+
+  private boolean isOutOfBounds(int row, int col) {
+    if (row < 0 || row >= boardLen || col >= boardLen || col < 0) {
+      return true;
+    }
+    return !testBit(playable, bitOf(row, col));
+  }
+
+  private boolean isPlayableBit(int bit) {
+    return bit >= 0 && bit < boardLen * width && testBit(playable, bit);
+  }
+
+  private static boolean testBit(long[] mask, int bit) {
+    return (mask[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  private static void setBit(long[] mask, int bit) {
+    mask[bit >>> 6] |= 1L << bit;
+  }
+
+  private static void clearBit(long[] mask, int bit) {
+    mask[bit >>> 6] &= ~(1L << bit);
+  }
+
+  private static int popCount(long[] mask) {
+    int count = 0;
+    for (long word : mask) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,110 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the positions reachable from a position in a given number of plies (perft), to check
+ * that a Reversi implementation generates exactly the right moves and to measure how fast it
+ * does. Every legal move is one ply, and so is a forced pass, when the player to move has no
+ * legal move but the opponent does. A game that ends before the given depth (neither player can
+ * move) counts as one position. Two implementations that agree on perft at every depth agree on
+ * which moves are legal in every position they reach.
+ */
+public final class Perft {
+  private Perft() {
+  }
+
+  /**
+   * Counts the positions reachable from the given game in exactly the given number of plies.
+   * The given game is not changed.
+   *
+   * @param model the position to start from.
+   * @param depth the number of plies.
+   * @return the number of positions.
+   * @throws IllegalArgumentException if the depth is negative.
+   * @throws IllegalStateException    if the game hasn't been started yet.
+   */
+  public static long perft(ReadonlyReversi model, int depth) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth cannot be negative");
+    }
+    Reversi game = model.copyGame();
+    return count(game, depth, buffers(game, depth), 0);
+  }
+
+  /**
+   * Counts the positions reachable in the given number of plies separately for every first
+   * move, which narrows down where two implementations disagree.
+   *
+   * @param model the position to start from.
+   * @param depth the number of plies, at least 1.
+   * @return the number of positions after each first move, in the order of legalMoves(), keyed
+   *         by the move packed as row * boardLen + col, or by Reversi.PASS for a forced pass.
+   *         The map is empty if the game is over.
+   * @throws IllegalArgumentException if the depth is not positive.
+   * @throws IllegalStateException    if the game hasn't been started yet.
+   */
+  public static Map<Integer, Long> divide(ReadonlyReversi model, int depth) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("Depth must be positive");
+    }
+    Reversi game = model.copyGame();
+    Map<Integer, Long> counts = new LinkedHashMap<>();
+    if (game.isGameOver()) {
+      return counts;
+    }
+    int[][] buffers = buffers(game, depth);
+    int[] moves = buffers[0];
+    Tile turn = game.getTurn();
+    int numMoves = game.legalMoves(turn, moves);
+    if (numMoves == 0) {
+      if (game.legalMoves(turn.getOpposite(), buffers[1]) == 0) {
+        return counts;
+      }
+      moves[0] = Reversi.PASS;
+      numMoves = 1;
+    }
+    for (int i = 0; i < numMoves; i++) {
+      game.pushMove(moves[i]);
+      counts.put(moves[i], count(game, depth - 1, buffers, 1));
+      game.popMove();
+    }
+    return counts;
+  }
+
+  private static long count(Reversi game, int depth, int[][] buffers, int ply) {
+    if (depth == 0 || game.isGameOver()) {
+      return 1;
+    }
+    int[] moves = buffers[ply];
+    Tile turn = game.getTurn();
+    int numMoves = game.legalMoves(turn, moves);
+    if (numMoves == 0) {
+      // the game is over once neither player can move, whether or not anyone has passed yet
+      if (game.legalMoves(turn.getOpposite(), buffers[ply + 1]) == 0) {
+        return 1;
+      }
+      game.pushMove(Reversi.PASS);
+      long nodes = count(game, depth - 1, buffers, ply + 1);
+      game.popMove();
+      return nodes;
+    }
+    if (depth == 1) {
+      // the positions after each move don't need to be played to be counted
+      return numMoves;
+    }
+    long nodes = 0;
+    for (int i = 0; i < numMoves; i++) {
+      game.pushMove(moves[i]);
+      nodes += count(game, depth - 1, buffers, ply + 1);
+      game.popMove();
+    }
+    return nodes;
+  }
+
+  private static int[][] buffers(Reversi game, int depth) {
+    int cells = game.getBoardLen() * game.getBoardLen();
+    return new int[depth + 1][cells];
+  }
+}
@@ -50,6 +50,27 @@ public interface ReadonlyReversi {
    */
   int getSideLen();
 
+  /**
+   * Returns the number of rows (and columns) of the board returned by copyGameBoard().
+   * Moves returned by legalMoves() are packed as row * getBoardLen() + col.
+   *
+   * @return the length of the rows and columns of the game board.
+   */
+  int getBoardLen();
+
+  /**
+   * Lists every legal move for the given player in a single pass over the board, without
+   * throwing or allocating. Moves are written in row-major order (top row first, then left to
+   * right) and packed as row * getBoardLen() + col.
+   *
+   * @param player the player whose moves are listed.
+   * @param out    the array the moves are written to, which must have room for
+   *               getBoardLen() * getBoardLen() moves.
+   * @return the number of moves written to out, which is 0 if the game is over.
+   * @throws IllegalStateException if the game hasn't been started yet.
+   */
+  int legalMoves(Tile player, int[] out);
+
   /**
    * Determines if it is a legal move for the current player to play at the given coordinates.
    *
@@ -67,6 +88,19 @@ public interface ReadonlyReversi {
    */
   int getScore(Tile player);
 
+  /**
+   * Lists the cells of every tile of the given player without throwing or allocating, even once
+   * the game is over. Cells are written in row-major order and packed as
+   * row * getBoardLen() + col, like the moves of legalMoves().
+   *
+   * @param player the player whose tiles are listed, which is BLACK or WHITE.
+   * @param out    the array the cells are written to, which must have room for
+   *               getBoardLen() * getBoardLen() cells.
+   * @return the number of cells written to out, which is getScore(player).
+   * @throws IllegalStateException if the game hasn't been started yet.
+   */
+  int tilesOf(Tile player, int[] out);
+
   /**
    * Determines if the current player can play a legal move.
    *
@@ -100,4 +134,35 @@ public interface ReadonlyReversi {
    * @throws IllegalStateException if the game hasn't been started yet.
    */
   Tile[][] copyGameBoard();
+
+  /**
+   * Returns an independent, mutable copy of this game in its current position. The copy has no
+   * listeners and an empty undo stack, so it can be searched with pushMove() and popMove()
+   * without affecting this game.
+   *
+   * @return a copy of the game.
+   * @throws IllegalStateException if the game hasn't been started yet.
+   */
+  Reversi copyGame();
+
+  /**
+   * Returns a 64-bit Zobrist hash of the current position, made from the color of every tile on
+   * the board and the player whose turn it is. The hash is kept up to date as moves are made, so
+   * this does not scan the board. Models of the same board size give equal positions the same
+   * hash.
+   *
+   * @return the hash of the current position.
+   * @throws IllegalStateException if the game hasn't been started yet.
+   */
+  long positionHash();
+
+  /**
+   * Returns an immutable snapshot of the game as of its last startGame(), makeMove() or pass(),
+   * which can be read from any thread. Plies pushed with pushMove() and not yet popped are part
+   * of a search rather than of the game, and are not in the snapshot.
+   *
+   * @return the snapshot of the game.
+   * @throws IllegalStateException if the game hasn't been started yet.
+   */
+  BoardSnapshot getSnapshot();
 }
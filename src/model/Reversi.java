@@ -4,6 +4,10 @@ package model;
  * Represents the mutable model interface for playing a game of Reversi.
  */
 public interface Reversi extends ReadonlyReversi {
+  /**
+   * The move passed to pushMove() to pass the turn.
+   */
+  int PASS = -1;
 
   /**
    * Starts a Reversi game with all the starting pieces. Black plays first.
@@ -28,4 +32,26 @@ public interface Reversi extends ReadonlyReversi {
    * @throws IllegalArgumentException if the coordinates are out of bounds.
    */
   void makeMove(int row, int col) throws IllegalStateException, IllegalArgumentException;
-}
\ No newline at end of file
+
+  /**
+   * Plays a move for the current player so that it can be taken back with popMove(). This is
+   * meant for searching ahead on a copy of a game: unlike makeMove() and pass(), it does not
+   * notify listeners or automatically pass for a player without moves, so every ply (including
+   * a forced pass) has to be pushed explicitly. A move resets the pass count, and pushing
+   * PASS twice in a row ends the game.
+   *
+   * @param move a legal move packed as row * getBoardLen() + col, or PASS.
+   * @throws IllegalStateException    if the game hasn't been started yet, is over, or the move
+   *                                  is not legal.
+   * @throws IllegalArgumentException if the coordinates are out of bounds.
+   */
+  void pushMove(int move) throws IllegalStateException, IllegalArgumentException;
+
+  /**
+   * Takes back the last move played with pushMove(), restoring the flipped tiles, the turn and
+   * the pass count. Calling makeMove() or pass() forgets every pushed move.
+   *
+   * @throws IllegalStateException if there is no pushed move to take back.
+   */
+  void popMove() throws IllegalStateException;
+}
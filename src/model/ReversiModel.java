@@ -1,6 +1,7 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -20,6 +21,21 @@ public class ReversiModel implements Reversi {
   private final int sideLen;
   private int numPassInARow = 0;
   private final List<ModelFeatures> listeners = new ArrayList<>();
+  private final Zobrist zobrist;
+  private long hash;
+
+  // undo stack for pushMove() and popMove(), with one entry per pushed ply. The tiles flipped by
+  // every ply are stored back to back in flippedTiles, starting at that ply's flipStart.
+  private int[] historyMoves;
+  private Tile[] historyTurns;
+  private int[] historyPasses;
+  private int[] historyFlipStart;
+  private long[] historyHashes;
+  private int historySize = 0;
+  private int[] flippedTiles;
+  private int flippedSize = 0;
+  // the game as of the last startGame(), makeMove() or pass(), for readers on any thread
+  private volatile BoardSnapshot snapshot;
 
   /**
    * Constructs a ReversiModel with the given side length.
@@ -32,6 +48,7 @@ public class ReversiModel implements Reversi {
       throw new IllegalArgumentException("Size of board cannot be less than 3");
     }
     this.sideLen = sideLen;
+    this.zobrist = Zobrist.forCells((sideLen + sideLen - 1) * (sideLen + sideLen - 1), true);
   }
 
   private void notifyListenersOnActivePlayerChanged() {
@@ -65,9 +82,32 @@ public class ReversiModel implements Reversi {
     }
 
     turn = Tile.BLACK;
-    notifyListenersOnActivePlayerChanged();
     initializeBoard();
     initializeStartingPieces();
+    initializeHistory();
+    hash = zobrist.hash(board, turn);
+    snapshot = buildSnapshot();
+    notifyListenersOnActivePlayerChanged();
+  }
+
+  // the undo stack is only allocated by the first pushMove(), so that a game that is only
+  // played with makeMove() and pass(), like most games a server holds, stays small. The flipped
+  // tiles grow as needed, since makeMove() records them too.
+  private void initializeHistory() {
+    int boardLen = sideLen + sideLen - 1;
+    flippedTiles = new int[boardLen];
+  }
+
+  // every pushed move fills a cell and there can't be two pushed passes in a row
+  // before the game ends, so the stack never holds more than two plies per cell
+  private void allocateUndoStack() {
+    int boardLen = sideLen + sideLen - 1;
+    int maxPlies = 2 * boardLen * boardLen + 2;
+    historyMoves = new int[maxPlies];
+    historyTurns = new Tile[maxPlies];
+    historyPasses = new int[maxPlies];
+    historyFlipStart = new int[maxPlies];
+    historyHashes = new long[maxPlies];
   }
 
   private void initializeBoard() {
@@ -117,8 +157,11 @@ public class ReversiModel implements Reversi {
   public void pass() {
     throwIfGameHasNotStarted();
     throwIfGameIsOver();
+    // plies pushed by a search become part of the game, but the last snapshot doesn't have them
+    boolean pushed = historySize > 0;
+    clearHistory();
     turn = turn.getOpposite();
-    notifyListenersOnActivePlayerChanged();
+    hash ^= Zobrist.SIDE_TO_MOVE;
 
     // keeps track of how many times pass was called in a row
     if (numPassInARow == 0) {
@@ -126,6 +169,8 @@ public class ReversiModel implements Reversi {
     } else if (numPassInARow == 1) {
       isGameOver = true;
     }
+    snapshot = pushed ? buildSnapshot() : snapshot.afterPass(turn, isGameOver(), hash);
+    notifyListenersOnActivePlayerChanged();
   }
 
   @Override
@@ -136,11 +181,24 @@ public class ReversiModel implements Reversi {
     // checking if it is bordering an opposing tile color,
     // is an empty tile, and has a tile to connect to
     throwIfInvalidMove(row, col);
+    // plies pushed by a search become part of the game, but the last snapshot doesn't have them
+    boolean pushed = historySize > 0;
+    clearHistory();
 
-    // place the tile and update the necessary tiles to their new color
-    updateTilesInMove(row, col);
+    // place the tile and update the necessary tiles to their new color, recording the cells
+    // that changed so that only their rows are copied into the snapshot
+    flipAndRecord(row, col);
+    setTile(row, col, turn);
+    if (flippedSize == flippedTiles.length) {
+      flippedTiles = Arrays.copyOf(flippedTiles, flippedSize * 2);
+    }
+    flippedTiles[flippedSize++] = row * board.length + col;
 
     turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+    snapshot = pushed ? buildSnapshot()
+            : snapshot.afterMove(board, flippedTiles, flippedSize, turn, isGameOver(), hash);
+    flippedSize = 0;
     notifyListenersOnActivePlayerChanged();
 
     // calls pass on the other player if they have no valid moves
@@ -151,6 +209,134 @@ public class ReversiModel implements Reversi {
     }
   }
 
+  @Override
+  public void pushMove(int move) {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    if (historyMoves == null) {
+      allocateUndoStack();
+    }
+
+    int ply = historySize;
+    historyMoves[ply] = move;
+    historyTurns[ply] = turn;
+    historyPasses[ply] = numPassInARow;
+    historyFlipStart[ply] = flippedSize;
+    historyHashes[ply] = hash;
+
+    if (move == PASS) {
+      numPassInARow++;
+      isGameOver = numPassInARow == 2;
+    } else {
+      int row = move / board.length;
+      int col = move % board.length;
+      if (move < 0 || isOutOfBounds(row, col)) {
+        throw new IllegalArgumentException("Move is out of bounds.");
+      }
+      if (board[row][col] != Tile.EMPTY || countCaptures(row, col, turn) == 0) {
+        throw new IllegalStateException("This is an illegal move");
+      }
+      flipAndRecord(row, col);
+      setTile(row, col, turn);
+      numPassInARow = 0;
+    }
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+    historySize++;
+  }
+
+  @Override
+  public void popMove() {
+    if (historySize == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+
+    int ply = --historySize;
+    int move = historyMoves[ply];
+    Tile mover = historyTurns[ply];
+    if (move != PASS) {
+      board[move / board.length][move % board.length] = Tile.EMPTY;
+      Tile opp = mover.getOpposite();
+      for (int i = historyFlipStart[ply]; i < flippedSize; i++) {
+        board[flippedTiles[i] / board.length][flippedTiles[i] % board.length] = opp;
+      }
+      flippedSize = historyFlipStart[ply];
+    }
+    turn = mover;
+    numPassInARow = historyPasses[ply];
+    hash = historyHashes[ply];
+    isGameOver = false;
+  }
+
+  // flips the tiles captured by the current player at the given coordinates, and records them
+  // on the undo stack
+  private void flipAndRecord(int row, int col) {
+    Tile opp = turn.getOpposite();
+    for (int i = 0; i < 6; i++) {
+      int rowOffset = getRowOffsets(i);
+      int colOffset = getColOffsets(i);
+      int r = row + rowOffset;
+      int c = col + colOffset;
+      while (!isOutOfBounds(r, c) && board[r][c] == opp) {
+        r += rowOffset;
+        c += colOffset;
+      }
+      if (!isOutOfBounds(r, c) && board[r][c] == turn) {
+        r -= rowOffset;
+        c -= colOffset;
+        while (r != row || c != col) {
+          if (flippedSize == flippedTiles.length) {
+            flippedTiles = Arrays.copyOf(flippedTiles, flippedSize * 2);
+          }
+          flippedTiles[flippedSize++] = r * board.length + c;
+          setTile(r, c, turn);
+          r -= rowOffset;
+          c -= colOffset;
+        }
+      }
+    }
+  }
+
+  // sets the tile at the given coordinates and updates the position hash to match
+  private void setTile(int row, int col, Tile tile) {
+    int cell = row * board.length + col;
+    hash ^= zobrist.key(cell, board[row][col]) ^ zobrist.key(cell, tile);
+    board[row][col] = tile;
+  }
+
+  private void clearHistory() {
+    historySize = 0;
+    flippedSize = 0;
+  }
+
+  // builds a snapshot of the whole board, with copies of every row
+  private BoardSnapshot buildSnapshot() {
+    Tile[][] rows = new Tile[board.length][];
+    for (int i = 0; i < board.length; i++) {
+      rows[i] = board[i].clone();
+    }
+    return BoardSnapshot.of(sideLen, rows, turn, isGameOver(), hash);
+  }
+
+  @Override
+  public Reversi copyGame() {
+    throwIfGameHasNotStarted();
+
+    ReversiModel copy = new ReversiModel(sideLen);
+    copy.gameStarted = true;
+    copy.isGameOver = isGameOver;
+    copy.board = new Tile[board.length][];
+    for (int i = 0; i < board.length; i++) {
+      copy.board[i] = board[i].clone();
+    }
+    copy.turn = turn;
+    copy.numPassInARow = numPassInARow;
+    copy.hash = hash;
+    copy.snapshot = snapshot;
+    copy.initializeHistory();
+    return copy;
+  }
+
   @Override
   public Tile[][] copyGameBoard() {
     throwIfGameHasNotStarted();
@@ -255,28 +441,6 @@ public class ReversiModel implements Reversi {
     return neighbors;
   }
 
-  // helper for updateTilesInMove()
-  private void updateTiles(List<int[]> tiles) {
-    for (int[] coord : tiles) {
-      board[coord[0]][coord[1]] = turn;
-    }
-  }
-
-  // helper for makeMove() that updates the tiles in-between the placed tile and connection tile
-  private void updateTilesInMove(int row, int col) {
-    for (int i = 0; i < 6; i++) {
-      int rowOffset = getRowOffsets(i);
-      int colOffset = getColOffsets(i);
-      if (isOutOfBounds(row + rowOffset, col + colOffset)) {
-        continue;
-      }
-      List<int[]> tilesInMove = getConnectionInDirection(row, col, rowOffset, colOffset);
-      if (tilesInMove != null) {
-        updateTiles(tilesInMove);
-      }
-    }
-  }
-
   // helper for makeMove()
   private void throwIfInvalidMove(int row, int col)
           throws IllegalStateException, IllegalArgumentException {
@@ -313,30 +477,39 @@ public class ReversiModel implements Reversi {
 
   // checks if any moves are possible for the given player
   private boolean validMoveExists(Tile player) {
-    Tile currentTurn = getTurn();
-    if (turn != player) {
-      turn = turn.getOpposite();
-    }
     for (int i = 0; i < board.length; i++) {
       for (int j = 0; j < board.length; j++) {
-        if (!isOutOfBounds(i, j)) {
-          if (board[i][j] == Tile.EMPTY) {
-            try {
-              throwIfInvalidMove(i, j);
-              turn = currentTurn;
-              return true;
-            } catch (IllegalArgumentException | IllegalStateException e) {
-              // do nothing because we need to check if any
-              // player can make any moves at all coordinates
-            }
-            turn = currentTurn;
-          }
+        if (board[i][j] == Tile.EMPTY && countCaptures(i, j, player) > 0) {
+          return true;
         }
       }
     }
     return false;
   }
 
+  // counts the tiles the given player would capture by playing at the given coordinates,
+  // without throwing or allocating. Null (unplayable) cells end a line just like the edge does.
+  private int countCaptures(int row, int col, Tile player) {
+    Tile opp = player.getOpposite();
+    int numTilesCaptured = 0;
+    for (int i = 0; i < 6; i++) {
+      int rowOffset = getRowOffsets(i);
+      int colOffset = getColOffsets(i);
+      int r = row + rowOffset;
+      int c = col + colOffset;
+      int run = 0;
+      while (!isOutOfBounds(r, c) && board[r][c] == opp) {
+        r += rowOffset;
+        c += colOffset;
+        run++;
+      }
+      if (run > 0 && !isOutOfBounds(r, c) && board[r][c] == player) {
+        numTilesCaptured += run;
+      }
+    }
+    return numTilesCaptured;
+  }
+
   @Override
   public Tile getTurn() {
     throwIfGameHasNotStarted();
@@ -382,17 +555,48 @@ public class ReversiModel implements Reversi {
     return sideLen;
   }
 
+  @Override
+  public long positionHash() {
+    throwIfGameHasNotStarted();
+    return hash;
+  }
+
+  @Override
+  public BoardSnapshot getSnapshot() {
+    throwIfGameHasNotStarted();
+    return snapshot;
+  }
+
+  @Override
+  public int getBoardLen() {
+    return sideLen + sideLen - 1;
+  }
+
+  @Override
+  public int legalMoves(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+    if (isGameOver) {
+      return 0;
+    }
+
+    int count = 0;
+    for (int i = 0; i < board.length; i++) {
+      for (int j = 0; j < board.length; j++) {
+        if (board[i][j] == Tile.EMPTY && countCaptures(i, j, player) > 0) {
+          out[count++] = i * board.length + j;
+        }
+      }
+    }
+    return count;
+  }
+
   @Override
   public boolean isLegalMove(int row, int col) {
     throwIfGameHasNotStarted();
     throwIfGameIsOver();
 
-    try {
-      throwIfInvalidMove(row, col);
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      return false;
-    }
-    return true;
+    return !isOutOfBounds(row, col) && board[row][col] == Tile.EMPTY
+            && countCaptures(row, col, turn) > 0;
   }
 
   @Override
@@ -429,6 +633,21 @@ public class ReversiModel implements Reversi {
     return validMoveExists(turn);
   }
 
+  @Override
+  public int tilesOf(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+
+    int count = 0;
+    for (int i = 0; i < board.length; i++) {
+      for (int j = 0; j < board.length; j++) {
+        if (board[i][j] == player) {
+          out[count++] = i * board.length + j;
+        }
+      }
+    }
+    return count;
+  }
+
   @Override
   public int getScoreOfMove(int row, int col, Tile player) {
     int numTilesCaptured = 0;
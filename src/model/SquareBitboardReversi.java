@@ -0,0 +1,489 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a bitboard implementation of a Square Reversi game. It follows the same rules and
+ * coordinate system as SquareReversi, but the 8x8 board is stored as one long per color, where
+ * cell (row, col) is bit row * 8 + col. Legal moves and flips are computed for all eight
+ * directions with Kogge-Stone shift-and-mask fills instead of walking the board tile by tile.
+ */
+public class SquareBitboardReversi implements Reversi {
+  private boolean gameStarted = false;
+  private boolean isGameOver = false;
+  private Tile turn;
+  // INVARIANT: turn is never Tile.EMPTY
+  private final int sideLen = 8;
+  private int numPassInARow = 0;
+  private long black;
+  private long white;
+  private final Zobrist zobrist = Zobrist.forCells(64, false);
+  private long hash;
+  // the game as of the last startGame(), makeMove() or pass(), for readers on any thread, or
+  // null while snapshots are turned off
+  private volatile BoardSnapshot snapshot;
+  private boolean publishesSnapshots = true;
+
+  // undo stack for pushMove() and popMove(), with one entry per pushed ply. Every pushed move
+  // fills a cell and there can't be two pushed passes in a row before the game ends, so the
+  // stack never holds more than two plies per cell.
+  private final int[] historyMoves = new int[2 * 64 + 2];
+  private final Tile[] historyTurns = new Tile[2 * 64 + 2];
+  private final int[] historyPasses = new int[2 * 64 + 2];
+  private final long[] historyFlips = new long[2 * 64 + 2];
+  private final long[] historyHashes = new long[2 * 64 + 2];
+  private int historySize = 0;
+
+  // masks that clear the column a shift would wrap a tile onto
+  private static final long NOT_FIRST_COL = 0xFEFEFEFEFEFEFEFEL;
+  private static final long NOT_LAST_COL = 0x7F7F7F7F7F7F7F7FL;
+  private static final long ALL = -1L;
+
+  // bit offset of each direction (positive shifts towards higher rows and columns) and the mask
+  // applied after shifting by it
+  private static final int[] SHIFTS = {-9, -8, -7, -1, 1, 7, 8, 9};
+  private static final long[] MASKS = {
+      NOT_LAST_COL, ALL, NOT_FIRST_COL, NOT_LAST_COL,
+      NOT_FIRST_COL, NOT_LAST_COL, ALL, NOT_FIRST_COL
+  };
+
+  private void throwIfGameHasNotStarted() throws IllegalStateException {
+    if (!gameStarted) {
+      throw new IllegalStateException("Game has not started.");
+    }
+  }
+
+  private void throwIfGameIsOver() throws IllegalStateException {
+    if (isGameOver) {
+      throw new IllegalStateException("Game is over.");
+    }
+  }
+
+  @Override
+  public void startGame() throws IllegalStateException {
+    if (!gameStarted) {
+      gameStarted = true;
+    } else {
+      throw new IllegalStateException();
+    }
+
+    turn = Tile.BLACK;
+    black = bitOf(3, 3) | bitOf(4, 4);
+    white = bitOf(3, 4) | bitOf(4, 3);
+    hash = zobrist.hash(boardTiles(), turn);
+    publish();
+  }
+
+  @Override
+  public void pass() throws IllegalStateException {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    historySize = 0;
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+
+    // keeps track of how many times pass was called in a row
+    if (numPassInARow == 0) {
+      numPassInARow++;
+    } else if (numPassInARow == 1) {
+      isGameOver = true;
+    }
+    publish();
+  }
+
+  @Override
+  public void makeMove(int row, int col) throws IllegalStateException, IllegalArgumentException {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    if (isOutOfBounds(row, col)) {
+      throw new IllegalArgumentException("Move is out of bounds.");
+    }
+    long move = bitOf(row, col);
+    if (((black | white) & move) != 0) {
+      throw new IllegalStateException("This tile is not empty");
+    }
+    long own = turn == Tile.BLACK ? black : white;
+    long opp = turn == Tile.BLACK ? white : black;
+    long flips = flips(move, own, opp);
+    if (flips == 0) {
+      throw new IllegalStateException("This is an illegal move");
+    }
+
+    historySize = 0;
+    applyFlips(move, flips);
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+
+    if (!validMoveExists(turn)) {
+      pass();
+    } else {
+      numPassInARow = 0;
+      publish();
+    }
+  }
+
+  @Override
+  public void pushMove(int move) throws IllegalStateException, IllegalArgumentException {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+
+    int ply = historySize;
+    historyMoves[ply] = move;
+    historyTurns[ply] = turn;
+    historyPasses[ply] = numPassInARow;
+    historyHashes[ply] = hash;
+
+    if (move == PASS) {
+      numPassInARow++;
+      isGameOver = numPassInARow == 2;
+    } else {
+      if (move < 0 || move >= 64) {
+        throw new IllegalArgumentException("Move is out of bounds.");
+      }
+      long bit = 1L << move;
+      long own = turn == Tile.BLACK ? black : white;
+      long opp = turn == Tile.BLACK ? white : black;
+      long flips = ((own | opp) & bit) == 0 ? flips(bit, own, opp) : 0;
+      if (flips == 0) {
+        throw new IllegalStateException("This is an illegal move");
+      }
+      historyFlips[ply] = flips;
+      applyFlips(bit, flips);
+      numPassInARow = 0;
+    }
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+    historySize++;
+  }
+
+  @Override
+  public void popMove() throws IllegalStateException {
+    if (historySize == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+
+    int ply = --historySize;
+    int move = historyMoves[ply];
+    turn = historyTurns[ply];
+    if (move != PASS) {
+      // the mover's tiles lose the move and the flips, the opponent gets the flips back
+      long flips = historyFlips[ply];
+      long moverChange = flips | (1L << move);
+      if (turn == Tile.BLACK) {
+        black ^= moverChange;
+        white ^= flips;
+      } else {
+        white ^= moverChange;
+        black ^= flips;
+      }
+    }
+    numPassInARow = historyPasses[ply];
+    hash = historyHashes[ply];
+    isGameOver = false;
+  }
+
+  // places the current player's tile on the move bit and flips the given tiles to their color,
+  // updating the position hash to match
+  private void applyFlips(long move, long flips) {
+    if (turn == Tile.BLACK) {
+      black |= move | flips;
+      white &= ~flips;
+    } else {
+      white |= move | flips;
+      black &= ~flips;
+    }
+    hash ^= zobrist.key(Long.numberOfTrailingZeros(move), turn);
+    for (long rest = flips; rest != 0; rest &= rest - 1) {
+      hash ^= zobrist.flipKey(Long.numberOfTrailingZeros(rest));
+    }
+  }
+
+  @Override
+  public boolean isGameOver() throws IllegalStateException {
+    throwIfGameHasNotStarted();
+    if (isGameOver) {
+      return true;
+    }
+    return !validMoveExists(turn) && !validMoveExists(turn.getOpposite());
+  }
+
+  @Override
+  public Tile getTurn() throws IllegalStateException {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    return turn;
+  }
+
+  @Override
+  public Tile getTileAt(int row, int col) throws IllegalStateException, IllegalArgumentException {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    if (isOutOfBounds(row, col)) {
+      throw new IllegalArgumentException();
+    }
+    return tileAt(bitOf(row, col));
+  }
+
+  @Override
+  public Tile getWinner() throws IllegalStateException {
+    throwIfGameHasNotStarted();
+    if (!isGameOver()) {
+      throw new IllegalStateException();
+    }
+
+    int scoreWhite = getScore(Tile.WHITE);
+    int scoreBlack = getScore(Tile.BLACK);
+
+    if (scoreWhite > scoreBlack) {
+      return Tile.WHITE;
+    } else if (scoreWhite < scoreBlack) {
+      return Tile.BLACK;
+    } else {
+      throw new IllegalStateException("There is no winner. Game ended in a draw.");
+    }
+  }
+
+  @Override
+  public int getSideLen() {
+    return sideLen;
+  }
+
+  @Override
+  public long positionHash() {
+    throwIfGameHasNotStarted();
+    return hash;
+  }
+
+  /**
+   * Turns the snapshots taken after every startGame(), makeMove() and pass() on or off. They are
+   * on unless turned off; replaying recorded games turns them off, since taking a snapshot of
+   * every position costs more than playing the move. While they are off, getSnapshot() throws
+   * IllegalStateException. Turning them on takes a snapshot of the game at once. Like a move,
+   * this must be done on the thread that plays the game.
+   *
+   * @param published whether to take snapshots.
+   * @throws IllegalStateException if snapshots are turned on while plies are pushed, since the
+   *                               board is then not the game's.
+   */
+  public void setSnapshotsPublished(boolean published) {
+    if (published && historySize > 0) {
+      throw new IllegalStateException("Cannot take a snapshot while plies are pushed");
+    }
+    publishesSnapshots = published;
+    if (gameStarted) {
+      publish();
+    }
+  }
+
+  /**
+   * Returns the snapshot of the game, which can be read from any thread.
+   *
+   * @throws IllegalStateException if the game hasn't been started yet, or snapshots are turned
+   *                               off.
+   */
+  @Override
+  public BoardSnapshot getSnapshot() {
+    throwIfGameHasNotStarted();
+    BoardSnapshot published = snapshot;
+    if (published == null) {
+      throw new IllegalStateException("Snapshots are turned off");
+    }
+    return published;
+  }
+
+  @Override
+  public int getBoardLen() {
+    return sideLen;
+  }
+
+  @Override
+  public int legalMoves(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+    if (isGameOver) {
+      return 0;
+    }
+
+    // cell (row, col) is already bit row * 8 + col, so bit indexes are the packed moves
+    long moves = moveMask(player);
+    int count = 0;
+    while (moves != 0) {
+      out[count++] = Long.numberOfTrailingZeros(moves);
+      moves &= moves - 1;
+    }
+    return count;
+  }
+
+  @Override
+  public boolean isLegalMove(int row, int col) {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    if (isOutOfBounds(row, col)) {
+      return false;
+    }
+    return (moveMask(turn) & bitOf(row, col)) != 0;
+  }
+
+  @Override
+  public int getScore(Tile player) {
+    throwIfGameHasNotStarted();
+    return Long.bitCount(player == Tile.WHITE ? white : black);
+  }
+
+  @Override
+  public int tilesOf(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+
+    long tiles = player == Tile.WHITE ? white : black;
+    int count = 0;
+    while (tiles != 0) {
+      out[count++] = Long.numberOfTrailingZeros(tiles);
+      tiles &= tiles - 1;
+    }
+    return count;
+  }
+
+  @Override
+  public boolean currentPlayerHasLegalMove() {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+
+    return validMoveExists(turn);
+  }
+
+  @Override
+  public int getScoreOfMove(int row, int col, Tile player) {
+    if (isOutOfBounds(row, col)) {
+      return 0;
+    }
+    long own = player == Tile.BLACK ? black : white;
+    long opp = player == Tile.BLACK ? white : black;
+    return Long.bitCount(flips(bitOf(row, col), own, opp));
+  }
+
+  @Override
+  public List<int[]> getNeighbors(int row, int col) {
+    List<int[]> neighbors = new ArrayList<>();
+
+    int[] directions = {-1, 0, 1};
+
+    for (int dr : directions) {
+      for (int dc : directions) {
+        if ((dr != 0 || dc != 0) && !isOutOfBounds(row, col)
+                && !isOutOfBounds(row + dr, col + dc)) {
+          neighbors.add(new int[]{row + dr, col + dc});
+        }
+      }
+    }
+    return neighbors;
+  }
+
+  @Override
+  public Reversi copyGame() {
+    throwIfGameHasNotStarted();
+
+    SquareBitboardReversi copy = new SquareBitboardReversi();
+    copy.gameStarted = true;
+    copy.isGameOver = isGameOver;
+    copy.black = black;
+    copy.white = white;
+    copy.turn = turn;
+    copy.numPassInARow = numPassInARow;
+    copy.hash = hash;
+    copy.snapshot = snapshot;
+    copy.publishesSnapshots = publishesSnapshots;
+    return copy;
+  }
+
+  @Override
+  public Tile[][] copyGameBoard() {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+    return boardTiles();
+  }
+
+  private Tile[][] boardTiles() {
+    Tile[][] boardCopy = new Tile[sideLen][sideLen];
+    for (int i = 0; i < sideLen; i++) {
+      for (int j = 0; j < sideLen; j++) {
+        boardCopy[i][j] = tileAt(bitOf(i, j));
+      }
+    }
+    return boardCopy;
+  }
+
+  // takes the snapshot of the game that getSnapshot() returns, once a move is complete
+  private void publish() {
+    snapshot = publishesSnapshots ? BoardSnapshot.of(sideLen, boardTiles(), turn, isGameOver(), hash)
+            : null;
+  }
+
+  private boolean validMoveExists(Tile player) {
+    return moveMask(player) != 0;
+  }
+
+  // returns a mask of every empty cell where the given player captures at least one tile
+  private long moveMask(Tile player) {
+    long own = player == Tile.BLACK ? black : white;
+    long opp = player == Tile.BLACK ? white : black;
+    long empty = ~(own | opp);
+    long moves = 0;
+    for (int i = 0; i < 8; i++) {
+      int dir = SHIFTS[i];
+      long mask = MASKS[i];
+      // runs of opponent tiles that start next to one of our tiles, then one step past the run
+      long run = fill(shift(own, dir) & mask & opp, opp, dir, mask);
+      moves |= shift(run, dir) & mask & empty;
+    }
+    return moves;
+  }
+
+  // returns the opponent tiles flipped by own playing the single bit move, with no branches:
+  // each direction's run is kept only if the tile just past it belongs to own
+  private static long flips(long move, long own, long opp) {
+    long flips = 0;
+    for (int i = 0; i < 8; i++) {
+      int dir = SHIFTS[i];
+      long mask = MASKS[i];
+      long run = fill(shift(move, dir) & mask & opp, opp, dir, mask);
+      long closed = shift(run, dir) & mask & own;
+      // all ones if closed is non-zero, all zeros otherwise
+      long keep = (closed | -closed) >> 63;
+      flips |= run & keep;
+    }
+    return flips;
+  }
+
+  // Kogge-Stone occluded fill: extends gen through pro in the given direction, doubling the
+  // distance covered each step so that a whole row is reached in three steps
+  private static long fill(long gen, long pro, int dir, long mask) {
+    pro &= mask;
+    gen |= pro & shift(gen, dir);
+    pro &= shift(pro, dir);
+    gen |= pro & shift(gen, dir * 2);
+    pro &= shift(pro, dir * 2);
+    gen |= pro & shift(gen, dir * 4);
+    return gen;
+  }
+
+  private static long shift(long bits, int amount) {
+    return amount > 0 ? bits << amount : bits >>> -amount;
+  }
+
+  private Tile tileAt(long bit) {
+    if ((black & bit) != 0) {
+      return Tile.BLACK;
+    } else if ((white & bit) != 0) {
+      return Tile.WHITE;
+    }
+    return Tile.EMPTY;
+  }
+
+  private static long bitOf(int row, int col) {
+    return 1L << (row * 8 + col);
+  }
+
+  private boolean isOutOfBounds(int row, int col) {
+    return row < 0 || row >= sideLen || col >= sideLen || col < 0;
+  }
+}
@@ -1,6 +1,7 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -19,6 +20,21 @@ public class SquareReversi implements Reversi {
   // INVARIANT: turn is never Tile.EMPTY
   private final int sideLen = 8;
   private int numPassInARow = 0;
+  private final Zobrist zobrist = Zobrist.forCells(sideLen * sideLen, false);
+  private long hash;
+  // the game as of the last startGame(), makeMove() or pass(), for readers on any thread
+  private volatile BoardSnapshot snapshot;
+
+  // undo stack for pushMove() and popMove(), with one entry per pushed ply. The tiles flipped by
+  // every ply are stored back to back in flippedTiles, starting at that ply's flipStart.
+  private final int[] historyMoves = new int[2 * sideLen * sideLen + 2];
+  private final Tile[] historyTurns = new Tile[2 * sideLen * sideLen + 2];
+  private final int[] historyPasses = new int[2 * sideLen * sideLen + 2];
+  private final int[] historyFlipStart = new int[2 * sideLen * sideLen + 2];
+  private final long[] historyHashes = new long[2 * sideLen * sideLen + 2];
+  private int historySize = 0;
+  private int[] flippedTiles = new int[4 * sideLen * sideLen];
+  private int flippedSize = 0;
 
   private void throwIfGameHasNotStarted() throws IllegalStateException {
     if (!gameStarted) {
@@ -42,13 +58,17 @@ public class SquareReversi implements Reversi {
 
     turn = Tile.BLACK;
     initializeBoardAndPieces();
+    hash = zobrist.hash(board, turn);
+    publish();
   }
 
   @Override
   public void pass() throws IllegalStateException {
     throwIfGameHasNotStarted();
     throwIfGameIsOver();
+    clearHistory();
     turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
 
     // keeps track of how many times pass was called in a row
     if (numPassInARow == 0) {
@@ -56,6 +76,7 @@ public class SquareReversi implements Reversi {
     } else if (numPassInARow == 1) {
       isGameOver = true;
     }
+    publish();
   }
 
   private void initializeBoardAndPieces() {
@@ -132,17 +153,48 @@ public class SquareReversi implements Reversi {
     return 8;
   }
 
+  @Override
+  public long positionHash() {
+    throwIfGameHasNotStarted();
+    return hash;
+  }
+
+  @Override
+  public BoardSnapshot getSnapshot() {
+    throwIfGameHasNotStarted();
+    return snapshot;
+  }
+
+  @Override
+  public int getBoardLen() {
+    return sideLen;
+  }
+
+  @Override
+  public int legalMoves(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+    if (isGameOver) {
+      return 0;
+    }
+
+    int count = 0;
+    for (int i = 0; i < sideLen; i++) {
+      for (int j = 0; j < sideLen; j++) {
+        if (board[i][j] == Tile.EMPTY && capturesTile(i, j, player)) {
+          out[count++] = i * sideLen + j;
+        }
+      }
+    }
+    return count;
+  }
+
   @Override
   public boolean isLegalMove(int row, int col) {
     throwIfGameHasNotStarted();
     throwIfGameIsOver();
 
-    try {
-      throwIfInvalidMove(row, col);
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      return false;
-    }
-    return true;
+    return !isOutOfBounds(row, col) && board[row][col] == Tile.EMPTY
+            && capturesTile(row, col, turn);
   }
 
   @Override
@@ -179,6 +231,21 @@ public class SquareReversi implements Reversi {
     return validMoveExists(turn);
   }
 
+  @Override
+  public int tilesOf(Tile player, int[] out) {
+    throwIfGameHasNotStarted();
+
+    int count = 0;
+    for (int i = 0; i < board.length; i++) {
+      for (int j = 0; j < board.length; j++) {
+        if (board[i][j] == player) {
+          out[count++] = i * board.length + j;
+        }
+      }
+    }
+    return count;
+  }
+
   @Override
   public int getScoreOfMove(int row, int col, Tile player) {
     int score = 0;
@@ -239,11 +306,32 @@ public class SquareReversi implements Reversi {
     return neighbors;
   }
 
+  @Override
+  public Reversi copyGame() {
+    throwIfGameHasNotStarted();
+
+    SquareReversi copy = new SquareReversi();
+    copy.gameStarted = true;
+    copy.isGameOver = isGameOver;
+    copy.board = new Tile[sideLen][];
+    for (int i = 0; i < sideLen; i++) {
+      copy.board[i] = board[i].clone();
+    }
+    copy.turn = turn;
+    copy.numPassInARow = numPassInARow;
+    copy.hash = hash;
+    copy.snapshot = snapshot;
+    return copy;
+  }
+
   @Override
   public Tile[][] copyGameBoard() {
     throwIfGameHasNotStarted();
     throwIfGameIsOver();
+    return boardTiles();
+  }
 
+  private Tile[][] boardTiles() {
     Tile[][] boardCopy = new Tile[sideLen][sideLen];
     for (int i = 0; i < sideLen; i++) {
       System.arraycopy(board[i], 0, boardCopy[i], 0, sideLen);
@@ -251,12 +339,18 @@ public class SquareReversi implements Reversi {
     return boardCopy;
   }
 
+  // takes the snapshot of the game that getSnapshot() returns, once a move is complete
+  private void publish() {
+    snapshot = BoardSnapshot.of(sideLen, boardTiles(), turn, isGameOver(), hash);
+  }
+
   @Override
   public void makeMove(int row, int col) throws IllegalStateException, IllegalArgumentException {
     throwIfGameHasNotStarted();
     throwIfGameIsOver();
 
     throwIfInvalidMove(row, col);
+    clearHistory();
 
     int[] directions = {-1, 0, 1};
 
@@ -267,32 +361,141 @@ public class SquareReversi implements Reversi {
     }
 
     turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
 
     if (!validMoveExists(turn)) {
       pass();
     } else {
       numPassInARow = 0;
+      publish();
+    }
+  }
+
+  @Override
+  public void pushMove(int move) throws IllegalStateException, IllegalArgumentException {
+    throwIfGameHasNotStarted();
+    throwIfGameIsOver();
+
+    int ply = historySize;
+    historyMoves[ply] = move;
+    historyTurns[ply] = turn;
+    historyPasses[ply] = numPassInARow;
+    historyFlipStart[ply] = flippedSize;
+    historyHashes[ply] = hash;
+
+    if (move == PASS) {
+      numPassInARow++;
+      isGameOver = numPassInARow == 2;
+    } else {
+      int row = move / sideLen;
+      int col = move % sideLen;
+      if (move < 0 || isOutOfBounds(row, col)) {
+        throw new IllegalArgumentException("Move is out of bounds.");
+      }
+      if (board[row][col] != Tile.EMPTY || !capturesTile(row, col, turn)) {
+        throw new IllegalStateException("This is an illegal move");
+      }
+      for (int dr = -1; dr <= 1; dr++) {
+        for (int dc = -1; dc <= 1; dc++) {
+          if (dr != 0 || dc != 0) {
+            flipAndRecord(row, col, dr, dc);
+          }
+        }
+      }
+      setTile(row, col, turn);
+      numPassInARow = 0;
+    }
+    turn = turn.getOpposite();
+    hash ^= Zobrist.SIDE_TO_MOVE;
+    historySize++;
+  }
+
+  @Override
+  public void popMove() throws IllegalStateException {
+    if (historySize == 0) {
+      throw new IllegalStateException("There is no move to undo.");
+    }
+
+    int ply = --historySize;
+    int move = historyMoves[ply];
+    Tile mover = historyTurns[ply];
+    if (move != PASS) {
+      board[move / sideLen][move % sideLen] = Tile.EMPTY;
+      Tile opponent = mover.getOpposite();
+      for (int i = historyFlipStart[ply]; i < flippedSize; i++) {
+        board[flippedTiles[i] / sideLen][flippedTiles[i] % sideLen] = opponent;
+      }
+      flippedSize = historyFlipStart[ply];
+    }
+    turn = mover;
+    numPassInARow = historyPasses[ply];
+    hash = historyHashes[ply];
+    isGameOver = false;
+  }
+
+  // flips the tiles captured in one direction by the current player at the given coordinates,
+  // and records them on the undo stack
+  private void flipAndRecord(int row, int col, int dr, int dc) {
+    int r = row + dr;
+    int c = col + dc;
+    Tile opponent = turn.getOpposite();
+    while (!isOutOfBounds(r, c) && board[r][c] == opponent) {
+      r += dr;
+      c += dc;
+    }
+    if (!isOutOfBounds(r, c) && board[r][c] == turn) {
+      r -= dr;
+      c -= dc;
+      while (r != row || c != col) {
+        if (flippedSize == flippedTiles.length) {
+          flippedTiles = Arrays.copyOf(flippedTiles, flippedSize * 2);
+        }
+        flippedTiles[flippedSize++] = r * sideLen + c;
+        setTile(r, c, turn);
+        r -= dr;
+        c -= dc;
+      }
     }
   }
 
+  // sets the tile at the given coordinates and updates the position hash to match
+  private void setTile(int row, int col, Tile tile) {
+    int cell = row * sideLen + col;
+    hash ^= zobrist.key(cell, board[row][col]) ^ zobrist.key(cell, tile);
+    board[row][col] = tile;
+  }
+
+  private void clearHistory() {
+    historySize = 0;
+    flippedSize = 0;
+  }
+
   private boolean validMoveExists(Tile player) {
-    Tile currentTurn = getTurn();
-    if (turn != player) {
-      turn = turn.getOpposite();
+    for (int i = 0; i < sideLen; i++) {
+      for (int j = 0; j < sideLen; j++) {
+        if (board[i][j] == Tile.EMPTY && capturesTile(i, j, player)) {
+          return true;
+        }
+      }
     }
-    for (int i = 0; i < board.length; i++) {
-      for (int j = 0; j < board.length; j++) {
-        if (!isOutOfBounds(i, j)) {
-          if (board[i][j] == Tile.EMPTY) {
-            try {
-              throwIfInvalidMove(i, j);
-              turn = currentTurn;
-              return true;
-            } catch (IllegalArgumentException | IllegalStateException e) {
-              // do nothing because we need to check if any
-              // player can make any moves at all coordinates
-            }
-            turn = currentTurn;
+    return false;
+  }
+
+  // checks if the given player would capture at least one tile by playing at the given
+  // coordinates, without throwing or allocating
+  private boolean capturesTile(int row, int col, Tile player) {
+    Tile opponent = player.getOpposite();
+    for (int dr = -1; dr <= 1; dr++) {
+      for (int dc = -1; dc <= 1; dc++) {
+        int r = row + dr;
+        int c = col + dc;
+        if ((dr != 0 || dc != 0) && !isOutOfBounds(r, c) && board[r][c] == opponent) {
+          while (!isOutOfBounds(r, c) && board[r][c] == opponent) {
+            r += dr;
+            c += dc;
+          }
+          if (!isOutOfBounds(r, c) && board[r][c] == player) {
+            return true;
           }
         }
       }
@@ -320,7 +523,7 @@ public class SquareReversi implements Reversi {
         while (r != row || c != col) {
           r -= dr;
           c -= dc;
-          board[r][c] = turn;
+          setTile(r, c, turn);
         }
       }
     }
@@ -356,7 +559,10 @@ public class SquareReversi implements Reversi {
             r += dr;
             c += dc;
           }
-          if (r >= 0 && r < board.length && c >= 0 && c < board[0].length && board[r][c] == turn) {
+          // there has to be at least one opponent tile between the move and the connecting tile
+          boolean capturesTile = r != row + dr || c != col + dc;
+          if (capturesTile && r >= 0 && r < board.length && c >= 0 && c < board[0].length
+                  && board[r][c] == turn) {
             return true;
           }
         }
@@ -0,0 +1,277 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The symmetries of a board: the rotations and reflections that map the board onto itself and
+ * every line of cells onto a line, so they map every position onto an equivalent one. A
+ * hexagonal board has 12 (six rotations by 60 degrees, each with or without a reflection) and a
+ * square board has 8 (four rotations by 90 degrees, each with or without a reflection).
+ *
+ * <p>Symmetries are numbered from 0, which is the identity, to size() - 1. Symmetry t maps a cell
+ * to transformCell(t, cell); on a hexagonal board it reflects the cell's axial coordinates (q, r)
+ * to (r, q) if t >= 6 and then rotates them t % 6 times by (q, r) to (-r, q + r). Every mapping
+ * is a table computed once per board size, so transforming a cell is one array read.
+ *
+ * <p>canonicalize() picks one of the equivalent positions of a game, the one with the smallest
+ * hash, so caches and opening books keyed by its hash store one entry for all of them.
+ */
+public final class Symmetry {
+  private static final Map<Integer, Symmetry> SHARED = new ConcurrentHashMap<>();
+
+  private final int boardLen;
+  // maps[t][cell] is the cell symmetry t maps cell to, or -1 if cell isn't on the board
+  private final int[][] maps;
+  private final int[] inverses;
+  // blackKeys[t][cell] is the Zobrist key of a black tile on the cell cell is mapped to
+  private final long[][] blackKeys;
+  private final long[][] whiteKeys;
+
+  private Symmetry(int boardLen, int[][] maps, boolean hex) {
+    this.boardLen = boardLen;
+    this.maps = maps;
+    this.inverses = new int[maps.length];
+    for (int t = 0; t < maps.length; t++) {
+      for (int u = 0; u < maps.length; u++) {
+        if (isIdentity(t, u)) {
+          inverses[t] = u;
+        }
+      }
+    }
+    Zobrist zobrist = Zobrist.forCells(boardLen * boardLen, hex);
+    this.blackKeys = new long[maps.length][boardLen * boardLen];
+    this.whiteKeys = new long[maps.length][boardLen * boardLen];
+    for (int t = 0; t < maps.length; t++) {
+      for (int cell = 0; cell < boardLen * boardLen; cell++) {
+        if (maps[t][cell] >= 0) {
+          blackKeys[t][cell] = zobrist.key(maps[t][cell], Tile.BLACK);
+          whiteKeys[t][cell] = zobrist.key(maps[t][cell], Tile.WHITE);
+        }
+      }
+    }
+  }
+
+  // whether applying t and then u leaves every cell where it was
+  private boolean isIdentity(int t, int u) {
+    for (int cell = 0; cell < boardLen * boardLen; cell++) {
+      if (maps[t][cell] >= 0 && maps[u][maps[t][cell]] != cell) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the symmetries of a hexagonal board, as played with ReversiModel or
+   * HexBitboardReversi.
+   *
+   * @param sideLen the side length of the board.
+   * @return the symmetries, shared by every caller with the same board.
+   * @throws IllegalArgumentException if the side length is less than 1.
+   */
+  public static Symmetry ofHex(int sideLen) {
+    if (sideLen < 1) {
+      throw new IllegalArgumentException("Size of board must be positive");
+    }
+    return SHARED.computeIfAbsent(sideLen, key -> {
+      int boardLen = sideLen + sideLen - 1;
+      int[][] maps = new int[12][boardLen * boardLen];
+      for (int t = 0; t < maps.length; t++) {
+        for (int row = 0; row < boardLen; row++) {
+          for (int col = 0; col < boardLen; col++) {
+            AxialCoords coords = AxialCoords.convert(row, col, sideLen);
+            int q = coords.getQ();
+            int r = coords.getR();
+            if (Math.abs(q + r) >= sideLen) {
+              maps[t][row * boardLen + col] = -1;
+              continue;
+            }
+            if (t >= 6) {
+              int swap = q;
+              q = r;
+              r = swap;
+            }
+            for (int i = 0; i < t % 6; i++) {
+              int rotated = -r;
+              r = q + r;
+              q = rotated;
+            }
+            maps[t][row * boardLen + col] = (r + sideLen - 1) * boardLen + q + sideLen - 1;
+          }
+        }
+      }
+      return new Symmetry(boardLen, maps, true);
+    });
+  }
+
+  /**
+   * Returns the symmetries of a square board, as played with SquareReversi or
+   * SquareBitboardReversi.
+   *
+   * @param sideLen the side length of the board.
+   * @return the symmetries, shared by every caller with the same board.
+   * @throws IllegalArgumentException if the side length is less than 1.
+   */
+  public static Symmetry ofSquare(int sideLen) {
+    if (sideLen < 1) {
+      throw new IllegalArgumentException("Size of board must be positive");
+    }
+    // square boards are kept apart from hexagonal ones by a negative key
+    return SHARED.computeIfAbsent(-sideLen, key -> {
+      int[][] maps = new int[8][sideLen * sideLen];
+      for (int t = 0; t < maps.length; t++) {
+        for (int row = 0; row < sideLen; row++) {
+          for (int col = 0; col < sideLen; col++) {
+            int r = row;
+            int c = t >= 4 ? sideLen - 1 - col : col;
+            for (int i = 0; i < t % 4; i++) {
+              int rotated = c;
+              c = sideLen - 1 - r;
+              r = rotated;
+            }
+            maps[t][row * sideLen + col] = r * sideLen + c;
+          }
+        }
+      }
+      return new Symmetry(sideLen, maps, false);
+    });
+  }
+
+  /**
+   * Returns the symmetries of the board of the given game.
+   *
+   * @param game the game.
+   * @return ofSquare() if the board is as wide as its sides are long, otherwise ofHex().
+   */
+  public static Symmetry of(ReadonlyReversi game) {
+    return game.getBoardLen() == game.getSideLen() ? ofSquare(game.getSideLen())
+            : ofHex(game.getSideLen());
+  }
+
+  /**
+   * Returns the number of symmetries.
+   *
+   * @return 12 for a hexagonal board, or 8 for a square one.
+   */
+  public int size() {
+    return maps.length;
+  }
+
+  /**
+   * Returns where the given symmetry maps a cell or move.
+   *
+   * @param transform the symmetry.
+   * @param cell      the cell, packed as row * boardLen + col, or Reversi.PASS.
+   * @return the cell it is mapped to, or Reversi.PASS for a pass.
+   * @throws IllegalArgumentException if the cell isn't on the board.
+   * @throws IndexOutOfBoundsException if there is no such symmetry.
+   */
+  public int transformCell(int transform, int cell) {
+    if (cell == Reversi.PASS) {
+      return Reversi.PASS;
+    }
+    if (cell < 0 || cell >= boardLen * boardLen || maps[transform][cell] < 0) {
+      throw new IllegalArgumentException("Cell " + cell + " is not on the board");
+    }
+    return maps[transform][cell];
+  }
+
+  /**
+   * Returns the symmetry that undoes the given one.
+   *
+   * @param transform the symmetry.
+   * @return the symmetry that maps every cell back to where the given one found it.
+   * @throws IndexOutOfBoundsException if there is no such symmetry.
+   */
+  public int inverse(int transform) {
+    return inverses[transform];
+  }
+
+  /**
+   * Returns a board with every tile of the given board moved where the given symmetry maps it.
+   *
+   * @param transform the symmetry.
+   * @param board     the board, as returned by copyGameBoard().
+   * @return the transformed board, with null where the given board has null.
+   * @throws IllegalArgumentException if the board is not of this size.
+   */
+  public Tile[][] transform(int transform, Tile[][] board) {
+    if (board.length != boardLen) {
+      throw new IllegalArgumentException("Board is not " + boardLen + " cells wide");
+    }
+    Tile[][] transformed = new Tile[boardLen][boardLen];
+    for (int cell = 0; cell < boardLen * boardLen; cell++) {
+      int to = maps[transform][cell];
+      if (to >= 0) {
+        transformed[to / boardLen][to % boardLen] = board[cell / boardLen][cell % boardLen];
+      }
+    }
+    return transformed;
+  }
+
+  /**
+   * Finds the canonical form of the given game's position.
+   *
+   * @param game the game.
+   * @return the canonical position.
+   * @throws IllegalStateException    if the game hasn't been started or is over.
+   * @throws IllegalArgumentException if the game's board is not of this size.
+   */
+  public CanonicalPosition canonicalize(ReadonlyReversi game) {
+    return canonicalize(game.copyGameBoard(), game.getTurn());
+  }
+
+  /**
+   * Finds the canonical form of the given position: the symmetry that gives it the smallest
+   * hash, with the smallest such symmetry if several do. Several do when the position is
+   * symmetric itself, like the starting position.
+   *
+   * @param board the board, as returned by copyGameBoard().
+   * @param turn  the player whose turn it is.
+   * @return the canonical position.
+   * @throws IllegalArgumentException if the board is not of this size.
+   */
+  public CanonicalPosition canonicalize(Tile[][] board, Tile turn) {
+    if (board.length != boardLen) {
+      throw new IllegalArgumentException("Board is not " + boardLen + " cells wide");
+    }
+    // the occupied cells, blacks first, so that each symmetry only XORs in their keys
+    int[] cells = new int[boardLen * boardLen];
+    int numBlack = 0;
+    int numTiles = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      Tile tile = board[cell / boardLen][cell % boardLen];
+      if (tile == Tile.BLACK) {
+        cells[numTiles++] = cells[numBlack];
+        cells[numBlack++] = cell;
+      } else if (tile == Tile.WHITE) {
+        cells[numTiles++] = cell;
+      }
+    }
+
+    long side = turn == Tile.WHITE ? Zobrist.SIDE_TO_MOVE : 0;
+    long best = 0;
+    // bit t is set for every symmetry t that gives the smallest hash so far; a board has at most
+    // 12 symmetries, so they fit in an int
+    int bestTransforms = 0;
+    for (int t = 0; t < maps.length; t++) {
+      long[] black = blackKeys[t];
+      long[] white = whiteKeys[t];
+      long hash = side;
+      for (int i = 0; i < numBlack; i++) {
+        hash ^= black[cells[i]];
+      }
+      for (int i = numBlack; i < numTiles; i++) {
+        hash ^= white[cells[i]];
+      }
+      if (t == 0 || Long.compareUnsigned(hash, best) < 0) {
+        best = hash;
+        bestTransforms = 1 << t;
+      } else if (hash == best) {
+        bestTransforms |= 1 << t;
+      }
+    }
+    return new CanonicalPosition(this, best, bestTransforms);
+  }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the random keys used to hash Reversi positions (Zobrist hashing). A position's hash is
+ * the XOR of the key of every (cell, color) pair on the board, XORed with SIDE_TO_MOVE when it
+ * is white's turn, so a model can keep it up to date by XORing keys in and out as tiles change.
+ * Cells are numbered like packed moves (row * boardLen + col). The keys come from a fixed seed
+ * mixed with the number of cells and the shape of the board, so every model of the same board
+ * produces the same hash for the same position, across runs and processes, while boards of
+ * different sizes or shapes get unrelated keys rather than the first keys of a larger board.
+ */
+public final class Zobrist {
+  /**
+   * The key XORed into a position's hash when it is white's turn.
+   */
+  public static final long SIDE_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+  private static final long SEED = 0x5EED5EED2024L;
+  // mixes a board into the seed, so that nearby boards get seeds far apart
+  private static final long BOARD_MIX = 0xBF58476D1CE4E5B9L;
+  private static final Map<Integer, Zobrist> SHARED = new ConcurrentHashMap<>();
+
+  // keys[cell * 2] is the key for a black tile on cell, keys[cell * 2 + 1] for a white tile
+  private final long[] keys;
+
+  /**
+   * Generates the keys for a board with the given number of cells and shape.
+   *
+   * @param numCells the number of cells (boardLen * boardLen) of the board.
+   * @param hex      whether the board is made of hexagons rather than squares.
+   */
+  public Zobrist(int numCells, boolean hex) {
+    SplittableRandom rand = new SplittableRandom(SEED + boardId(numCells, hex) * BOARD_MIX);
+    this.keys = new long[numCells * 2];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = rand.nextLong();
+    }
+  }
+
+  /**
+   * Returns keys for a board with the given number of cells and shape, shared by every model of
+   * that board. The keys never change, so sharing them costs nothing, and saves a table per
+   * model where many games are held at once.
+   *
+   * @param numCells the number of cells (boardLen * boardLen) of the board.
+   * @param hex      whether the board is made of hexagons rather than squares.
+   * @return the keys.
+   */
+  public static Zobrist forCells(int numCells, boolean hex) {
+    return SHARED.computeIfAbsent(boardId(numCells, hex), id -> new Zobrist(numCells, hex));
+  }
+
+  // a number that is different for every board
+  private static int boardId(int numCells, boolean hex) {
+    return numCells * 2 + (hex ? 1 : 0);
+  }
+
+  /**
+   * Returns the key for the given tile being on the given cell.
+   *
+   * @param cell the cell, packed as row * boardLen + col.
+   * @param tile the tile on the cell.
+   * @return the key of the tile, or 0 for an EMPTY tile.
+   */
+  public long key(int cell, Tile tile) {
+    if (tile == Tile.EMPTY) {
+      return 0;
+    }
+    return keys[cell * 2 + (tile == Tile.WHITE ? 1 : 0)];
+  }
+
+  /**
+   * Returns what to XOR into a hash when the tile on the given cell is flipped to the other
+   * color.
+   *
+   * @param cell the cell, packed as row * boardLen + col.
+   * @return the key of a black tile XORed with the key of a white tile on the cell.
+   */
+  public long flipKey(int cell) {
+    return keys[cell * 2] ^ keys[cell * 2 + 1];
+  }
+
+  /**
+   * Computes the hash of a whole board from scratch.
+   *
+   * @param board the board, as returned by copyGameBoard() (null cells are ignored).
+   * @param turn  the player whose turn it is.
+   * @return the hash of the position.
+   */
+  public long hash(Tile[][] board, Tile turn) {
+    long hash = turn == Tile.WHITE ? SIDE_TO_MOVE : 0;
+    for (int i = 0; i < board.length; i++) {
+      for (int j = 0; j < board[i].length; j++) {
+        if (board[i][j] != null) {
+          hash ^= key(i * board.length + j, board[i][j]);
+        }
+      }
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,89 @@
+package server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import model.Reversi;
+
+/**
+ * The games a GameServer hosts, by id. Every game gets a GameSession whose mailbox runs on the
+ * registry's executor, so the number of games is limited by memory rather than by threads.
+ */
+public final class GameRegistry {
+  private final IntFunction<Reversi> games;
+  private final Executor executor;
+  private final Map<Integer, GameSession> sessions = new ConcurrentHashMap<>();
+  private final AtomicInteger nextId = new AtomicInteger(1);
+
+  /**
+   * Constructs a GameRegistry.
+   *
+   * @param games    creates an unstarted game with the given side length, such as
+   *                 ReversiModel::new.
+   * @param executor runs the sessions' mailboxes.
+   * @throws IllegalArgumentException if either argument is null.
+   */
+  public GameRegistry(IntFunction<Reversi> games, Executor executor) {
+    if (games == null || executor == null) {
+      throw new IllegalArgumentException("Games and executor cannot be null");
+    }
+    this.games = games;
+    this.executor = executor;
+  }
+
+  /**
+   * Starts a new game and registers its session.
+   *
+   * @param sideLen the side length of the board.
+   * @return the session of the new game.
+   * @throws IllegalArgumentException if the game can't have the given side length.
+   */
+  public GameSession create(int sideLen) {
+    Reversi game = games.apply(sideLen);
+    game.startGame();
+    GameSession session = new GameSession(nextId.getAndIncrement(), game, this, executor);
+    sessions.put(session.getId(), session);
+    return session;
+  }
+
+  /**
+   * Returns the session of the game with the given id.
+   *
+   * @param id the id of the game.
+   * @return the session, or null if there is no such game.
+   */
+  public GameSession get(int id) {
+    return sessions.get(id);
+  }
+
+  /**
+   * Returns the number of games registered.
+   *
+   * @return the number of games.
+   */
+  public int size() {
+    return sessions.size();
+  }
+
+  /**
+   * Removes the games nobody is seated at that no client has asked anything of for at least the
+   * given time, such as games that were created but never joined. Each game is removed by its
+   * own mailbox, so some may only be gone shortly after this returns.
+   *
+   * @param idleMillis how long a game must have been idle to be removed.
+   */
+  public void removeIdle(long idleMillis) {
+    long idleNanos = idleMillis * 1_000_000;
+    for (GameSession session : sessions.values()) {
+      session.removeIfIdle(idleNanos);
+    }
+  }
+
+  // called by a session once nobody is seated
+  void remove(int id) {
+    sessions.remove(id);
+  }
+}
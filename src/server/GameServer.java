@@ -0,0 +1,335 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import model.Tile;
+import view.ViewFeatures;
+
+/**
+ * A headless server that lets clients play the games of a GameRegistry over a local TCP
+ * connection. The protocol is one command per line, answered by the messages GameSession
+ * describes:
+ * <ul>
+ *   <li>NEW sideLen starts a game, and is answered with GAME id.</li>
+ *   <li>JOIN id color takes the seat of BLACK or WHITE in a game.</li>
+ *   <li>MOVE id q r plays the move at the given axial coordinates, as a view would.</li>
+ *   <li>PASS id passes.</li>
+ *   <li>BOARD id asks for the board.</li>
+ *   <li>QUIT closes the connection.</li>
+ * </ul>
+ * A client can play any number of games on one connection. Each connection has a thread that
+ * reads its commands and a thread that sends it its messages, which the games queue for it
+ * without waiting; the games themselves run in their sessions' mailboxes. Games that nobody
+ * sits at for the idle timeout are removed, so that games created and never joined don't pile up.
+ */
+public final class GameServer implements Closeable {
+  /**
+   * How long a game nobody is seated at is kept when no other timeout is given, in milliseconds.
+   */
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+
+  // the most messages queued for a client before it is taken to have stopped reading
+  private static final int MAX_QUEUED_MESSAGES = 10_000;
+  // marks the end of a connection's messages; compared by identity, so no message can match it
+  private static final String END_OF_MESSAGES = new String("END");
+
+  private final GameRegistry registry;
+  private final ServerSocket serverSocket;
+  private final long idleTimeoutMillis;
+  private final ScheduledExecutorService sweeper =
+          Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-sweeper");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+  private final ExecutorService connections = Executors.newCachedThreadPool(r -> {
+    Thread thread = new Thread(r, "game-connection");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // the seats one connection holds, by game id. A seat is recorded by its game's mailbox when
+  // the game gives it, so that a client turned away holds nothing, and none is recorded once
+  // the connection has closed, since nobody would be left to give it up.
+  private static final class Seats {
+    private final Map<Integer, ViewFeatures> byGame = new HashMap<>();
+    private boolean closed;
+
+    synchronized boolean contains(int id) {
+      return byGame.containsKey(id);
+    }
+
+    synchronized ViewFeatures get(int id) {
+      return byGame.get(id);
+    }
+
+    // records the seat, unless the connection already has one in the game or has closed
+    synchronized boolean claim(int id, ViewFeatures seat) {
+      if (closed || byGame.containsKey(id)) {
+        return false;
+      }
+      byGame.put(id, seat);
+      return true;
+    }
+
+    // stops recording seats and returns the ones held
+    synchronized Map<Integer, ViewFeatures> close() {
+      closed = true;
+      return new HashMap<>(byGame);
+    }
+  }
+
+  /**
+   * Constructs a GameServer listening on the loopback address, with the default idle timeout.
+   *
+   * @param registry the games to serve.
+   * @param port     the port to listen on, or 0 for any free port.
+   * @throws IOException if the port can't be bound.
+   */
+  public GameServer(GameRegistry registry, int port) throws IOException {
+    this(registry, port, DEFAULT_IDLE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Constructs a GameServer listening on the loopback address.
+   *
+   * @param registry          the games to serve.
+   * @param port              the port to listen on, or 0 for any free port.
+   * @param idleTimeoutMillis how long a game nobody is seated at is kept, in milliseconds.
+   * @throws IOException              if the port can't be bound.
+   * @throws IllegalArgumentException if the timeout is not positive.
+   */
+  public GameServer(GameRegistry registry, int port, long idleTimeoutMillis)
+          throws IOException {
+    if (idleTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("Idle timeout must be positive");
+    }
+    this.registry = registry;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the port.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Starts accepting connections on a thread of its own, and returns.
+   */
+  public void start() {
+    // a game is removed between one and one and a half timeouts after it was last used
+    long sweepMillis = Math.max(1, idleTimeoutMillis / 2);
+    sweeper.scheduleWithFixedDelay(() -> registry.removeIdle(idleTimeoutMillis), sweepMillis,
+            sweepMillis, TimeUnit.MILLISECONDS);
+    connections.execute(() -> {
+      while (!serverSocket.isClosed()) {
+        try {
+          Socket socket = serverSocket.accept();
+          try {
+            connections.execute(() -> serve(socket));
+          } catch (RejectedExecutionException e) {
+            // the server was closed while the connection was being accepted
+            socket.close();
+          }
+        } catch (IOException e) {
+          // the server socket was closed
+        }
+      }
+    });
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones.
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+    connections.shutdownNow();
+    sweeper.shutdownNow();
+  }
+
+  // reads and carries out the commands of one connection, while a writer thread of its own
+  // sends the messages queued for it
+  private void serve(Socket socket) {
+    Seats seats = new Seats();
+    sockets.add(socket);
+    // messages come from this thread and from the mailboxes of every game the client plays,
+    // which only queue them, so that a client that reads slowly holds up no game
+    BlockingQueue<String> outbox = new LinkedBlockingQueue<>(MAX_QUEUED_MESSAGES);
+    Consumer<String> client = message -> {
+      if (!outbox.offer(message)) {
+        // the client has stopped reading, so it is dropped rather than let its messages pile up
+        closeQuietly(socket);
+      }
+    };
+    try {
+      connections.execute(() -> write(socket, outbox));
+    } catch (RejectedExecutionException e) {
+      // the server is closing
+      closeQuietly(socket);
+      sockets.remove(socket);
+      return;
+    }
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(
+            socket.getInputStream(), StandardCharsets.UTF_8))) {
+      String line = in.readLine();
+      while (line != null && !line.trim().equalsIgnoreCase("QUIT")) {
+        try {
+          handle(line.trim().split("\\s+"), seats, client);
+        } catch (IllegalArgumentException e) {
+          client.accept("ERROR " + e.getMessage());
+        }
+        line = in.readLine();
+      }
+    } catch (IOException e) {
+      // the client went away
+    } finally {
+      for (Map.Entry<Integer, ViewFeatures> seat : seats.close().entrySet()) {
+        GameSession session = registry.get(seat.getKey());
+        if (session != null) {
+          session.leave(seat.getValue());
+        }
+      }
+      // the writer sends what is already queued and then closes the socket, or the socket is
+      // closed now if the queue is full
+      if (!outbox.offer(END_OF_MESSAGES)) {
+        closeQuietly(socket);
+      }
+    }
+  }
+
+  // sends the messages of one connection until END_OF_MESSAGES, then closes its socket
+  private void write(Socket socket, BlockingQueue<String> outbox) {
+    try (socket) {
+      Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+              StandardCharsets.UTF_8));
+      String message = outbox.take();
+      while (message != END_OF_MESSAGES) {
+        out.write(message);
+        out.write('\n');
+        // sends everything queued so far at once
+        if (outbox.isEmpty()) {
+          out.flush();
+        }
+        message = outbox.take();
+      }
+      out.flush();
+    } catch (IOException e) {
+      // the client went away
+    } catch (InterruptedException e) {
+      // the server is closing
+      Thread.currentThread().interrupt();
+    } finally {
+      sockets.remove(socket);
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // nothing more can be done with it
+    }
+  }
+
+  // carries out one command, throwing IllegalArgumentException if it is malformed
+  private void handle(String[] command, Seats seats, Consumer<String> client) {
+    switch (command[0].toUpperCase()) {
+      case "NEW":
+        requireArguments(command, 1);
+        client.accept("GAME " + registry.create(parse(command[1])).getId());
+        break;
+      case "JOIN":
+        requireArguments(command, 2);
+        Tile color;
+        try {
+          color = Tile.valueOf(command[2].toUpperCase());
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("unknown player " + command[2]);
+        }
+        int id = parse(command[1]);
+        if (seats.contains(id)) {
+          throw new IllegalArgumentException(id + " already joined");
+        }
+        // a JOIN sent before an earlier one in the same game was answered is turned away by
+        // the claim, with the same error
+        session(id).join(color, client, seat -> seats.claim(id, seat));
+        break;
+      case "MOVE":
+        requireArguments(command, 3);
+        seat(seats, parse(command[1])).makeMoveFeatures(parse(command[2]), parse(command[3]));
+        break;
+      case "PASS":
+        requireArguments(command, 1);
+        seat(seats, parse(command[1])).passFeatures();
+        break;
+      case "BOARD":
+        requireArguments(command, 1);
+        session(parse(command[1])).sendBoard(client);
+        break;
+      default:
+        throw new IllegalArgumentException("unknown command " + command[0]);
+    }
+  }
+
+  private static void requireArguments(String[] command, int count) {
+    if (command.length != count + 1) {
+      throw new IllegalArgumentException(command[0] + " takes " + count + " arguments");
+    }
+  }
+
+  private static int parse(String number) {
+    try {
+      return Integer.parseInt(number);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("not a number: " + number);
+    }
+  }
+
+  private GameSession session(int id) {
+    GameSession session = registry.get(id);
+    if (session == null) {
+      throw new IllegalArgumentException("no game " + id);
+    }
+    return session;
+  }
+
+  private static ViewFeatures seat(Seats seats, int id) {
+    ViewFeatures seat = seats.get(id);
+    if (seat == null) {
+      throw new IllegalArgumentException("not joined to " + id);
+    }
+    return seat;
+  }
+}
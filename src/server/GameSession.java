@@ -0,0 +1,300 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import model.BoardSnapshot;
+import model.Reversi;
+import model.Tile;
+import view.ViewFeatures;
+
+/**
+ * One game on a GameServer. A session is an actor: everything that happens to its game is
+ * posted to its mailbox, and the commands in the mailbox run one at a time, in order, on a
+ * thread borrowed from a shared executor. So the game itself needs no locks, and a game that
+ * nobody is playing uses no thread at all, only the memory of its model and an empty queue. A
+ * game is removed from its registry as soon as its last seated player leaves, whether or not it
+ * is over, and a game nobody has sat at is removed once it has been idle too long.
+ *
+ * <p>Clients talk to the session through the messages it sends them, as lines of text:
+ * <ul>
+ *   <li>JOINED id color, when the client has taken a seat.</li>
+ *   <li>MOVED id color q r and PASSED id color, to both seats after every move and pass,
+ *       including the passes the game makes by itself.</li>
+ *   <li>OVER id blackScore whiteScore, to both seats when the game ends.</li>
+ *   <li>BOARD id turn blackScore whiteScore rows, in answer to a request for the board, where
+ *       turn is X, O or OVER and rows are the rows of the board separated by slashes.</li>
+ *   <li>ERROR id reason, when a request can't be done, and ERROR id internal error to both seats
+ *       when a command fails unexpectedly.</li>
+ * </ul>
+ */
+public final class GameSession {
+  private static final Logger LOGGER = Logger.getLogger(GameSession.class.getName());
+
+  private final int id;
+  private final Reversi game;
+  private final GameRegistry registry;
+  private final Executor executor;
+  private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  // the seat of each player, indexed by the tile's ordinal, only used by the mailbox
+  private final Seat[] seats = new Seat[2];
+  // when a client last asked anything of the game, from System.nanoTime()
+  private volatile long lastActive = System.nanoTime();
+  // set once the game has been removed from its registry, only used by the mailbox
+  private boolean removed;
+
+  // a player's seat, through which the player plays just as a view plays through its
+  // controller
+  private final class Seat implements ViewFeatures {
+    private final Tile color;
+    private final Consumer<String> client;
+
+    private Seat(Tile color, Consumer<String> client) {
+      this.color = color;
+      this.client = client;
+    }
+
+    @Override
+    public void makeMoveFeatures(int q, int r) {
+      post(() -> play(this, q, r));
+    }
+
+    @Override
+    public void passFeatures() {
+      post(() -> play(this, Integer.MIN_VALUE, Integer.MIN_VALUE));
+    }
+
+    @Override
+    public void printToConsoleClick(int q, int r) {
+      // a server has no console to print to
+    }
+
+    @Override
+    public void printToConsoleKey(char key) {
+      // a server has no console to print to
+    }
+  }
+
+  GameSession(int id, Reversi game, GameRegistry registry, Executor executor) {
+    this.id = id;
+    this.game = game;
+    this.registry = registry;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the id clients refer to this game by.
+   *
+   * @return the id.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Asks to seat a client as the given player. The client is sent JOINED once it is seated, or
+   * ERROR if the seat is taken, and after that every move and pass of the game.
+   *
+   * @param color  the player to play as.
+   * @param client receives the messages for this seat. It is called by the mailbox's thread,
+   *               so it must not block for long.
+   * @return the seat, through which the client plays. Its moves are ignored, with an ERROR, if
+   *         the client did not get the seat.
+   * @throws IllegalArgumentException if the color is Tile.EMPTY or the client is null.
+   */
+  public ViewFeatures join(Tile color, Consumer<String> client) {
+    return join(color, client, seat -> true);
+  }
+
+  /**
+   * Asks to seat a client as the given player, as join(color, client) does, but lets the caller
+   * record the seat before the client is told it has it, so that a caller only ever keeps seats
+   * it was given.
+   *
+   * @param color  the player to play as.
+   * @param client receives the messages for this seat. It is called by the mailbox's thread,
+   *               so it must not block for long.
+   * @param claim  called by the mailbox's thread with the seat once it is free, just before
+   *               JOINED is sent, and not at all if the client can't have it. If it returns
+   *               false, the client is sent ERROR id already joined and is not seated.
+   * @return the seat, through which the client plays. Its moves are ignored, with an ERROR, if
+   *         the client did not get the seat.
+   * @throws IllegalArgumentException if the color is Tile.EMPTY or the client or claim is null.
+   */
+  public ViewFeatures join(Tile color, Consumer<String> client, Predicate<ViewFeatures> claim) {
+    if (color == null || color == Tile.EMPTY || client == null || claim == null) {
+      throw new IllegalArgumentException("A seat needs a player and a client");
+    }
+    Seat seat = new Seat(color, client);
+    post(() -> {
+      if (removed) {
+        client.accept("ERROR " + id + " game closed");
+      } else if (seats[color.ordinal()] != null) {
+        client.accept("ERROR " + id + " seat taken");
+      } else if (!claim.test(seat)) {
+        client.accept("ERROR " + id + " already joined");
+      } else {
+        seats[color.ordinal()] = seat;
+        client.accept("JOINED " + id + " " + color.name());
+      }
+    });
+    return seat;
+  }
+
+  /**
+   * Gives up the given seat. Once both seats are empty, the game is removed from its registry,
+   * even if it isn't over, since nobody can come back to a seat they have left.
+   *
+   * @param seat a seat returned by join().
+   */
+  public void leave(ViewFeatures seat) {
+    post(() -> {
+      boolean wasSeated = false;
+      for (int i = 0; i < seats.length; i++) {
+        if (seats[i] == seat) {
+          seats[i] = null;
+          wasSeated = true;
+        }
+      }
+      if (wasSeated && seats[0] == null && seats[1] == null) {
+        remove();
+      }
+    });
+  }
+
+  /**
+   * Sends the board to the given client, as a BOARD message.
+   *
+   * @param client receives the message.
+   */
+  public void sendBoard(Consumer<String> client) {
+    post(() -> client.accept(describe()));
+  }
+
+  // removes the game if nobody is seated and no client has asked anything of it for the given
+  // time, such as a game that was created but never joined
+  void removeIfIdle(long idleNanos) {
+    if (System.nanoTime() - lastActive < idleNanos) {
+      return;
+    }
+    enqueue(() -> {
+      if (seats[0] == null && seats[1] == null
+              && System.nanoTime() - lastActive >= idleNanos) {
+        remove();
+      }
+    });
+  }
+
+  private void remove() {
+    if (!removed) {
+      removed = true;
+      registry.remove(id);
+    }
+  }
+
+  // queues a command a client asked for
+  private void post(Runnable command) {
+    lastActive = System.nanoTime();
+    enqueue(command);
+  }
+
+  // queues the given command, and starts draining the mailbox unless it is already running
+  private void enqueue(Runnable command) {
+    mailbox.add(command);
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    Runnable command = mailbox.poll();
+    while (command != null) {
+      try {
+        command.run();
+      } catch (RuntimeException e) {
+        // a failed command must not stop the mailbox, but the players should know about it
+        LOGGER.log(Level.WARNING, "Game " + id + " failed to run a command", e);
+        broadcast("ERROR " + id + " internal error");
+      }
+      command = mailbox.poll();
+    }
+    scheduled.set(false);
+    // a command posted after the last poll but before the flag was cleared would otherwise wait
+    // for the next one
+    if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  // plays a move for the given seat, or passes if q is Integer.MIN_VALUE
+  private void play(Seat seat, int q, int r) {
+    if (seats[seat.color.ordinal()] != seat) {
+      seat.client.accept("ERROR " + id + " not seated");
+      return;
+    }
+    if (game.isGameOver()) {
+      seat.client.accept("ERROR " + id + " game over");
+      return;
+    }
+    if (game.getTurn() != seat.color) {
+      seat.client.accept("ERROR " + id + " not your turn");
+      return;
+    }
+    if (q == Integer.MIN_VALUE) {
+      game.pass();
+      broadcast("PASSED " + id + " " + seat.color.name());
+    } else {
+      int offset = game.getSideLen() - 1;
+      try {
+        game.makeMove(r + offset, q + offset);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        seat.client.accept("ERROR " + id + " illegal move");
+        return;
+      }
+      broadcast("MOVED " + id + " " + seat.color.name() + " " + q + " " + r);
+      // the game passes by itself for a player who can't move
+      if (!game.isGameOver() && game.getTurn() == seat.color) {
+        broadcast("PASSED " + id + " " + seat.color.getOpposite().name());
+      }
+    }
+    if (game.isGameOver()) {
+      broadcast("OVER " + id + " " + game.getScore(Tile.BLACK) + " "
+              + game.getScore(Tile.WHITE));
+    }
+  }
+
+  private void broadcast(String message) {
+    for (Seat seat : seats) {
+      if (seat != null) {
+        seat.client.accept(message);
+      }
+    }
+  }
+
+  private String describe() {
+    BoardSnapshot board = game.getSnapshot();
+    StringBuilder sb = new StringBuilder("BOARD ").append(id).append(' ')
+            .append(board.isGameOver() ? "OVER" : board.getTurn().toString()).append(' ')
+            .append(board.getScore(Tile.BLACK)).append(' ')
+            .append(board.getScore(Tile.WHITE)).append(' ');
+    for (int i = 0; i < board.getBoardLen(); i++) {
+      if (i > 0) {
+        sb.append('/');
+      }
+      for (int j = 0; j < board.getBoardLen(); j++) {
+        Tile tile = board.getTileAt(i, j);
+        if (tile != null) {
+          sb.append(tile);
+        }
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,382 @@
+package strategy;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.AxialCoords;
+import model.ReadonlyReversi;
+import model.Reversi;
+import model.Tile;
+
+/**
+ * Strategy class that searches ahead with negamax alpha-beta search and iterative deepening. It
+ * searches one ply deeper at a time until the time budget for the move runs out, and returns the
+ * best move of the deepest search that finished (or of the partial search in progress if it
+ * already found a better move). The search runs on a copy of the game with pushMove() and
+ * popMove(), so it works with any Reversi implementation. After every call the depth reached
+ * and the number of positions searched are available for reporting. Results are kept in a
+ * TranspositionTable, which is consulted before a position is searched and also supplies the
+ * best move found last time. A MoveOrdering sorts the moves of every position before they are
+ * searched, by that move, killer moves, history and the opponent's mobility after the move.
+ * A single instance should not be used by several threads at once, but several instances can
+ * share one TranspositionTable.
+ */
+public class AlphaBetaStrategy implements FallibleReversiStrategy {
+  // scores at or beyond WIN_SCORE (in absolute value) are finished games
+  static final int WIN_SCORE = 1_000_000;
+  private static final int INFINITY = Integer.MAX_VALUE;
+  // how many positions are searched between checks of the clock
+  private static final int TIME_CHECK_INTERVAL = 256;
+
+  private final long timeLimitMillis;
+  private final int maxDepth;
+  private final TranspositionTable table;
+  private final Evaluator evaluator;
+  private final MoveOrdering ordering;
+  // set by another thread to end the search early; see ParallelAlphaBetaStrategy
+  private final AtomicBoolean stopSignal;
+  // 0 for a normal search; helper searches of a parallel search are numbered from 1
+  private final int helperIndex;
+
+  private Reversi board;
+  private int[][] moveBuffers = new int[0][];
+  private long deadline;
+  private boolean timeUp;
+  private long nodes;
+  private int depthReached;
+  private long elapsedMillis;
+
+  /**
+   * Constructs an AlphaBetaStrategy that searches until the given time per move runs out. It
+   * gets its own TranspositionTable of the size configured by TranspositionTable.SIZE_PROPERTY.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @throws IllegalArgumentException if the time limit is not positive.
+   */
+  public AlphaBetaStrategy(long timeLimitMillis) {
+    this(timeLimitMillis, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy that searches until the given time per move runs out or the
+   * given depth has been searched, whichever comes first.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @param maxDepth        the deepest search (in plies) to run.
+   * @throws IllegalArgumentException if the time limit or depth is not positive.
+   */
+  public AlphaBetaStrategy(long timeLimitMillis, int maxDepth) {
+    this(timeLimitMillis, maxDepth, TranspositionTable.withConfiguredSize());
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy like AlphaBetaStrategy(long, int) that keeps its results in
+   * the given table, which may be shared with other searches.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @param maxDepth        the deepest search (in plies) to run.
+   * @param table           the table to keep search results in.
+   * @throws IllegalArgumentException if the time limit or depth is not positive or the table is
+   *                                  null.
+   */
+  public AlphaBetaStrategy(long timeLimitMillis, int maxDepth, TranspositionTable table) {
+    this(timeLimitMillis, maxDepth, table, Evaluator.DISC_DIFFERENCE);
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy like AlphaBetaStrategy(long, int, TranspositionTable) that
+   * scores the positions it stops at with the given evaluator instead of by the difference in
+   * tiles. Searches that share a table should share an evaluator too, since the table keeps
+   * their scores.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @param maxDepth        the deepest search (in plies) to run.
+   * @param table           the table to keep search results in.
+   * @param evaluator       the evaluator of unfinished positions.
+   * @throws IllegalArgumentException if the time limit or depth is not positive or the table or
+   *                                  evaluator is null.
+   */
+  public AlphaBetaStrategy(long timeLimitMillis, int maxDepth, TranspositionTable table,
+                           Evaluator evaluator) {
+    this(timeLimitMillis, maxDepth, table, evaluator, new MoveOrdering(), new AtomicBoolean(), 0);
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy like AlphaBetaStrategy(long, int, TranspositionTable,
+   * Evaluator) that orders moves with only the given heuristics, so that they can be compared.
+   * With none of them, moves are searched in the order they are generated.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @param maxDepth        the deepest search (in plies) to run.
+   * @param table           the table to keep search results in.
+   * @param evaluator       the evaluator of unfinished positions.
+   * @param heuristics      the move ordering heuristics to use.
+   * @throws IllegalArgumentException if the time limit or depth is not positive or the table,
+   *                                  evaluator or heuristics are null.
+   */
+  public AlphaBetaStrategy(long timeLimitMillis, int maxDepth, TranspositionTable table,
+                           Evaluator evaluator, Set<MoveOrdering.Heuristic> heuristics) {
+    this(timeLimitMillis, maxDepth, table, evaluator, new MoveOrdering(heuristics),
+            new AtomicBoolean(), 0);
+  }
+
+  // constructs one of the searches of a parallel search, which stops once stopSignal is set.
+  // Helpers search the root moves in a different order and start at a different depth, so
+  // that they fill the shared table with positions the other searches haven't reached yet.
+  AlphaBetaStrategy(long timeLimitMillis, int maxDepth, TranspositionTable table,
+                    Evaluator evaluator, MoveOrdering ordering, AtomicBoolean stopSignal,
+                    int helperIndex) {
+    if (timeLimitMillis <= 0 || maxDepth <= 0) {
+      throw new IllegalArgumentException("Time limit and depth must be positive");
+    }
+    if (table == null || evaluator == null) {
+      throw new IllegalArgumentException("Table and evaluator cannot be null");
+    }
+    this.timeLimitMillis = timeLimitMillis;
+    this.maxDepth = maxDepth;
+    this.table = table;
+    this.evaluator = evaluator;
+    this.ordering = ordering;
+    this.stopSignal = stopSignal;
+    this.helperIndex = helperIndex;
+  }
+
+  @Override
+  public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
+    long start = System.nanoTime();
+    deadline = start + timeLimitMillis * 1_000_000;
+    timeUp = false;
+    nodes = 0;
+    depthReached = 0;
+    try {
+      if (model.isGameOver()) {
+        return Optional.empty();
+      }
+      if (helperIndex == 0) {
+        table.newSearch();
+      }
+      ordering.newSearch();
+      board = model.copyGame();
+      if (board.getTurn() != turn) {
+        board.pushMove(Reversi.PASS);
+      }
+
+      int boardLen = board.getBoardLen();
+      int[] rootMoves = new int[boardLen * boardLen];
+      int numMoves = board.legalMoves(turn, rootMoves);
+      if (numMoves == 0) {
+        return Optional.empty();
+      }
+      rotate(rootMoves, numMoves, helperIndex);
+      int bestMove = rootMoves[0];
+      // once the search is as deep as the number of empty cells, every line reaches the end
+      int empties = countEmptyCells(model);
+      int depthLimit = Math.min(maxDepth, Math.max(1, empties));
+      int firstDepth = Math.min(depthLimit, 1 + helperIndex % 2);
+      for (int depth = firstDepth; numMoves > 1 && depth <= depthLimit; depth++) {
+        int move = searchRoot(turn, rootMoves, numMoves, depth);
+        if (move != Reversi.PASS) {
+          bestMove = move;
+          moveToFront(rootMoves, numMoves, bestMove);
+        }
+        if (timeUp) {
+          break;
+        }
+        depthReached = depth;
+      }
+      return Optional.of(AxialCoords.convert(bestMove / boardLen, bestMove % boardLen,
+              model.getSideLen()));
+    } finally {
+      board = null;
+      elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+  }
+
+  /**
+   * Returns the depth of the deepest search that finished during the last call to chooseMove().
+   *
+   * @return the depth reached in plies, or 0 if no search was needed.
+   */
+  public int getDepthReached() {
+    return depthReached;
+  }
+
+  /**
+   * Returns the number of positions searched during the last call to chooseMove().
+   *
+   * @return the number of positions searched.
+   */
+  public long getNodesSearched() {
+    return nodes;
+  }
+
+  /**
+   * Returns the table this strategy keeps its search results in.
+   *
+   * @return the transposition table.
+   */
+  public TranspositionTable getTable() {
+    return table;
+  }
+
+  /**
+   * Returns how long the last call to chooseMove() took.
+   *
+   * @return the time taken in milliseconds.
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  // searches every root move to the given depth and returns the best one, or PASS if the time
+  // ran out before the first move was searched
+  private int searchRoot(Tile turn, int[] rootMoves, int numMoves, int depth) {
+    int alpha = -INFINITY;
+    int bestMove = Reversi.PASS;
+    for (int i = 0; i < numMoves; i++) {
+      board.pushMove(rootMoves[i]);
+      int score = -negamax(turn.getOpposite(), depth - 1, -INFINITY, -alpha, 1, false);
+      board.popMove();
+      if (timeUp) {
+        break;
+      }
+      if (score > alpha) {
+        alpha = score;
+        bestMove = rootMoves[i];
+      }
+    }
+    return bestMove;
+  }
+
+  // returns the score of the position for side (the player to move), searched to the given
+  // depth. passed is true if the previous ply was a pass.
+  private int negamax(Tile side, int depth, int alpha, int beta, int ply, boolean passed) {
+    nodes++;
+    if (nodes % TIME_CHECK_INTERVAL == 0
+            && (System.nanoTime() > deadline || stopSignal.get())) {
+      timeUp = true;
+    }
+    if (timeUp) {
+      return 0;
+    }
+
+    int[] moves = moveBuffer(ply);
+    int numMoves = board.legalMoves(side, moves);
+    if (numMoves == 0) {
+      if (passed) {
+        return finalScore(side);
+      }
+      board.pushMove(Reversi.PASS);
+      int score = -negamax(side.getOpposite(), depth, -beta, -alpha, ply + 1, true);
+      board.popMove();
+      return score;
+    }
+    if (depth <= 0) {
+      return evaluate(side);
+    }
+
+    long key = board.positionHash();
+    long entry = table.probe(key);
+    int hashMove = Reversi.PASS;
+    if (entry != TranspositionTable.MISS) {
+      if (TranspositionTable.depth(entry) >= depth) {
+        int stored = TranspositionTable.score(entry);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER_BOUND && stored >= beta)
+                || (bound == TranspositionTable.UPPER_BOUND && stored <= alpha)) {
+          return stored;
+        }
+      }
+      // the stored move only reorders the list, so a move from a colliding position is harmless
+      hashMove = TranspositionTable.move(entry);
+    }
+    ordering.order(board, side, moves, numMoves, ply, depth, hashMove);
+
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = moves[0];
+    for (int i = 0; i < numMoves; i++) {
+      board.pushMove(moves[i]);
+      int score = -negamax(side.getOpposite(), depth - 1, -beta, -alpha, ply + 1, false);
+      board.popMove();
+      if (score > best) {
+        best = score;
+        bestMove = moves[i];
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            ordering.cutoff(bestMove, ply, depth);
+            break;
+          }
+        }
+      }
+    }
+    if (!timeUp) {
+      int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+              : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+      table.store(key, bestMove, best, depth, bound);
+    }
+    return best;
+  }
+
+  // heuristic score of an unfinished position for side
+  private int evaluate(Tile side) {
+    return evaluator.evaluate(board, side);
+  }
+
+  // exact score of a finished game for side, always beyond any heuristic score
+  private int finalScore(Tile side) {
+    int diff = board.getScore(side) - board.getScore(side.getOpposite());
+    if (diff > 0) {
+      return WIN_SCORE + diff;
+    } else if (diff < 0) {
+      return -WIN_SCORE + diff;
+    }
+    return 0;
+  }
+
+  // the moves at each ply get their own buffer so that deeper plies don't overwrite them
+  private int[] moveBuffer(int ply) {
+    if (ply >= moveBuffers.length) {
+      int[][] grown = new int[Math.max(ply + 1, moveBuffers.length * 2)][];
+      System.arraycopy(moveBuffers, 0, grown, 0, moveBuffers.length);
+      moveBuffers = grown;
+    }
+    int cells = board.getBoardLen() * board.getBoardLen();
+    if (moveBuffers[ply] == null || moveBuffers[ply].length < cells) {
+      moveBuffers[ply] = new int[cells];
+    }
+    return moveBuffers[ply];
+  }
+
+  private static void moveToFront(int[] moves, int numMoves, int move) {
+    for (int i = 0; i < numMoves; i++) {
+      if (moves[i] == move) {
+        System.arraycopy(moves, 0, moves, 1, i);
+        moves[0] = move;
+        return;
+      }
+    }
+  }
+
+  // moves the last shift % numMoves moves to the front of the list
+  private static void rotate(int[] moves, int numMoves, int shift) {
+    for (int i = 0; i < shift % numMoves; i++) {
+      moveToFront(moves, numMoves, moves[numMoves - 1]);
+    }
+  }
+
+  private static int countEmptyCells(ReadonlyReversi model) {
+    int count = 0;
+    for (Tile[] row : model.copyGameBoard()) {
+      for (Tile tile : row) {
+        if (tile == Tile.EMPTY) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
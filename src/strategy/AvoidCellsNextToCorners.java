@@ -20,25 +20,28 @@ public class AvoidCellsNextToCorners extends Strategy {
     int b = boardLen - 1;
     List<int[]> cornerCells = getCornerCells(s, b);
     List<int[]> nextToCornerCells = getNextToCornerCells(model, cornerCells);
-    return getMove(model, sideLen, boardLen, nextToCornerCells);
+    return getMove(model, turn, sideLen, nextToCornerCells);
   }
 
-  private static Optional<AxialCoords> getMove(ReadonlyReversi model, int sideLen, int boardLen,
+  private static Optional<AxialCoords> getMove(ReadonlyReversi model, Tile turn, int sideLen,
                                      List<int[]> nextToCornerCells) {
+    int boardLen = model.getBoardLen();
+    int[] legalMoves = new int[boardLen * boardLen];
+    int numMoves = model.legalMoves(turn, legalMoves);
     List<int[]> availableMoves = new ArrayList<>();
-    for (int i = 0; i < boardLen; i++) {
-      for (int j = 0; j < boardLen; j++) {
-        boolean isNextToCornerCells = false;
-        for (int[] cell : nextToCornerCells) {
-          if (cell[0] == i && cell[1] == j) {
-            isNextToCornerCells = true;
-            break;
-          }
-        }
-        if (!isNextToCornerCells && model.isLegalMove(i, j)) {
-          availableMoves.add(new int[] {i, j});
+    for (int k = 0; k < numMoves; k++) {
+      int i = legalMoves[k] / boardLen;
+      int j = legalMoves[k] % boardLen;
+      boolean isNextToCornerCells = false;
+      for (int[] cell : nextToCornerCells) {
+        if (cell[0] == i && cell[1] == j) {
+          isNextToCornerCells = true;
+          break;
         }
       }
+      if (!isNextToCornerCells) {
+        availableMoves.add(new int[] {i, j});
+      }
     }
     if (!availableMoves.isEmpty()) {
       int[] coords = getMinDistanceMove(model, availableMoves);
@@ -62,7 +65,7 @@ public class AvoidCellsNextToCorners extends Strategy {
     cornerCells.add(new int[] {0, b});
     cornerCells.add(new int[] {s, 0});
     cornerCells.add(new int[] {s, b});
-    cornerCells.add(new int[] {0, b});
+    cornerCells.add(new int[] {b, 0});
     cornerCells.add(new int[] {b, s});
     return cornerCells;
   }
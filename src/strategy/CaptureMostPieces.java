@@ -16,25 +16,25 @@ public class CaptureMostPieces extends Strategy {
   @Override
   public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
     int largestScore = Integer.MIN_VALUE;
-    int boardLen = model.getSideLen() + model.getSideLen() - 1;
+    int boardLen = model.getBoardLen();
+    int[] legalMoves = new int[boardLen * boardLen];
+    int numMoves = model.legalMoves(turn, legalMoves);
 
     List<int[]> movesWithLargestScore = new ArrayList<>();
 
-    for (int i = 0; i < boardLen; i++) {
-      for (int j = 0; j < boardLen; j++) {
-        if (model.isLegalMove(i, j)) {
-          int score = model.getScoreOfMove(i, j, turn);
-          // if largest score so far save the coordinates of the turn and
-          // delete any previously saved coordinates
-          if (score > largestScore) {
-            largestScore = score;
-            movesWithLargestScore = new ArrayList<>();
-            movesWithLargestScore.add(new int[]{i, j});
-            // if equal to the largest score so far save the coordinates
-          } else if (score == largestScore) {
-            movesWithLargestScore.add(new int[]{i, j});
-          }
-        }
+    for (int k = 0; k < numMoves; k++) {
+      int i = legalMoves[k] / boardLen;
+      int j = legalMoves[k] % boardLen;
+      int score = model.getScoreOfMove(i, j, turn);
+      // if largest score so far save the coordinates of the turn and
+      // delete any previously saved coordinates
+      if (score > largestScore) {
+        largestScore = score;
+        movesWithLargestScore = new ArrayList<>();
+        movesWithLargestScore.add(new int[]{i, j});
+        // if equal to the largest score so far save the coordinates
+      } else if (score == largestScore) {
+        movesWithLargestScore.add(new int[]{i, j});
       }
     }
 
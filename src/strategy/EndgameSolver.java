@@ -0,0 +1,313 @@
+package strategy;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import model.AxialCoords;
+import model.ReadonlyReversi;
+import model.Reversi;
+import model.Tile;
+
+/**
+ * Strategy class that plays perfectly once few empty cells are left. Until then it plays the
+ * moves of another strategy; once the number of empty cells is at most the given threshold it
+ * searches every line to the end of the game and plays the move with the best final tile
+ * difference. It can also compute the exact final tile difference of a position for analysis
+ * with solve().
+ *
+ * <p>A solve first only finds out whether the position is won, lost or drawn (a search with a
+ * window of one tile around zero), which cuts off far more lines than asking for the exact
+ * difference, and then searches for the exact difference on the side of zero it has learned.
+ * Moves are searched fastest-first (the moves that leave the opponent the fewest replies first),
+ * and among those, moves into a region with an odd number of empty cells first, since the last
+ * move in a region tends to be worth the most (parity). All buffers are allocated once per
+ * solve, so searching a position allocates nothing.
+ * A single instance should not be used by several threads at once.
+ */
+public class EndgameSolver implements FallibleReversiStrategy {
+  // below this many empty cells, moves are searched in the order they are generated
+  private static final int ORDERING_MIN_EMPTIES = 6;
+  private static final int INFINITY = Integer.MAX_VALUE;
+  private static final int[][] HEX_DIRECTIONS = {{-1, 0}, {-1, 1}, {0, 1}, {1, 0}, {1, -1},
+      {0, -1}};
+  private static final int[][] SQUARE_DIRECTIONS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1},
+      {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+  private final FallibleReversiStrategy fallback;
+  private final int maxEmpties;
+
+  private Reversi board;
+  private int numEmpties;
+  private boolean[] empty;
+  // neighbors[cell] are the cells next to cell on the board
+  private int[][] neighbors;
+  private int[][] moveBuffers;
+  private int[][] keyBuffers;
+  // for counting the empty cells in a region without clearing a visited array every time
+  private int[] visitedStamp;
+  private int stamp;
+  private int[] fillStack;
+  private int bestMove;
+  private long nodes;
+
+  /**
+   * Constructs an EndgameSolver that plays like the given strategy until at most the given
+   * number of cells is empty, and perfectly from then on.
+   *
+   * @param fallback   the strategy to play while more cells are empty.
+   * @param maxEmpties the number of empty cells at which to start playing perfectly.
+   * @throws IllegalArgumentException if the strategy is null or the threshold is negative.
+   */
+  public EndgameSolver(FallibleReversiStrategy fallback, int maxEmpties) {
+    if (fallback == null) {
+      throw new IllegalArgumentException("Strategy cannot be null");
+    }
+    if (maxEmpties < 0) {
+      throw new IllegalArgumentException("Threshold cannot be negative");
+    }
+    this.fallback = fallback;
+    this.maxEmpties = maxEmpties;
+  }
+
+  @Override
+  public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
+    if (model.isGameOver()) {
+      return Optional.empty();
+    }
+    if (countEmptyCells(model) > maxEmpties) {
+      return fallback.chooseMove(model, turn);
+    }
+    solve(model, turn);
+    if (bestMove == Reversi.PASS) {
+      return Optional.empty();
+    }
+    int boardLen = model.getBoardLen();
+    return Optional.of(AxialCoords.convert(bestMove / boardLen, bestMove % boardLen,
+            model.getSideLen()));
+  }
+
+  /**
+   * Computes the final tile difference of the given position if both players play perfectly,
+   * however many cells are empty. The time this takes grows very quickly with the number of
+   * empty cells.
+   *
+   * @param model the position to solve.
+   * @param turn  the player to move, whose tiles count as positive.
+   * @return the turn player's tiles minus the opponent's tiles at the end of the game.
+   * @throws IllegalStateException if the game hasn't been started yet.
+   */
+  public int solve(ReadonlyReversi model, Tile turn) {
+    nodes = 0;
+    if (model.isGameOver()) {
+      bestMove = Reversi.PASS;
+      return model.getScore(turn) - model.getScore(turn.getOpposite());
+    }
+    try {
+      setUp(model, turn);
+      // win, loss or draw first, then the exact difference on the side of zero it gave
+      int result = solveRoot(turn, -1, 1);
+      if (result > 0) {
+        result = solveRoot(turn, 0, INFINITY);
+      } else if (result < 0) {
+        result = solveRoot(turn, -INFINITY, 0);
+      }
+      return result;
+    } finally {
+      board = null;
+    }
+  }
+
+  /**
+   * Returns the number of positions searched during the last solve.
+   *
+   * @return the number of positions searched.
+   */
+  public long getNodesSearched() {
+    return nodes;
+  }
+
+  // copies the game and allocates everything the search needs
+  private void setUp(ReadonlyReversi model, Tile turn) {
+    board = model.copyGame();
+    if (board.getTurn() != turn) {
+      board.pushMove(Reversi.PASS);
+    }
+    Tile[][] tiles = model.copyGameBoard();
+    int boardLen = board.getBoardLen();
+    int cells = boardLen * boardLen;
+    boolean hex = false;
+    for (Tile[] row : tiles) {
+      for (Tile tile : row) {
+        hex |= tile == null;
+      }
+    }
+    int[][] directions = hex ? HEX_DIRECTIONS : SQUARE_DIRECTIONS;
+
+    empty = new boolean[cells];
+    neighbors = new int[cells][];
+    numEmpties = 0;
+    int[] found = new int[directions.length];
+    for (int i = 0; i < boardLen; i++) {
+      for (int j = 0; j < boardLen; j++) {
+        empty[i * boardLen + j] = tiles[i][j] == Tile.EMPTY;
+        numEmpties += tiles[i][j] == Tile.EMPTY ? 1 : 0;
+        int count = 0;
+        for (int[] direction : directions) {
+          int row = i + direction[0];
+          int col = j + direction[1];
+          if (row >= 0 && row < boardLen && col >= 0 && col < boardLen
+                  && tiles[row][col] != null) {
+            found[count++] = row * boardLen + col;
+          }
+        }
+        neighbors[i * boardLen + j] = Arrays.copyOf(found, count);
+      }
+    }
+
+    // a ply is either a move, which fills a cell, or a pass, and there are never two passes in
+    // a row before the end
+    int maxPlies = 2 * numEmpties + 2;
+    moveBuffers = new int[maxPlies][cells];
+    keyBuffers = new int[maxPlies][cells];
+    visitedStamp = new int[cells];
+    stamp = 0;
+    fillStack = new int[cells];
+  }
+
+  // searches every root move with the given window, sets bestMove and returns the best score
+  private int solveRoot(Tile turn, int alpha, int beta) {
+    nodes++;
+    int[] moves = moveBuffers[0];
+    int numMoves = board.legalMoves(turn, moves);
+    if (numMoves == 0) {
+      bestMove = Reversi.PASS;
+      board.pushMove(Reversi.PASS);
+      int score = -negamax(turn.getOpposite(), -beta, -alpha, 1, true);
+      board.popMove();
+      return score;
+    }
+    orderMoves(turn, moves, numMoves, 0);
+    int best = -INFINITY;
+    bestMove = moves[0];
+    for (int i = 0; i < numMoves; i++) {
+      int score = -searchMove(turn, moves[i], -beta, -alpha, 1);
+      if (score > best) {
+        best = score;
+        bestMove = moves[i];
+        alpha = Math.max(alpha, score);
+        if (alpha >= beta) {
+          break;
+        }
+      }
+    }
+    return best;
+  }
+
+  // returns the final tile difference for side (the player to move) with perfect play.
+  // passed is true if the previous ply was a pass.
+  private int negamax(Tile side, int alpha, int beta, int ply, boolean passed) {
+    nodes++;
+    if (numEmpties == 0) {
+      return board.getScore(side) - board.getScore(side.getOpposite());
+    }
+    int[] moves = moveBuffers[ply];
+    int numMoves = board.legalMoves(side, moves);
+    if (numMoves == 0) {
+      if (passed) {
+        return board.getScore(side) - board.getScore(side.getOpposite());
+      }
+      board.pushMove(Reversi.PASS);
+      int score = -negamax(side.getOpposite(), -beta, -alpha, ply + 1, true);
+      board.popMove();
+      return score;
+    }
+    if (numEmpties >= ORDERING_MIN_EMPTIES) {
+      orderMoves(side, moves, numMoves, ply);
+    }
+
+    int best = -INFINITY;
+    for (int i = 0; i < numMoves; i++) {
+      int score = -searchMove(side, moves[i], -beta, -alpha, ply + 1);
+      if (score > best) {
+        best = score;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  // plays move for side, searches the opponent's reply and takes the move back
+  private int searchMove(Tile side, int move, int alpha, int beta, int ply) {
+    board.pushMove(move);
+    empty[move] = false;
+    numEmpties--;
+    int score = negamax(side.getOpposite(), alpha, beta, ply, false);
+    numEmpties++;
+    empty[move] = true;
+    board.popMove();
+    return score;
+  }
+
+  // sorts the moves so that the ones leaving the opponent the fewest replies come first, and
+  // among those the ones into a region with an odd number of empty cells
+  private void orderMoves(Tile side, int[] moves, int numMoves, int ply) {
+    int[] keys = keyBuffers[ply];
+    int[] replies = moveBuffers[ply + 1];
+    for (int i = 0; i < numMoves; i++) {
+      board.pushMove(moves[i]);
+      int mobility = board.legalMoves(side.getOpposite(), replies);
+      board.popMove();
+      keys[i] = 2 * mobility + (regionSize(moves[i]) % 2 == 1 ? 0 : 1);
+    }
+    // insertion sort, since there are few moves
+    for (int i = 1; i < numMoves; i++) {
+      int key = keys[i];
+      int move = moves[i];
+      int j = i - 1;
+      while (j >= 0 && keys[j] > key) {
+        keys[j + 1] = keys[j];
+        moves[j + 1] = moves[j];
+        j--;
+      }
+      keys[j + 1] = key;
+      moves[j + 1] = move;
+    }
+  }
+
+  // the number of empty cells connected to the given empty cell, including itself
+  private int regionSize(int cell) {
+    stamp++;
+    int size = 0;
+    int top = 0;
+    fillStack[top++] = cell;
+    visitedStamp[cell] = stamp;
+    while (top > 0) {
+      int current = fillStack[--top];
+      size++;
+      for (int next : neighbors[current]) {
+        if (empty[next] && visitedStamp[next] != stamp) {
+          visitedStamp[next] = stamp;
+          fillStack[top++] = next;
+        }
+      }
+    }
+    return size;
+  }
+
+  private static int countEmptyCells(ReadonlyReversi model) {
+    int count = 0;
+    for (Tile[] row : model.copyGameBoard()) {
+      for (Tile tile : row) {
+        if (tile == Tile.EMPTY) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
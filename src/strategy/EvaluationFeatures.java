@@ -0,0 +1,532 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.AxialCoords;
+import model.ReadonlyReversi;
+import model.Symmetry;
+import model.Tile;
+
+/**
+ * The features PatternEvaluator scores a position by, for one board. A position's features are
+ * a list of weights it uses, each with a count, and its score is the sum of each weight times
+ * its count:
+ * <ul>
+ *   <li>MOBILITY: the side's legal moves minus the opponent's.</li>
+ *   <li>FRONTIER: the side's tiles next to an empty cell minus the opponent's.</li>
+ *   <li>POTENTIAL_MOBILITY: the empty cells next to an opponent's tile minus those next to one
+ *       of the side's.</li>
+ *   <li>PARITY: 1 if an odd number of cells are empty, so the side would make the last move if
+ *       nobody passed, or else -1.</li>
+ *   <li>One pattern per edge and per corner. A pattern is a fixed list of cells, and the
+ *       contents of its cells (empty, the side's or the opponent's) are read as a number in
+ *       base 3 that indexes a table of weights, with a count of 1. On a square board the edge
+ *       pattern is an edge (only the four cells nearest each corner of a long one) and the two
+ *       cells diagonally in from its corners, and the corner pattern is the 3x3 block in the
+ *       corner. On a hexagonal board the edge pattern is a side, read the same way, and the two
+ *       cells in from its corners, and the corner pattern is every cell within two steps of the
+ *       corner. Every edge uses one table and every corner another, each reading
+ *       its cells in the order the board's symmetries map them to.</li>
+ * </ul>
+ * Every phase of the game (by how full the board is) has its own copy of all the weights, and
+ * every board its own layout of them, so the weights of a board are one int array of
+ * getNumWeights() elements. The features are read without allocating: the board is read into a
+ * per-thread buffer, and the pattern tables are indexed by int.
+ */
+public final class EvaluationFeatures {
+  /**
+   * The number of phases the game is split into, by the number of tiles on the board.
+   */
+  public static final int NUM_PHASES = 4;
+  /**
+   * The index, within a phase, of the mobility weight.
+   */
+  public static final int MOBILITY = 0;
+  /**
+   * The index, within a phase, of the frontier weight.
+   */
+  public static final int FRONTIER = 1;
+  /**
+   * The index, within a phase, of the potential mobility weight.
+   */
+  public static final int POTENTIAL_MOBILITY = 2;
+  /**
+   * The index, within a phase, of the parity weight.
+   */
+  public static final int PARITY = 3;
+
+  static final int NUM_SCALARS = 4;
+  // the most cells of a side an edge pattern reads
+  private static final int MAX_EDGE_CELLS = 8;
+  // the scalar weights getDefaultWeights() gives each phase, and the worth of a corner, of the
+  // cells next to a corner along an edge (C cells) and off it (X cells), and of the other edge
+  // cells. A hexagonal board's frontier and C cells counted for nothing or against the side in
+  // test games against the difference in tiles, and its mobility counts for more
+  private static final int[][] SQUARE_SCALAR_SEEDS = {
+      {10, -4, 3, 0}, {8, -4, 3, 0}, {6, -3, 2, 5}, {3, -1, 1, 15}};
+  private static final int[] SQUARE_CELL_SEEDS = {60, -15, -25, 5};
+  private static final int[][] HEX_SCALAR_SEEDS = {
+      {20, 0, 3, 0}, {16, 0, 3, 0}, {12, 0, 2, 5}, {6, 0, 1, 15}};
+  private static final int[] HEX_CELL_SEEDS = {60, 0, -40, 5};
+  private static final Map<Integer, EvaluationFeatures> SHARED = new ConcurrentHashMap<>();
+
+  private final boolean hex;
+  private final int sideLen;
+  private final int boardLen;
+  private final int startTiles;
+  // the packed cell of each cell of the board, in row-major order; cells are numbered by their
+  // index in this array everywhere else
+  private final int[] cells;
+  // the index in cells of every packed cell, or -1 for those off the board
+  private final int[] cellIndexes;
+  private final int[][] neighbors;
+  // the cells of every edge and corner pattern, and the offset of its table within a phase
+  private final int[][] patterns;
+  private final int[] tableOffsets;
+  private final int weightsPerPhase;
+  private final int[] defaultWeights;
+  // the contents of every cell (0 empty, 1 the side's, 2 the opponent's), a buffer for
+  // legalMoves(), and the features listed by score(), for each thread
+  private final ThreadLocal<int[][]> buffers;
+
+  private EvaluationFeatures(Symmetry symmetry, boolean hex, int sideLen, int boardLen,
+                             int startTiles, int[] cells, int[][] neighbors, int[][] shapes) {
+    this.hex = hex;
+    this.sideLen = sideLen;
+    this.boardLen = boardLen;
+    this.startTiles = startTiles;
+    this.cells = cells;
+    this.neighbors = neighbors;
+    this.cellIndexes = new int[boardLen * boardLen];
+    Arrays.fill(cellIndexes, -1);
+    for (int i = 0; i < cells.length; i++) {
+      cellIndexes[cells[i]] = i;
+    }
+
+    // every image of each shape under the board's symmetries is a pattern, read in the order
+    // the symmetry maps the cells of the shape to
+    List<int[]> patternList = new ArrayList<>();
+    List<Integer> offsetList = new ArrayList<>();
+    int offset = NUM_SCALARS;
+    for (int[] shape : shapes) {
+      Set<Set<Integer>> seen = new HashSet<>();
+      for (int t = 0; t < symmetry.size(); t++) {
+        int[] pattern = new int[shape.length];
+        Set<Integer> cellSet = new HashSet<>();
+        for (int i = 0; i < shape.length; i++) {
+          pattern[i] = cellIndexes[symmetry.transformCell(t, shape[i])];
+          cellSet.add(pattern[i]);
+        }
+        if (seen.add(cellSet)) {
+          patternList.add(pattern);
+          offsetList.add(offset);
+        }
+      }
+      offset += pow3(shape.length);
+    }
+    this.patterns = patternList.toArray(new int[0][]);
+    this.tableOffsets = offsetList.stream().mapToInt(Integer::intValue).toArray();
+    this.weightsPerPhase = offset;
+    this.defaultWeights = hex ? seedWeights(HEX_SCALAR_SEEDS, HEX_CELL_SEEDS)
+            : seedWeights(SQUARE_SCALAR_SEEDS, SQUARE_CELL_SEEDS);
+    int maxFeatures = getMaxFeatures();
+    this.buffers = ThreadLocal.withInitial(() -> new int[][] {new int[cells.length],
+        new int[boardLen * boardLen], new int[maxFeatures], new int[maxFeatures]});
+  }
+
+  /**
+   * Returns the features of a hexagonal board.
+   *
+   * @param sideLen the side length of the board.
+   * @return the features, shared by every caller with the same board.
+   * @throws IllegalArgumentException if the side length is less than 3.
+   */
+  public static EvaluationFeatures ofHex(int sideLen) {
+    if (sideLen < 3) {
+      throw new IllegalArgumentException("Size of board cannot be less than 3");
+    }
+    // looked up before computeIfAbsent(), whose capturing lambda would be allocated every call
+    EvaluationFeatures shared = SHARED.get(sideLen);
+    if (shared != null) {
+      return shared;
+    }
+    return SHARED.computeIfAbsent(sideLen, key -> {
+      int boardLen = sideLen + sideLen - 1;
+      List<Integer> cellList = new ArrayList<>();
+      for (int row = 0; row < boardLen; row++) {
+        for (int col = 0; col < boardLen; col++) {
+          if (row + col >= sideLen - 1 && row + col <= 3 * (sideLen - 1)) {
+            cellList.add(row * boardLen + col);
+          }
+        }
+      }
+      int[] cells = cellList.stream().mapToInt(Integer::intValue).toArray();
+      int[][] neighbors = neighbors(cells, boardLen,
+              new int[][] {{-1, 0}, {-1, 1}, {0, 1}, {1, 0}, {1, -1}, {0, -1}});
+
+      // the top side, with the cells below its two corners
+      int[] edge = edge(sideLen);
+      for (int i = 0; i < edge.length - 2; i++) {
+        edge[i] += sideLen - 1;
+      }
+      edge[edge.length - 2] = boardLen + sideLen - 1;
+      edge[edge.length - 1] = boardLen + boardLen - 2;
+      // the cells within two steps of the top left corner
+      List<Integer> corner = new ArrayList<>();
+      for (int cell : cells) {
+        AxialCoords coords = AxialCoords.convert(cell / boardLen, cell % boardLen, sideLen);
+        int dq = coords.getQ();
+        int dr = coords.getR() + sideLen - 1;
+        if (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr) <= 4) {
+          corner.add(cell);
+        }
+      }
+      return new EvaluationFeatures(Symmetry.ofHex(sideLen), true, sideLen, boardLen, 6,
+              cells, neighbors,
+              new int[][] {edge, corner.stream().mapToInt(Integer::intValue).toArray()});
+    });
+  }
+
+  /**
+   * Returns the features of a square board.
+   *
+   * @param sideLen the side length of the board.
+   * @return the features, shared by every caller with the same board.
+   * @throws IllegalArgumentException if the side length is less than 4 or odd.
+   */
+  public static EvaluationFeatures ofSquare(int sideLen) {
+    if (sideLen < 4 || sideLen % 2 != 0) {
+      throw new IllegalArgumentException("Square boards must be even and at least 4 wide");
+    }
+    // square boards are kept apart from hexagonal ones by a negative key
+    EvaluationFeatures shared = SHARED.get(-sideLen);
+    if (shared != null) {
+      return shared;
+    }
+    return SHARED.computeIfAbsent(-sideLen, key -> {
+      int[] cells = new int[sideLen * sideLen];
+      for (int i = 0; i < cells.length; i++) {
+        cells[i] = i;
+      }
+      int[][] neighbors = neighbors(cells, sideLen, new int[][] {{-1, -1}, {-1, 0}, {-1, 1},
+          {0, 1}, {1, 1}, {1, 0}, {1, -1}, {0, -1}});
+
+      // the top edge, with the cells diagonally in from its two corners
+      int[] edge = edge(sideLen);
+      edge[edge.length - 2] = sideLen + 1;
+      edge[edge.length - 1] = sideLen + sideLen - 2;
+      // the 3x3 block in the top left corner
+      int[] corner = new int[9];
+      for (int i = 0; i < corner.length; i++) {
+        corner[i] = i / 3 * sideLen + i % 3;
+      }
+      return new EvaluationFeatures(Symmetry.ofSquare(sideLen), false, sideLen, sideLen, 4,
+              cells, neighbors, new int[][] {edge, corner});
+    });
+  }
+
+  /**
+   * Returns the features of the board of the given game.
+   *
+   * @param game the game.
+   * @return ofSquare() if the board is as wide as its sides are long, otherwise ofHex().
+   */
+  public static EvaluationFeatures of(ReadonlyReversi game) {
+    return game.getBoardLen() == game.getSideLen() ? ofSquare(game.getSideLen())
+            : ofHex(game.getSideLen());
+  }
+
+  // the columns of the cells of a side of the given length that an edge pattern reads, followed
+  // by two places for the cells in from its corners; long sides are read only near their corners
+  // so that the table stays small
+  private static int[] edge(int sideLen) {
+    int length = Math.min(sideLen, MAX_EDGE_CELLS);
+    int[] edge = new int[length + 2];
+    for (int i = 0; i < length; i++) {
+      edge[i] = i < length / 2 ? i : sideLen - length + i;
+    }
+    return edge;
+  }
+
+  // lists the neighbors of every cell by their index in cells
+  private static int[][] neighbors(int[] cells, int boardLen, int[][] directions) {
+    int[] index = new int[boardLen * boardLen];
+    Arrays.fill(index, -1);
+    for (int i = 0; i < cells.length; i++) {
+      index[cells[i]] = i;
+    }
+    int[][] neighbors = new int[cells.length][];
+    for (int i = 0; i < cells.length; i++) {
+      int[] found = new int[directions.length];
+      int count = 0;
+      for (int[] direction : directions) {
+        int row = cells[i] / boardLen + direction[0];
+        int col = cells[i] % boardLen + direction[1];
+        if (row >= 0 && row < boardLen && col >= 0 && col < boardLen
+                && index[row * boardLen + col] >= 0) {
+          found[count++] = index[row * boardLen + col];
+        }
+      }
+      neighbors[i] = Arrays.copyOf(found, count);
+    }
+    return neighbors;
+  }
+
+  // the hand-set weights: every cell of a pattern counts its seed for its owner, shared out
+  // between the patterns that cover it, and the scalar features get the given seeds
+  private int[] seedWeights(int[][] scalarSeeds, int[] cellSeeds) {
+    int maxNeighbors = 0;
+    int minNeighbors = Integer.MAX_VALUE;
+    for (int[] cellNeighbors : neighbors) {
+      maxNeighbors = Math.max(maxNeighbors, cellNeighbors.length);
+      minNeighbors = Math.min(minNeighbors, cellNeighbors.length);
+    }
+    int[] seeds = new int[cells.length];
+    for (int i = 0; i < cells.length; i++) {
+      if (neighbors[i].length == minNeighbors) {
+        seeds[i] = cellSeeds[0];
+        for (int neighbor : neighbors[i]) {
+          seeds[neighbor] = neighbors[neighbor].length < maxNeighbors ? cellSeeds[1] : cellSeeds[2];
+        }
+      } else if (neighbors[i].length < maxNeighbors && !isNextToCorner(i, minNeighbors)) {
+        seeds[i] = cellSeeds[3];
+      }
+    }
+    int[] coverage = new int[cells.length];
+    for (int[] pattern : patterns) {
+      for (int cell : pattern) {
+        coverage[cell]++;
+      }
+    }
+
+    int[] weights = new int[getNumWeights()];
+    for (int phase = 0; phase < NUM_PHASES; phase++) {
+      int base = phase * weightsPerPhase;
+      System.arraycopy(scalarSeeds[phase], 0, weights, base, NUM_SCALARS);
+      // the first pattern of each table is its shape as given, and the others are its images
+      for (int p = 0; p < patterns.length; p++) {
+        if (p > 0 && tableOffsets[p] == tableOffsets[p - 1]) {
+          continue;
+        }
+        int[] pattern = patterns[p];
+        for (int index = 0; index < pow3(pattern.length); index++) {
+          int weight = 0;
+          int digits = index;
+          for (int i = pattern.length - 1; i >= 0; i--, digits /= 3) {
+            int cell = pattern[i];
+            int seed = seeds[cell] / coverage[cell];
+            weight += digits % 3 == 1 ? seed : digits % 3 == 2 ? -seed : 0;
+          }
+          weights[base + tableOffsets[p] + index] = weight;
+        }
+      }
+    }
+    return weights;
+  }
+
+  private boolean isNextToCorner(int cell, int minNeighbors) {
+    for (int neighbor : neighbors[cell]) {
+      if (neighbors[neighbor].length == minNeighbors) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int pow3(int exponent) {
+    int power = 1;
+    for (int i = 0; i < exponent; i++) {
+      power *= 3;
+    }
+    return power;
+  }
+
+  /**
+   * Returns whether the board is hexagonal.
+   *
+   * @return true for a hexagonal board, false for a square one.
+   */
+  public boolean isHex() {
+    return hex;
+  }
+
+  /**
+   * Returns the side length of the board.
+   *
+   * @return the side length.
+   */
+  public int getSideLen() {
+    return sideLen;
+  }
+
+  /**
+   * Returns the number of weights of the board, over every phase.
+   *
+   * @return NUM_PHASES times the number of weights of a phase.
+   */
+  public int getNumWeights() {
+    return NUM_PHASES * weightsPerPhase;
+  }
+
+  /**
+   * Returns the number of weights of each phase. The weights of phase p start at p times this.
+   *
+   * @return the number of weights of a phase.
+   */
+  public int getWeightsPerPhase() {
+    return weightsPerPhase;
+  }
+
+  /**
+   * Returns the largest number of features a position can have, which is how large the arrays
+   * given to extract() must be.
+   *
+   * @return the number of features.
+   */
+  public int getMaxFeatures() {
+    return NUM_SCALARS + patterns.length;
+  }
+
+  /**
+   * Returns hand-set weights for the board, which tuned weights start from. A corner is worth
+   * several moves of mobility, the cells next to a corner count against their owner (on a
+   * hexagonal board only the one off the edge does), and the other edge cells count a little for
+   * theirs; parity matters only late in the game.
+   *
+   * @return a new copy of the weights.
+   */
+  public int[] getDefaultWeights() {
+    return defaultWeights.clone();
+  }
+
+  /**
+   * Lists the features of the given position.
+   *
+   * @param game    the position, which is not over and is on this board.
+   * @param side    the side to list the features for.
+   * @param indexes receives the index in the weights of every feature.
+   * @param counts  receives the count of every feature.
+   * @return the number of features listed.
+   * @throws IllegalArgumentException if the game is not on this board.
+   */
+  public int extract(ReadonlyReversi game, Tile side, int[] indexes, int[] counts) {
+    int[][] buffer = buffers.get();
+    int[] contents = buffer[0];
+    int phase = readBoard(game, side, contents, buffer[1]);
+    int base = phase * weightsPerPhase;
+    scalars(game, side, contents, buffer[1], indexes, counts, base);
+    int count = NUM_SCALARS;
+    for (int i = 0; i < patterns.length; i++) {
+      indexes[count] = base + tableOffsets[i] + patternIndex(patterns[i], contents);
+      counts[count++] = 1;
+    }
+    return count;
+  }
+
+  /**
+   * Scores the given position with the given weights, as the sum of each of its features'
+   * weight times its count.
+   *
+   * @param game    the position, which is not over and is on this board.
+   * @param side    the side to score the position for.
+   * @param weights the weights of this board.
+   * @return the score.
+   * @throws IllegalArgumentException if the game is not on this board.
+   */
+  public int score(ReadonlyReversi game, Tile side, int[] weights) {
+    int[][] buffer = buffers.get();
+    int[] indexes = buffer[2];
+    int[] counts = buffer[3];
+    int numFeatures = extract(game, side, indexes, counts);
+    int score = 0;
+    for (int i = 0; i < numFeatures; i++) {
+      score += weights[indexes[i]] * counts[i];
+    }
+    return score;
+  }
+
+  // the number of edge and corner patterns, which extract() lists after the scalar features
+  int getNumPatterns() {
+    return patterns.length;
+  }
+
+  // the offset within a phase of the table of the given pattern
+  int getTableOffset(int pattern) {
+    return tableOffsets[pattern];
+  }
+
+  // the number of weights in the table of the given pattern
+  int getTableSize(int pattern) {
+    return pow3(patterns[pattern].length);
+  }
+
+  // scores the given position with the default weights
+  int score(ReadonlyReversi game, Tile side) {
+    return score(game, side, defaultWeights);
+  }
+
+  // reads the board into contents, and returns the phase of the game
+  private int readBoard(ReadonlyReversi game, Tile side, int[] contents, int[] tileBuffer) {
+    if (game.getSideLen() != sideLen || game.getBoardLen() != boardLen) {
+      throw new IllegalArgumentException("Game is not on this board");
+    }
+    Arrays.fill(contents, 0);
+    int numOwn = game.tilesOf(side, tileBuffer);
+    for (int i = 0; i < numOwn; i++) {
+      contents[cellIndexes[tileBuffer[i]]] = 1;
+    }
+    int numOpponent = game.tilesOf(side.getOpposite(), tileBuffer);
+    for (int i = 0; i < numOpponent; i++) {
+      contents[cellIndexes[tileBuffer[i]]] = 2;
+    }
+    int tiles = numOwn + numOpponent;
+    int phase = (tiles - startTiles) * NUM_PHASES / (cells.length - startTiles + 1);
+    return Math.max(0, Math.min(NUM_PHASES - 1, phase));
+  }
+
+  private static int patternIndex(int[] pattern, int[] contents) {
+    int index = 0;
+    for (int cell : pattern) {
+      index = index * 3 + contents[cell];
+    }
+    return index;
+  }
+
+  // lists the four scalar features at the front of indexes and counts
+  private void scalars(ReadonlyReversi game, Tile side, int[] contents, int[] moves,
+                       int[] indexes, int[] counts, int base) {
+    int frontier = 0;
+    int potentialMobility = 0;
+    int empty = 0;
+    for (int i = 0; i < cells.length; i++) {
+      boolean nextToEmpty = false;
+      boolean nextToSide = false;
+      boolean nextToOpponent = false;
+      for (int neighbor : neighbors[i]) {
+        nextToEmpty |= contents[neighbor] == 0;
+        nextToSide |= contents[neighbor] == 1;
+        nextToOpponent |= contents[neighbor] == 2;
+      }
+      if (contents[i] == 0) {
+        empty++;
+        potentialMobility += (nextToOpponent ? 1 : 0) - (nextToSide ? 1 : 0);
+      } else if (nextToEmpty) {
+        frontier += contents[i] == 1 ? 1 : -1;
+      }
+    }
+    indexes[MOBILITY] = base + MOBILITY;
+    counts[MOBILITY] = game.legalMoves(side, moves) - game.legalMoves(side.getOpposite(), moves);
+    indexes[FRONTIER] = base + FRONTIER;
+    counts[FRONTIER] = frontier;
+    indexes[POTENTIAL_MOBILITY] = base + POTENTIAL_MOBILITY;
+    counts[POTENTIAL_MOBILITY] = potentialMobility;
+    indexes[PARITY] = base + PARITY;
+    counts[PARITY] = empty % 2 == 1 ? 1 : -1;
+  }
+}
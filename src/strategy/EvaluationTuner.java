@@ -0,0 +1,229 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fits the weights of a PatternEvaluator to a TrainingSet, in the manner of Texel tuning. A
+ * position's score s is taken to mean that the player to move wins with probability
+ * 1 / (1 + e^(-k * s)), for a scale k fitted to the starting weights, and the weights are fitted
+ * by minimising the logistic loss of those probabilities against the games' results with Adam,
+ * a gradient descent that scales every weight's step by the size of its recent gradients. Every
+ * step computes the loss and its gradient over the whole set, split between the given number of
+ * threads, each adding into a gradient of its own. Weights of pattern contents that no position
+ * has keep their starting values.
+ */
+public final class EvaluationTuner {
+  private static final double BETA1 = 0.9;
+  private static final double BETA2 = 0.999;
+  private static final double EPSILON = 1e-8;
+  // the range fitScale() searches, as powers of 10
+  private static final double MIN_LOG_SCALE = -5;
+  private static final double MAX_LOG_SCALE = 0;
+  private static final int SCALE_STEPS = 40;
+
+  private final TrainingSet data;
+  private final int numThreads;
+  private double[] losses = new double[0];
+
+  /**
+   * Constructs an EvaluationTuner over the given positions.
+   *
+   * @param data       the positions.
+   * @param numThreads the number of threads to compute the loss with.
+   * @throws IllegalArgumentException if the data is null or empty, or the number of threads is
+   *                                  not positive.
+   */
+  public EvaluationTuner(TrainingSet data, int numThreads) {
+    if (data == null || data.size() == 0) {
+      throw new IllegalArgumentException("Training set cannot be null or empty");
+    }
+    if (numThreads <= 0) {
+      throw new IllegalArgumentException("Number of threads must be positive");
+    }
+    this.data = data;
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Returns the mean logistic loss of the positions scored with the given weights.
+   *
+   * @param weights the weights, laid out as EvaluationFeatures describes.
+   * @param scale   the scale k of the probabilities.
+   * @return the mean loss, which is ln 2 for weights that are all 0.
+   * @throws IllegalArgumentException if there are not as many weights as the board has.
+   */
+  public double loss(int[] weights, double scale) {
+    checkLength(weights);
+    ExecutorService pool = newPool();
+    try {
+      return run(pool, toDoubles(weights), scale, null, null);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Finds the scale k that gives the given weights the least loss, which translates their
+   * scores into probabilities of winning.
+   *
+   * @param weights the weights.
+   * @return the scale, between 1e-5 and 1.
+   * @throws IllegalArgumentException if there are not as many weights as the board has.
+   */
+  public double fitScale(int[] weights) {
+    checkLength(weights);
+    double[] values = toDoubles(weights);
+    ExecutorService pool = newPool();
+    try {
+      // a golden section search over the logarithm of the scale
+      double ratio = (Math.sqrt(5) - 1) / 2;
+      double low = MIN_LOG_SCALE;
+      double high = MAX_LOG_SCALE;
+      double left = high - ratio * (high - low);
+      double right = low + ratio * (high - low);
+      double leftLoss = run(pool, values, Math.pow(10, left), null, null);
+      double rightLoss = run(pool, values, Math.pow(10, right), null, null);
+      for (int i = 0; i < SCALE_STEPS; i++) {
+        if (leftLoss < rightLoss) {
+          high = right;
+          right = left;
+          rightLoss = leftLoss;
+          left = high - ratio * (high - low);
+          leftLoss = run(pool, values, Math.pow(10, left), null, null);
+        } else {
+          low = left;
+          left = right;
+          leftLoss = rightLoss;
+          right = low + ratio * (high - low);
+          rightLoss = run(pool, values, Math.pow(10, right), null, null);
+        }
+      }
+      return Math.pow(10, (low + high) / 2);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Fits weights to the positions, starting from the given ones, with the scale held fixed.
+   * The loss before every step is kept for getLosses().
+   *
+   * @param weights      the starting weights, which are not changed.
+   * @param scale        the scale k of the probabilities, as fitted by fitScale().
+   * @param steps        the number of steps of gradient descent to take.
+   * @param learningRate about how far each step moves a weight.
+   * @return the fitted weights, rounded.
+   * @throws IllegalArgumentException if there are not as many weights as the board has, or the
+   *                                  scale, number of steps or learning rate is not positive.
+   */
+  public int[] tune(int[] weights, double scale, int steps, double learningRate) {
+    checkLength(weights);
+    if (scale <= 0 || steps <= 0 || learningRate <= 0) {
+      throw new IllegalArgumentException("Scale, steps and learning rate must be positive");
+    }
+    double[] values = toDoubles(weights);
+    double[] gradient = new double[weights.length];
+    double[][] shares = new double[numThreads][weights.length];
+    double[] mean = new double[weights.length];
+    double[] variance = new double[weights.length];
+    losses = new double[steps];
+    ExecutorService pool = newPool();
+    try {
+      for (int step = 1; step <= steps; step++) {
+        losses[step - 1] = run(pool, values, scale, gradient, shares);
+        double meanCorrection = 1 - Math.pow(BETA1, step);
+        double varianceCorrection = 1 - Math.pow(BETA2, step);
+        for (int i = 0; i < values.length; i++) {
+          double g = gradient[i];
+          mean[i] = BETA1 * mean[i] + (1 - BETA1) * g;
+          variance[i] = BETA2 * variance[i] + (1 - BETA2) * g * g;
+          values[i] -= learningRate * (mean[i] / meanCorrection)
+                  / (Math.sqrt(variance[i] / varianceCorrection) + EPSILON);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+    int[] tuned = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      tuned[i] = (int) Math.round(values[i]);
+    }
+    return tuned;
+  }
+
+  /**
+   * Returns the mean loss before every step of the last call to tune().
+   *
+   * @return a copy of the losses, which is empty if tune() hasn't been called.
+   */
+  public double[] getLosses() {
+    return losses.clone();
+  }
+
+  private void checkLength(int[] weights) {
+    if (weights.length != data.getFeatures().getNumWeights()) {
+      throw new IllegalArgumentException("Expected " + data.getFeatures().getNumWeights()
+              + " weights");
+    }
+  }
+
+  private static double[] toDoubles(int[] weights) {
+    double[] values = new double[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      values[i] = weights[i];
+    }
+    return values;
+  }
+
+  private ExecutorService newPool() {
+    return Executors.newFixedThreadPool(numThreads, r -> {
+      Thread thread = new Thread(r, "tuner");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  // computes the mean loss, and the mean gradient into gradient if it isn't null, with every
+  // thread taking an equal share of the positions and adding its gradient into one of shares
+  private double run(ExecutorService pool, double[] weights, double scale, double[] gradient,
+                     double[][] shares) {
+    int size = data.size();
+    List<Future<Double>> parts = new ArrayList<>();
+    for (int t = 0; t < numThreads; t++) {
+      int from = (int) ((long) size * t / numThreads);
+      int to = (int) ((long) size * (t + 1) / numThreads);
+      double[] share = gradient == null ? null : shares[t];
+      if (share != null) {
+        Arrays.fill(share, 0);
+      }
+      parts.add(pool.submit(() -> data.loss(from, to, weights, scale, share)));
+    }
+    double loss = 0;
+    try {
+      for (Future<Double> part : parts) {
+        loss += part.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while tuning", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Tuning failed", e.getCause());
+    }
+    if (gradient != null) {
+      for (int i = 0; i < gradient.length; i++) {
+        double sum = 0;
+        for (double[] share : shares) {
+          sum += share[i];
+        }
+        gradient[i] = sum / size;
+      }
+    }
+    return loss / size;
+  }
+}
@@ -0,0 +1,27 @@
+package strategy;
+
+import model.ReadonlyReversi;
+import model.Tile;
+
+/**
+ * Scores the unfinished positions a search stops at. Higher scores are better for the given
+ * side, and the score for one side is the negation of the score for the other. Scores must stay
+ * well below AlphaBetaStrategy's score for a finished game, which is a million.
+ * An evaluator may be used by several searches at once, so implementations must be thread safe.
+ */
+public interface Evaluator {
+  /**
+   * Scores a position by the difference in tiles, as AlphaBetaStrategy does by default.
+   */
+  Evaluator DISC_DIFFERENCE = (board, side) ->
+          board.getScore(side) - board.getScore(side.getOpposite());
+
+  /**
+   * Scores the given position for the given side.
+   *
+   * @param board the position, which is not over.
+   * @param side  the side to score the position for, which is the player to move.
+   * @return the score.
+   */
+  int evaluate(ReadonlyReversi board, Tile side);
+}
@@ -16,17 +16,17 @@ public class GoForCorners extends Strategy {
   @Override
   public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
     int sideLen = model.getSideLen();
-    int boardLen = sideLen + sideLen - 1;
+    int boardLen = model.getBoardLen();
+    int[] legalMoves = new int[boardLen * boardLen];
+    int numMoves = model.legalMoves(turn, legalMoves);
 
     List<int[]> cornerMoves = new ArrayList<>();
 
-    for (int i = 0; i < boardLen; i++) {
-      for (int j = 0; j < boardLen; j++) {
-        if (model.isLegalMove(i, j)) {
-          if (isCorner(i, j, sideLen, boardLen)) {
-            cornerMoves.add(new int[] { i, j });
-          }
-        }
+    for (int k = 0; k < numMoves; k++) {
+      int i = legalMoves[k] / boardLen;
+      int j = legalMoves[k] % boardLen;
+      if (isCorner(i, j, sideLen, boardLen)) {
+        cornerMoves.add(new int[] { i, j });
       }
     }
     if (cornerMoves.isEmpty()) {
@@ -0,0 +1,341 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import model.AxialCoords;
+import model.ReadonlyReversi;
+import model.Reversi;
+import model.Tile;
+
+/**
+ * Strategy class that chooses moves with Monte Carlo Tree Search (UCT). Instead of scoring
+ * positions, it plays many random games (playouts) from the current position and grows a tree
+ * of the moves that have done best so far, balancing moves that have won often against moves
+ * that have been tried rarely with an exploration constant. It is anytime: it plays out games
+ * until its time or playout budget runs out, whichever comes first, and then plays the root move
+ * that was tried the most.
+ *
+ * <p>The tree lives in arrays that are allocated once when the strategy is constructed, indexed
+ * by node number, with the children of a node stored next to each other. All threads of a search
+ * grow the same tree (tree parallelisation) on a ForkJoinPool. A thread counts its visit to a
+ * node as soon as it passes through it and only adds the result once its playout is done, so
+ * until then the visit counts as a loss (a virtual loss), which steers the other threads towards
+ * different moves.
+ *
+ * <p>Since every call to chooseMove() reuses the same tree, a single instance must not be used by
+ * several threads at once. The pool's threads belong to the strategy until close() shuts them
+ * down.
+ */
+public class MonteCarloStrategy implements FallibleReversiStrategy, AutoCloseable {
+  /**
+   * The exploration constant used when none is given, the square root of 2.
+   */
+  public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+  /**
+   * The number of tree nodes allocated when no size is given.
+   */
+  public static final int DEFAULT_MAX_NODES = 1 << 19;
+
+  private static final int ROOT = 0;
+  // states of a node: not expanded yet, being expanded by some thread, and expanded
+  private static final int NEW = 0;
+  private static final int EXPANDING = 1;
+  private static final int EXPANDED = 2;
+
+  private final double exploration;
+  private final long timeLimitMillis;
+  private final long maxPlayouts;
+  private final int numThreads;
+  private final ForkJoinPool pool;
+  private volatile boolean closed;
+
+  // the tree: parent, move played to reach the node, player who played it, children
+  private final int[] parent;
+  private final int[] move;
+  private final Tile[] mover;
+  private final int[] firstChild;
+  private final int[] numChildren;
+  private final AtomicIntegerArray state;
+  private final AtomicIntegerArray visits;
+  // twice the number of wins for mover (a draw counts as half a win)
+  private final AtomicLongArray doubleWins;
+  private final AtomicInteger numNodes = new AtomicInteger();
+
+  private final AtomicLong playoutsStarted = new AtomicLong();
+  private final AtomicLong playouts = new AtomicLong();
+  private final SplittableRandom seeds = new SplittableRandom();
+  private long deadline;
+  private long elapsedMillis;
+
+  /**
+   * Constructs a MonteCarloStrategy that plays out games until the given time per move runs out,
+   * with the default exploration constant and one thread per available processor.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @throws IllegalArgumentException if the time limit is not positive.
+   */
+  public MonteCarloStrategy(long timeLimitMillis) {
+    this(DEFAULT_EXPLORATION, timeLimitMillis, Long.MAX_VALUE,
+            Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_NODES);
+  }
+
+  /**
+   * Constructs a MonteCarloStrategy that plays out games until the given time per move runs out
+   * or the given number of games has been played out.
+   *
+   * @param exploration     how much to favour moves that have been tried rarely.
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @param maxPlayouts     the most games to play out for each move.
+   * @param numThreads      the number of threads to play out games with.
+   * @param maxNodes        the most nodes the tree can hold.
+   * @throws IllegalArgumentException if the exploration constant is negative, or any other
+   *                                  argument is not positive.
+   */
+  public MonteCarloStrategy(double exploration, long timeLimitMillis, long maxPlayouts,
+                            int numThreads, int maxNodes) {
+    if (exploration < 0 || timeLimitMillis <= 0 || maxPlayouts <= 0 || numThreads <= 0
+            || maxNodes <= 0) {
+      throw new IllegalArgumentException("Exploration cannot be negative and "
+              + "time limit, playouts, threads and nodes must be positive");
+    }
+    this.exploration = exploration;
+    this.timeLimitMillis = timeLimitMillis;
+    this.maxPlayouts = maxPlayouts;
+    this.numThreads = numThreads;
+    this.pool = new ForkJoinPool(numThreads);
+    this.parent = new int[maxNodes];
+    this.move = new int[maxNodes];
+    this.mover = new Tile[maxNodes];
+    this.firstChild = new int[maxNodes];
+    this.numChildren = new int[maxNodes];
+    this.state = new AtomicIntegerArray(maxNodes);
+    this.visits = new AtomicIntegerArray(maxNodes);
+    this.doubleWins = new AtomicLongArray(maxNodes);
+  }
+
+  /**
+   * Chooses a move as described by the class.
+   *
+   * @throws IllegalStateException if the strategy has been closed.
+   */
+  @Override
+  public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
+    if (closed) {
+      throw new IllegalStateException("Strategy is closed");
+    }
+    long start = System.nanoTime();
+    deadline = start + timeLimitMillis * 1_000_000;
+    playoutsStarted.set(0);
+    playouts.set(0);
+    try {
+      if (model.isGameOver()) {
+        return Optional.empty();
+      }
+      Reversi root = model.copyGame();
+      if (root.getTurn() != turn) {
+        root.pushMove(Reversi.PASS);
+      }
+      int boardLen = root.getBoardLen();
+      int[] rootMoves = new int[boardLen * boardLen];
+      if (root.legalMoves(turn, rootMoves) == 0) {
+        return Optional.empty();
+      }
+
+      numNodes.set(1);
+      initNode(ROOT, ROOT, Reversi.PASS, turn.getOpposite());
+      List<Callable<Void>> workers = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        Reversi board = i == 0 ? root : root.copyGame();
+        SplittableRandom rand = seeds.split();
+        workers.add(() -> {
+          search(board, rand);
+          return null;
+        });
+      }
+      pool.invokeAll(workers);
+      if (state.get(ROOT) != EXPANDED) {
+        // the budget ran out before the first playout
+        expand(ROOT, root, new int[boardLen * boardLen]);
+      }
+
+      // a tree too small to hold the root's children leaves only the first legal move
+      int best = numChildren[ROOT] == 0 ? rootMoves[0] : move[mostVisitedChild(ROOT)];
+      return Optional.of(AxialCoords.convert(best / boardLen, best % boardLen,
+              model.getSideLen()));
+    } finally {
+      elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+  }
+
+  /**
+   * Returns the number of games played out during the last call to chooseMove().
+   *
+   * @return the number of playouts.
+   */
+  public long getPlayouts() {
+    return playouts.get();
+  }
+
+  /**
+   * Returns the number of nodes in the tree grown during the last call to chooseMove().
+   *
+   * @return the size of the tree.
+   */
+  public int getTreeSize() {
+    return Math.min(numNodes.get(), parent.length);
+  }
+
+  /**
+   * Returns how long the last call to chooseMove() took.
+   *
+   * @return the time taken in milliseconds.
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * Shuts down the threads the strategy plays out games on. The strategy can't choose moves once
+   * it is closed, and closing it again does nothing.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    pool.shutdown();
+  }
+
+  // one thread's share of the search: selection, expansion, playout and backpropagation until
+  // the budget runs out
+  private void search(Reversi board, SplittableRandom rand) {
+    int boardLen = board.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    while (playoutsStarted.getAndIncrement() < maxPlayouts && System.nanoTime() < deadline) {
+      int node = ROOT;
+      int depth = 0;
+      visits.incrementAndGet(ROOT);
+      while (state.get(node) == EXPANDED && numChildren[node] > 0) {
+        node = selectChild(node);
+        visits.incrementAndGet(node);
+        board.pushMove(move[node]);
+        depth++;
+      }
+      if (state.get(node) == NEW && state.compareAndSet(node, NEW, EXPANDING)) {
+        expand(node, board, moves);
+        if (numChildren[node] > 0) {
+          node = firstChild[node] + rand.nextInt(numChildren[node]);
+          visits.incrementAndGet(node);
+          board.pushMove(move[node]);
+          depth++;
+        }
+      }
+
+      Tile winner = playout(board, moves, rand);
+      for (int n = node; n != ROOT; n = parent[n]) {
+        if (winner == null) {
+          doubleWins.addAndGet(n, 1);
+        } else if (winner == mover[n]) {
+          doubleWins.addAndGet(n, 2);
+        }
+      }
+      for (int i = 0; i < depth; i++) {
+        board.popMove();
+      }
+      playouts.incrementAndGet();
+    }
+  }
+
+  // the child of node with the highest upper confidence bound
+  private int selectChild(int node) {
+    double logVisits = Math.log(Math.max(1, visits.get(node)));
+    int best = firstChild[node];
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int c = firstChild[node]; c < firstChild[node] + numChildren[node]; c++) {
+      int n = visits.get(c);
+      if (n == 0) {
+        return c;
+      }
+      double value = doubleWins.get(c) / (2.0 * n) + exploration * Math.sqrt(logVisits / n);
+      if (value > bestValue) {
+        bestValue = value;
+        best = c;
+      }
+    }
+    return best;
+  }
+
+  // adds the children of node, which is the position on board; a node whose player has to pass
+  // gets a single PASS child, and a finished game or a full tree gets no children
+  private void expand(int node, Reversi board, int[] moves) {
+    int count = 0;
+    Tile turn = null;
+    if (!board.isGameOver()) {
+      turn = board.getTurn();
+      count = board.legalMoves(turn, moves);
+      if (count == 0) {
+        moves[0] = Reversi.PASS;
+        count = 1;
+      }
+    }
+    int first = numNodes.getAndAdd(count);
+    if (first + count > parent.length) {
+      count = 0;
+    } else {
+      for (int i = 0; i < count; i++) {
+        initNode(first + i, node, moves[i], turn);
+      }
+    }
+    firstChild[node] = first;
+    numChildren[node] = count;
+    // setting the state publishes the children to the other threads
+    state.set(node, EXPANDED);
+  }
+
+  private void initNode(int node, int parentNode, int nodeMove, Tile nodeMover) {
+    parent[node] = parentNode;
+    move[node] = nodeMove;
+    mover[node] = nodeMover;
+    numChildren[node] = 0;
+    visits.set(node, 0);
+    doubleWins.set(node, 0);
+    state.set(node, NEW);
+  }
+
+  // plays random moves until the game is over, takes them back, and returns the winner, or null
+  // for a draw
+  private static Tile playout(Reversi board, int[] moves, SplittableRandom rand) {
+    int plies = 0;
+    while (!board.isGameOver()) {
+      int count = board.legalMoves(board.getTurn(), moves);
+      board.pushMove(count == 0 ? Reversi.PASS : moves[rand.nextInt(count)]);
+      plies++;
+    }
+    int black = board.getScore(Tile.BLACK);
+    int white = board.getScore(Tile.WHITE);
+    for (int i = 0; i < plies; i++) {
+      board.popMove();
+    }
+    if (black == white) {
+      return null;
+    }
+    return black > white ? Tile.BLACK : Tile.WHITE;
+  }
+
+  private int mostVisitedChild(int node) {
+    int best = firstChild[node];
+    for (int c = firstChild[node]; c < firstChild[node] + numChildren[node]; c++) {
+      if (visits.get(c) > visits.get(best)) {
+        best = c;
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,22 @@
+package strategy;
+
+import model.ReadonlyReversi;
+import model.Tile;
+
+/**
+ * A stage of a StrategyPipeline, which narrows down the moves the pipeline is still choosing
+ * between. Moves are packed as row * boardLen + col, as returned by legalMoves().
+ */
+public interface MoveFilter {
+  /**
+   * Keeps the moves this stage prefers. The kept moves are moved to the front of the array in
+   * the order they were in, and everything after them is ignored.
+   *
+   * @param model the current state of the Reversi game.
+   * @param turn  the player to choose a move for.
+   * @param moves the candidate moves, all legal for turn.
+   * @param count the number of candidate moves at the front of the array.
+   * @return the number of moves kept, which is 0 if this stage prefers none of them.
+   */
+  int filter(ReadonlyReversi model, Tile turn, int[] moves, int count);
+}
@@ -0,0 +1,99 @@
+package strategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.ReadonlyReversi;
+import model.Tile;
+
+/**
+ * The stages that the built-in strategies are made of, for use in a StrategyPipeline.
+ */
+public final class MoveFilters {
+  // the corners of each size of board and the cells next to them, by side length
+  private static final Map<Integer, CornerCells> SHARED = new ConcurrentHashMap<>();
+
+  /**
+   * Keeps the moves that are not next to a corner of the hexagonal board, like
+   * AvoidCellsNextToCorners.
+   */
+  public static final MoveFilter AVOID_NEXT_TO_CORNERS = (model, turn, moves, count) -> {
+    boolean[] nextToCorner = cornerCells(model).nextToCorner;
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if (!nextToCorner[moves[i]]) {
+        moves[kept++] = moves[i];
+      }
+    }
+    return kept;
+  };
+
+  /**
+   * Keeps the moves on a corner of the hexagonal board, like GoForCorners.
+   */
+  public static final MoveFilter CORNERS = (model, turn, moves, count) -> {
+    boolean[] corner = cornerCells(model).corner;
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if (corner[moves[i]]) {
+        moves[kept++] = moves[i];
+      }
+    }
+    return kept;
+  };
+
+  /**
+   * Keeps the moves that capture the most tiles, like CaptureMostPieces.
+   */
+  public static final MoveFilter MOST_CAPTURES = (model, turn, moves, count) -> {
+    int boardLen = model.getBoardLen();
+    int largestScore = Integer.MIN_VALUE;
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      int score = model.getScoreOfMove(moves[i] / boardLen, moves[i] % boardLen, turn);
+      if (score > largestScore) {
+        largestScore = score;
+        kept = 0;
+      }
+      if (score == largestScore) {
+        moves[kept++] = moves[i];
+      }
+    }
+    return kept;
+  };
+
+  private MoveFilters() {
+  }
+
+  // the corner cells of a board and the cells next to them, each indexed by the packed cell
+  private static final class CornerCells {
+    private final boolean[] corner;
+    private final boolean[] nextToCorner;
+
+    // finds the six corners of the hexagonal board, and their neighbors on the given game
+    private CornerCells(ReadonlyReversi model) {
+      int boardLen = model.getBoardLen();
+      int s = model.getSideLen() - 1;
+      int b = boardLen - 1;
+      List<int[]> cells = List.of(new int[] {0, s}, new int[] {0, b}, new int[] {s, 0},
+              new int[] {s, b}, new int[] {b, 0}, new int[] {b, s});
+      corner = new boolean[boardLen * boardLen];
+      nextToCorner = new boolean[boardLen * boardLen];
+      for (int[] cell : cells) {
+        corner[cell[0] * boardLen + cell[1]] = true;
+        for (int[] neighbor : model.getNeighbors(cell[0], cell[1])) {
+          nextToCorner[neighbor[0] * boardLen + neighbor[1]] = true;
+        }
+      }
+    }
+  }
+
+  // the corner cells of the model's board, found on the first game of its size
+  private static CornerCells cornerCells(ReadonlyReversi model) {
+    int sideLen = model.getSideLen();
+    // looked up first, so that the lambda, which holds the model, is only made the first time
+    CornerCells cells = SHARED.get(sideLen);
+    return cells != null ? cells : SHARED.computeIfAbsent(sideLen, k -> new CornerCells(model));
+  }
+}
@@ -0,0 +1,202 @@
+package strategy;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import model.Reversi;
+import model.Tile;
+
+/**
+ * Orders the moves of a position for an alpha-beta search so that the move most likely to be
+ * best is searched first, which lets the search cut off the other moves sooner. Each heuristic
+ * can be turned on or off:
+ * <ul>
+ *   <li>HASH_MOVE: the best move stored in the transposition table for the position goes first.
+ *   </li>
+ *   <li>KILLERS: the last two moves that cut off the search at the same ply, in any position,
+ *       go next.</li>
+ *   <li>HISTORY: every other move is ranked by how often, and how deep, it has cut off the
+ *       search anywhere, kept in a table indexed by cell.</li>
+ *   <li>MOBILITY: every other move is ranked first by how few replies it leaves the opponent,
+ *       counted by playing it, with the history only breaking ties. Since that costs a move and
+ *       a move generation per move, it is only done where at least MOBILITY_MIN_DEPTH plies are
+ *       left to search.</li>
+ * </ul>
+ * With none of them the moves are searched in the order they are generated. The killers and
+ * history are kept between searches, and newSearch() ages them. Ordering allocates nothing once
+ * every ply has been reached, and a MoveOrdering should only be used by one search at a time.
+ */
+public final class MoveOrdering {
+  /**
+   * The heuristics a MoveOrdering can use.
+   */
+  public enum Heuristic {
+    HASH_MOVE, KILLERS, HISTORY, MOBILITY
+  }
+
+  /**
+   * The fewest plies left to search at which MOBILITY counts the opponent's replies.
+   */
+  public static final int MOBILITY_MIN_DEPTH = 2;
+
+  private static final int KILLERS_PER_PLY = 2;
+  // once a history value reaches this, every value is halved, so that it never overflows and
+  // recent cutoffs count for more
+  private static final int HISTORY_LIMIT = 1 << 20;
+  // how many history values each reply of the opponent outweighs, which keeps history to
+  // breaking ties between moves that leave as many replies
+  private static final int REPLY_WEIGHT = HISTORY_LIMIT;
+
+  private final boolean useHashMove;
+  private final boolean useKillers;
+  private final boolean useHistory;
+  private final boolean useMobility;
+
+  private int[] history = new int[0];
+  // killers[ply] are the moves that cut off the search at ply, most recent first
+  private int[][] killers = new int[0][];
+  private int[][] keyBuffers = new int[0][];
+  private int[] replies = new int[0];
+
+  /**
+   * Constructs a MoveOrdering that uses the given heuristics.
+   *
+   * @param heuristics the heuristics to use, which may be none.
+   * @throws IllegalArgumentException if the set is null.
+   */
+  public MoveOrdering(Set<Heuristic> heuristics) {
+    if (heuristics == null) {
+      throw new IllegalArgumentException("Heuristics cannot be null");
+    }
+    this.useHashMove = heuristics.contains(Heuristic.HASH_MOVE);
+    this.useKillers = heuristics.contains(Heuristic.KILLERS);
+    this.useHistory = heuristics.contains(Heuristic.HISTORY);
+    this.useMobility = heuristics.contains(Heuristic.MOBILITY);
+  }
+
+  /**
+   * Constructs a MoveOrdering that uses every heuristic.
+   */
+  public MoveOrdering() {
+    this(EnumSet.allOf(Heuristic.class));
+  }
+
+  /**
+   * Prepares for a new search: the killers are forgotten, and the history is halved so that it
+   * still guides the new search but gives way to what it finds.
+   */
+  public void newSearch() {
+    for (int[] plyKillers : killers) {
+      Arrays.fill(plyKillers, Reversi.PASS);
+    }
+    for (int i = 0; i < history.length; i++) {
+      history[i] >>= 1;
+    }
+  }
+
+  /**
+   * Sorts the moves of a position, best first.
+   *
+   * @param board    the position.
+   * @param side     the player to move.
+   * @param moves    the moves, which are sorted in place.
+   * @param numMoves the number of moves.
+   * @param ply      the ply of the position below the root of the search.
+   * @param depth    the number of plies left to search below the position.
+   * @param hashMove the best move stored for the position, or Reversi.PASS if there isn't one.
+   */
+  public void order(Reversi board, Tile side, int[] moves, int numMoves, int ply, int depth,
+                    int hashMove) {
+    int cells = board.getBoardLen() * board.getBoardLen();
+    if (history.length != cells) {
+      history = new int[cells];
+      replies = new int[cells];
+    }
+    ensurePly(ply);
+    int[] keys = keyBuffers[ply];
+    if (keys == null || keys.length < cells) {
+      keys = new int[cells];
+      keyBuffers[ply] = keys;
+    }
+    int[] plyKillers = killers[ply];
+    boolean countReplies = useMobility && depth >= MOBILITY_MIN_DEPTH;
+
+    for (int i = 0; i < numMoves; i++) {
+      int move = moves[i];
+      int key;
+      if (useHashMove && move == hashMove) {
+        key = Integer.MAX_VALUE;
+      } else if (useKillers && move == plyKillers[0]) {
+        key = Integer.MAX_VALUE - 1;
+      } else if (useKillers && move == plyKillers[1]) {
+        key = Integer.MAX_VALUE - 2;
+      } else {
+        key = useHistory ? history[move] : 0;
+        if (countReplies) {
+          board.pushMove(move);
+          key -= REPLY_WEIGHT * board.legalMoves(side.getOpposite(), replies);
+          board.popMove();
+        }
+      }
+      keys[i] = key;
+    }
+    // insertion sort, best first; it is stable, so equal moves keep the order they came in
+    for (int i = 1; i < numMoves; i++) {
+      int key = keys[i];
+      int move = moves[i];
+      int j = i - 1;
+      while (j >= 0 && keys[j] < key) {
+        keys[j + 1] = keys[j];
+        moves[j + 1] = moves[j];
+        j--;
+      }
+      keys[j + 1] = key;
+      moves[j + 1] = move;
+    }
+  }
+
+  /**
+   * Records that a move cut off the search, which makes it a killer at its ply and adds to its
+   * history as much as the square of the plies that were left to search below it.
+   *
+   * @param move  the move, which is not Reversi.PASS, on the board of the last ordered position.
+   * @param ply   the ply of the position the move was played in.
+   * @param depth the number of plies that were left to search below that position.
+   */
+  public void cutoff(int move, int ply, int depth) {
+    if (useKillers) {
+      ensurePly(ply);
+      int[] plyKillers = killers[ply];
+      if (plyKillers[0] != move) {
+        plyKillers[1] = plyKillers[0];
+        plyKillers[0] = move;
+      }
+    }
+    if (useHistory && move < history.length) {
+      history[move] += depth * depth;
+      if (history[move] >= HISTORY_LIMIT) {
+        for (int i = 0; i < history.length; i++) {
+          history[i] >>= 1;
+        }
+      }
+    }
+  }
+
+  // makes room for the killers and keys of the given ply
+  private void ensurePly(int ply) {
+    if (ply >= killers.length) {
+      int length = Math.max(ply + 1, killers.length * 2);
+      int[][] grownKillers = new int[length][];
+      System.arraycopy(killers, 0, grownKillers, 0, killers.length);
+      for (int i = killers.length; i < length; i++) {
+        grownKillers[i] = new int[KILLERS_PER_PLY];
+        Arrays.fill(grownKillers[i], Reversi.PASS);
+      }
+      killers = grownKillers;
+      int[][] grownKeys = new int[length][];
+      System.arraycopy(keyBuffers, 0, grownKeys, 0, keyBuffers.length);
+      keyBuffers = grownKeys;
+    }
+  }
+}
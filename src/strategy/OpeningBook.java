@@ -0,0 +1,409 @@
+package strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import archive.GameRecord;
+import model.AxialCoords;
+import model.CanonicalPosition;
+import model.ReadonlyReversi;
+import model.Reversi;
+import model.Symmetry;
+import model.Tile;
+
+/**
+ * Strategy that plays the moves of an opening book: for each position of the first plies of a
+ * corpus of games, the moves played in it, how many games played each one and how well those
+ * games went for the player who made it. Positions are stored by canonical hash (see Symmetry),
+ * so every orientation of a position shares its entry, and moves are stored in the canonical
+ * orientation. In a position of the book it plays the move with the best average result among
+ * those played in at least the book's minimum number of games; elsewhere it returns no move, so
+ * it is meant to be tried before another strategy.
+ *
+ * <p>The book is a sorted array of position hashes with the moves of every position in parallel
+ * arrays, so a lookup is one binary search, and a position with more tiles than the book's depth
+ * allows is ruled out without one. Books are made by a Builder, and saved and loaded with write()
+ * and read().
+ */
+public final class OpeningBook implements FallibleReversiStrategy {
+  /**
+   * The bytes an opening book file starts with.
+   */
+  static final byte[] MAGIC = {'R', 'V', 'O', 'B'};
+
+  /**
+   * The version of the format, written after MAGIC.
+   */
+  static final int VERSION = 1;
+
+  private static final OpeningBook EMPTY = new OpeningBook(GameRecord.BoardType.SQUARE, 8, 0, 1,
+          new long[0], new int[] {0}, new short[0], new int[0], new int[0]);
+
+  private final GameRecord.BoardType boardType;
+  private final int sideLen;
+  private final int depth;
+  private final int minGames;
+  // the positions in ascending order; the moves of keys[i] are firstMove[i] to firstMove[i + 1]
+  private final long[] keys;
+  private final int[] firstMove;
+  private final short[] moves;
+  private final int[] games;
+  // two points per win and one per draw, for the player who made the move
+  private final int[] points;
+
+  private OpeningBook(GameRecord.BoardType boardType, int sideLen, int depth, int minGames,
+                      long[] keys, int[] firstMove, short[] moves, int[] games, int[] points) {
+    this.boardType = boardType;
+    this.sideLen = sideLen;
+    this.depth = depth;
+    this.minGames = minGames;
+    this.keys = keys;
+    this.firstMove = firstMove;
+    this.moves = moves;
+    this.games = games;
+    this.points = points;
+  }
+
+  /**
+   * Returns a book with no positions, which never chooses a move.
+   *
+   * @return the empty book.
+   */
+  public static OpeningBook empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the number of plies from the start of the game the book covers.
+   *
+   * @return the depth of the book.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Returns the number of games a move must have been played in to be chosen.
+   *
+   * @return the minimum number of games.
+   */
+  public int getMinGames() {
+    return minGames;
+  }
+
+  /**
+   * Returns the number of positions in the book.
+   *
+   * @return the number of positions.
+   */
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
+    int move = bookMove(model, turn);
+    if (move == Reversi.PASS) {
+      return Optional.empty();
+    }
+    int boardLen = model.getBoardLen();
+    return Optional.of(AxialCoords.convert(move / boardLen, move % boardLen, model.getSideLen()));
+  }
+
+  /**
+   * Returns the book's move in the given position.
+   *
+   * @param model the game.
+   * @param turn  the player to move.
+   * @return the move, packed as row * boardLen + col, or Reversi.PASS if the position is not in
+   *         the book, no move of it was played often enough, or it is not turn's turn.
+   */
+  public int bookMove(ReadonlyReversi model, Tile turn) {
+    if (keys.length == 0 || model.getSideLen() != sideLen
+            || GameRecord.typeOf(model) != boardType || model.isGameOver()
+            || model.getTurn() != turn) {
+      return Reversi.PASS;
+    }
+    // every move adds a tile, so counting them rules out most positions outside the book
+    int startTiles = boardType == GameRecord.BoardType.SQUARE ? 4 : 6;
+    if (model.getScore(Tile.BLACK) + model.getScore(Tile.WHITE) - startTiles >= depth) {
+      return Reversi.PASS;
+    }
+    CanonicalPosition position = Symmetry.of(model).canonicalize(model);
+    int index = Arrays.binarySearch(keys, position.getHash());
+    if (index < 0) {
+      return Reversi.PASS;
+    }
+    int best = -1;
+    for (int i = firstMove[index]; i < firstMove[index + 1]; i++) {
+      // the moves are sorted by games played, so of the moves with the best average this picks
+      // the most played
+      if (games[i] >= minGames && (best < 0
+              || (long) points[i] * games[best] > (long) points[best] * games[i])) {
+        best = i;
+      }
+    }
+    if (best < 0) {
+      return Reversi.PASS;
+    }
+    int move = position.toOriginal(moves[best]);
+    int boardLen = model.getBoardLen();
+    // two positions can have the same hash, so only play a move that is legal here
+    return model.isLegalMove(move / boardLen, move % boardLen) ? move : Reversi.PASS;
+  }
+
+  /**
+   * Returns how many games played the given move in the given position.
+   *
+   * @param model the game.
+   * @param move  the move, packed as row * boardLen + col.
+   * @return the number of games, or 0 if the move or position is not in the book.
+   */
+  public int gamesOf(ReadonlyReversi model, int move) {
+    if (keys.length == 0 || model.getSideLen() != sideLen
+            || GameRecord.typeOf(model) != boardType) {
+      return 0;
+    }
+    CanonicalPosition position = Symmetry.of(model).canonicalize(model);
+    int index = Arrays.binarySearch(keys, position.getHash());
+    if (index < 0) {
+      return 0;
+    }
+    int canonical = position.toCanonical(move);
+    for (int i = firstMove[index]; i < firstMove[index + 1]; i++) {
+      if (moves[i] == canonical) {
+        return games[i];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Saves the book to the given file, replacing it.
+   *
+   * @param file the file.
+   * @throws IOException if the file can't be written.
+   */
+  public void write(Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file), 1 << 16))) {
+      out.write(MAGIC);
+      out.writeByte(VERSION);
+      out.writeByte((boardType == GameRecord.BoardType.SQUARE ? 0x80 : 0) | sideLen);
+      out.writeShort(depth);
+      out.writeInt(minGames);
+      out.writeInt(keys.length);
+      out.writeInt(moves.length);
+      for (int i = 0; i < keys.length; i++) {
+        out.writeLong(keys[i]);
+        out.writeShort(firstMove[i + 1] - firstMove[i]);
+      }
+      for (int i = 0; i < moves.length; i++) {
+        out.writeShort(moves[i]);
+        out.writeInt(games[i]);
+        out.writeInt(points[i]);
+      }
+    }
+  }
+
+  /**
+   * Loads a book saved by write().
+   *
+   * @param file the file.
+   * @return the book.
+   * @throws IOException if the file can't be read or isn't an opening book.
+   */
+  public static OpeningBook read(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(file), 1 << 16))) {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new IOException(file + " is not an opening book");
+      }
+      int version = in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported opening book version " + version);
+      }
+      int header = in.readUnsignedByte();
+      GameRecord.BoardType type = (header & 0x80) != 0 ? GameRecord.BoardType.SQUARE
+              : GameRecord.BoardType.HEX;
+      int depth = in.readUnsignedShort();
+      int minGames = in.readInt();
+      int numPositions = in.readInt();
+      int numMoves = in.readInt();
+      if (numPositions < 0 || numMoves < numPositions) {
+        throw new IOException(file + " is not a valid opening book");
+      }
+      long[] keys = new long[numPositions];
+      int[] firstMove = new int[numPositions + 1];
+      for (int i = 0; i < numPositions; i++) {
+        keys[i] = in.readLong();
+        firstMove[i + 1] = firstMove[i] + in.readUnsignedShort();
+        if (i > 0 && keys[i] <= keys[i - 1]) {
+          throw new IOException(file + " is not a valid opening book");
+        }
+      }
+      if (firstMove[numPositions] != numMoves) {
+        throw new IOException(file + " is not a valid opening book");
+      }
+      short[] moves = new short[numMoves];
+      int[] games = new int[numMoves];
+      int[] points = new int[numMoves];
+      for (int i = 0; i < numMoves; i++) {
+        moves[i] = in.readShort();
+        games[i] = in.readInt();
+        points[i] = in.readInt();
+      }
+      return new OpeningBook(type, header & 0x7F, depth, minGames, keys, firstMove, moves,
+              games, points);
+    }
+  }
+
+  /**
+   * Builds an OpeningBook from the records of finished games, all on the same board.
+   * A builder is not thread safe.
+   */
+  public static final class Builder {
+    private final int depth;
+    private final int minGames;
+    private GameRecord.BoardType boardType;
+    private int sideLen;
+    // the statistics of every position: games and points of each canonical move, by cell
+    private final Map<Long, Map<Integer, int[]>> positions = new HashMap<>();
+
+    /**
+     * Constructs a Builder.
+     *
+     * @param depth    the number of plies from the start of each game to add to the book.
+     * @param minGames the number of games a move must have been played in to be chosen.
+     * @throws IllegalArgumentException if the depth or minimum is not positive.
+     */
+    public Builder(int depth, int minGames) {
+      if (depth <= 0 || minGames <= 0) {
+        throw new IllegalArgumentException("Depth and minimum games must be positive");
+      }
+      this.depth = depth;
+      this.minGames = minGames;
+    }
+
+    /**
+     * Adds the opening of a game to the book.
+     *
+     * @param record the record of the game.
+     * @return whether the game was added, which it isn't unless it is finished.
+     * @throws IllegalArgumentException if the game is not on the board of the games before it.
+     * @throws IllegalStateException    if a ply of the record is not legal.
+     */
+    public boolean add(GameRecord record) {
+      if (boardType == null) {
+        boardType = record.getBoardType();
+        sideLen = record.getSideLen();
+      } else if (record.getBoardType() != boardType || record.getSideLen() != sideLen) {
+        throw new IllegalArgumentException("Every game of a book must be on the same board");
+      }
+      Reversi game = record.newGame();
+      Symmetry symmetry = Symmetry.of(game);
+      int boardLen = game.getBoardLen();
+      // the canonical position, move and player of each ply of the opening
+      int plies = Math.min(depth, record.size());
+      long[] keys = new long[plies];
+      int[] moves = new int[plies];
+      Tile[] movers = new Tile[plies];
+      for (int ply = 0; ply < record.size(); ply++) {
+        if (game.isGameOver()) {
+          throw new IllegalStateException("Ply " + ply + " is after the end of the game");
+        }
+        int move = record.getMove(ply);
+        if (ply < plies && move != Reversi.PASS) {
+          CanonicalPosition position = symmetry.canonicalize(game);
+          keys[ply] = position.getHash();
+          moves[ply] = position.toCanonical(move);
+          movers[ply] = game.getTurn();
+        }
+        if (move == Reversi.PASS) {
+          game.pass();
+        } else {
+          game.makeMove(move / boardLen, move % boardLen);
+        }
+      }
+      if (!game.isGameOver()) {
+        return false;
+      }
+      int black = game.getScore(Tile.BLACK);
+      int white = game.getScore(Tile.WHITE);
+      Tile winner = black > white ? Tile.BLACK : white > black ? Tile.WHITE : Tile.EMPTY;
+      for (int ply = 0; ply < plies; ply++) {
+        if (movers[ply] != null) {
+          int[] stats = positions.computeIfAbsent(keys[ply], key -> new HashMap<>())
+                  .computeIfAbsent(moves[ply], key -> new int[2]);
+          stats[0]++;
+          stats[1] += winner == movers[ply] ? 2 : winner == Tile.EMPTY ? 1 : 0;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Builds the book from the games added so far. Positions none of whose moves were played in
+     * at least the minimum number of games are left out.
+     *
+     * @return the book.
+     */
+    public OpeningBook build() {
+      List<Long> keys = new ArrayList<>();
+      int numMoves = 0;
+      for (Map.Entry<Long, Map<Integer, int[]>> position : positions.entrySet()) {
+        for (int[] stats : position.getValue().values()) {
+          if (stats[0] >= minGames) {
+            keys.add(position.getKey());
+            numMoves += position.getValue().size();
+            break;
+          }
+        }
+      }
+      if (keys.isEmpty()) {
+        return new OpeningBook(boardType == null ? GameRecord.BoardType.SQUARE : boardType,
+                boardType == null ? 8 : sideLen, depth, minGames, new long[0], new int[] {0},
+                new short[0], new int[0], new int[0]);
+      }
+      keys.sort(null);
+      long[] sortedKeys = new long[keys.size()];
+      int[] firstMove = new int[keys.size() + 1];
+      short[] moves = new short[numMoves];
+      int[] games = new int[numMoves];
+      int[] points = new int[numMoves];
+      int next = 0;
+      for (int i = 0; i < sortedKeys.length; i++) {
+        sortedKeys[i] = keys.get(i);
+        firstMove[i] = next;
+        List<Map.Entry<Integer, int[]>> played =
+                new ArrayList<>(positions.get(sortedKeys[i]).entrySet());
+        // most played first, then by cell, so that a book is the same however it was built
+        played.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                ? Integer.compare(b.getValue()[0], a.getValue()[0])
+                : Integer.compare(a.getKey(), b.getKey()));
+        for (Map.Entry<Integer, int[]> move : played) {
+          moves[next] = (short) (int) move.getKey();
+          games[next] = move.getValue()[0];
+          points[next] = move.getValue()[1];
+          next++;
+        }
+      }
+      firstMove[sortedKeys.length] = next;
+      return new OpeningBook(boardType, sideLen, depth, minGames, sortedKeys, firstMove, moves,
+              games, points);
+    }
+  }
+}
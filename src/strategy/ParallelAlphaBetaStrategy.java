@@ -0,0 +1,230 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.AxialCoords;
+import model.ReadonlyReversi;
+import model.Tile;
+
+/**
+ * Strategy class that runs several AlphaBetaStrategy searches of the same position at once, one
+ * per thread, all sharing one TranspositionTable (Lazy SMP). The searches don't divide the work
+ * between them explicitly: each helper thread searches the root moves in a different order and
+ * some start one ply deeper, so they store results the main search soon needs, and the main
+ * search finds them in the shared table instead of searching them itself. When the main search
+ * finishes, the helpers are stopped, and the move of whichever search got the deepest is played.
+ * The calling thread runs the main search, and the helpers run on a pool of daemon threads that
+ * is kept until the strategy is closed. A single instance should not be used by several threads
+ * at once.
+ */
+public class ParallelAlphaBetaStrategy implements FallibleReversiStrategy, AutoCloseable {
+  /**
+   * The system property that sets the number of threads used by ParallelAlphaBetaStrategy(long).
+   */
+  public static final String THREADS_PROPERTY = "reversi.searchThreads";
+
+  private final long timeLimitMillis;
+  private final int maxDepth;
+  private final int numThreads;
+  private final TranspositionTable table;
+  private final Evaluator evaluator;
+  // the move ordering of each search thread, index 0 being the main search, kept between moves
+  // so that its killers and history carry over as they do for a single AlphaBetaStrategy
+  private final MoveOrdering[] orderings;
+  private final ExecutorService helpers;
+  private volatile boolean closed;
+
+  private int depthReached;
+  private long nodes;
+  private long elapsedMillis;
+
+  /**
+   * Constructs a ParallelAlphaBetaStrategy that searches until the given time per move runs out.
+   * It uses as many threads as the THREADS_PROPERTY system property says, or one per available
+   * processor if it is not set, and a TranspositionTable of the configured size.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @throws IllegalArgumentException if the time limit or the number of threads is not positive.
+   */
+  public ParallelAlphaBetaStrategy(long timeLimitMillis) {
+    this(timeLimitMillis, Integer.MAX_VALUE,
+            Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+            TranspositionTable.withConfiguredSize());
+  }
+
+  /**
+   * Constructs a ParallelAlphaBetaStrategy that searches with the given number of threads until
+   * the given time per move runs out or the given depth has been searched.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @param maxDepth        the deepest search (in plies) to run.
+   * @param numThreads      the number of threads to search with, including the calling thread.
+   * @param table           the table shared by the searches.
+   * @throws IllegalArgumentException if the time limit, depth or number of threads is not
+   *                                  positive, or the table is null.
+   */
+  public ParallelAlphaBetaStrategy(long timeLimitMillis, int maxDepth, int numThreads,
+                                   TranspositionTable table) {
+    this(timeLimitMillis, maxDepth, numThreads, table, Evaluator.DISC_DIFFERENCE);
+  }
+
+  /**
+   * Constructs a ParallelAlphaBetaStrategy like ParallelAlphaBetaStrategy(long, int, int,
+   * TranspositionTable) whose searches score the positions they stop at with the given
+   * evaluator, which they all share.
+   *
+   * @param timeLimitMillis the time budget for each move in milliseconds.
+   * @param maxDepth        the deepest search (in plies) to run.
+   * @param numThreads      the number of threads to search with, including the calling thread.
+   * @param table           the table shared by the searches.
+   * @param evaluator       the evaluator of unfinished positions.
+   * @throws IllegalArgumentException if the time limit, depth or number of threads is not
+   *                                  positive, or the table or evaluator is null.
+   */
+  public ParallelAlphaBetaStrategy(long timeLimitMillis, int maxDepth, int numThreads,
+                                   TranspositionTable table, Evaluator evaluator) {
+    if (timeLimitMillis <= 0 || maxDepth <= 0 || numThreads <= 0) {
+      throw new IllegalArgumentException("Time limit, depth and threads must be positive");
+    }
+    if (table == null || evaluator == null) {
+      throw new IllegalArgumentException("Table and evaluator cannot be null");
+    }
+    this.timeLimitMillis = timeLimitMillis;
+    this.maxDepth = maxDepth;
+    this.numThreads = numThreads;
+    this.table = table;
+    this.evaluator = evaluator;
+    this.orderings = new MoveOrdering[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      orderings[i] = new MoveOrdering();
+    }
+    this.helpers = numThreads == 1 ? null : Executors.newFixedThreadPool(numThreads - 1, r -> {
+      Thread thread = new Thread(r, "search-helper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Chooses a move as described by the class.
+   *
+   * @throws IllegalStateException if the strategy has been closed.
+   */
+  @Override
+  public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
+    if (closed) {
+      throw new IllegalStateException("Strategy is closed");
+    }
+    long start = System.nanoTime();
+    AtomicBoolean stopSignal = new AtomicBoolean();
+    AlphaBetaStrategy main =
+            new AlphaBetaStrategy(timeLimitMillis, maxDepth, table, evaluator, orderings[0],
+                    stopSignal, 0);
+    List<AlphaBetaStrategy> searches = new ArrayList<>();
+    List<Future<Optional<AxialCoords>>> helperMoves = new ArrayList<>();
+    searches.add(main);
+    if (!model.isGameOver()) {
+      for (int i = 1; i < numThreads; i++) {
+        AlphaBetaStrategy helper = new AlphaBetaStrategy(timeLimitMillis, maxDepth, table,
+                evaluator, orderings[i], stopSignal, i);
+        // every helper gets its own copy, made here so the model is only read by this thread
+        ReadonlyReversi copy = model.copyGame();
+        searches.add(helper);
+        helperMoves.add(helpers.submit(() -> helper.chooseMove(copy, turn)));
+      }
+    }
+
+    Optional<AxialCoords> bestMove = main.chooseMove(model, turn);
+    depthReached = main.getDepthReached();
+    stopSignal.set(true);
+    for (int i = 0; i < helperMoves.size(); i++) {
+      Optional<AxialCoords> move = waitFor(helperMoves.get(i));
+      if (searches.get(i + 1).getDepthReached() > depthReached && move.isPresent()) {
+        bestMove = move;
+        depthReached = searches.get(i + 1).getDepthReached();
+      }
+    }
+    nodes = 0;
+    for (AlphaBetaStrategy search : searches) {
+      nodes += search.getNodesSearched();
+    }
+    elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    return bestMove;
+  }
+
+  /**
+   * Returns the depth of the deepest search that finished during the last call to chooseMove().
+   *
+   * @return the depth reached in plies, or 0 if no search was needed.
+   */
+  public int getDepthReached() {
+    return depthReached;
+  }
+
+  /**
+   * Returns the number of positions searched by all threads during the last call to
+   * chooseMove().
+   *
+   * @return the number of positions searched.
+   */
+  public long getNodesSearched() {
+    return nodes;
+  }
+
+  /**
+   * Returns how long the last call to chooseMove() took.
+   *
+   * @return the time taken in milliseconds.
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * Returns the number of threads each search runs on.
+   *
+   * @return the number of threads, including the calling thread.
+   */
+  public int getNumThreads() {
+    return numThreads;
+  }
+
+  /**
+   * Returns the table shared by the searches.
+   *
+   * @return the transposition table.
+   */
+  public TranspositionTable getTable() {
+    return table;
+  }
+
+  /**
+   * Shuts down the helper threads. The strategy can't choose moves once it is closed, and
+   * closing it again does nothing.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    if (helpers != null) {
+      helpers.shutdown();
+    }
+  }
+
+  private static Optional<AxialCoords> waitFor(Future<Optional<AxialCoords>> move) {
+    try {
+      return move.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Optional.empty();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Helper search failed", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.ReadonlyReversi;
+import model.Tile;
+
+/**
+ * Evaluator that scores a position by the features EvaluationFeatures lists for its board:
+ * mobility, frontier, potential mobility, parity and the edge and corner patterns, each with a
+ * weight per phase of the game. Every board has its own weights, so hexagonal and square boards
+ * are weighed apart. Boards it has no weights for use EvaluationFeatures.getDefaultWeights(),
+ * and withWeights() gives an evaluator with other weights for a board, such as tuned ones.
+ * Evaluators are immutable, and evaluating allocates nothing, so one evaluator can be shared by
+ * every search. The weights of every board an evaluator has its own weights for are saved with
+ * write() and loaded with read().
+ */
+public final class PatternEvaluator implements Evaluator {
+  /**
+   * The bytes a weights file starts with.
+   */
+  static final byte[] MAGIC = {'R', 'V', 'P', 'E'};
+
+  /**
+   * The version of the format, written after MAGIC.
+   */
+  static final int VERSION = 1;
+
+  private final Map<EvaluationFeatures, int[]> weights;
+
+  /**
+   * Constructs a PatternEvaluator with the default weights of every board.
+   */
+  public PatternEvaluator() {
+    this(new HashMap<>());
+  }
+
+  private PatternEvaluator(Map<EvaluationFeatures, int[]> weights) {
+    this.weights = weights;
+  }
+
+  /**
+   * Returns an evaluator with the given weights for the given board, and this evaluator's
+   * weights for every other board.
+   *
+   * @param features the features of the board.
+   * @param weights  the weights, laid out as EvaluationFeatures describes; they are copied.
+   * @return the new evaluator.
+   * @throws IllegalArgumentException if either argument is null or there are not
+   *                                  features.getNumWeights() weights.
+   */
+  public PatternEvaluator withWeights(EvaluationFeatures features, int[] weights) {
+    if (features == null || weights == null) {
+      throw new IllegalArgumentException("Features and weights cannot be null");
+    }
+    if (weights.length != features.getNumWeights()) {
+      throw new IllegalArgumentException("Expected " + features.getNumWeights() + " weights");
+    }
+    Map<EvaluationFeatures, int[]> copy = new HashMap<>(this.weights);
+    copy.put(features, weights.clone());
+    return new PatternEvaluator(copy);
+  }
+
+  /**
+   * Returns the weights this evaluator uses for the given board.
+   *
+   * @param features the features of the board.
+   * @return a copy of the weights.
+   */
+  public int[] getWeights(EvaluationFeatures features) {
+    int[] boardWeights = weights.get(features);
+    return boardWeights == null ? features.getDefaultWeights() : boardWeights.clone();
+  }
+
+  /**
+   * Saves the weights of every board this evaluator has its own weights for.
+   *
+   * @param file the file to write, which is replaced if it exists.
+   * @throws IOException if the file can't be written.
+   */
+  public void write(Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file), 1 << 16))) {
+      out.write(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(weights.size());
+      for (Map.Entry<EvaluationFeatures, int[]> entry : weights.entrySet()) {
+        EvaluationFeatures features = entry.getKey();
+        out.writeByte((features.isHex() ? 0 : 0x80) | features.getSideLen());
+        out.writeInt(entry.getValue().length);
+        for (int weight : entry.getValue()) {
+          out.writeInt(weight);
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads an evaluator saved by write(), which has the saved weights for the boards it saved
+   * and the default weights for the others.
+   *
+   * @param file the file.
+   * @return the evaluator.
+   * @throws IOException if the file can't be read or isn't a weights file of these features.
+   */
+  public static PatternEvaluator read(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(file), 1 << 16))) {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new IOException(file + " is not an evaluation weights file");
+      }
+      int version = in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported evaluation weights version " + version);
+      }
+      Map<EvaluationFeatures, int[]> weights = new HashMap<>();
+      int numBoards = in.readInt();
+      for (int i = 0; i < numBoards; i++) {
+        int header = in.readUnsignedByte();
+        EvaluationFeatures features;
+        try {
+          features = (header & 0x80) != 0 ? EvaluationFeatures.ofSquare(header & 0x7F)
+                  : EvaluationFeatures.ofHex(header);
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Invalid board in " + file + ": " + e.getMessage());
+        }
+        int numWeights = in.readInt();
+        if (numWeights != features.getNumWeights()) {
+          throw new IOException(file + " has " + numWeights + " weights for a board with "
+                  + features.getNumWeights());
+        }
+        int[] boardWeights = new int[numWeights];
+        for (int j = 0; j < numWeights; j++) {
+          boardWeights[j] = in.readInt();
+        }
+        weights.put(features, boardWeights);
+      }
+      return new PatternEvaluator(weights);
+    }
+  }
+
+  @Override
+  public int evaluate(ReadonlyReversi board, Tile side) {
+    EvaluationFeatures features = EvaluationFeatures.of(board);
+    int[] boardWeights = weights.get(features);
+    return boardWeights == null ? features.score(board, side)
+            : features.score(board, side, boardWeights);
+  }
+}
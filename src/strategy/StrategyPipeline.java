@@ -0,0 +1,125 @@
+package strategy;
+
+import java.util.List;
+import java.util.Optional;
+
+import model.AxialCoords;
+import model.ReadonlyReversi;
+import model.Tile;
+
+/**
+ * Strategy class made of a list of MoveFilter stages. The legal moves are listed once per turn
+ * and handed from stage to stage, and whichever moves are left at the end are broken by taking
+ * the one closest to the top left of the board, like the other strategies do. There are two
+ * ways to combine the stages: with firstOf(), the first stage that keeps any move decides, like
+ * trying one strategy after another; with allOf(), every stage narrows down the moves the stage
+ * before it kept, and a stage that would keep none is skipped.
+ *
+ * <p>The last choice is remembered together with the position it was made in, so asking again
+ * in the same position (for the same player) costs nothing.
+ * A single instance should not be used by several threads at once.
+ */
+public final class StrategyPipeline implements FallibleReversiStrategy {
+  private final List<MoveFilter> stages;
+  private final boolean firstMatchDecides;
+
+  private int[] moves = new int[0];
+  private int[] candidates = new int[0];
+  // the position, player and board size of the last choice, and the choice
+  private long cachedHash;
+  private Tile cachedTurn;
+  private int cachedBoardLen;
+  private Optional<AxialCoords> cachedMove;
+
+  private StrategyPipeline(List<MoveFilter> stages, boolean firstMatchDecides) {
+    if (stages.isEmpty()) {
+      throw new IllegalArgumentException("A pipeline needs at least one stage");
+    }
+    this.stages = stages;
+    this.firstMatchDecides = firstMatchDecides;
+  }
+
+  /**
+   * Creates a pipeline in which the first stage that keeps any move decides between the moves
+   * it kept. If no stage keeps a move, every legal move is left.
+   *
+   * @param stages the stages, in the order to try them.
+   * @return the pipeline.
+   * @throws IllegalArgumentException if there are no stages.
+   */
+  public static StrategyPipeline firstOf(MoveFilter... stages) {
+    return new StrategyPipeline(List.of(stages), true);
+  }
+
+  /**
+   * Creates a pipeline in which every stage narrows down the moves kept by the stage before it.
+   * A stage that would keep no move is skipped.
+   *
+   * @param stages the stages, in the order to apply them.
+   * @return the pipeline.
+   * @throws IllegalArgumentException if there are no stages.
+   */
+  public static StrategyPipeline allOf(MoveFilter... stages) {
+    return new StrategyPipeline(List.of(stages), false);
+  }
+
+  @Override
+  public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
+    int boardLen = model.getBoardLen();
+    long hash = model.positionHash();
+    if (cachedMove != null && hash == cachedHash && turn == cachedTurn
+            && boardLen == cachedBoardLen) {
+      return cachedMove;
+    }
+    Optional<AxialCoords> move = choose(model, turn, boardLen);
+    cachedHash = hash;
+    cachedTurn = turn;
+    cachedBoardLen = boardLen;
+    cachedMove = move;
+    return move;
+  }
+
+  private Optional<AxialCoords> choose(ReadonlyReversi model, Tile turn, int boardLen) {
+    if (model.isGameOver()) {
+      return Optional.empty();
+    }
+    if (moves.length < boardLen * boardLen) {
+      moves = new int[boardLen * boardLen];
+      candidates = new int[boardLen * boardLen];
+    }
+    int count = model.legalMoves(turn, moves);
+    if (count == 0) {
+      return Optional.empty();
+    }
+    for (MoveFilter stage : stages) {
+      System.arraycopy(moves, 0, candidates, 0, count);
+      int kept = stage.filter(model, turn, candidates, count);
+      if (kept > 0) {
+        System.arraycopy(candidates, 0, moves, 0, kept);
+        count = kept;
+        if (firstMatchDecides) {
+          break;
+        }
+      }
+    }
+    int best = closestToTopLeft(model, moves, count);
+    return Optional.of(AxialCoords.convert(best / boardLen, best % boardLen,
+            model.getSideLen()));
+  }
+
+  // the same tie-break as Strategy.getMinDistanceMove()
+  private static int closestToTopLeft(ReadonlyReversi model, int[] moves, int count) {
+    int boardLen = model.getBoardLen();
+    double minDistance = Integer.MAX_VALUE;
+    int best = moves[0];
+    for (int i = 0; i < count; i++) {
+      double distance = Math.hypot(-(moves[i] / boardLen),
+              (model.getSideLen() - 1) - moves[i] % boardLen);
+      if (distance < minDistance) {
+        minDistance = distance;
+        best = moves[i];
+      }
+    }
+    return best;
+  }
+}
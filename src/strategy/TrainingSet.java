@@ -0,0 +1,180 @@
+package strategy;
+
+import java.util.Arrays;
+
+import archive.GameRecord;
+import model.Reversi;
+import model.Tile;
+
+/**
+ * The positions of a corpus of finished games on one board, with the result of each game for the
+ * player to move, for EvaluationTuner to fit the weights of a PatternEvaluator to. Every position
+ * is stored as the features EvaluationFeatures lists for it, in flat primitive arrays indexed by
+ * position: its phase and result as a byte each, its scalar features as shorts, and its pattern
+ * features as chars holding the index within the pattern's table. A position takes about 40
+ * bytes, so tens of millions fit in memory, and a pass over them reads the arrays in order.
+ */
+public final class TrainingSet {
+  private static final int INITIAL_CAPACITY = 1 << 12;
+
+  private final EvaluationFeatures features;
+  private final int skipPlies;
+  private final int numPatterns;
+  private final int[] tableOffsets;
+  private final int[] indexes;
+  private final int[] counts;
+
+  private int size;
+  private byte[] phases = new byte[INITIAL_CAPACITY];
+  // 0 for a loss, 1 for a draw and 2 for a win, for the player to move
+  private byte[] results = new byte[INITIAL_CAPACITY];
+  private short[] scalars;
+  private char[] patterns;
+
+  /**
+   * Constructs an empty TrainingSet for the given board.
+   *
+   * @param features  the features of the board.
+   * @param skipPlies the number of plies at the start of every game to leave out, which are
+   *                  often played at random.
+   * @throws IllegalArgumentException if the features are null, the number of plies is negative,
+   *                                  or a pattern of the board has too many cells to store.
+   */
+  public TrainingSet(EvaluationFeatures features, int skipPlies) {
+    if (features == null || skipPlies < 0) {
+      throw new IllegalArgumentException("Features cannot be null and plies cannot be negative");
+    }
+    this.features = features;
+    this.skipPlies = skipPlies;
+    this.numPatterns = features.getNumPatterns();
+    this.tableOffsets = new int[numPatterns];
+    for (int i = 0; i < numPatterns; i++) {
+      if (features.getTableSize(i) > Character.MAX_VALUE + 1) {
+        throw new IllegalArgumentException("Pattern tables are too large to store");
+      }
+      tableOffsets[i] = features.getTableOffset(i);
+    }
+    this.indexes = new int[features.getMaxFeatures()];
+    this.counts = new int[features.getMaxFeatures()];
+    this.scalars = new short[INITIAL_CAPACITY * EvaluationFeatures.NUM_SCALARS];
+    this.patterns = new char[INITIAL_CAPACITY * numPatterns];
+  }
+
+  /**
+   * Returns the features of the board of this set.
+   *
+   * @return the features.
+   */
+  public EvaluationFeatures getFeatures() {
+    return features;
+  }
+
+  /**
+   * Returns the number of positions in this set.
+   *
+   * @return the number of positions.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds every position of the given game after the plies this set skips in which the player to
+   * move has a move, with the result of the game for that player.
+   *
+   * @param record the record of the game.
+   * @return true if the game was added, or false if it isn't finished.
+   * @throws IllegalArgumentException if the game is not on this set's board.
+   * @throws IllegalStateException    if a ply of the record is not legal, or the set is full.
+   */
+  public boolean add(GameRecord record) {
+    if ((record.getBoardType() == GameRecord.BoardType.HEX) != features.isHex()
+            || record.getSideLen() != features.getSideLen()) {
+      throw new IllegalArgumentException("Game is not on this set's board");
+    }
+    Reversi end = record.replay();
+    if (!end.isGameOver()) {
+      return false;
+    }
+    int blackLead = end.getScore(Tile.BLACK) - end.getScore(Tile.WHITE);
+
+    Reversi game = record.newGame();
+    int boardLen = game.getBoardLen();
+    for (int ply = 0; ply < record.size(); ply++) {
+      int move = record.getMove(ply);
+      if (ply >= skipPlies && move != Reversi.PASS) {
+        Tile turn = game.getTurn();
+        int lead = turn == Tile.BLACK ? blackLead : -blackLead;
+        addPosition(game, turn, lead > 0 ? 2 : lead == 0 ? 1 : 0);
+      }
+      if (move == Reversi.PASS) {
+        game.pass();
+      } else {
+        game.makeMove(move / boardLen, move % boardLen);
+      }
+    }
+    return true;
+  }
+
+  private void addPosition(Reversi game, Tile turn, int result) {
+    if (size == phases.length) {
+      int capacity = phases.length + (phases.length >> 1);
+      if ((long) capacity * Math.max(numPatterns, EvaluationFeatures.NUM_SCALARS)
+              > Integer.MAX_VALUE - 8) {
+        throw new IllegalStateException("Training set is full");
+      }
+      phases = Arrays.copyOf(phases, capacity);
+      results = Arrays.copyOf(results, capacity);
+      scalars = Arrays.copyOf(scalars, capacity * EvaluationFeatures.NUM_SCALARS);
+      patterns = Arrays.copyOf(patterns, capacity * numPatterns);
+    }
+    features.extract(game, turn, indexes, counts);
+    int phase = indexes[0] / features.getWeightsPerPhase();
+    int base = phase * features.getWeightsPerPhase();
+    phases[size] = (byte) phase;
+    results[size] = (byte) result;
+    for (int i = 0; i < EvaluationFeatures.NUM_SCALARS; i++) {
+      scalars[size * EvaluationFeatures.NUM_SCALARS + i] = (short) counts[i];
+    }
+    for (int i = 0; i < numPatterns; i++) {
+      int index = indexes[EvaluationFeatures.NUM_SCALARS + i] - base - tableOffsets[i];
+      patterns[size * numPatterns + i] = (char) index;
+    }
+    size++;
+  }
+
+  // adds up the logistic loss of the positions from up to to, each scored with the given weights
+  // and its probability of winning taken as 1 / (1 + e^(-scale * score)), and adds the gradient
+  // of their loss by the weights to gradient if it isn't null
+  double loss(int from, int to, double[] weights, double scale, double[] gradient) {
+    int weightsPerPhase = features.getWeightsPerPhase();
+    double loss = 0;
+    for (int p = from; p < to; p++) {
+      int base = phases[p] * weightsPerPhase;
+      int scalarStart = p * EvaluationFeatures.NUM_SCALARS;
+      int patternStart = p * numPatterns;
+      double score = 0;
+      for (int i = 0; i < EvaluationFeatures.NUM_SCALARS; i++) {
+        score += weights[base + i] * scalars[scalarStart + i];
+      }
+      for (int i = 0; i < numPatterns; i++) {
+        score += weights[base + tableOffsets[i] + patterns[patternStart + i]];
+      }
+      double probability = 1 / (1 + Math.exp(-scale * score));
+      // clamped so that a confident mistake costs a lot rather than infinitely much
+      probability = Math.min(1 - 1e-12, Math.max(1e-12, probability));
+      double target = results[p] * 0.5;
+      loss -= target * Math.log(probability) + (1 - target) * Math.log(1 - probability);
+      if (gradient != null) {
+        double slope = scale * (probability - target);
+        for (int i = 0; i < EvaluationFeatures.NUM_SCALARS; i++) {
+          gradient[base + i] += slope * scalars[scalarStart + i];
+        }
+        for (int i = 0; i < numPatterns; i++) {
+          gradient[base + tableOffsets[i] + patterns[patternStart + i]] += slope;
+        }
+      }
+    }
+    return loss;
+  }
+}
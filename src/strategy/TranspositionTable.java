@@ -0,0 +1,246 @@
+package strategy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table of search results keyed by position hash, which lets a search reuse the
+ * result of a position it reaches again through a different order of moves. Entries are stored
+ * as pairs of longs in one flat array, so the table holds no per-entry objects. Every bucket has
+ * two entries: the first is only replaced by a search at least as deep (or by any search once
+ * the entry is from an older search), and the second is always replaced.
+ *
+ * <p>Several search threads can share one table without locks. Each entry is stored as
+ * (key XOR data, data), and a read only counts as a hit if XORing the two halves gives back the
+ * key being looked up, so an entry torn by two threads writing at once reads as a miss instead
+ * of as a wrong result.
+ */
+public class TranspositionTable {
+  /**
+   * The stored score is the exact score of the position.
+   */
+  public static final int EXACT = 1;
+  /**
+   * The stored score is a lower bound (the search failed high).
+   */
+  public static final int LOWER_BOUND = 2;
+  /**
+   * The stored score is an upper bound (the search failed low).
+   */
+  public static final int UPPER_BOUND = 3;
+  /**
+   * Returned by probe() when the position is not in the table. No stored entry is 0, because
+   * every entry has a bound type.
+   */
+  public static final long MISS = 0;
+  /**
+   * The system property that sets the size in megabytes of tables made by withConfiguredSize().
+   */
+  public static final String SIZE_PROPERTY = "reversi.hashMegabytes";
+  /**
+   * The size in megabytes of tables made by withConfiguredSize() when SIZE_PROPERTY is not set.
+   */
+  public static final int DEFAULT_MEGABYTES = 16;
+
+  private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+  // two entries of two longs each
+  private static final int LONGS_PER_BUCKET = 4;
+  private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+  // data layout: score (32 bits) | move + 1 (16 bits) | depth (8 bits) | bound (2 bits) |
+  // generation (6 bits)
+  private static final int MOVE_SHIFT = 16;
+  private static final int DEPTH_SHIFT = 8;
+  private static final int BOUND_SHIFT = 6;
+  private static final int GENERATION_MASK = 0x3F;
+
+  private final long[] table;
+  private final long bucketMask;
+  private volatile int generation = 0;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder collisions = new LongAdder();
+
+  /**
+   * Constructs a TranspositionTable that uses at most the given amount of memory. The number of
+   * buckets is rounded down to a power of two.
+   *
+   * @param megabytes the size of the table in megabytes.
+   * @throws IllegalArgumentException if the size is not positive.
+   */
+  public TranspositionTable(int megabytes) {
+    if (megabytes <= 0) {
+      throw new IllegalArgumentException("Size of table must be positive");
+    }
+    long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+    this.table = new long[Math.toIntExact(buckets * LONGS_PER_BUCKET)];
+    this.bucketMask = buckets - 1;
+  }
+
+  /**
+   * Constructs a TranspositionTable of the size given by the SIZE_PROPERTY system property, or of
+   * DEFAULT_MEGABYTES if it is not set.
+   *
+   * @return a new, empty table.
+   * @throws IllegalArgumentException if the configured size is not positive.
+   */
+  public static TranspositionTable withConfiguredSize() {
+    return new TranspositionTable(Integer.getInteger(SIZE_PROPERTY, DEFAULT_MEGABYTES));
+  }
+
+  /**
+   * Looks up the given position.
+   *
+   * @param key the hash of the position.
+   * @return the stored data, to be read with score(), move(), depth() and bound(),
+   *         or MISS if the position is not in the table.
+   */
+  public long probe(long key) {
+    int base = bucketIndex(key);
+    for (int i = base; i < base + LONGS_PER_BUCKET; i += 2) {
+      long data = (long) SLOTS.getOpaque(table, i + 1);
+      long check = (long) SLOTS.getOpaque(table, i);
+      if (data != MISS && (check ^ data) == key) {
+        hits.increment();
+        return data;
+      }
+    }
+    misses.increment();
+    return MISS;
+  }
+
+  /**
+   * Stores the result of searching the given position.
+   *
+   * @param key   the hash of the position.
+   * @param move  the best move found (packed as row * boardLen + col), or -1 if there is none.
+   * @param score the score found by the search.
+   * @param depth the depth the position was searched to.
+   * @param bound whether the score is EXACT, a LOWER_BOUND or an UPPER_BOUND.
+   */
+  public void store(long key, int move, int score, int depth, int bound) {
+    int currentGeneration = generation;
+    long data = ((long) score << 32)
+            | ((long) ((move + 1) & 0xFFFF) << MOVE_SHIFT)
+            | ((long) Math.min(Math.max(depth, 0), 0xFF) << DEPTH_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | currentGeneration;
+
+    int base = bucketIndex(key);
+    long preferredData = (long) SLOTS.getOpaque(table, base + 1);
+    long preferredKey = (long) SLOTS.getOpaque(table, base) ^ preferredData;
+    int slot = base + 2;
+    if (preferredData == MISS || preferredKey == key || depth >= depth(preferredData)
+            || (preferredData & GENERATION_MASK) != currentGeneration) {
+      slot = base;
+    }
+    long oldData = (long) SLOTS.getOpaque(table, slot + 1);
+    if (oldData != MISS && ((long) SLOTS.getOpaque(table, slot) ^ oldData) != key) {
+      collisions.increment();
+    }
+    SLOTS.setOpaque(table, slot, key ^ data);
+    SLOTS.setOpaque(table, slot + 1, data);
+  }
+
+  /**
+   * Marks the start of a new search, so that entries from earlier searches are replaced first.
+   */
+  public void newSearch() {
+    generation = (generation + 1) & GENERATION_MASK;
+  }
+
+  /**
+   * Removes every entry from the table and resets the counters.
+   */
+  public void clear() {
+    for (int i = 0; i < table.length; i++) {
+      SLOTS.setOpaque(table, i, 0L);
+    }
+    hits.reset();
+    misses.reset();
+    collisions.reset();
+  }
+
+  /**
+   * Returns the number of probes that found their position.
+   *
+   * @return the number of hits since the table was created or cleared.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of probes that did not find their position.
+   *
+   * @return the number of misses since the table was created or cleared.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of stores that overwrote an entry for a different position.
+   *
+   * @return the number of collisions since the table was created or cleared.
+   */
+  public long getCollisions() {
+    return collisions.sum();
+  }
+
+  /**
+   * Returns the number of entries the table can hold.
+   *
+   * @return the capacity of the table.
+   */
+  public int getCapacity() {
+    return table.length / 2;
+  }
+
+  /**
+   * Returns the score stored in the given data.
+   *
+   * @param data the data returned by probe().
+   * @return the stored score.
+   */
+  public static int score(long data) {
+    return (int) (data >> 32);
+  }
+
+  /**
+   * Returns the move stored in the given data.
+   *
+   * @param data the data returned by probe().
+   * @return the stored move, or -1 if there is none.
+   */
+  public static int move(long data) {
+    return (int) ((data >>> MOVE_SHIFT) & 0xFFFF) - 1;
+  }
+
+  /**
+   * Returns the depth stored in the given data.
+   *
+   * @param data the data returned by probe().
+   * @return the depth the position was searched to.
+   */
+  public static int depth(long data) {
+    return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+  }
+
+  /**
+   * Returns the bound type stored in the given data.
+   *
+   * @param data the data returned by probe().
+   * @return EXACT, LOWER_BOUND or UPPER_BOUND.
+   */
+  public static int bound(long data) {
+    return (int) ((data >>> BOUND_SHIFT) & 0x3);
+  }
+
+  private int bucketIndex(long key) {
+    // the low bits of the key pick the bucket, so mix in the high bits first
+    long mixed = key ^ (key >>> 32);
+    return (int) (mixed & bucketMask) * LONGS_PER_BUCKET;
+  }
+}
@@ -0,0 +1,94 @@
+package tournament;
+
+/**
+ * Converts between Elo rating differences and expected scores with the logistic Elo model, and
+ * estimates a rating difference with its confidence interval from match results.
+ */
+public final class Elo {
+  // the normal quantile for a two-sided 95% confidence interval
+  private static final double Z_95 = 1.959964;
+
+  private Elo() {
+  }
+
+  /**
+   * Returns the score (from 0 to 1 per game) expected of a player rated higher by the given
+   * difference.
+   *
+   * @param elo the rating difference.
+   * @return the expected score per game.
+   */
+  public static double expectedScore(double elo) {
+    return 1 / (1 + Math.pow(10, -elo / 400));
+  }
+
+  /**
+   * Returns the rating difference that the given score per game corresponds to.
+   *
+   * @param score the score per game, from 0 to 1.
+   * @return the rating difference, which is infinite for a score of 0 or 1.
+   */
+  public static double fromScore(double score) {
+    return -400 * Math.log10(1 / score - 1);
+  }
+
+  /**
+   * Returns the estimated rating difference of a player with the given results.
+   *
+   * @param wins   the number of games won.
+   * @param draws  the number of games drawn.
+   * @param losses the number of games lost.
+   * @return the estimated rating difference, or 0 if no games were played.
+   */
+  public static double estimate(int wins, int draws, int losses) {
+    int games = wins + draws + losses;
+    if (games == 0) {
+      return 0;
+    }
+    return fromScore((wins + draws / 2.0) / games);
+  }
+
+  /**
+   * Returns half the width of the 95% confidence interval of estimate(), so that the rating
+   * difference is within estimate() plus or minus this value with 95% confidence. The interval
+   * is computed for the score and then converted to a rating difference, so it is only
+   * symmetric around estimate() when the score is close to one half.
+   *
+   * @param wins   the number of games won.
+   * @param draws  the number of games drawn.
+   * @param losses the number of games lost.
+   * @return the margin of error, which is infinite if it reaches a score of 0 or 1.
+   */
+  public static double margin95(int wins, int draws, int losses) {
+    int games = wins + draws + losses;
+    if (games == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double score = (wins + draws / 2.0) / games;
+    double error = Math.sqrt(variance(wins, draws, losses) / games);
+    double low = Math.max(0, score - Z_95 * error);
+    double high = Math.min(1, score + Z_95 * error);
+    if (low == 0 || high == 1) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return (fromScore(high) - fromScore(low)) / 2;
+  }
+
+  /**
+   * Returns the variance of the score of a single game, estimated from the given results.
+   *
+   * @param wins   the number of games won.
+   * @param draws  the number of games drawn.
+   * @param losses the number of games lost.
+   * @return the variance per game, or 0 if no games were played.
+   */
+  static double variance(int wins, int draws, int losses) {
+    int games = wins + draws + losses;
+    if (games == 0) {
+      return 0;
+    }
+    double score = (wins + draws / 2.0) / games;
+    return (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+            + losses * Math.pow(score, 2)) / games;
+  }
+}
@@ -0,0 +1,55 @@
+package tournament;
+
+import java.util.function.Supplier;
+
+import strategy.FallibleReversiStrategy;
+
+/**
+ * A named strategy taking part in a Tournament. Most strategies keep search state and can't be
+ * used by several threads at once, so every call to a Tournament creates one instance of the
+ * strategy for every thread that plays with it, reuses it for every game that thread plays, and
+ * closes it when the call is done if it is AutoCloseable.
+ */
+public final class Entrant {
+  private final String name;
+  private final Supplier<FallibleReversiStrategy> strategy;
+
+  /**
+   * Constructs an Entrant.
+   *
+   * @param name     the name to report results under.
+   * @param strategy creates the strategy; it is called once per thread that plays, in every
+   *                 call to a Tournament.
+   * @throws IllegalArgumentException if either argument is null.
+   */
+  public Entrant(String name, Supplier<FallibleReversiStrategy> strategy) {
+    if (name == null || strategy == null) {
+      throw new IllegalArgumentException("Name and strategy cannot be null");
+    }
+    this.name = name;
+    this.strategy = strategy;
+  }
+
+  /**
+   * Returns the name of this Entrant.
+   *
+   * @return the name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Creates a new instance of the strategy.
+   *
+   * @return the strategy.
+   */
+  FallibleReversiStrategy newStrategy() {
+    return strategy.get();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
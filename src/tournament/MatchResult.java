@@ -0,0 +1,108 @@
+package tournament;
+
+/**
+ * The results of the games between two entrants of a Tournament, counted from the first
+ * entrant's point of view.
+ */
+public final class MatchResult {
+  private final String first;
+  private final String second;
+  private final int wins;
+  private final int draws;
+  private final int losses;
+
+  /**
+   * Constructs a MatchResult.
+   *
+   * @param first  the name of the first entrant.
+   * @param second the name of the second entrant.
+   * @param wins   the number of games the first entrant won.
+   * @param draws  the number of games drawn.
+   * @param losses the number of games the first entrant lost.
+   */
+  public MatchResult(String first, String second, int wins, int draws, int losses) {
+    this.first = first;
+    this.second = second;
+    this.wins = wins;
+    this.draws = draws;
+    this.losses = losses;
+  }
+
+  /**
+   * Returns the name of the first entrant.
+   *
+   * @return the first entrant's name.
+   */
+  public String getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns the name of the second entrant.
+   *
+   * @return the second entrant's name.
+   */
+  public String getSecond() {
+    return second;
+  }
+
+  /**
+   * Returns the number of games the first entrant won.
+   *
+   * @return the number of wins.
+   */
+  public int getWins() {
+    return wins;
+  }
+
+  /**
+   * Returns the number of games drawn.
+   *
+   * @return the number of draws.
+   */
+  public int getDraws() {
+    return draws;
+  }
+
+  /**
+   * Returns the number of games the first entrant lost.
+   *
+   * @return the number of losses.
+   */
+  public int getLosses() {
+    return losses;
+  }
+
+  /**
+   * Returns the number of games played.
+   *
+   * @return the number of games.
+   */
+  public int getGames() {
+    return wins + draws + losses;
+  }
+
+  /**
+   * Returns how many rating points the first entrant is estimated to be better by.
+   *
+   * @return the estimated rating difference.
+   */
+  public double getElo() {
+    return Elo.estimate(wins, draws, losses);
+  }
+
+  /**
+   * Returns the margin of error of getElo() at 95% confidence.
+   *
+   * @return the margin of error in rating points.
+   */
+  public double getEloMargin() {
+    return Elo.margin95(wins, draws, losses);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s vs %s: +%d =%d -%d, Elo %+.1f +/- %.1f", first, second, wins, draws,
+            losses, getElo(), getEloMargin());
+  }
+}
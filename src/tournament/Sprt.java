@@ -0,0 +1,116 @@
+package tournament;
+
+/**
+ * A sequential probability ratio test of whether a strategy is stronger than another. It weighs
+ * the hypothesis that the strategy is elo1 rated points better (H1) against the hypothesis that
+ * it is only elo0 points better (H0) after every game, and stops as soon as the results make one
+ * of them likely enough, which usually takes far fewer games than a fixed-length match. The log
+ * likelihood ratio is computed with the normal approximation of the score distribution.
+ */
+public final class Sprt {
+  /**
+   * What the results so far show.
+   */
+  public enum Decision {
+    /**
+     * H1 is accepted: the strategy is at least elo1 points better.
+     */
+    BETTER,
+    /**
+     * H0 is accepted: the strategy is no more than elo0 points better.
+     */
+    WORSE,
+    /**
+     * Neither hypothesis is likely enough yet.
+     */
+    UNDECIDED
+  }
+
+  private final double elo0;
+  private final double elo1;
+  private final double lowerBound;
+  private final double upperBound;
+
+  /**
+   * Constructs an Sprt.
+   *
+   * @param elo0  the rating difference of H0.
+   * @param elo1  the rating difference of H1, which must be greater than elo0.
+   * @param alpha the probability of accepting H1 when H0 is true.
+   * @param beta  the probability of accepting H0 when H1 is true.
+   * @throws IllegalArgumentException if elo1 is not greater than elo0 or the probabilities are
+   *                                  not strictly between 0 and 1.
+   */
+  public Sprt(double elo0, double elo1, double alpha, double beta) {
+    if (elo1 <= elo0) {
+      throw new IllegalArgumentException("elo1 must be greater than elo0");
+    }
+    if (alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+      throw new IllegalArgumentException("alpha and beta must be between 0 and 1");
+    }
+    this.elo0 = elo0;
+    this.elo1 = elo1;
+    this.lowerBound = Math.log(beta / (1 - alpha));
+    this.upperBound = Math.log((1 - beta) / alpha);
+  }
+
+  /**
+   * Returns the log likelihood ratio of H1 against H0 for the given results.
+   *
+   * @param wins   the number of games the strategy won.
+   * @param draws  the number of games drawn.
+   * @param losses the number of games the strategy lost.
+   * @return the log likelihood ratio, or 0 if no games were played.
+   */
+  public double logLikelihoodRatio(int wins, int draws, int losses) {
+    int games = wins + draws + losses;
+    if (games == 0) {
+      return 0;
+    }
+    double score = (wins + draws / 2.0) / games;
+    // half a game of each result keeps the variance above 0, so that a run of identical
+    // results still counts as evidence
+    double variance = ((wins + 0.5) * Math.pow(1 - score, 2)
+            + (draws + 0.5) * Math.pow(0.5 - score, 2)
+            + (losses + 0.5) * Math.pow(score, 2)) / (games + 1.5);
+    double score0 = Elo.expectedScore(elo0);
+    double score1 = Elo.expectedScore(elo1);
+    return games * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance);
+  }
+
+  /**
+   * Returns what the given results show.
+   *
+   * @param wins   the number of games the strategy won.
+   * @param draws  the number of games drawn.
+   * @param losses the number of games the strategy lost.
+   * @return BETTER or WORSE once a hypothesis is accepted, otherwise UNDECIDED.
+   */
+  public Decision test(int wins, int draws, int losses) {
+    double ratio = logLikelihoodRatio(wins, draws, losses);
+    if (ratio >= upperBound) {
+      return Decision.BETTER;
+    } else if (ratio <= lowerBound) {
+      return Decision.WORSE;
+    }
+    return Decision.UNDECIDED;
+  }
+
+  /**
+   * Returns the log likelihood ratio at or below which H0 is accepted.
+   *
+   * @return the lower bound.
+   */
+  public double getLowerBound() {
+    return lowerBound;
+  }
+
+  /**
+   * Returns the log likelihood ratio at or above which H1 is accepted.
+   *
+   * @return the upper bound.
+   */
+  public double getUpperBound() {
+    return upperBound;
+  }
+}
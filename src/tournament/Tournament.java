@@ -0,0 +1,302 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import model.AxialCoords;
+import model.Reversi;
+import model.Tile;
+import strategy.FallibleReversiStrategy;
+
+/**
+ * Plays games between strategies without a view, many at a time on a pool of threads. Games are
+ * played in pairs: both games of a pair start from the same opening, made of a number of random
+ * moves from the start of the game, with each entrant playing black in one of them. Every pair
+ * gets its own opening, and the k-th pair of every match gets the same one, so all entrants face
+ * the same openings. A strategy that returns a move that is not legal loses the game. Every call
+ * creates the strategies it plays with, and closes those that are AutoCloseable before it
+ * returns.
+ */
+public class Tournament {
+  private final Supplier<Reversi> gameFactory;
+  private final int openingMoves;
+  private final int numThreads;
+  private final long seed;
+
+  /**
+   * Constructs a Tournament.
+   *
+   * @param gameFactory  creates the unstarted game that every game is played on.
+   * @param openingMoves the number of random moves that make up each opening.
+   * @param numThreads   the number of games to play at once.
+   * @param seed         the seed the openings are generated from.
+   * @throws IllegalArgumentException if the factory is null, the number of opening moves is
+   *                                  negative or the number of threads is not positive.
+   */
+  public Tournament(Supplier<Reversi> gameFactory, int openingMoves, int numThreads, long seed) {
+    if (gameFactory == null) {
+      throw new IllegalArgumentException("Game factory cannot be null");
+    }
+    if (openingMoves < 0 || numThreads <= 0) {
+      throw new IllegalArgumentException("Opening moves cannot be negative "
+              + "and threads must be positive");
+    }
+    this.gameFactory = gameFactory;
+    this.openingMoves = openingMoves;
+    this.numThreads = numThreads;
+    this.seed = seed;
+  }
+
+  /**
+   * Plays the given number of game pairs between every two entrants.
+   *
+   * @param entrants  the entrants.
+   * @param gamePairs the number of pairs of games each two entrants play.
+   * @return one result for every two entrants, in the order the entrants are given.
+   * @throws IllegalArgumentException if there are fewer than two entrants or the number of
+   *                                  pairs is not positive.
+   */
+  public List<MatchResult> roundRobin(List<Entrant> entrants, int gamePairs) {
+    if (entrants.size() < 2) {
+      throw new IllegalArgumentException("A round robin needs at least two entrants");
+    }
+    List<Entrant[]> matches = new ArrayList<>();
+    for (int i = 0; i < entrants.size(); i++) {
+      for (int j = i + 1; j < entrants.size(); j++) {
+        matches.add(new Entrant[] {entrants.get(i), entrants.get(j)});
+      }
+    }
+    return playMatches(matches, gamePairs);
+  }
+
+  /**
+   * Plays the given number of game pairs between the challenger and each opponent.
+   *
+   * @param challenger the entrant that plays every match.
+   * @param opponents  the entrants it plays.
+   * @param gamePairs  the number of pairs of games against each opponent.
+   * @return one result for every opponent, from the challenger's point of view.
+   * @throws IllegalArgumentException if there are no opponents or the number of pairs is not
+   *                                  positive.
+   */
+  public List<MatchResult> gauntlet(Entrant challenger, List<Entrant> opponents, int gamePairs) {
+    if (opponents.isEmpty()) {
+      throw new IllegalArgumentException("A gauntlet needs at least one opponent");
+    }
+    List<Entrant[]> matches = new ArrayList<>();
+    for (Entrant opponent : opponents) {
+      matches.add(new Entrant[] {challenger, opponent});
+    }
+    return playMatches(matches, gamePairs);
+  }
+
+  /**
+   * Plays pairs of games between a candidate and a baseline until the given test accepts one of
+   * its hypotheses or the given number of pairs has been played. Since games are played in
+   * parallel, the games still being played when the test decides are not counted.
+   *
+   * @param candidate    the entrant being tested.
+   * @param baseline     the entrant it is compared to.
+   * @param test         the test to run after every game pair.
+   * @param maxGamePairs the most pairs of games to play.
+   * @return the results from the candidate's point of view; test.test() gives the decision.
+   * @throws IllegalArgumentException if the number of pairs is not positive.
+   */
+  public MatchResult sprt(Entrant candidate, Entrant baseline, Sprt test, int maxGamePairs) {
+    if (maxGamePairs <= 0) {
+      throw new IllegalArgumentException("Number of game pairs must be positive");
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+    Players players = new Players();
+    try {
+      CompletionService<int[]> results = new ExecutorCompletionService<>(pool);
+      int submitted = 0;
+      int[] counts = new int[3];
+      // keep every thread busy, but don't queue far more games than the test may need
+      while (submitted < Math.min(maxGamePairs, 2 * numThreads)) {
+        int pair = submitted++;
+        results.submit(() -> playPair(players, candidate, baseline, pair));
+      }
+      for (int done = 0; done < submitted; done++) {
+        add(counts, waitFor(results.take()));
+        if (test.test(counts[0], counts[1], counts[2]) != Sprt.Decision.UNDECIDED) {
+          break;
+        }
+        if (submitted < maxGamePairs) {
+          int pair = submitted++;
+          results.submit(() -> playPair(players, candidate, baseline, pair));
+        }
+      }
+      return new MatchResult(candidate.getName(), baseline.getName(), counts[0], counts[1],
+              counts[2]);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for games", e);
+    } finally {
+      pool.shutdownNow();
+      players.close();
+    }
+  }
+
+  // plays one game with the strategies of the given call, and returns 1 if black won, -1 if
+  // white won and 0 for a draw
+  private int playGame(Players players, Entrant black, Entrant white, int opening) {
+    Reversi game = gameFactory.get();
+    game.startGame();
+    playOpening(game, opening);
+    int rowOffset = game.getSideLen() - 1;
+    while (!game.isGameOver()) {
+      Tile turn = game.getTurn();
+      FallibleReversiStrategy strategy = players.get(turn == Tile.BLACK ? black : white);
+      Optional<AxialCoords> move = strategy.chooseMove(game, turn);
+      if (move.isEmpty()) {
+        game.pass();
+        continue;
+      }
+      try {
+        game.makeMove(move.get().getR() + rowOffset, move.get().getQ() + rowOffset);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        return turn == Tile.BLACK ? -1 : 1;
+      }
+    }
+    return Integer.signum(game.getScore(Tile.BLACK) - game.getScore(Tile.WHITE));
+  }
+
+  // plays every match on the thread pool and adds up the results
+  private List<MatchResult> playMatches(List<Entrant[]> matches, int gamePairs) {
+    if (gamePairs <= 0) {
+      throw new IllegalArgumentException("Number of game pairs must be positive");
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+    Players players = new Players();
+    try {
+      List<List<Future<int[]>>> pairs = new ArrayList<>();
+      for (Entrant[] match : matches) {
+        List<Future<int[]>> matchPairs = new ArrayList<>();
+        for (int pair = 0; pair < gamePairs; pair++) {
+          int opening = pair;
+          matchPairs.add(pool.submit(() -> playPair(players, match[0], match[1], opening)));
+        }
+        pairs.add(matchPairs);
+      }
+      List<MatchResult> results = new ArrayList<>();
+      for (int i = 0; i < matches.size(); i++) {
+        int[] counts = new int[3];
+        for (Future<int[]> pair : pairs.get(i)) {
+          add(counts, waitFor(pair));
+        }
+        results.add(new MatchResult(matches.get(i)[0].getName(), matches.get(i)[1].getName(),
+                counts[0], counts[1], counts[2]));
+      }
+      return results;
+    } finally {
+      pool.shutdownNow();
+      players.close();
+    }
+  }
+
+  // plays both colors from one opening; returns wins, draws and losses of first
+  private int[] playPair(Players players, Entrant first, Entrant second, int opening) {
+    int[] counts = new int[3];
+    int asBlack = playGame(players, first, second, opening);
+    int asWhite = -playGame(players, second, first, opening);
+    for (int result : new int[] {asBlack, asWhite}) {
+      counts[1 - result]++;
+    }
+    return counts;
+  }
+
+  // plays the random moves of the given opening; the same opening number gives the same moves
+  private void playOpening(Reversi game, int opening) {
+    Random rand = new Random(new SplittableRandom(seed + opening).nextLong());
+    int boardLen = game.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    for (int i = 0; i < openingMoves && !game.isGameOver(); i++) {
+      int count = game.legalMoves(game.getTurn(), moves);
+      if (count == 0) {
+        game.pass();
+      } else {
+        int move = moves[rand.nextInt(count)];
+        game.makeMove(move / boardLen, move % boardLen);
+      }
+    }
+  }
+
+  private static void add(int[] counts, int[] pair) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += pair[i];
+    }
+  }
+
+  // the strategies of one call: one per entrant for every thread that plays with it, kept until
+  // the call closes them
+  private static final class Players {
+    private final ThreadLocal<Map<Entrant, FallibleReversiStrategy>> byThread =
+            ThreadLocal.withInitial(HashMap::new);
+    private final List<FallibleReversiStrategy> created = new ArrayList<>();
+    private boolean closed;
+
+    // returns the calling thread's instance of the entrant's strategy. Games the call no longer
+    // waits for can outlive it, and they can't create strategies once the call has closed them.
+    FallibleReversiStrategy get(Entrant entrant) {
+      return byThread.get().computeIfAbsent(entrant, key -> {
+        synchronized (created) {
+          if (closed) {
+            throw new IllegalStateException("The games of this call are over");
+          }
+          FallibleReversiStrategy strategy = key.newStrategy();
+          created.add(strategy);
+          return strategy;
+        }
+      });
+    }
+
+    // closes every strategy that is AutoCloseable, even if closing one of them fails
+    void close() {
+      IllegalStateException failure = null;
+      synchronized (created) {
+        closed = true;
+        for (FallibleReversiStrategy strategy : created) {
+          if (strategy instanceof AutoCloseable) {
+            try {
+              ((AutoCloseable) strategy).close();
+            } catch (Exception e) {
+              if (failure == null) {
+                failure = new IllegalStateException("Could not close a strategy", e);
+              } else {
+                failure.addSuppressed(e);
+              }
+            }
+          }
+        }
+        created.clear();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  private static int[] waitFor(Future<int[]> pair) {
+    try {
+      return pair.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for games", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed", e.getCause());
+    }
+  }
+}
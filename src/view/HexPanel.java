@@ -22,6 +22,7 @@ import javax.swing.KeyStroke;
 import javax.swing.event.MouseInputAdapter;
 
 import model.AxialCoords;
+import model.BoardSnapshot;
 import model.ReadonlyReversi;
 import model.Tile;
 
@@ -143,27 +144,29 @@ public class HexPanel extends JPanel {
       g2d.fill(g2d.getClipBounds());
       g2d.setColor(Color.LIGHT_GRAY);
 
-      // draws hexagons based on the model's game board
+      // draws hexagons based on the model's game board, all from the same position even if the
+      // game moves on while the frame is drawn
+      BoardSnapshot board = model.getSnapshot();
       for (int i = 0; i < boardLen; i++) {
         for (int j = 0; j < boardLen; j++) {
-          try {
-            Tile tile = model.getTileAt(i, j);
-            AxialCoords coords = AxialCoords.convert(i, j, sideLen);
-            drawAxialHexagon(g2d, coords);
-
-            // highlights proper hexagon and deselects when necessary
-            handleMouseClicks(g2d, coords, tile);
-
-            // draws a circle on top of the tile if it is claimed by a player
-            if (tile != Tile.EMPTY) {
-              if (tile == Tile.BLACK) {
-                drawCircle(g2d, coords, Color.BLACK);
-              } else {
-                drawCircle(g2d, coords, Color.WHITE);
-              }
+          Tile tile = board.getTileAt(i, j);
+          if (tile == null) {
+            // there is no tile at this coordinate in the board
+            continue;
+          }
+          AxialCoords coords = AxialCoords.convert(i, j, sideLen);
+          drawAxialHexagon(g2d, coords);
+
+          // highlights proper hexagon and deselects when necessary
+          handleMouseClicks(g2d, coords, tile);
+
+          // draws a circle on top of the tile if it is claimed by a player
+          if (tile != Tile.EMPTY) {
+            if (tile == Tile.BLACK) {
+              drawCircle(g2d, coords, Color.BLACK);
+            } else {
+              drawCircle(g2d, coords, Color.WHITE);
             }
-          } catch (IllegalArgumentException e) {
-            // do nothing because there is no tile at this coordinate in the board
           }
         }
       }
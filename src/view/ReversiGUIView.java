@@ -38,4 +38,10 @@ public interface ReversiGUIView {
   void showIllegalMoveMessage();
 
   void enableHints(boolean enable);
+
+  /**
+   * Shows the user whether an AI player is thinking about its next move.
+   * @param thinking true while the AI is choosing a move, false once it is done.
+   */
+  void showThinking(boolean thinking);
 }
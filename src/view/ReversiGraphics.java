@@ -64,4 +64,9 @@ public class ReversiGraphics extends JFrame implements ReversiGUIView {
   public void enableHints(boolean enable) {
     hexPanel.enableHints(enable);
   }
+
+  @Override
+  public void showThinking(boolean thinking) {
+    this.setTitle(thinking ? "Reversi Game (thinking...)" : "Reversi Game");
+  }
 }
@@ -58,4 +58,9 @@ public class ReversiSquareGraphics extends JFrame implements ReversiGUIView {
   public void enableHints(boolean enable) {
     // not implementing these because we are not doing level 3 of assignment 9
   }
+
+  @Override
+  public void showThinking(boolean thinking) {
+    this.setTitle(thinking ? "Reversi Game (thinking...)" : "Reversi Game");
+  }
 }
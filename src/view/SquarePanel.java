@@ -15,6 +15,7 @@ import java.awt.geom.Point2D;
 import javax.swing.JPanel;
 import javax.swing.event.MouseInputAdapter;
 
+import model.BoardSnapshot;
 import model.ReadonlyReversi;
 import model.Tile;
 
@@ -77,26 +78,23 @@ public class SquarePanel extends JPanel {
     g2d.fill(g2d.getClipBounds());
     g2d.setColor(Color.LIGHT_GRAY);
 
-    // draws hexagons based on the model's game board
+    // draws hexagons based on the model's game board, all from the same position
+    BoardSnapshot board = model.getSnapshot();
     for (int i = 0; i < sideLen; i++) {
       for (int j = 0; j < sideLen; j++) {
-        try {
-          Tile tile = model.getTileAt(i, j);
-          drawAxialSquare(g2d, i, j);
-
-          // highlights proper hexagon and deselects when necessary
-          handleMouseClicks(g2d, i, j, tile);
-
-          // draws a circle on top of the tile if it is claimed by a player
-          if (tile != Tile.EMPTY) {
-            if (tile == Tile.BLACK) {
-              drawCircle(g2d, i, j, Color.BLACK);
-            } else {
-              drawCircle(g2d, i, j, Color.WHITE);
-            }
+        Tile tile = board.getTileAt(i, j);
+        drawAxialSquare(g2d, i, j);
+
+        // highlights proper hexagon and deselects when necessary
+        handleMouseClicks(g2d, i, j, tile);
+
+        // draws a circle on top of the tile if it is claimed by a player
+        if (tile != Tile.EMPTY) {
+          if (tile == Tile.BLACK) {
+            drawCircle(g2d, i, j, Color.BLACK);
+          } else {
+            drawCircle(g2d, i, j, Color.WHITE);
           }
-        } catch (IllegalArgumentException e) {
-          // do nothing because there is no tile at this coordinate in the board
         }
       }
     }
@@ -0,0 +1,211 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.BoardSnapshot;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.ReversiModel;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+import model.Tile;
+
+/**
+ * Tests the BoardSnapshot class and the snapshots every Reversi implementation publishes.
+ */
+public class BoardSnapshotTests {
+
+  // plays a random game, checking that every snapshot matches the game when it was taken and
+  // stays the same until the end of the game
+  private void checkGame(Reversi game, long seed) {
+    game.startGame();
+    Random rand = new Random(seed);
+    int boardLen = game.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    List<BoardSnapshot> snapshots = new ArrayList<>();
+    List<Tile[][]> boards = new ArrayList<>();
+    while (!game.isGameOver()) {
+      BoardSnapshot snapshot = game.getSnapshot();
+      Tile[][] board = game.copyGameBoard();
+      Assert.assertArrayEquals(board, snapshot.copyBoard());
+      Assert.assertEquals(game.getTurn(), snapshot.getTurn());
+      Assert.assertEquals(game.getScore(Tile.BLACK), snapshot.getScore(Tile.BLACK));
+      Assert.assertEquals(game.getScore(Tile.WHITE), snapshot.getScore(Tile.WHITE));
+      Assert.assertEquals(game.positionHash(), snapshot.positionHash());
+      Assert.assertFalse(snapshot.isGameOver());
+      snapshots.add(snapshot);
+      boards.add(board);
+
+      int count = game.legalMoves(game.getTurn(), moves);
+      if (count == 0) {
+        game.pass();
+      } else {
+        int move = moves[rand.nextInt(count)];
+        game.makeMove(move / boardLen, move % boardLen);
+      }
+    }
+    Assert.assertTrue(game.getSnapshot().isGameOver());
+    for (int i = 0; i < snapshots.size(); i++) {
+      Assert.assertArrayEquals(boards.get(i), snapshots.get(i).copyBoard());
+    }
+  }
+
+  @Test
+  public void testSnapshotsMatchGame() {
+    for (int sideLen = 3; sideLen <= 7; sideLen++) {
+      checkGame(new ReversiModel(sideLen), sideLen);
+      checkGame(new HexBitboardReversi(sideLen), sideLen);
+    }
+    checkGame(new SquareReversi(), 1);
+    checkGame(new SquareBitboardReversi(), 1);
+  }
+
+  @Test
+  public void testPushedMovesAreNotPublished() {
+    Reversi game = new ReversiModel(5);
+    game.startGame();
+    BoardSnapshot before = game.getSnapshot();
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    game.legalMoves(Tile.BLACK, moves);
+    game.pushMove(moves[0]);
+    Assert.assertSame(before, game.getSnapshot());
+    game.popMove();
+    Assert.assertSame(before, game.getSnapshot());
+    // a copy starts out in the same position, and publishes its own moves
+    Reversi copy = game.copyGame();
+    Assert.assertSame(before, copy.getSnapshot());
+    copy.makeMove(moves[0] / game.getBoardLen(), moves[0] % game.getBoardLen());
+    Assert.assertSame(before, game.getSnapshot());
+    Assert.assertEquals(Tile.WHITE, copy.getSnapshot().getTurn());
+  }
+
+  // checks every cell, the turn and the scores of the game's snapshot against the game
+  private static void assertSnapshotMatches(Reversi game) {
+    BoardSnapshot snapshot = game.getSnapshot();
+    Tile[][] board = game.copyGameBoard();
+    for (int row = 0; row < board.length; row++) {
+      for (int col = 0; col < board[row].length; col++) {
+        Assert.assertEquals(board[row][col], snapshot.getTileAt(row, col));
+      }
+    }
+    Assert.assertEquals(game.getTurn(), snapshot.getTurn());
+    Assert.assertEquals(game.getScore(Tile.BLACK), snapshot.getScore(Tile.BLACK));
+    Assert.assertEquals(game.getScore(Tile.WHITE), snapshot.getScore(Tile.WHITE));
+    Assert.assertEquals(game.positionHash(), snapshot.positionHash());
+  }
+
+  @Test
+  public void testMovesAfterPushedMovesArePublished() {
+    Reversi[] games = {new ReversiModel(5), new HexBitboardReversi(5), new SquareReversi(),
+        new SquareBitboardReversi()};
+    for (Reversi game : games) {
+      game.startGame();
+      int boardLen = game.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      // the pushed plies stay on the board once the game moves on from them
+      game.legalMoves(game.getTurn(), moves);
+      game.pushMove(moves[0]);
+      game.legalMoves(game.getTurn(), moves);
+      game.pushMove(moves[0]);
+      game.legalMoves(game.getTurn(), moves);
+      game.makeMove(moves[0] / boardLen, moves[0] % boardLen);
+      assertSnapshotMatches(game);
+
+      game.legalMoves(game.getTurn(), moves);
+      game.pushMove(moves[0]);
+      game.pass();
+      assertSnapshotMatches(game);
+    }
+  }
+
+  @Test
+  public void testSnapshotsCanBeTurnedOff() {
+    HexBitboardReversi hex = new HexBitboardReversi(5);
+    SquareBitboardReversi square = new SquareBitboardReversi();
+    hex.setSnapshotsPublished(false);
+    square.setSnapshotsPublished(false);
+    for (Reversi game : new Reversi[] {hex, square}) {
+      game.startGame();
+      Assert.assertThrows(IllegalStateException.class, game::getSnapshot);
+      int boardLen = game.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      game.legalMoves(game.getTurn(), moves);
+      game.makeMove(moves[0] / boardLen, moves[0] % boardLen);
+      Assert.assertThrows(IllegalStateException.class, game::getSnapshot);
+      Assert.assertThrows(IllegalStateException.class, game.copyGame()::getSnapshot);
+    }
+    // turning them on takes a snapshot at once, but not of a board holding pushed plies
+    hex.setSnapshotsPublished(true);
+    assertSnapshotMatches(hex);
+    int[] moves = new int[64];
+    square.legalMoves(square.getTurn(), moves);
+    square.pushMove(moves[0]);
+    Assert.assertThrows(IllegalStateException.class, () -> square.setSnapshotsPublished(true));
+    square.popMove();
+    square.setSnapshotsPublished(true);
+    assertSnapshotMatches(square);
+  }
+
+  // checks what a listener told that the player changed sees of the game
+  private static void checkListenerView(Reversi game, Tile player) {
+    Assert.assertEquals(player, game.getSnapshot().getTurn());
+    Assert.assertEquals(game.isGameOver(), game.getSnapshot().isGameOver());
+    // the rest of the game can only be read while it is running
+    if (!game.isGameOver()) {
+      assertSnapshotMatches(game);
+    }
+  }
+
+  @Test
+  public void testListenersSeeTheSnapshot() {
+    ReversiModel model = new ReversiModel(4);
+    HexBitboardReversi bitboard = new HexBitboardReversi(4);
+    // each listener call happens after the change it announces is in the snapshot
+    model.addFeatures(player -> checkListenerView(model, player));
+    bitboard.addFeatures(player -> checkListenerView(bitboard, player));
+    for (Reversi game : new Reversi[] {model, bitboard}) {
+      game.startGame();
+      int boardLen = game.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      game.legalMoves(game.getTurn(), moves);
+      game.makeMove(moves[0] / boardLen, moves[0] % boardLen);
+      while (!game.isGameOver()) {
+        game.pass();
+      }
+      Assert.assertTrue(game.getSnapshot().isGameOver());
+    }
+  }
+
+  @Test
+  public void testPass() {
+    Reversi game = new ReversiModel(4);
+    game.startGame();
+    BoardSnapshot before = game.getSnapshot();
+    game.pass();
+    BoardSnapshot after = game.getSnapshot();
+    Assert.assertArrayEquals(before.copyBoard(), after.copyBoard());
+    Assert.assertEquals(Tile.WHITE, after.getTurn());
+    Assert.assertNotEquals(before.positionHash(), after.positionHash());
+    game.pass();
+    Assert.assertTrue(game.getSnapshot().isGameOver());
+  }
+
+  @Test
+  public void testTileAt() {
+    Reversi game = new ReversiModel(4);
+    game.startGame();
+    BoardSnapshot snapshot = game.getSnapshot();
+    Assert.assertEquals(4, snapshot.getSideLen());
+    Assert.assertEquals(7, snapshot.getBoardLen());
+    Assert.assertEquals(Tile.BLACK, snapshot.getTileAt(2, 3));
+    Assert.assertEquals(Tile.EMPTY, snapshot.getTileAt(0, 3));
+    // the top left corner of the array isn't on a hexagonal board
+    Assert.assertNull(snapshot.getTileAt(0, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> snapshot.getTileAt(7, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> snapshot.getScore(Tile.EMPTY));
+    Assert.assertThrows(IllegalStateException.class, () -> new ReversiModel(4).getSnapshot());
+  }
+}
@@ -0,0 +1,147 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import model.ConcurrentReversi;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.ReversiModel;
+import model.Tile;
+
+/**
+ * Tests the ConcurrentReversi class.
+ */
+public class ConcurrentReversiTests {
+
+  // plays a random move, or passes if there is none
+  private static void playRandomMove(Reversi game, Random rand, int[] moves) {
+    int boardLen = game.getBoardLen();
+    int count = game.legalMoves(game.getTurn(), moves);
+    if (count == 0) {
+      game.pass();
+    } else {
+      int move = moves[rand.nextInt(count)];
+      game.makeMove(move / boardLen, move % boardLen);
+    }
+  }
+
+  @Test
+  public void testPlaysLikeWrappedGame() {
+    Reversi plain = new ReversiModel(5);
+    Reversi shared = new ConcurrentReversi(new ReversiModel(5));
+    plain.startGame();
+    shared.startGame();
+    Random rand = new Random(3);
+    int[] moves = new int[plain.getBoardLen() * plain.getBoardLen()];
+    int[] sharedMoves = new int[moves.length];
+    while (!plain.isGameOver()) {
+      Assert.assertFalse(shared.isGameOver());
+      Assert.assertEquals(plain.getTurn(), shared.getTurn());
+      Assert.assertArrayEquals(plain.copyGameBoard(), shared.copyGameBoard());
+      Assert.assertEquals(plain.positionHash(), shared.positionHash());
+      int count = plain.legalMoves(plain.getTurn(), moves);
+      Assert.assertEquals(count, shared.legalMoves(shared.getTurn(), sharedMoves));
+      long seed = rand.nextLong();
+      playRandomMove(plain, new Random(seed), moves);
+      playRandomMove(shared, new Random(seed), moves);
+    }
+    Assert.assertTrue(shared.isGameOver());
+    Assert.assertEquals(plain.getScore(Tile.BLACK), shared.getScore(Tile.BLACK));
+  }
+
+  @Test
+  public void testListenersCanQuery() {
+    ConcurrentReversi game = new ConcurrentReversi(new HexBitboardReversi(4));
+    List<Tile> turns = new ArrayList<>();
+    // a listener that queried the game while the lock was held would never return
+    game.addFeatures(player -> turns.add(game.getTurn()));
+    game.startGame();
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    game.legalMoves(Tile.BLACK, moves);
+    game.makeMove(moves[0] / game.getBoardLen(), moves[0] % game.getBoardLen());
+    Assert.assertEquals(List.of(Tile.BLACK, Tile.WHITE), turns);
+  }
+
+  @Test
+  public void testInvalid() {
+    Reversi game = new ConcurrentReversi(new ReversiModel(4));
+    Assert.assertThrows(IllegalStateException.class, game::getTurn);
+    game.startGame();
+    Assert.assertThrows(IllegalStateException.class, game::popMove);
+    Assert.assertThrows(IllegalStateException.class, () -> game.makeMove(0, 3));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new ConcurrentReversi(null));
+  }
+
+  @Test
+  public void testPushAndPopMove() {
+    ConcurrentReversi game = new ConcurrentReversi(new ReversiModel(4));
+    game.startGame();
+    Tile[][] start = game.copyGameBoard();
+    long startHash = game.positionHash();
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    game.legalMoves(Tile.BLACK, moves);
+    game.pushMove(moves[0]);
+    // the reader's copy is made again after the pushed move
+    Assert.assertEquals(Tile.WHITE, game.getTurn());
+    Assert.assertEquals(Tile.BLACK,
+            game.getTileAt(moves[0] / game.getBoardLen(), moves[0] % game.getBoardLen()));
+    game.popMove();
+    Assert.assertEquals(Tile.BLACK, game.getTurn());
+    Assert.assertArrayEquals(start, game.copyGameBoard());
+    Assert.assertEquals(startHash, game.positionHash());
+
+    // a released reader reads the game again from a new copy
+    game.releaseReader();
+    Assert.assertArrayEquals(start, game.copyGameBoard());
+  }
+
+  @Test
+  public void testReadersNeverSeeHalfAMove() throws InterruptedException {
+    ConcurrentReversi game = new ConcurrentReversi(new ReversiModel(6));
+    game.startGame();
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicInteger reads = new AtomicInteger();
+    List<Thread> readers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Thread reader = new Thread(() -> {
+        try {
+          while (!done.get()) {
+            // a copy made in the middle of a move would have a board that doesn't match the
+            // snapshot of its last complete move
+            Reversi copy = game.copyGame();
+            if (!copy.isGameOver()) {
+              Assert.assertArrayEquals(copy.getSnapshot().copyBoard(), copy.copyGameBoard());
+              Assert.assertEquals(copy.getSnapshot().positionHash(), copy.positionHash());
+            }
+            reads.incrementAndGet();
+          }
+        } catch (Throwable t) {
+          failure.set(t);
+        } finally {
+          game.releaseReader();
+        }
+      });
+      reader.start();
+      readers.add(reader);
+    }
+    Random rand = new Random(9);
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    while (!game.isGameOver()) {
+      playRandomMove(game, rand, moves);
+      Thread.yield();
+    }
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    Assert.assertNull(failure.get());
+    Assert.assertTrue(reads.get() > 0);
+  }
+}
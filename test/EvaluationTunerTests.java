@@ -0,0 +1,131 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import archive.GameRecord;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import model.Tile;
+import strategy.EvaluationFeatures;
+import strategy.EvaluationTuner;
+import strategy.PatternEvaluator;
+import strategy.TrainingSet;
+
+/**
+ * Tests the TrainingSet and EvaluationTuner classes and the saving of PatternEvaluator weights.
+ */
+public class EvaluationTunerTests {
+  final Random rand = new Random(24);
+
+  // plays a random game to the end, and returns its record
+  private GameRecord playGame(Reversi game) {
+    game.startGame();
+    int boardLen = game.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    int[] plies = new int[2 * boardLen * boardLen];
+    int count = 0;
+    while (!game.isGameOver()) {
+      int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+      game.makeMove(move / boardLen, move % boardLen);
+      plies[count++] = move;
+    }
+    return new GameRecord(GameRecord.typeOf(game), game.getSideLen(), plies, count);
+  }
+
+  private TrainingSet randomGames(EvaluationFeatures features, int games) {
+    TrainingSet set = new TrainingSet(features, 2);
+    for (int i = 0; i < games; i++) {
+      set.add(playGame(features.isHex() ? new HexBitboardReversi(features.getSideLen())
+              : new SquareBitboardReversi()));
+    }
+    return set;
+  }
+
+  @Test
+  public void testTrainingSetAdd() {
+    TrainingSet set = new TrainingSet(EvaluationFeatures.ofSquare(8), 2);
+    GameRecord record = playGame(new SquareBitboardReversi());
+    Assert.assertTrue(set.add(record));
+    // every ply but the first two is a position
+    Assert.assertEquals(record.size() - 2, set.size());
+    Assert.assertFalse(set.add(new GameRecord(GameRecord.BoardType.SQUARE, 8,
+            new int[] {2 * 8 + 4}, 1)));
+    Assert.assertEquals(record.size() - 2, set.size());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> set.add(playGame(new HexBitboardReversi(4))));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new TrainingSet(EvaluationFeatures.ofSquare(8), -1));
+  }
+
+  @Test
+  public void testLossAndScale() {
+    EvaluationFeatures features = EvaluationFeatures.ofHex(4);
+    TrainingSet set = randomGames(features, 100);
+    EvaluationTuner tuner = new EvaluationTuner(set, 3);
+    int[] zero = new int[features.getNumWeights()];
+    Assert.assertEquals(Math.log(2), tuner.loss(zero, 0.01), 1e-9);
+
+    // the fitted scale is at least as good as scales around it, and the threads add up to
+    // what one thread finds
+    int[] weights = features.getDefaultWeights();
+    double scale = tuner.fitScale(weights);
+    double loss = tuner.loss(weights, scale);
+    Assert.assertTrue(loss <= tuner.loss(weights, scale * 2) + 1e-9);
+    Assert.assertTrue(loss <= tuner.loss(weights, scale / 2) + 1e-9);
+    Assert.assertEquals(loss, new EvaluationTuner(set, 1).loss(weights, scale), 1e-9);
+    Assert.assertThrows(IllegalArgumentException.class, () -> tuner.loss(new int[3], scale));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new EvaluationTuner(new TrainingSet(features, 0), 1));
+  }
+
+  @Test
+  public void testTuningLowersTheLoss() {
+    EvaluationFeatures features = EvaluationFeatures.ofSquare(8);
+    TrainingSet set = randomGames(features, 200);
+    EvaluationTuner tuner = new EvaluationTuner(set, 2);
+    int[] weights = features.getDefaultWeights();
+    double scale = tuner.fitScale(weights);
+    int[] tuned = tuner.tune(weights, scale, 50, 1.0);
+    double[] losses = tuner.getLosses();
+    Assert.assertEquals(50, losses.length);
+    Assert.assertEquals(tuner.loss(weights, scale), losses[0], 1e-9);
+    Assert.assertTrue(tuner.loss(tuned, scale) < losses[0]);
+    Assert.assertArrayEquals(features.getDefaultWeights(), weights);
+    // the contents of the last table entry, every cell the opponent's, never come up in the
+    // positions, so its weight is left as it was
+    int last = features.getWeightsPerPhase() - 1;
+    Assert.assertEquals(weights[last], tuned[last]);
+  }
+
+  @Test
+  public void testWriteAndReadWeights() throws IOException {
+    EvaluationFeatures hex = EvaluationFeatures.ofHex(5);
+    int[] weights = hex.getDefaultWeights();
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] += rand.nextInt(21) - 10;
+    }
+    PatternEvaluator evaluator = new PatternEvaluator().withWeights(hex, weights);
+    Path file = Files.createTempFile("weights", ".rvpe");
+    try {
+      evaluator.write(file);
+      PatternEvaluator read = PatternEvaluator.read(file);
+      Assert.assertArrayEquals(weights, read.getWeights(hex));
+      EvaluationFeatures square = EvaluationFeatures.ofSquare(8);
+      Assert.assertArrayEquals(square.getDefaultWeights(), read.getWeights(square));
+      Reversi game = new HexBitboardReversi(5);
+      game.startGame();
+      game.makeMove(2, 5);
+      Assert.assertEquals(evaluator.evaluate(game, Tile.WHITE), read.evaluate(game, Tile.WHITE));
+
+      Files.write(file, new byte[] {'n', 'o', 'p', 'e', 1});
+      Assert.assertThrows(IOException.class, () -> PatternEvaluator.read(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import archive.GameRecord;
+import archive.GameRecordReader;
+import archive.GameRecordWriter;
+import model.Reversi;
+import model.ReversiModel;
+import model.SquareReversi;
+import model.Tile;
+
+/**
+ * Tests the GameRecord, GameRecordWriter and GameRecordReader classes.
+ */
+public class GameRecordTests {
+
+  // plays a random game to the end and returns its record, leaving the game at its end
+  private static GameRecord playRandomGame(Reversi game, Random rand) {
+    game.startGame();
+    int boardLen = game.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    int[] plies = new int[2 * boardLen * boardLen];
+    int count = 0;
+    while (!game.isGameOver()) {
+      int numMoves = game.legalMoves(game.getTurn(), moves);
+      if (numMoves == 0 || rand.nextInt(50) == 0) {
+        game.pass();
+        plies[count++] = Reversi.PASS;
+      } else {
+        int move = moves[rand.nextInt(numMoves)];
+        game.makeMove(move / boardLen, move % boardLen);
+        plies[count++] = move;
+      }
+    }
+    return new GameRecord(GameRecord.typeOf(game), game.getSideLen(), plies, count);
+  }
+
+  // returns every tile of a finished game, which copyGameBoard() won't
+  private static Tile[][] finalBoard(Reversi game) {
+    return game.getSnapshot().copyBoard();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path file = Files.createTempFile("games", ".rvgr");
+    try {
+      Random rand = new Random(4);
+      List<Reversi> games = new ArrayList<>();
+      List<GameRecord> records = new ArrayList<>();
+      for (int sideLen = 3; sideLen <= GameRecord.MAX_HEX_SIDE_LEN; sideLen++) {
+        games.add(new ReversiModel(sideLen));
+        games.add(new SquareReversi());
+      }
+      // records are appended to the file by each writer in turn
+      for (int half = 0; half < 2; half++) {
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+          for (int i = half; i < games.size(); i += 2) {
+            GameRecord record = playRandomGame(games.get(i), rand);
+            records.add(record);
+            writer.write(record);
+          }
+        }
+      }
+      try (GameRecordReader reader = new GameRecordReader(file)) {
+        for (GameRecord expected : records) {
+          GameRecord actual = reader.read();
+          Assert.assertEquals(expected.getBoardType(), actual.getBoardType());
+          Assert.assertEquals(expected.getSideLen(), actual.getSideLen());
+          Assert.assertEquals(expected.size(), actual.size());
+          for (int ply = 0; ply < expected.size(); ply++) {
+            Assert.assertEquals(expected.getMove(ply), actual.getMove(ply));
+          }
+        }
+        Assert.assertNull(reader.read());
+      }
+      long bytes = 5;
+      for (GameRecord record : records) {
+        bytes += 3 + record.size();
+      }
+      Assert.assertEquals(bytes, Files.size(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testReplay() {
+    Random rand = new Random(8);
+    for (int sideLen = 3; sideLen <= GameRecord.MAX_HEX_SIDE_LEN; sideLen++) {
+      Reversi game = new ReversiModel(sideLen);
+      GameRecord record = playRandomGame(game, rand);
+      Reversi replayed = record.replay();
+      Assert.assertTrue(replayed.isGameOver());
+      Assert.assertTrue(Arrays.deepEquals(finalBoard(game), finalBoard(replayed)));
+    }
+    Reversi game = new SquareReversi();
+    Reversi replayed = playRandomGame(game, rand).replay();
+    Assert.assertTrue(Arrays.deepEquals(finalBoard(game), finalBoard(replayed)));
+  }
+
+  @Test
+  public void testInvalidRecords() throws IOException {
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new GameRecord(GameRecord.BoardType.HEX, 10, new int[0], 0));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new GameRecord(GameRecord.BoardType.SQUARE, 6, new int[0], 0));
+    // the top left corner of the array isn't on a hexagonal board
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new GameRecord(GameRecord.BoardType.HEX, 4, new int[] {0}, 1));
+    Assert.assertThrows(IllegalStateException.class,
+        () -> new GameRecord(GameRecord.BoardType.SQUARE, 8, new int[] {0}, 1).replay());
+
+    Path file = Files.createTempFile("games", ".rvgr");
+    try {
+      Files.write(file, new byte[] {'R', 'V', 'G', 'R', 1, (byte) 0x88, 0, 5, 19});
+      try (GameRecordReader reader = new GameRecordReader(file)) {
+        Assert.assertThrows(EOFException.class, reader::read);
+      }
+      Files.write(file, new byte[] {'R', 'V', 'G', 'R', 1, (byte) 0x86, 0, 0});
+      try (GameRecordReader reader = new GameRecordReader(file)) {
+        Assert.assertThrows(IOException.class, reader::read);
+      }
+      Files.write(file, new byte[] {'n', 'o', 'p', 'e', 1});
+      Assert.assertThrows(IOException.class, () -> new GameRecordReader(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
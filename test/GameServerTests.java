@@ -0,0 +1,280 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import model.ReversiModel;
+import model.Tile;
+import server.GameRegistry;
+import server.GameServer;
+import server.GameSession;
+import view.ViewFeatures;
+
+/**
+ * Tests the GameRegistry, GameSession and GameServer classes.
+ */
+public class GameServerTests {
+  // runs every mailbox right away on the posting thread, so that the tests can check the
+  // messages as soon as they make a request
+  GameRegistry registry = new GameRegistry(ReversiModel::new, Runnable::run);
+  List<String> blackMessages = new ArrayList<>();
+  List<String> whiteMessages = new ArrayList<>();
+
+  @Test
+  public void testPlayThroughSeats() {
+    GameSession session = registry.create(4);
+    int id = session.getId();
+    ViewFeatures black = session.join(Tile.BLACK, blackMessages::add);
+    ViewFeatures white = session.join(Tile.WHITE, whiteMessages::add);
+    Assert.assertEquals(List.of("JOINED " + id + " BLACK"), blackMessages);
+
+    white.makeMoveFeatures(1, -2);
+    Assert.assertEquals("ERROR " + id + " not your turn", whiteMessages.get(1));
+    black.makeMoveFeatures(3, 3);
+    Assert.assertEquals("ERROR " + id + " illegal move", blackMessages.get(1));
+    black.makeMoveFeatures(1, -2);
+    Assert.assertEquals("MOVED " + id + " BLACK 1 -2", blackMessages.get(2));
+    Assert.assertEquals("MOVED " + id + " BLACK 1 -2", whiteMessages.get(2));
+    white.passFeatures();
+    Assert.assertEquals("PASSED " + id + " WHITE", blackMessages.get(3));
+
+    List<String> spectator = new ArrayList<>();
+    session.sendBoard(spectator::add);
+    Assert.assertEquals("BOARD " + id + " X 5 2 ____/__X__/__XX__/__O_X__/__XO__/_____/____",
+            spectator.get(0));
+  }
+
+  @Test
+  public void testFailedCommandIsReported() {
+    GameRegistry failing = new GameRegistry(sideLen -> new ReversiModel(sideLen) {
+      @Override
+      public void makeMove(int row, int col) {
+        throw new UnsupportedOperationException("broken model");
+      }
+    }, Runnable::run);
+    GameSession session = failing.create(4);
+    int id = session.getId();
+    ViewFeatures black = session.join(Tile.BLACK, blackMessages::add);
+    session.join(Tile.WHITE, whiteMessages::add);
+
+    Logger logger = Logger.getLogger(GameSession.class.getName());
+    logger.setLevel(Level.OFF);
+    try {
+      black.makeMoveFeatures(1, -2);
+    } finally {
+      logger.setLevel(null);
+    }
+    Assert.assertEquals("ERROR " + id + " internal error", blackMessages.get(1));
+    Assert.assertEquals("ERROR " + id + " internal error", whiteMessages.get(1));
+    // the mailbox keeps running after the failure, and black still has the turn
+    black.passFeatures();
+    Assert.assertEquals("PASSED " + id + " BLACK", whiteMessages.get(2));
+  }
+
+  @Test
+  public void testSeats() {
+    GameSession session = registry.create(4);
+    int id = session.getId();
+    ViewFeatures black = session.join(Tile.BLACK, blackMessages::add);
+    ViewFeatures impostor = session.join(Tile.BLACK, whiteMessages::add);
+    Assert.assertEquals("ERROR " + id + " seat taken", whiteMessages.get(0));
+    impostor.passFeatures();
+    Assert.assertEquals("ERROR " + id + " not seated", whiteMessages.get(1));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> session.join(Tile.EMPTY, whiteMessages::add));
+
+    // a finished game is dropped once nobody is seated
+    black.passFeatures();
+    ViewFeatures white = session.join(Tile.WHITE, whiteMessages::add);
+    white.passFeatures();
+    Assert.assertEquals("OVER " + id + " 3 3", blackMessages.get(blackMessages.size() - 1));
+    session.leave(black);
+    Assert.assertSame(session, registry.get(id));
+    session.leave(white);
+    Assert.assertNull(registry.get(id));
+  }
+
+  @Test
+  public void testAbandonedGamesAreRemoved() {
+    // a game left before it is over is removed as soon as both seats are empty
+    GameSession session = registry.create(4);
+    int id = session.getId();
+    ViewFeatures black = session.join(Tile.BLACK, blackMessages::add);
+    ViewFeatures white = session.join(Tile.WHITE, whiteMessages::add);
+    black.makeMoveFeatures(1, -2);
+    session.leave(black);
+    Assert.assertSame(session, registry.get(id));
+    session.leave(white);
+    Assert.assertNull(registry.get(id));
+    session.join(Tile.BLACK, blackMessages::add);
+    Assert.assertEquals("ERROR " + id + " game closed",
+            blackMessages.get(blackMessages.size() - 1));
+
+    // a game nobody joins is removed once it has been idle for the timeout, but one with a
+    // player seated is kept
+    GameSession unjoined = registry.create(4);
+    GameSession joined = registry.create(4);
+    joined.join(Tile.WHITE, whiteMessages::add);
+    registry.removeIdle(60_000);
+    Assert.assertSame(unjoined, registry.get(unjoined.getId()));
+    registry.removeIdle(0);
+    Assert.assertNull(registry.get(unjoined.getId()));
+    Assert.assertSame(joined, registry.get(joined.getId()));
+    Assert.assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void testOverTcp() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (GameServer server = new GameServer(new GameRegistry(ReversiModel::new, executor), 0)) {
+      server.start();
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+           BufferedReader in = new BufferedReader(new InputStreamReader(
+                   socket.getInputStream(), StandardCharsets.UTF_8));
+           PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+        out.println("NEW 4");
+        Assert.assertEquals("GAME 1", in.readLine());
+        out.println("JOIN 1 black");
+        Assert.assertEquals("JOINED 1 BLACK", in.readLine());
+        out.println("MOVE 1 1 -2");
+        Assert.assertEquals("MOVED 1 BLACK 1 -2", in.readLine());
+        out.println("PASS 2");
+        Assert.assertEquals("ERROR not joined to 2", in.readLine());
+        out.println("MOVE 1 x y");
+        Assert.assertEquals("ERROR not a number: x", in.readLine());
+        out.println("NEW 2");
+        Assert.assertEquals("ERROR Size of board cannot be less than 3", in.readLine());
+        out.println("QUIT");
+        Assert.assertNull(in.readLine());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRefusedJoinHoldsNoSeat() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (GameServer server = new GameServer(new GameRegistry(ReversiModel::new, executor), 0);
+         Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+         Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      server.start();
+      BufferedReader firstIn = new BufferedReader(new InputStreamReader(
+              first.getInputStream(), StandardCharsets.UTF_8));
+      PrintWriter firstOut = new PrintWriter(first.getOutputStream(), true);
+      BufferedReader in = new BufferedReader(new InputStreamReader(
+              second.getInputStream(), StandardCharsets.UTF_8));
+      PrintWriter out = new PrintWriter(second.getOutputStream(), true);
+      firstOut.println("NEW 4");
+      Assert.assertEquals("GAME 1", firstIn.readLine());
+      firstOut.println("JOIN 1 black");
+      Assert.assertEquals("JOINED 1 BLACK", firstIn.readLine());
+
+      // turned away from a taken seat, the client can still take the other one
+      out.println("JOIN 1 black");
+      Assert.assertEquals("ERROR 1 seat taken", in.readLine());
+      out.println("PASS 1");
+      Assert.assertEquals("ERROR not joined to 1", in.readLine());
+      out.println("JOIN 1 white");
+      Assert.assertEquals("JOINED 1 WHITE", in.readLine());
+
+      // a second JOIN sent before the first is answered gets no seat either
+      out.println("NEW 4");
+      Assert.assertEquals("GAME 2", in.readLine());
+      out.println("JOIN 2 black");
+      out.println("JOIN 2 white");
+      Assert.assertEquals("JOINED 2 BLACK", in.readLine());
+      Assert.assertEquals("ERROR 2 already joined", in.readLine());
+      firstOut.println("JOIN 2 white");
+      Assert.assertEquals("JOINED 2 WHITE", firstIn.readLine());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testSlowReaderHoldsUpNoGame() throws IOException {
+    // one thread runs every mailbox, so a mailbox waiting on a client would stop every game
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+    try (GameServer server = new GameServer(new GameRegistry(ReversiModel::new, executor), 0);
+         Socket slow = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+         Socket other = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      server.start();
+      other.setSoTimeout(10_000);
+      BufferedReader in = new BufferedReader(new InputStreamReader(
+              other.getInputStream(), StandardCharsets.UTF_8));
+      PrintWriter out = new PrintWriter(other.getOutputStream(), true);
+      out.println("NEW 4");
+      Assert.assertEquals("GAME 1", in.readLine());
+
+      // asks for far more boards than the socket can buffer, and never reads them
+      PrintWriter slowOut = new PrintWriter(slow.getOutputStream(), false);
+      for (int i = 0; i < 30_000; i++) {
+        slowOut.println("BOARD 1");
+      }
+      slowOut.flush();
+      out.println("JOIN 1 black");
+      Assert.assertEquals("JOINED 1 BLACK", in.readLine());
+      out.println("MOVE 1 1 -2");
+      Assert.assertEquals("MOVED 1 BLACK 1 -2", in.readLine());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testMainKeepsServing() throws IOException, InterruptedException {
+    int port;
+    try (ServerSocket free = new ServerSocket(0)) {
+      port = free.getLocalPort();
+    }
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread main = new Thread(() -> {
+      try {
+        GameServerMain.main(new String[] {Integer.toString(port), "1"});
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    // the test doesn't wait for the server, which runs until the JVM shuts down
+    main.setDaemon(true);
+    main.start();
+    long deadline = System.nanoTime() + 10_000_000_000L;
+    Socket socket = null;
+    while (socket == null) {
+      try {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+      } catch (ConnectException e) {
+        Assert.assertTrue(System.nanoTime() < deadline);
+        Thread.sleep(10);
+      }
+    }
+    try (Socket client = socket) {
+      client.setSoTimeout(10_000);
+      BufferedReader in = new BufferedReader(new InputStreamReader(
+              client.getInputStream(), StandardCharsets.UTF_8));
+      PrintWriter out = new PrintWriter(client.getOutputStream(), true);
+      out.println("NEW 4");
+      Assert.assertEquals("GAME 1", in.readLine());
+    }
+    // main only returns when the JVM shuts down, so the server keeps the process alive
+    main.join(200);
+    Assert.assertTrue(main.isAlive());
+    Assert.assertNull(failure.get());
+  }
+}
@@ -0,0 +1,145 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.ReversiModel;
+import model.Tile;
+
+/**
+ * Tests the HexBitboardReversi class.
+ */
+public class HexBitboardReversiTests {
+  HexBitboardReversi model = new HexBitboardReversi(4);
+  HexBitboardReversi model3 = new HexBitboardReversi(3);
+
+  @Test
+  public void testStartGame() {
+    model.startGame();
+    Assert.assertEquals(Tile.BLACK, model.getTurn());
+    Assert.assertThrows(IllegalStateException.class, () -> model.startGame());
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(2, 3));
+    Assert.assertEquals(Tile.WHITE, model.getTileAt(2, 4));
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(3, 4));
+    Assert.assertEquals(Tile.WHITE, model.getTileAt(4, 3));
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(4, 2));
+    Assert.assertEquals(Tile.WHITE, model.getTileAt(3, 2));
+    Assert.assertEquals(Tile.EMPTY, model.getTileAt(3, 3));
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.getTileAt(0, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.getTileAt(7, 3));
+  }
+
+  @Test
+  public void testIllegalMove() {
+    model.startGame();
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.makeMove(0, 0));
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(3, 2));
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(3, 3));
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(4, 0));
+    Assert.assertFalse(model.isLegalMove(3, 3));
+    Assert.assertTrue(model.isLegalMove(1, 4));
+  }
+
+  @Test
+  public void testIsGameOverSize3() {
+    model3.startGame();
+    model3.makeMove(0, 3);
+    model3.makeMove(1, 4);
+    model3.makeMove(3, 3);
+    model3.makeMove(4, 1);
+    model3.makeMove(3, 0);
+    Assert.assertFalse(model3.isGameOver());
+    model3.makeMove(1, 1);
+    Assert.assertTrue(model3.isGameOver());
+    Assert.assertEquals(Tile.WHITE, model3.getWinner());
+  }
+
+  @Test
+  public void testScores() {
+    model.startGame();
+    model.makeMove(1, 4);
+    model.makeMove(2, 5);
+    Assert.assertEquals(2, model.getScoreOfMove(4, 4, Tile.BLACK));
+    model.makeMove(4, 4);
+    Assert.assertEquals(3, model.getScoreOfMove(5, 2, Tile.WHITE));
+    Assert.assertEquals(9, model.getScore(Tile.BLACK) + model.getScore(Tile.WHITE));
+  }
+
+  @Test
+  public void testPassTwiceInARow() {
+    model.startGame();
+    model.pass();
+    model.pass();
+    Assert.assertTrue(model.isGameOver());
+    Assert.assertThrows(IllegalStateException.class, () -> model.getTurn());
+  }
+
+  @Test
+  public void testMatchesReversiModel() {
+    // plays random games on both models and checks that they always agree
+    Random rand = new Random(42);
+    for (int game = 0; game < 50; game++) {
+      int sideLen = 3 + game % 5;
+      int boardLen = sideLen + sideLen - 1;
+      Reversi expected = new ReversiModel(sideLen);
+      Reversi actual = new HexBitboardReversi(sideLen);
+      expected.startGame();
+      actual.startGame();
+      while (!actual.isGameOver()) {
+        Assert.assertEquals(expected.getTurn(), actual.getTurn());
+        Assert.assertArrayEquals(expected.copyGameBoard(), actual.copyGameBoard());
+        List<int[]> legalMoves = new ArrayList<>();
+        for (int i = 0; i < boardLen; i++) {
+          for (int j = 0; j < boardLen; j++) {
+            Assert.assertEquals(expected.isLegalMove(i, j), actual.isLegalMove(i, j));
+            if (actual.isLegalMove(i, j)) {
+              legalMoves.add(new int[] {i, j});
+            }
+          }
+        }
+        int[] expectedMoves = new int[boardLen * boardLen];
+        int[] actualMoves = new int[boardLen * boardLen];
+        int count = expected.legalMoves(expected.getTurn(), expectedMoves);
+        Assert.assertEquals(count, actual.legalMoves(actual.getTurn(), actualMoves));
+        Assert.assertArrayEquals(expectedMoves, actualMoves);
+        Assert.assertEquals(legalMoves.size(), count);
+        if (legalMoves.isEmpty()) {
+          expected.pass();
+          actual.pass();
+        } else {
+          int[] move = legalMoves.get(rand.nextInt(legalMoves.size()));
+          expected.makeMove(move[0], move[1]);
+          actual.makeMove(move[0], move[1]);
+        }
+      }
+      Assert.assertEquals(expected.getScore(Tile.BLACK), actual.getScore(Tile.BLACK));
+      Assert.assertEquals(expected.getScore(Tile.WHITE), actual.getScore(Tile.WHITE));
+    }
+  }
+
+  @Test
+  public void testPushAndPopMove() {
+    // plays a random game with pushMove, then takes it all back with popMove
+    Reversi game = new HexBitboardReversi(5);
+    game.startGame();
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    List<Tile[][]> boards = new ArrayList<>();
+    Random rand = new Random(7);
+    while (!game.isGameOver()) {
+      boards.add(game.copyGameBoard());
+      int count = game.legalMoves(game.getTurn(), moves);
+      game.pushMove(count == 0 ? Reversi.PASS : moves[rand.nextInt(count)]);
+    }
+    for (int i = boards.size() - 1; i >= 0; i--) {
+      game.popMove();
+      Assert.assertArrayEquals(boards.get(i), game.copyGameBoard());
+    }
+    Assert.assertEquals(Tile.BLACK, game.getTurn());
+    Assert.assertThrows(IllegalStateException.class, () -> game.popMove());
+  }
+
+}
@@ -0,0 +1,180 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.Random;
+
+import model.AxialCoords;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import model.Tile;
+import strategy.AlphaBetaStrategy;
+import strategy.Evaluator;
+import strategy.MoveOrdering;
+import strategy.TranspositionTable;
+
+/**
+ * Tests the MoveOrdering class and its use by AlphaBetaStrategy.
+ */
+public class MoveOrderingTests {
+  final Random rand = new Random(25);
+
+  private void playRandom(Reversi game, int plies) {
+    int boardLen = game.getBoardLen();
+    int[] moves = new int[boardLen * boardLen];
+    for (int ply = 0; ply < plies && !game.isGameOver(); ply++) {
+      int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+      game.makeMove(move / boardLen, move % boardLen);
+    }
+  }
+
+  // the score of the position for side searched to the given depth without pruning, which is
+  // what AlphaBetaStrategy finds with the same evaluator
+  private static int minimax(Reversi game, Tile side, int depth, boolean passed) {
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    int numMoves = game.legalMoves(side, moves);
+    if (numMoves == 0) {
+      if (passed) {
+        int diff = game.getScore(side) - game.getScore(side.getOpposite());
+        return diff == 0 ? 0 : diff + (diff > 0 ? 1_000_000 : -1_000_000);
+      }
+      game.pushMove(Reversi.PASS);
+      int score = -minimax(game, side.getOpposite(), depth, true);
+      game.popMove();
+      return score;
+    }
+    if (depth <= 0) {
+      return Evaluator.DISC_DIFFERENCE.evaluate(game, side);
+    }
+    int best = Integer.MIN_VALUE;
+    for (int i = 0; i < numMoves; i++) {
+      game.pushMove(moves[i]);
+      best = Math.max(best, -minimax(game, side.getOpposite(), depth - 1, false));
+      game.popMove();
+    }
+    return best;
+  }
+
+  @Test
+  public void testOrderPutsHashMoveAndKillersFirst() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    int[] moves = new int[64];
+    int numMoves = game.legalMoves(Tile.BLACK, moves);
+    Assert.assertEquals(4, numMoves);
+    int[] generated = moves.clone();
+
+    MoveOrdering none = new MoveOrdering(EnumSet.noneOf(MoveOrdering.Heuristic.class));
+    none.cutoff(generated[3], 1, 4);
+    none.order(game, Tile.BLACK, moves, numMoves, 1, 4, generated[2]);
+    Assert.assertArrayEquals(generated, moves);
+
+    MoveOrdering ordering = new MoveOrdering();
+    ordering.cutoff(generated[3], 1, 4);
+    ordering.cutoff(generated[1], 1, 4);
+    ordering.order(game, Tile.BLACK, moves, numMoves, 1, 4, generated[2]);
+    Assert.assertEquals(generated[2], moves[0]);
+    // the most recent killer goes before the older one
+    Assert.assertEquals(generated[1], moves[1]);
+    Assert.assertEquals(generated[3], moves[2]);
+    Assert.assertEquals(generated[0], moves[3]);
+
+    // killers belong to their ply, and a new search forgets them
+    MoveOrdering killers = new MoveOrdering(EnumSet.of(MoveOrdering.Heuristic.KILLERS));
+    killers.cutoff(generated[3], 1, 4);
+    System.arraycopy(generated, 0, moves, 0, numMoves);
+    killers.order(game, Tile.BLACK, moves, numMoves, 2, 4, Reversi.PASS);
+    Assert.assertArrayEquals(generated, moves);
+    killers.order(game, Tile.BLACK, moves, numMoves, 1, 4, Reversi.PASS);
+    Assert.assertEquals(generated[3], moves[0]);
+    killers.newSearch();
+    System.arraycopy(generated, 0, moves, 0, numMoves);
+    killers.order(game, Tile.BLACK, moves, numMoves, 1, 4, Reversi.PASS);
+    Assert.assertArrayEquals(generated, moves);
+    Assert.assertThrows(IllegalArgumentException.class, () -> new MoveOrdering(null));
+  }
+
+  @Test
+  public void testHistoryAndMobility() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    int[] moves = new int[64];
+    game.legalMoves(Tile.BLACK, moves);
+    game.makeMove(moves[0] / 8, moves[0] % 8);
+    int numMoves = game.legalMoves(Tile.WHITE, moves);
+    int[] generated = moves.clone();
+
+    // the move that cut off the deepest search goes first
+    MoveOrdering history = new MoveOrdering(EnumSet.of(MoveOrdering.Heuristic.HISTORY));
+    history.order(game, Tile.WHITE, moves, numMoves, 0, 4, Reversi.PASS);
+    Assert.assertArrayEquals(generated, moves);
+    history.cutoff(generated[0], 3, 1);
+    history.cutoff(generated[0], 5, 1);
+    history.cutoff(generated[numMoves - 1], 2, 2);
+    history.order(game, Tile.WHITE, moves, numMoves, 1, 4, Reversi.PASS);
+    Assert.assertEquals(generated[numMoves - 1], moves[0]);
+    Assert.assertEquals(generated[0], moves[1]);
+
+    // moves are sorted by the replies they leave black, but only with plies left to search
+    MoveOrdering mobility = new MoveOrdering(EnumSet.of(MoveOrdering.Heuristic.MOBILITY));
+    mobility.order(game, Tile.WHITE, moves, numMoves, 1, MoveOrdering.MOBILITY_MIN_DEPTH,
+            Reversi.PASS);
+    int[] replies = new int[64];
+    int previous = -1;
+    for (int i = 0; i < numMoves; i++) {
+      game.pushMove(moves[i]);
+      int count = game.legalMoves(Tile.BLACK, replies);
+      game.popMove();
+      Assert.assertTrue(count >= previous);
+      previous = count;
+    }
+    System.arraycopy(generated, 0, moves, 0, numMoves);
+    mobility.order(game, Tile.WHITE, moves, numMoves, 1, MoveOrdering.MOBILITY_MIN_DEPTH - 1,
+            Reversi.PASS);
+    Assert.assertArrayEquals(generated, moves);
+  }
+
+  @Test
+  public void testOrderedSearchFindsTheBestMove() {
+    for (int i = 0; i < 6; i++) {
+      Reversi game = i % 2 == 0 ? new SquareBitboardReversi() : new HexBitboardReversi(4);
+      game.startGame();
+      playRandom(game, 6 + rand.nextInt(10));
+      Tile turn = game.getTurn();
+      int offset = game.getSideLen() - 1;
+      AlphaBetaStrategy search = new AlphaBetaStrategy(60_000, 3, new TranspositionTable(1),
+              Evaluator.DISC_DIFFERENCE);
+      AxialCoords move = search.chooseMove(game, turn).get();
+
+      int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+      int numMoves = game.legalMoves(turn, moves);
+      int best = Integer.MIN_VALUE;
+      for (int j = 0; j < numMoves; j++) {
+        game.pushMove(moves[j]);
+        best = Math.max(best, -minimax(game, turn.getOpposite(), 2, false));
+        game.popMove();
+      }
+      game.pushMove((move.getR() + offset) * game.getBoardLen() + move.getQ() + offset);
+      Assert.assertEquals(best, -minimax(game, turn.getOpposite(), 2, false));
+      game.popMove();
+    }
+  }
+
+  @Test
+  public void testOrderingSearchesFewerPositions() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    playRandom(game, 10);
+    AlphaBetaStrategy unordered = new AlphaBetaStrategy(60_000, 6, new TranspositionTable(1),
+            Evaluator.DISC_DIFFERENCE, EnumSet.noneOf(MoveOrdering.Heuristic.class));
+    AlphaBetaStrategy ordered = new AlphaBetaStrategy(60_000, 6, new TranspositionTable(1),
+            Evaluator.DISC_DIFFERENCE, EnumSet.allOf(MoveOrdering.Heuristic.class));
+    unordered.chooseMove(game, game.getTurn());
+    ordered.chooseMove(game, game.getTurn());
+    Assert.assertEquals(6, ordered.getDepthReached());
+    Assert.assertTrue(ordered.getNodesSearched() < unordered.getNodesSearched());
+    Assert.assertThrows(IllegalArgumentException.class, () -> new AlphaBetaStrategy(1000, 4,
+            new TranspositionTable(1), Evaluator.DISC_DIFFERENCE, null));
+  }
+}
@@ -0,0 +1,163 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+
+import archive.GameRecord;
+import model.AIPlayer;
+import model.AxialCoords;
+import model.Reversi;
+import model.SquareBitboardReversi;
+import model.Tile;
+import strategy.OpeningBook;
+
+/**
+ * Tests the OpeningBook class and its use by AIPlayer.
+ */
+public class OpeningBookTests {
+  final Random rand = new Random(22);
+
+  // plays the given moves and then random ones to the end, and returns the record of the game
+  private GameRecord playGame(int... opening) {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    int[] moves = new int[64];
+    int[] plies = new int[128];
+    int count = 0;
+    while (!game.isGameOver()) {
+      int move = count < opening.length ? opening[count]
+              : moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+      game.makeMove(move / 8, move % 8);
+      plies[count++] = move;
+    }
+    return new GameRecord(GameRecord.BoardType.SQUARE, 8, plies, count);
+  }
+
+  private static int toMove(AxialCoords coords) {
+    return (coords.getR() + 7) * 8 + coords.getQ() + 7;
+  }
+
+  @Test
+  public void testSymmetricMovesShareAnEntry() {
+    OpeningBook.Builder builder = new OpeningBook.Builder(4, 1);
+    // the four first moves of the square board are all the same move turned around
+    int[] firstMoves = {2 * 8 + 4, 3 * 8 + 5, 4 * 8 + 2, 5 * 8 + 3};
+    for (int i = 0; i < 20; i++) {
+      Assert.assertTrue(builder.add(playGame(firstMoves[i % 4])));
+    }
+    OpeningBook book = builder.build();
+    Reversi start = new SquareBitboardReversi();
+    start.startGame();
+    for (int move : firstMoves) {
+      Assert.assertEquals(20, book.gamesOf(start, move));
+    }
+    int move = book.bookMove(start, Tile.BLACK);
+    Assert.assertTrue(start.isLegalMove(move / 8, move % 8));
+    Assert.assertEquals(Reversi.PASS, book.bookMove(start, Tile.WHITE));
+  }
+
+  @Test
+  public void testDepthAndMinGames() {
+    OpeningBook.Builder builder = new OpeningBook.Builder(2, 3);
+    for (int i = 0; i < 3; i++) {
+      builder.add(playGame(2 * 8 + 4, 2 * 8 + 3, 2 * 8 + 2));
+    }
+    // a game that isn't finished is left out
+    Assert.assertFalse(builder.add(new GameRecord(GameRecord.BoardType.SQUARE, 8,
+            new int[] {2 * 8 + 4}, 1)));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> builder.add(new GameRecord(GameRecord.BoardType.HEX, 4, new int[0], 0)));
+    OpeningBook book = builder.build();
+    Assert.assertEquals(2, book.size());
+
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    Assert.assertEquals(2 * 8 + 4, book.bookMove(game, Tile.BLACK));
+    game.makeMove(2, 4);
+    Assert.assertEquals(2 * 8 + 3, book.bookMove(game, Tile.WHITE));
+    game.makeMove(2, 3);
+    // the third ply is beyond the book's depth
+    Assert.assertEquals(0, book.gamesOf(game, 2 * 8 + 2));
+    Assert.assertEquals(Reversi.PASS, book.bookMove(game, Tile.BLACK));
+
+    // a move played in fewer games than the minimum isn't chosen
+    builder.add(playGame(2 * 8 + 4, 2 * 8 + 5));
+    game = new SquareBitboardReversi();
+    game.startGame();
+    game.makeMove(2, 4);
+    Assert.assertEquals(1, builder.build().gamesOf(game, 2 * 8 + 5));
+    Assert.assertEquals(2 * 8 + 3, builder.build().bookMove(game, Tile.WHITE));
+    Assert.assertEquals(0, new OpeningBook.Builder(2, 5).build().size());
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    OpeningBook.Builder builder = new OpeningBook.Builder(10, 2);
+    for (int i = 0; i < 200; i++) {
+      builder.add(playGame());
+    }
+    OpeningBook book = builder.build();
+    Path file = Files.createTempFile("book", ".rvob");
+    try {
+      book.write(file);
+      OpeningBook read = OpeningBook.read(file);
+      Assert.assertEquals(book.size(), read.size());
+      Assert.assertEquals(10, read.getDepth());
+      Assert.assertEquals(2, read.getMinGames());
+      // both books make the same choices along some random games
+      for (int i = 0; i < 20; i++) {
+        Reversi game = new SquareBitboardReversi();
+        game.startGame();
+        int[] moves = new int[64];
+        for (int ply = 0; ply < 6; ply++) {
+          Assert.assertEquals(book.bookMove(game, game.getTurn()),
+                  read.bookMove(game, game.getTurn()));
+          int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+          Assert.assertEquals(book.gamesOf(game, move), read.gamesOf(game, move));
+          game.makeMove(move / 8, move % 8);
+        }
+      }
+      Files.write(file, new byte[] {'n', 'o', 'p', 'e', 1});
+      Assert.assertThrows(IOException.class, () -> OpeningBook.read(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testAIPlayerPlaysBookMoves() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    game.makeMove(2, 4);
+    AIPlayer withoutBook = new AIPlayer(game, Tile.WHITE);
+    int strategyMove = toMove(withoutBook.chooseNextMove().get());
+
+    // a book in which white always replied with some other move
+    OpeningBook.Builder builder = new OpeningBook.Builder(4, 1);
+    int[] replies = new int[64];
+    int numReplies = game.legalMoves(Tile.WHITE, replies);
+    for (int i = 0; i < numReplies; i++) {
+      if (replies[i] != strategyMove) {
+        builder.add(playGame(2 * 8 + 4, replies[i]));
+      }
+    }
+    AIPlayer withBook = new AIPlayer(game, Tile.WHITE, builder.build());
+    Optional<AxialCoords> bookMove = withBook.chooseNextMove();
+    Assert.assertNotEquals(strategyMove, toMove(bookMove.get()));
+    Assert.assertTrue(game.isLegalMove(toMove(bookMove.get()) / 8, toMove(bookMove.get()) % 8));
+
+    // out of the book it falls back on its strategies
+    game.makeMove(toMove(bookMove.get()) / 8, toMove(bookMove.get()) % 8);
+    int[] moves = new int[64];
+    game.legalMoves(Tile.BLACK, moves);
+    game.makeMove(moves[0] / 8, moves[0] % 8);
+    Assert.assertEquals(new AIPlayer(game, Tile.WHITE).chooseNextMove(),
+            withBook.chooseNextMove());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new AIPlayer(game, Tile.WHITE, null));
+  }
+}
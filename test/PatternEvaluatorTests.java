@@ -0,0 +1,177 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.AxialCoords;
+import model.ConcurrentReversi;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.ReversiModel;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+import model.Symmetry;
+import model.Tile;
+import strategy.AlphaBetaStrategy;
+import strategy.EvaluationFeatures;
+import strategy.Evaluator;
+import strategy.PatternEvaluator;
+import strategy.TranspositionTable;
+
+/**
+ * Tests the EvaluationFeatures and PatternEvaluator classes and the tilesOf() method they read
+ * the board with.
+ */
+public class PatternEvaluatorTests {
+  final Random rand = new Random(23);
+
+  @Test
+  public void testFeaturesOfTheStartingPosition() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    EvaluationFeatures features = EvaluationFeatures.of(game);
+    Assert.assertSame(features, EvaluationFeatures.ofSquare(8));
+    // four scalars, four edges and four corners
+    Assert.assertEquals(12, features.getMaxFeatures());
+    Assert.assertEquals(EvaluationFeatures.NUM_PHASES * features.getWeightsPerPhase(),
+            features.getNumWeights());
+    int[] indexes = new int[features.getMaxFeatures()];
+    int[] counts = new int[features.getMaxFeatures()];
+    Assert.assertEquals(12, features.extract(game, Tile.BLACK, indexes, counts));
+    Assert.assertEquals(EvaluationFeatures.MOBILITY, indexes[0]);
+    Assert.assertEquals(0, counts[EvaluationFeatures.MOBILITY]);
+    Assert.assertEquals(0, counts[EvaluationFeatures.FRONTIER]);
+    Assert.assertEquals(-1, counts[EvaluationFeatures.PARITY]);
+    // the patterns see only empty cells, which are worth nothing
+    int[] weights = features.getDefaultWeights();
+    for (int i = 4; i < 12; i++) {
+      Assert.assertEquals(1, counts[i]);
+      Assert.assertEquals(0, weights[indexes[i]]);
+    }
+
+    Reversi hex = new HexBitboardReversi(6);
+    hex.startGame();
+    // four scalars, six sides and six corners
+    Assert.assertEquals(16, EvaluationFeatures.of(hex).getMaxFeatures());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> features.extract(hex, Tile.BLACK, indexes, counts));
+  }
+
+  @Test
+  public void testTilesOfMatchesTheBoard() {
+    for (Reversi game : new Reversi[] {new ReversiModel(4), new HexBitboardReversi(4),
+        new SquareReversi(), new ConcurrentReversi(new SquareBitboardReversi())}) {
+      game.startGame();
+      int boardLen = game.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      int[] tiles = new int[boardLen * boardLen];
+      while (true) {
+        Tile[][] board = game.getSnapshot().copyBoard();
+        for (Tile player : new Tile[] {Tile.BLACK, Tile.WHITE}) {
+          int count = game.tilesOf(player, tiles);
+          Assert.assertEquals(game.getScore(player), count);
+          for (int i = 0; i < count; i++) {
+            Assert.assertEquals(player, board[tiles[i] / boardLen][tiles[i] % boardLen]);
+            Assert.assertTrue(i == 0 || tiles[i] > tiles[i - 1]);
+          }
+        }
+        if (game.isGameOver()) {
+          break;
+        }
+        int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+        game.makeMove(move / boardLen, move % boardLen);
+      }
+    }
+  }
+
+  @Test
+  public void testScoresAreSymmetric() {
+    PatternEvaluator evaluator = new PatternEvaluator();
+    for (Reversi start : new Reversi[] {new SquareBitboardReversi(), new HexBitboardReversi(5)}) {
+      start.startGame();
+      Symmetry symmetry = Symmetry.of(start);
+      int boardLen = start.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      for (int t = 1; t < symmetry.size(); t++) {
+        if (!Arrays.deepEquals(start.copyGameBoard(),
+                symmetry.transform(t, start.copyGameBoard()))) {
+          continue;
+        }
+        Reversi game = start.copyGame();
+        Reversi mirror = start.copyGame();
+        while (!game.isGameOver()) {
+          Tile turn = game.getTurn();
+          Assert.assertEquals(evaluator.evaluate(game, turn), evaluator.evaluate(mirror, turn));
+          int numMoves = game.legalMoves(turn, moves);
+          int move = moves[rand.nextInt(numMoves)];
+          int mirrored = symmetry.transformCell(t, move);
+          game.makeMove(move / boardLen, move % boardLen);
+          mirror.makeMove(mirrored / boardLen, mirrored % boardLen);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testScoresOfTheTwoSidesAreOpposite() {
+    PatternEvaluator evaluator = new PatternEvaluator();
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    int[] moves = new int[64];
+    // parity has no weight in the first half of the game, and the rest is the same for both
+    for (int ply = 0; ply < 20; ply++) {
+      Assert.assertEquals(evaluator.evaluate(game, Tile.BLACK),
+              -evaluator.evaluate(game, Tile.WHITE));
+      int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+      game.makeMove(move / 8, move % 8);
+    }
+  }
+
+  @Test
+  public void testWithWeights() {
+    Reversi game = new HexBitboardReversi(5);
+    game.startGame();
+    int[] moves = new int[81];
+    for (int ply = 0; ply < 10; ply++) {
+      int move = moves[rand.nextInt(game.legalMoves(game.getTurn(), moves))];
+      game.makeMove(move / 9, move % 9);
+    }
+    EvaluationFeatures features = EvaluationFeatures.of(game);
+    int[] weights = new int[features.getNumWeights()];
+    for (int phase = 0; phase < EvaluationFeatures.NUM_PHASES; phase++) {
+      weights[phase * features.getWeightsPerPhase() + EvaluationFeatures.MOBILITY] = 1;
+    }
+    PatternEvaluator mobility = new PatternEvaluator().withWeights(features, weights);
+    Tile turn = game.getTurn();
+    Assert.assertEquals(game.legalMoves(turn, moves) - game.legalMoves(turn.getOpposite(), moves),
+            mobility.evaluate(game, turn));
+    Assert.assertArrayEquals(weights, mobility.getWeights(features));
+    Assert.assertArrayEquals(features.getDefaultWeights(),
+            new PatternEvaluator().getWeights(features));
+    // the weights of other boards are left as they were
+    Reversi square = new SquareBitboardReversi();
+    square.startGame();
+    Assert.assertEquals(new PatternEvaluator().evaluate(square, Tile.BLACK),
+            mobility.evaluate(square, Tile.BLACK));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new PatternEvaluator().withWeights(features, new int[3]));
+  }
+
+  @Test
+  public void testSearchWithPatternEvaluator() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    AlphaBetaStrategy search = new AlphaBetaStrategy(10_000, 4, new TranspositionTable(1),
+            new PatternEvaluator());
+    while (!game.isGameOver()) {
+      AxialCoords move = search.chooseMove(game, game.getTurn()).get();
+      int row = move.getR() + 7;
+      int col = move.getQ() + 7;
+      Assert.assertTrue(game.isLegalMove(row, col));
+      game.makeMove(row, col);
+    }
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new AlphaBetaStrategy(1000, 4, new TranspositionTable(1), (Evaluator) null));
+  }
+}
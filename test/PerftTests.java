@@ -0,0 +1,103 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+import model.HexBitboardReversi;
+import model.Perft;
+import model.Reversi;
+import model.ReversiModel;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+import model.Tile;
+
+/**
+ * Tests the Perft class, and through it the move generation of every Reversi implementation.
+ */
+public class PerftTests {
+  // the published perft values of 8x8 Othello from the start position, depths 1 to 8
+  static final long[] SQUARE_PERFT = {4, 12, 56, 244, 1396, 8200, 55092, 390216};
+
+  @Test
+  public void testSquareBitboard() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    for (int depth = 1; depth <= SQUARE_PERFT.length; depth++) {
+      Assert.assertEquals(SQUARE_PERFT[depth - 1], Perft.perft(game, depth));
+    }
+  }
+
+  @Test
+  public void testSquareReversi() {
+    Reversi game = new SquareReversi();
+    game.startGame();
+    for (int depth = 1; depth <= 6; depth++) {
+      Assert.assertEquals(SQUARE_PERFT[depth - 1], Perft.perft(game, depth));
+    }
+  }
+
+  @Test
+  public void testHexEnginesAgree() {
+    for (int sideLen = 3; sideLen <= 8; sideLen++) {
+      Reversi array = new ReversiModel(sideLen);
+      Reversi bitboard = new HexBitboardReversi(sideLen);
+      array.startGame();
+      bitboard.startGame();
+      for (int depth = 1; depth <= 5; depth++) {
+        Assert.assertEquals(Perft.perft(array, depth), Perft.perft(bitboard, depth));
+      }
+    }
+  }
+
+  @Test
+  public void testHexValues() {
+    Reversi side3 = new HexBitboardReversi(3);
+    Reversi side4 = new HexBitboardReversi(4);
+    Reversi side6 = new ReversiModel(6);
+    side3.startGame();
+    side4.startGame();
+    side6.startGame();
+    // every game on the smallest board is over within 5 plies
+    Assert.assertEquals(48, Perft.perft(side3, 5));
+    Assert.assertEquals(48, Perft.perft(side3, 8));
+    Assert.assertEquals(738, Perft.perft(side4, 5));
+    Assert.assertEquals(8394, Perft.perft(side4, 7));
+    Assert.assertEquals(2874, Perft.perft(side6, 6));
+  }
+
+  @Test
+  public void testDivide() {
+    Reversi game = new HexBitboardReversi(5);
+    game.startGame();
+    Map<Integer, Long> counts = Perft.divide(game, 4);
+    Assert.assertEquals(6, counts.size());
+    long total = 0;
+    for (long count : counts.values()) {
+      total += count;
+    }
+    Assert.assertEquals(Perft.perft(game, 4), total);
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    game.legalMoves(Tile.BLACK, moves);
+    Assert.assertEquals(moves[0], (int) counts.keySet().iterator().next());
+  }
+
+  @Test
+  public void testEdgeCases() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    Assert.assertEquals(1, Perft.perft(game, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> Perft.perft(game, -1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> Perft.divide(game, 0));
+    Assert.assertThrows(IllegalStateException.class,
+            () -> Perft.perft(new SquareReversi(), 1));
+    // the game perft is run on is left as it was
+    Tile[][] before = game.copyGameBoard();
+    Perft.perft(game, 5);
+    Assert.assertArrayEquals(before, game.copyGameBoard());
+
+    game.pass();
+    game.pass();
+    Assert.assertEquals(1, Perft.perft(game, 3));
+    Assert.assertTrue(Perft.divide(game, 3).isEmpty());
+  }
+}
@@ -0,0 +1,139 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import archive.GameRecord;
+import archive.PositionDatabase;
+import model.Reversi;
+import model.SquareBitboardReversi;
+
+/**
+ * Tests the PositionDatabase class.
+ */
+public class PositionDatabaseTests {
+  static final GameRecord.BoardType SQUARE = GameRecord.BoardType.SQUARE;
+  // these five keys all fall in the same bucket
+  static final long[] KEYS = {1L, 1L << 32, (2L << 32) | 3L, (4L << 32) | 5L, (8L << 32) | 9L};
+
+  @Test
+  public void testStoreAndProbe() throws IOException {
+    Path file = Files.createTempFile("positions", ".rvpd");
+    try (PositionDatabase db = PositionDatabase.open(file, SQUARE, 8, 1)) {
+      // 1MB of 64-byte buckets with four entries each
+      Assert.assertEquals(65536, db.getCapacity());
+      Assert.assertEquals(4096 + 1024 * 1024, Files.size(file));
+      Assert.assertEquals(PositionDatabase.MISS, db.probe(KEYS[0]));
+      Assert.assertTrue(db.store(KEYS[0], 42, -1_000_017, 7));
+      long entry = db.probe(KEYS[0]);
+      Assert.assertEquals(42, PositionDatabase.move(entry));
+      Assert.assertEquals(-1_000_017, PositionDatabase.score(entry));
+      Assert.assertEquals(7, PositionDatabase.depth(entry));
+
+      Assert.assertTrue(db.store(KEYS[1], Reversi.PASS, 0, 0));
+      Assert.assertEquals(Reversi.PASS, PositionDatabase.move(db.probe(KEYS[1])));
+      Assert.assertEquals(0, PositionDatabase.depth(db.probe(KEYS[1])));
+      Assert.assertThrows(IllegalArgumentException.class, () -> db.store(KEYS[2], 0, 0, 256));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testReplacement() throws IOException {
+    Path file = Files.createTempFile("positions", ".rvpd");
+    try (PositionDatabase db = PositionDatabase.open(file, SQUARE, 8, 1)) {
+      db.store(KEYS[0], 1, 10, 8);
+      // a shallower search of a stored position doesn't replace it, a deeper one does
+      Assert.assertFalse(db.store(KEYS[0], 2, 20, 3));
+      Assert.assertEquals(10, PositionDatabase.score(db.probe(KEYS[0])));
+      Assert.assertTrue(db.store(KEYS[0], 3, 30, 9));
+      Assert.assertEquals(30, PositionDatabase.score(db.probe(KEYS[0])));
+
+      // once the bucket is full, a new position replaces the shallowest one
+      db.store(KEYS[1], 1, 11, 5);
+      db.store(KEYS[2], 1, 12, 2);
+      db.store(KEYS[3], 1, 13, 6);
+      Assert.assertFalse(db.store(KEYS[4], 1, 14, 1));
+      Assert.assertEquals(PositionDatabase.MISS, db.probe(KEYS[4]));
+      Assert.assertTrue(db.store(KEYS[4], 1, 14, 4));
+      Assert.assertEquals(14, PositionDatabase.score(db.probe(KEYS[4])));
+      Assert.assertEquals(PositionDatabase.MISS, db.probe(KEYS[2]));
+      for (int i : new int[] {0, 1, 3}) {
+        Assert.assertNotEquals(PositionDatabase.MISS, db.probe(KEYS[i]));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testPersistsAndShares() throws IOException {
+    Path file = Files.createTempFile("positions", ".rvpd");
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    long start = game.positionHash();
+    game.makeMove(2, 4);
+    long reply = game.positionHash();
+    try {
+      try (PositionDatabase db = PositionDatabase.open(file, SQUARE, 8, 2)) {
+        db.store(start, 2 * 8 + 4, 0, 20);
+        // a second mapping of the file, as another process would have, sees the write at once
+        try (PositionDatabase other = PositionDatabase.openReadOnly(file, SQUARE, 8)) {
+          Assert.assertEquals(20, PositionDatabase.move(other.probe(start)));
+          db.store(reply, 2 * 8 + 2, -3, 18);
+          Assert.assertEquals(-3, PositionDatabase.score(other.probe(reply)));
+          Assert.assertThrows(IllegalStateException.class, () -> other.store(start, 0, 0, 0));
+        }
+        db.force();
+      }
+      // reopening keeps the entries, and the size the database was created with
+      try (PositionDatabase db = PositionDatabase.open(file, SQUARE, 8, 1)) {
+        Assert.assertEquals(2 * 65536, db.getCapacity());
+        Assert.assertEquals(20, PositionDatabase.depth(db.probe(start)));
+        Assert.assertEquals(18, PositionDatabase.depth(db.probe(reply)));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testInvalidFiles() throws IOException {
+    Path file = Files.createTempFile("positions", ".rvpd");
+    try {
+      Assert.assertThrows(IllegalArgumentException.class,
+          () -> PositionDatabase.open(file, SQUARE, 8, 0));
+      Files.write(file, new byte[] {'n', 'o', 'p', 'e', 1, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0});
+      Assert.assertThrows(IOException.class, () -> PositionDatabase.open(file, SQUARE, 8, 1));
+      // a database cut short
+      Files.write(file, new byte[] {'R', 'V', 'P', 'D', 1, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0});
+      Assert.assertThrows(IOException.class, () -> PositionDatabase.openReadOnly(file, SQUARE, 8));
+      Files.write(file, new byte[] {'R', 'V', 'P', 'D'});
+      Assert.assertThrows(IOException.class, () -> PositionDatabase.openReadOnly(file, SQUARE, 8));
+      Assert.assertThrows(IllegalArgumentException.class,
+          () -> PositionDatabase.open(file, SQUARE, 6, 1));
+      Assert.assertThrows(IllegalArgumentException.class,
+          () -> PositionDatabase.openReadOnly(file, null, 8));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testOtherBoard() throws IOException {
+    Path file = Files.createTempFile("positions", ".rvpd");
+    try {
+      PositionDatabase.open(file, GameRecord.BoardType.HEX, 6, 1).close();
+      // the positions of one board can't be read as those of another
+      Assert.assertThrows(IOException.class, () -> PositionDatabase.open(file, SQUARE, 8, 1));
+      Assert.assertThrows(IOException.class,
+          () -> PositionDatabase.openReadOnly(file, GameRecord.BoardType.HEX, 5));
+      PositionDatabase.openReadOnly(file, GameRecord.BoardType.HEX, 6).close();
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -4,6 +4,11 @@ import org.junit.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.KeyStroke;
 
 import controller.ReversiController;
 import model.AIPlayer;
@@ -22,6 +27,56 @@ import view.ViewFeatures;
  * Tests the ReversiController features implementations.
  */
 public class ReversiFeaturesControllerTests {
+  // stands in for the event dispatch thread: the test runs the controller's commands itself
+  BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+
+  // a view that only records whether it is showing that the AI is thinking
+  static class ThinkingView implements ReversiGUIView {
+    boolean thinking = false;
+    int timesThinking = 0;
+
+    @Override
+    public void render() {
+    }
+
+    @Override
+    public void setHotKey(KeyStroke key, String featureName) {
+    }
+
+    @Override
+    public void addFeatures(ViewFeatures features) {
+    }
+
+    @Override
+    public void enablePlayerActions(boolean enable) {
+    }
+
+    @Override
+    public void showIllegalMoveMessage() {
+    }
+
+    @Override
+    public void enableHints(boolean enable) {
+    }
+
+    @Override
+    public void showThinking(boolean thinking) {
+      this.thinking = thinking;
+      if (thinking) {
+        timesThinking++;
+      }
+    }
+  }
+
+  // runs the queued commands on this thread until no more arrive
+  private void runCommands() throws InterruptedException {
+    Runnable command = commands.poll(500, TimeUnit.MILLISECONDS);
+    while (command != null) {
+      command.run();
+      command = commands.poll(500, TimeUnit.MILLISECONDS);
+    }
+  }
+
   @Test
   public void testMakeMoveFeatures() {
     Reversi model = new ReversiModel(4);
@@ -82,14 +137,72 @@ public class ReversiFeaturesControllerTests {
   }
 
   @Test
-  public void testModelFeatures() {
+  public void testModelFeatures() throws InterruptedException {
     Reversi model = new ReversiModel(4);
     model.startGame();
     ReversiGUIView view = new ReversiGraphics(model);
     Player player = new AIPlayer(model, Tile.BLACK);
-    ModelFeatures features = new ReversiController(model, player, (ReversiGraphics) view);
+    ModelFeatures features = new ReversiController(model, player, (ReversiGraphics) view,
+            commands::add);
 
     features.playerChanged(Tile.WHITE);
+    runCommands();
+    Assert.assertEquals(Tile.WHITE, model.getTurn());
+  }
+
+  @Test
+  public void testAIMovesThroughCommandQueue() throws InterruptedException {
+    Reversi model = new ReversiModel(5);
+    model.startGame();
+    ThinkingView view = new ThinkingView();
+    ViewFeatures features = new ReversiController(model, new HumanPlayer(Tile.BLACK),
+            new ThinkingView(), commands::add);
+    new ReversiController(model, new AIPlayer(model, Tile.WHITE), view, commands::add);
+    runCommands();
+    Assert.assertEquals(0, view.timesThinking);
+
+    AxialCoords coords = AxialCoords.convert(2, 5, 5);
+    features.makeMoveFeatures(coords.getQ(), coords.getR());
+    // the move is made, but the AI hasn't started thinking about its answer yet
+    Assert.assertEquals(Tile.WHITE, model.getTurn());
+    Assert.assertFalse(view.thinking);
+    // both controllers look at the new position
+    commands.take().run();
+    commands.take().run();
+    Assert.assertTrue(view.thinking);
+    runCommands();
+    Assert.assertFalse(view.thinking);
+    Assert.assertEquals(Tile.BLACK, model.getTurn());
+  }
+
+  @Test
+  public void testAIAgainstAIPlaysToTheEnd() throws InterruptedException {
+    Reversi model = new ReversiModel(6);
+    model.startGame();
+    ThinkingView view = new ThinkingView();
+    new ReversiController(model, new AIPlayer(model, Tile.BLACK), view, commands::add);
+    new ReversiController(model, new AIPlayer(model, Tile.WHITE), view, commands::add);
+    // no move is made until the commands run, so moves no longer call each other
+    Assert.assertEquals(Tile.BLACK, model.getTurn());
+    runCommands();
+    Assert.assertTrue(model.isGameOver());
+    Assert.assertFalse(view.thinking);
+  }
+
+  @Test
+  public void testOutdatedAIMoveIsDropped() throws InterruptedException {
+    Reversi model = new ReversiModel(5);
+    model.startGame();
+    ThinkingView view = new ThinkingView();
+    new ReversiController(model, new AIPlayer(model, Tile.BLACK), view, commands::add);
+    commands.take().run();
+    Assert.assertTrue(view.thinking);
+    // the position changes while the AI thinks
+    Tile[][] board = model.copyGameBoard();
+    model.pass();
+    runCommands();
+    Assert.assertFalse(view.thinking);
     Assert.assertEquals(Tile.WHITE, model.getTurn());
+    Assert.assertArrayEquals(board, model.copyGameBoard());
   }
 }
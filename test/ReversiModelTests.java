@@ -1,10 +1,14 @@
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
 
+import model.HexBitboardReversi;
+import model.Reversi;
 import model.ReversiModel;
 import model.Tile;
+import model.Zobrist;
 
 /**
  * Tests the ReversiModel class.
@@ -296,4 +300,92 @@ public class ReversiModelTests {
     Assert.assertFalse(model3.isLegalMove(0, 3));
     Assert.assertTrue(model3.isLegalMove(1, 4));
   }
+
+  @Test
+  public void testLegalMoves() {
+    model3.startGame();
+    int[] moves = new int[25];
+    // (0, 3), (1, 1), (1, 4), (3, 0), (3, 3), (4, 1) packed as row * 5 + col
+    Assert.assertEquals(6, model3.legalMoves(Tile.BLACK, moves));
+    Assert.assertArrayEquals(new int[] {3, 6, 9, 15, 18, 21}, Arrays.copyOf(moves, 6));
+    Assert.assertEquals(5, model3.getBoardLen());
+    model3.makeMove(0, 3);
+    int count = model3.legalMoves(Tile.WHITE, moves);
+    for (int i = 0; i < count; i++) {
+      Assert.assertTrue(model3.isLegalMove(moves[i] / 5, moves[i] % 5));
+    }
+    model3.pass();
+    model3.pass();
+    Assert.assertEquals(0, model3.legalMoves(Tile.BLACK, moves));
+  }
+
+  @Test
+  public void testPushAndPopMove() {
+    model.startGame();
+    Tile[][] start = model.copyGameBoard();
+    // (1, 4) packed as row * 7 + col
+    model.pushMove(11);
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(1, 4));
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(2, 4));
+    Assert.assertEquals(Tile.WHITE, model.getTurn());
+    model.pushMove(ReversiModel.PASS);
+    Assert.assertEquals(Tile.BLACK, model.getTurn());
+    // (0, 3) does not capture anything for black
+    Assert.assertThrows(IllegalStateException.class, () -> model.pushMove(3));
+    model.pushMove(ReversiModel.PASS);
+    Assert.assertTrue(model.isGameOver());
+    model.popMove();
+    model.popMove();
+    model.popMove();
+    Assert.assertArrayEquals(start, model.copyGameBoard());
+    Assert.assertEquals(Tile.BLACK, model.getTurn());
+    Assert.assertThrows(IllegalStateException.class, () -> model.popMove());
+  }
+
+  @Test
+  public void testPositionHash() {
+    model.startGame();
+    Zobrist zobrist = new Zobrist(7 * 7, true);
+    long start = model.positionHash();
+    Assert.assertEquals(zobrist.hash(model.copyGameBoard(), Tile.BLACK), start);
+    model.pushMove(11);
+    Assert.assertNotEquals(start, model.positionHash());
+    Assert.assertEquals(zobrist.hash(model.copyGameBoard(), Tile.WHITE), model.positionHash());
+    model.popMove();
+    Assert.assertEquals(start, model.positionHash());
+    model.pass();
+    Assert.assertEquals(start ^ Zobrist.SIDE_TO_MOVE, model.positionHash());
+
+    // the bitboard model hashes the same position the same way
+    HexBitboardReversi bitboard = new HexBitboardReversi(4);
+    bitboard.startGame();
+    bitboard.pass();
+    Assert.assertEquals(model.positionHash(), bitboard.positionHash());
+  }
+
+  @Test
+  public void testZobristKeysDifferByBoard() {
+    // a smaller board's keys are not the first keys of a larger one, nor a square board's those
+    // of a hex board with as many cells
+    Zobrist small = new Zobrist(7 * 7, true);
+    Zobrist large = new Zobrist(9 * 9, true);
+    Zobrist square = new Zobrist(9 * 9, false);
+    for (int cell = 0; cell < 7 * 7; cell++) {
+      Assert.assertNotEquals(small.key(cell, Tile.BLACK), large.key(cell, Tile.BLACK));
+      Assert.assertNotEquals(large.key(cell, Tile.WHITE), square.key(cell, Tile.WHITE));
+    }
+    Assert.assertEquals(large.key(5, Tile.BLACK), new Zobrist(9 * 9, true).key(5, Tile.BLACK));
+  }
+
+  @Test
+  public void testCopyGame() {
+    model.startGame();
+    model.makeMove(1, 4);
+    Reversi copy = model.copyGame();
+    Assert.assertArrayEquals(model.copyGameBoard(), copy.copyGameBoard());
+    Assert.assertEquals(model.positionHash(), copy.positionHash());
+    copy.makeMove(2, 5);
+    Assert.assertEquals(Tile.EMPTY, model.getTileAt(2, 5));
+    Assert.assertEquals(Tile.WHITE, model.getTurn());
+  }
 }
@@ -3,13 +3,22 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Optional;
+import java.util.Random;
 
+import strategy.AlphaBetaStrategy;
 import strategy.AvoidCellsNextToCorners;
 import model.AxialCoords;
 import strategy.CaptureMostPieces;
+import strategy.EndgameSolver;
 import strategy.GoForCorners;
+import strategy.MonteCarloStrategy;
+import strategy.ParallelAlphaBetaStrategy;
+import strategy.TranspositionTable;
 import model.Reversi;
 import model.ReversiModel;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+import model.Tile;
 
 /**
  * Tests strategies of Reversi plays.
@@ -112,4 +121,207 @@ public class ReversiStrategyTests {
     Assert.assertEquals(Optional.of(AxialCoords.convert(3, 0, 4)),
             gfc.chooseMove(model4, model4.getTurn()));
   }
+
+  @Test
+  public void testAlphaBetaDepthOneCapturesMostPieces() {
+    // one ply ahead, the best tile difference comes from capturing the most pieces
+    AlphaBetaStrategy alphaBeta = new AlphaBetaStrategy(10_000, 1);
+    AxialCoords move = alphaBeta.chooseMove(intermediateGame, intermediateGame.getTurn()).get();
+    AxialCoords greedy = cmp.chooseMove(intermediateGame, intermediateGame.getTurn()).get();
+    Assert.assertEquals(
+            intermediateGame.getScoreOfMove(greedy.getR() + 5, greedy.getQ() + 5,
+                    intermediateGame.getTurn()),
+            intermediateGame.getScoreOfMove(move.getR() + 5, move.getQ() + 5,
+                    intermediateGame.getTurn()));
+    Assert.assertEquals(1, alphaBeta.getDepthReached());
+  }
+
+  @Test
+  public void testAlphaBetaSquareBoard() {
+    Reversi square = new SquareReversi();
+    square.startGame();
+    AlphaBetaStrategy alphaBeta = new AlphaBetaStrategy(200, 4);
+    Optional<AxialCoords> move = alphaBeta.chooseMove(square, square.getTurn());
+    Assert.assertTrue(move.isPresent());
+    Assert.assertTrue(square.isLegalMove(move.get().getR() + 7, move.get().getQ() + 7));
+    Assert.assertEquals(4, alphaBeta.getDepthReached());
+    Assert.assertTrue(alphaBeta.getNodesSearched() > 0);
+  }
+
+  @Test
+  public void testAlphaBetaStopsAtTimeLimit() {
+    AlphaBetaStrategy alphaBeta = new AlphaBetaStrategy(50);
+    Reversi large = new ReversiModel(8);
+    large.startGame();
+    Assert.assertTrue(alphaBeta.chooseMove(large, large.getTurn()).isPresent());
+    Assert.assertTrue(alphaBeta.getElapsedMillis() < 1000);
+  }
+
+  @Test
+  public void testAlphaBetaNoMoves() {
+    regGame.pass();
+    regGame.pass();
+    Assert.assertEquals(Optional.empty(),
+            new AlphaBetaStrategy(100).chooseMove(regGame, Tile.BLACK));
+  }
+
+  @Test
+  public void testAlphaBetaReusesTranspositionTable() {
+    TranspositionTable table = new TranspositionTable(1);
+    AlphaBetaStrategy first = new AlphaBetaStrategy(10_000, 5, table);
+    AlphaBetaStrategy second = new AlphaBetaStrategy(10_000, 5, table);
+    first.chooseMove(intermediateGame, intermediateGame.getTurn());
+    Assert.assertTrue(table.getHits() > 0);
+    // the second search finds the first one's results and searches fewer positions
+    second.chooseMove(intermediateGame, intermediateGame.getTurn());
+    Assert.assertEquals(5, second.getDepthReached());
+    Assert.assertTrue(second.getNodesSearched() < first.getNodesSearched());
+    Assert.assertSame(table, second.getTable());
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new AlphaBetaStrategy(100, 5, null));
+  }
+
+  @Test
+  public void testParallelAlphaBeta() {
+    ParallelAlphaBetaStrategy parallel =
+            new ParallelAlphaBetaStrategy(10_000, 4, 3, new TranspositionTable(1));
+    Tile turn = intermediateGame.getTurn();
+    AxialCoords move = parallel.chooseMove(intermediateGame, turn).get();
+    Assert.assertTrue(intermediateGame.isLegalMove(move.getR() + 5, move.getQ() + 5));
+    Assert.assertTrue(parallel.getDepthReached() >= 4);
+    Assert.assertTrue(parallel.getNodesSearched() > 0);
+    Assert.assertEquals(3, parallel.getNumThreads());
+    // the model the search was given is left as it was
+    Assert.assertEquals(turn, intermediateGame.getTurn());
+    // a closed strategy has no helpers left to search with
+    parallel.close();
+    parallel.close();
+    Assert.assertThrows(IllegalStateException.class,
+            () -> parallel.chooseMove(intermediateGame, turn));
+  }
+
+  @Test
+  public void testParallelAlphaBetaNoMoves() {
+    regGame.pass();
+    regGame.pass();
+    try (ParallelAlphaBetaStrategy parallel =
+            new ParallelAlphaBetaStrategy(100, 4, 2, new TranspositionTable(1))) {
+      Assert.assertEquals(Optional.empty(), parallel.chooseMove(regGame, Tile.BLACK));
+    }
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new ParallelAlphaBetaStrategy(100, 4, 0, new TranspositionTable(1)));
+  }
+
+  @Test
+  public void testMonteCarloPlayoutBudget() {
+    MonteCarloStrategy monteCarlo = new MonteCarloStrategy(
+            MonteCarloStrategy.DEFAULT_EXPLORATION, 60_000, 2_000, 2, 10_000);
+    Tile turn = intermediateGame.getTurn();
+    AxialCoords move = monteCarlo.chooseMove(intermediateGame, turn).get();
+    Assert.assertTrue(intermediateGame.isLegalMove(move.getR() + 5, move.getQ() + 5));
+    Assert.assertEquals(2_000, monteCarlo.getPlayouts());
+    Assert.assertTrue(monteCarlo.getTreeSize() > 1);
+    Assert.assertEquals(turn, intermediateGame.getTurn());
+    monteCarlo.close();
+    Assert.assertThrows(IllegalStateException.class,
+            () -> monteCarlo.chooseMove(intermediateGame, turn));
+  }
+
+  @Test
+  public void testMonteCarloTreeTooSmall() {
+    // with room for the root only, the strategy still plays a legal move
+    try (MonteCarloStrategy monteCarlo = new MonteCarloStrategy(1, 10_000, 100, 1, 1)) {
+      AxialCoords move = monteCarlo.chooseMove(regGame, Tile.BLACK).get();
+      Assert.assertTrue(regGame.isLegalMove(move.getR() + 3, move.getQ() + 3));
+    }
+  }
+
+  @Test
+  public void testMonteCarloNoMoves() {
+    regGame.pass();
+    regGame.pass();
+    try (MonteCarloStrategy monteCarlo = new MonteCarloStrategy(100)) {
+      Assert.assertEquals(Optional.empty(), monteCarlo.chooseMove(regGame, Tile.BLACK));
+    }
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new MonteCarloStrategy(-1, 100, 100, 1, 100));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new MonteCarloStrategy(1, 100, 100, 1, 0));
+  }
+
+  @Test
+  public void testEndgameSolverUsesFallback() {
+    EndgameSolver solver = new EndgameSolver(cmp, 0);
+    Assert.assertEquals(cmp.chooseMove(intermediateGame, intermediateGame.getTurn()),
+            solver.chooseMove(intermediateGame, intermediateGame.getTurn()));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(null, 10));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(cmp, -1));
+  }
+
+  @Test
+  public void testEndgameSolverIsExact() {
+    // compares the solver with a plain minimax search on random endgames
+    Random rand = new Random(11);
+    EndgameSolver solver = new EndgameSolver(cmp, 10);
+    for (int game = 0; game < 6; game++) {
+      Reversi endgame = game % 2 == 0 ? new SquareBitboardReversi() : new ReversiModel(4);
+      endgame.startGame();
+      int boardLen = endgame.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      while (!endgame.isGameOver() && countEmpty(endgame) > 8) {
+        int count = endgame.legalMoves(endgame.getTurn(), moves);
+        if (count == 0) {
+          endgame.pass();
+        } else {
+          int move = moves[rand.nextInt(count)];
+          endgame.makeMove(move / boardLen, move % boardLen);
+        }
+      }
+      if (endgame.isGameOver()) {
+        continue;
+      }
+      Tile turn = endgame.getTurn();
+      int expected = minimax(endgame.copyGame(), turn, false);
+      Assert.assertEquals(expected, solver.solve(endgame, turn));
+
+      // the chosen move keeps the same final score
+      AxialCoords move = solver.chooseMove(endgame, turn).get();
+      int offset = endgame.getSideLen() - 1;
+      Reversi after = endgame.copyGame();
+      after.pushMove((move.getR() + offset) * boardLen + move.getQ() + offset);
+      Assert.assertEquals(expected, -minimax(after, turn.getOpposite(), false));
+    }
+  }
+
+  private static int countEmpty(Reversi game) {
+    int count = 0;
+    for (Tile[] row : game.copyGameBoard()) {
+      for (Tile tile : row) {
+        count += tile == Tile.EMPTY ? 1 : 0;
+      }
+    }
+    return count;
+  }
+
+  // final tile difference for side with perfect play, searching every line
+  private static int minimax(Reversi game, Tile side, boolean passed) {
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    int count = game.legalMoves(side, moves);
+    if (count == 0) {
+      if (passed) {
+        return game.getScore(side) - game.getScore(side.getOpposite());
+      }
+      game.pushMove(Reversi.PASS);
+      int score = -minimax(game, side.getOpposite(), true);
+      game.popMove();
+      return score;
+    }
+    int best = Integer.MIN_VALUE;
+    for (int i = 0; i < count; i++) {
+      game.pushMove(moves[i]);
+      best = Math.max(best, -minimax(game, side.getOpposite(), false));
+      game.popMove();
+    }
+    return best;
+  }
 }
@@ -0,0 +1,152 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.Reversi;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+import model.Tile;
+import model.Zobrist;
+
+/**
+ * Tests the SquareBitboardReversi class.
+ */
+public class SquareBitboardReversiTests {
+  SquareBitboardReversi model = new SquareBitboardReversi();
+
+  @Test
+  public void testStartGame() {
+    model.startGame();
+    Assert.assertEquals(Tile.BLACK, model.getTurn());
+    Assert.assertThrows(IllegalStateException.class, () -> model.startGame());
+
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(3, 3));
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(4, 4));
+    Assert.assertEquals(Tile.WHITE, model.getTileAt(3, 4));
+    Assert.assertEquals(Tile.WHITE, model.getTileAt(4, 3));
+    Assert.assertEquals(Tile.EMPTY, model.getTileAt(1, 1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.getTileAt(8, 0));
+  }
+
+  @Test
+  public void testIllegalMove() {
+    model.startGame();
+    Assert.assertThrows(IllegalArgumentException.class, () -> model.makeMove(-1, 0));
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(3, 3));
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(0, 0));
+    // borders a white tile, but there is no black tile on the other side of it
+    Assert.assertThrows(IllegalStateException.class, () -> model.makeMove(5, 2));
+    Assert.assertFalse(model.isLegalMove(6, 7));
+    Assert.assertTrue(model.isLegalMove(2, 4));
+  }
+
+  @Test
+  public void testMoveFlipsTiles() {
+    model.startGame();
+    Assert.assertEquals(1, model.getScoreOfMove(2, 4, Tile.BLACK));
+    model.makeMove(2, 4);
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(2, 4));
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(3, 4));
+    Assert.assertEquals(4, model.getScore(Tile.BLACK));
+    Assert.assertEquals(1, model.getScore(Tile.WHITE));
+    Assert.assertEquals(Tile.WHITE, model.getTurn());
+  }
+
+  @Test
+  public void testPass() {
+    model.startGame();
+    model.makeMove(2, 4);
+    model.pass();
+    Assert.assertFalse(model.isGameOver());
+    model.pass();
+    Assert.assertTrue(model.isGameOver());
+    Assert.assertEquals(Tile.BLACK, model.getWinner());
+  }
+
+  @Test
+  public void testGetNeighbors() {
+    model.startGame();
+    Assert.assertEquals(8, model.getNeighbors(2, 2).size());
+    Assert.assertEquals(3, model.getNeighbors(0, 0).size());
+    Assert.assertTrue(model.getNeighbors(10, 10).isEmpty());
+  }
+
+  @Test
+  public void testMatchesSquareReversi() {
+    // plays random games on both models and checks that they always agree
+    Random rand = new Random(42);
+    for (int game = 0; game < 50; game++) {
+      Reversi expected = new SquareReversi();
+      Reversi actual = new SquareBitboardReversi();
+      expected.startGame();
+      actual.startGame();
+      while (!actual.isGameOver()) {
+        Assert.assertEquals(expected.getTurn(), actual.getTurn());
+        Assert.assertArrayEquals(expected.copyGameBoard(), actual.copyGameBoard());
+        List<int[]> legalMoves = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+          for (int j = 0; j < 8; j++) {
+            Assert.assertEquals(expected.isLegalMove(i, j), actual.isLegalMove(i, j));
+            if (actual.isLegalMove(i, j)) {
+              legalMoves.add(new int[] {i, j});
+            }
+          }
+        }
+        int[] expectedMoves = new int[8 * 8];
+        int[] actualMoves = new int[8 * 8];
+        int count = expected.legalMoves(expected.getTurn(), expectedMoves);
+        Assert.assertEquals(count, actual.legalMoves(actual.getTurn(), actualMoves));
+        Assert.assertArrayEquals(expectedMoves, actualMoves);
+        Assert.assertEquals(legalMoves.size(), count);
+        if (legalMoves.isEmpty()) {
+          expected.pass();
+          actual.pass();
+        } else {
+          int[] move = legalMoves.get(rand.nextInt(legalMoves.size()));
+          expected.makeMove(move[0], move[1]);
+          actual.makeMove(move[0], move[1]);
+        }
+      }
+      Assert.assertEquals(expected.getScore(Tile.BLACK), actual.getScore(Tile.BLACK));
+      Assert.assertEquals(expected.getScore(Tile.WHITE), actual.getScore(Tile.WHITE));
+    }
+  }
+
+  @Test
+  public void testPushAndPopMove() {
+    // plays a random game with pushMove, then takes it all back with popMove
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+    List<Tile[][]> boards = new ArrayList<>();
+    Random rand = new Random(7);
+    while (!game.isGameOver()) {
+      boards.add(game.copyGameBoard());
+      int count = game.legalMoves(game.getTurn(), moves);
+      game.pushMove(count == 0 ? Reversi.PASS : moves[rand.nextInt(count)]);
+    }
+    for (int i = boards.size() - 1; i >= 0; i--) {
+      game.popMove();
+      Assert.assertArrayEquals(boards.get(i), game.copyGameBoard());
+    }
+    Assert.assertEquals(Tile.BLACK, game.getTurn());
+    Assert.assertThrows(IllegalStateException.class, () -> game.popMove());
+  }
+
+  @Test
+  public void testPositionHash() {
+    Reversi expected = new SquareReversi();
+    expected.startGame();
+    model.startGame();
+    Assert.assertEquals(expected.positionHash(), model.positionHash());
+    expected.makeMove(2, 4);
+    model.makeMove(2, 4);
+    Assert.assertEquals(expected.positionHash(), model.positionHash());
+    Assert.assertEquals(new Zobrist(64, false).hash(model.copyGameBoard(), Tile.WHITE),
+            model.positionHash());
+  }
+
+}
@@ -93,4 +93,31 @@ public class SquareReversiTests {
     Assert.assertFalse(model.isLegalMove(6, 7));
   }
 
+  @Test
+  public void testLegalMoves() {
+    model.startGame();
+    int[] moves = new int[64];
+    // (2, 4), (3, 5), (4, 2), (5, 3) packed as row * 8 + col
+    Assert.assertEquals(4, model.legalMoves(Tile.BLACK, moves));
+    Assert.assertEquals(20, moves[0]);
+    Assert.assertEquals(29, moves[1]);
+    Assert.assertEquals(34, moves[2]);
+    Assert.assertEquals(43, moves[3]);
+    Assert.assertEquals(8, model.getBoardLen());
+  }
+
+  @Test
+  public void testPushAndPopMove() {
+    model.startGame();
+    Tile[][] start = model.copyGameBoard();
+    // (2, 4) packed as row * 8 + col
+    model.pushMove(20);
+    Assert.assertEquals(Tile.BLACK, model.getTileAt(3, 4));
+    Assert.assertEquals(Tile.WHITE, model.getTurn());
+    model.popMove();
+    Assert.assertArrayEquals(start, model.copyGameBoard());
+    Assert.assertEquals(Tile.BLACK, model.getTurn());
+    Assert.assertThrows(IllegalStateException.class, () -> model.popMove());
+  }
+
 }
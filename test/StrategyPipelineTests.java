@@ -0,0 +1,108 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import model.AxialCoords;
+import model.Reversi;
+import model.ReversiModel;
+import model.Tile;
+import strategy.AvoidCellsNextToCorners;
+import strategy.CaptureMostPieces;
+import strategy.GoForCorners;
+import strategy.MoveFilter;
+import strategy.MoveFilters;
+import strategy.StrategyPipeline;
+
+/**
+ * Tests the StrategyPipeline class and the stages in MoveFilters.
+ */
+public class StrategyPipelineTests {
+  Reversi model = new ReversiModel(6);
+  int calls = 0;
+  // keeps every move, and counts how often it is asked
+  MoveFilter counting = (model, turn, moves, count) -> {
+    calls++;
+    return count;
+  };
+
+  @Test
+  public void testFirstOfMatchesStrategies() {
+    // the pipeline picks the same move as trying each strategy in turn
+    StrategyPipeline pipeline = StrategyPipeline.firstOf(MoveFilters.AVOID_NEXT_TO_CORNERS,
+            MoveFilters.CORNERS, MoveFilters.MOST_CAPTURES);
+    AvoidCellsNextToCorners avoid = new AvoidCellsNextToCorners();
+    GoForCorners corners = new GoForCorners();
+    CaptureMostPieces capture = new CaptureMostPieces();
+    Random rand = new Random(5);
+    for (int sideLen = 4; sideLen <= 7; sideLen++) {
+      Reversi game = new ReversiModel(sideLen);
+      game.startGame();
+      int boardLen = game.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      while (!game.isGameOver()) {
+        Tile turn = game.getTurn();
+        Optional<AxialCoords> expected = avoid.chooseMove(game, turn);
+        if (expected.isEmpty()) {
+          expected = corners.chooseMove(game, turn);
+        }
+        if (expected.isEmpty()) {
+          expected = capture.chooseMove(game, turn);
+        }
+        Assert.assertEquals(expected, pipeline.chooseMove(game, turn));
+        int count = game.legalMoves(turn, moves);
+        if (count == 0) {
+          game.pass();
+        } else {
+          int move = moves[rand.nextInt(count)];
+          game.makeMove(move / boardLen, move % boardLen);
+        }
+      }
+      Assert.assertEquals(Optional.empty(), pipeline.chooseMove(game, Tile.BLACK));
+    }
+  }
+
+  @Test
+  public void testSingleStageMatchesStrategy() {
+    model.startGame();
+    model.makeMove(4, 7);
+    Assert.assertEquals(new CaptureMostPieces().chooseMove(model, Tile.WHITE),
+            StrategyPipeline.firstOf(MoveFilters.MOST_CAPTURES).chooseMove(model, Tile.WHITE));
+  }
+
+  @Test
+  public void testRepeatCallsAreCached() {
+    StrategyPipeline pipeline = StrategyPipeline.firstOf(counting);
+    model.startGame();
+    Optional<AxialCoords> first = pipeline.chooseMove(model, Tile.BLACK);
+    Assert.assertEquals(first, pipeline.chooseMove(model, Tile.BLACK));
+    Assert.assertEquals(1, calls);
+    // another player or another position is a new choice
+    pipeline.chooseMove(model, Tile.WHITE);
+    Assert.assertEquals(2, calls);
+    model.makeMove(4, 7);
+    pipeline.chooseMove(model, Tile.WHITE);
+    Assert.assertEquals(3, calls);
+  }
+
+  @Test
+  public void testAllOfNarrows() {
+    model.startGame();
+    model.makeMove(4, 7);
+    // every stage sees only the moves the stage before it kept
+    int[] seen = new int[1];
+    MoveFilter none = (model, turn, moves, count) -> 0;
+    MoveFilter record = (model, turn, moves, count) -> {
+      seen[0] = count;
+      return count;
+    };
+    StrategyPipeline.allOf(MoveFilters.MOST_CAPTURES, none, record)
+            .chooseMove(model, Tile.WHITE);
+    int[] moves = new int[model.getBoardLen() * model.getBoardLen()];
+    int count = model.legalMoves(Tile.WHITE, moves);
+    Assert.assertEquals(MoveFilters.MOST_CAPTURES.filter(model, Tile.WHITE, moves, count),
+            seen[0]);
+    Assert.assertThrows(IllegalArgumentException.class, () -> StrategyPipeline.allOf());
+  }
+}
@@ -0,0 +1,150 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import model.CanonicalPosition;
+import model.HexBitboardReversi;
+import model.Reversi;
+import model.ReversiModel;
+import model.SquareBitboardReversi;
+import model.SquareReversi;
+import model.Symmetry;
+import model.Tile;
+import model.Zobrist;
+
+/**
+ * Tests the Symmetry and CanonicalPosition classes.
+ */
+public class SymmetryTests {
+
+  @Test
+  public void testSymmetriesArePermutations() {
+    for (Reversi game : new Reversi[] {new ReversiModel(3), new ReversiModel(6),
+        new SquareReversi()}) {
+      game.startGame();
+      Symmetry symmetry = Symmetry.of(game);
+      int boardLen = game.getBoardLen();
+      Tile[][] board = game.copyGameBoard();
+      int numCells = 0;
+      for (Tile[] row : board) {
+        for (Tile tile : row) {
+          numCells += tile == null ? 0 : 1;
+        }
+      }
+      Set<String> images = new HashSet<>();
+      for (int t = 0; t < symmetry.size(); t++) {
+        Set<Integer> cells = new HashSet<>();
+        int[] image = new int[boardLen * boardLen];
+        for (int cell = 0; cell < boardLen * boardLen; cell++) {
+          if (board[cell / boardLen][cell % boardLen] != null) {
+            image[cell] = symmetry.transformCell(t, cell);
+            Assert.assertNotNull(board[image[cell] / boardLen][image[cell] % boardLen]);
+            cells.add(image[cell]);
+            Assert.assertEquals(cell, symmetry.transformCell(symmetry.inverse(t), image[cell]));
+          }
+        }
+        // every cell is hit once, and every symmetry is different
+        Assert.assertEquals(numCells, cells.size());
+        Assert.assertTrue(images.add(Arrays.toString(image)));
+        Assert.assertEquals(Reversi.PASS, symmetry.transformCell(t, Reversi.PASS));
+      }
+      Assert.assertEquals(boardLen == 8 ? 8 : 12, images.size());
+    }
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> Symmetry.ofHex(4).transformCell(1, 0));
+  }
+
+  @Test
+  public void testCanonicalHash() {
+    Random rand = new Random(21);
+    for (Reversi game : new Reversi[] {new HexBitboardReversi(5), new SquareBitboardReversi()}) {
+      Symmetry symmetry = Symmetry.of(game);
+      Zobrist zobrist = Zobrist.forCells(game.getBoardLen() * game.getBoardLen(),
+          game.getBoardLen() != game.getSideLen());
+      game.startGame();
+      int[] moves = new int[game.getBoardLen() * game.getBoardLen()];
+      for (int ply = 0; ply < 12; ply++) {
+        int numMoves = game.legalMoves(game.getTurn(), moves);
+        int move = moves[rand.nextInt(numMoves)];
+        game.makeMove(move / game.getBoardLen(), move % game.getBoardLen());
+      }
+      Tile[][] board = game.copyGameBoard();
+      Tile turn = game.getTurn();
+      CanonicalPosition canonical = symmetry.canonicalize(game);
+      // the canonical hash is the hash of the canonical board, and the least of all of them
+      Tile[][] canonicalBoard = symmetry.transform(canonical.getTransform(), board);
+      Assert.assertEquals(zobrist.hash(canonicalBoard, turn), canonical.getHash());
+      for (int t = 0; t < symmetry.size(); t++) {
+        Tile[][] transformed = symmetry.transform(t, board);
+        Assert.assertTrue(Long.compareUnsigned(canonical.getHash(),
+                zobrist.hash(transformed, turn)) <= 0);
+        Assert.assertEquals(canonical.getHash(),
+                symmetry.canonicalize(transformed, turn).getHash());
+      }
+      Assert.assertEquals(game.positionHash(), zobrist.hash(symmetry.transform(0, board), turn));
+
+      // moves map to the same tiles on the canonical board and back
+      int numMoves = game.legalMoves(turn, moves);
+      for (int i = 0; i < numMoves; i++) {
+        int move = canonical.toCanonical(moves[i]);
+        Assert.assertEquals(moves[i], canonical.toOriginal(move));
+      }
+    }
+  }
+
+  @Test
+  public void testEquivalentMovesOfASymmetricPosition() {
+    Reversi game = new SquareBitboardReversi();
+    game.startGame();
+    CanonicalPosition start = Symmetry.of(game).canonicalize(game);
+    // the four first moves lead to the same position turned around
+    int canonical = start.toCanonical(2 * 8 + 4);
+    for (int move : new int[] {3 * 8 + 5, 4 * 8 + 2, 5 * 8 + 3}) {
+      Assert.assertEquals(canonical, start.toCanonical(move));
+    }
+    // of the equivalent moves, the smallest comes back, whichever symmetry was found first
+    Assert.assertEquals(2 * 8 + 4, start.toOriginal(canonical));
+  }
+
+  @Test
+  public void testSymmetricGamesHaveTheSameCanonicalHash() {
+    Random rand = new Random(7);
+    for (int sideLen : new int[] {4, 8}) {
+      Reversi start = sideLen == 8 ? new SquareBitboardReversi()
+              : new HexBitboardReversi(sideLen);
+      start.startGame();
+      Symmetry symmetry = Symmetry.of(start);
+      int boardLen = start.getBoardLen();
+      int[] moves = new int[boardLen * boardLen];
+      int symmetric = 0;
+      for (int t = 1; t < symmetry.size(); t++) {
+        // a game played with every move transformed is only equivalent from a start position
+        // the symmetry leaves as it is
+        if (!Arrays.deepEquals(start.copyGameBoard(),
+                symmetry.transform(t, start.copyGameBoard()))) {
+          continue;
+        }
+        symmetric++;
+        Reversi game = start.copyGame();
+        Reversi mirror = start.copyGame();
+        while (!game.isGameOver()) {
+          Assert.assertEquals(symmetry.canonicalize(game).getHash(),
+                  symmetry.canonicalize(mirror).getHash());
+          int numMoves = game.legalMoves(game.getTurn(), moves);
+          int move = moves[rand.nextInt(numMoves)];
+          int mirrored = symmetry.transformCell(t, move);
+          Assert.assertTrue(mirror.isLegalMove(mirrored / boardLen, mirrored % boardLen));
+          game.makeMove(move / boardLen, move % boardLen);
+          mirror.makeMove(mirrored / boardLen, mirrored % boardLen);
+        }
+      }
+      // the starting position is left as it is by the half turn and two reflections on a
+      // square board, and by the rotations by 120 degrees and three reflections on a hexagon
+      Assert.assertEquals(sideLen == 8 ? 3 : 5, symmetric);
+    }
+  }
+}
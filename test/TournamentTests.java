@@ -0,0 +1,133 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.AxialCoords;
+import model.ReadonlyReversi;
+import model.SquareBitboardReversi;
+import model.Tile;
+import strategy.CaptureMostPieces;
+import strategy.FallibleReversiStrategy;
+import strategy.GoForCorners;
+import tournament.Elo;
+import tournament.Entrant;
+import tournament.MatchResult;
+import tournament.Sprt;
+import tournament.Tournament;
+
+/**
+ * Tests the Tournament class and the Elo and Sprt calculations it reports with.
+ */
+public class TournamentTests {
+  Tournament tournament = new Tournament(SquareBitboardReversi::new, 4, 2, 1);
+  Entrant greedy = new Entrant("greedy", CaptureMostPieces::new);
+  Entrant corners = new Entrant("corners", GoForCorners::new);
+  // always plays the top left corner, which is never legal at the start
+  Entrant cheater = new Entrant("cheater",
+          () -> (model, turn) -> Optional.of(new AxialCoords(-7, -7)));
+
+  @Test
+  public void testElo() {
+    Assert.assertEquals(0.5, Elo.expectedScore(0), 1e-9);
+    Assert.assertEquals(0.75, Elo.expectedScore(Elo.fromScore(0.75)), 1e-9);
+    Assert.assertEquals(190.85, Elo.fromScore(0.75), 0.01);
+    Assert.assertEquals(0, Elo.estimate(10, 5, 10), 1e-9);
+    Assert.assertEquals(Elo.fromScore(5 / 6.0), Elo.estimate(5, 0, 1), 1e-9);
+    Assert.assertEquals(Double.POSITIVE_INFINITY, Elo.margin95(10, 0, 0), 0);
+    // more games give a smaller margin
+    Assert.assertTrue(Elo.margin95(100, 100, 100) < Elo.margin95(10, 10, 10));
+  }
+
+  @Test
+  public void testSprt() {
+    Sprt test = new Sprt(0, 50, 0.05, 0.05);
+    Assert.assertEquals(Math.log(0.05 / 0.95), test.getLowerBound(), 1e-9);
+    Assert.assertEquals(Math.log(0.95 / 0.05), test.getUpperBound(), 1e-9);
+    Assert.assertEquals(Sprt.Decision.UNDECIDED, test.test(3, 1, 2));
+    Assert.assertEquals(Sprt.Decision.BETTER, test.test(300, 100, 100));
+    Assert.assertEquals(Sprt.Decision.WORSE, test.test(100, 100, 300));
+    Assert.assertEquals(0, test.logLikelihoodRatio(0, 0, 0), 0);
+    // a run of wins is evidence too, even though the results so far don't vary
+    Assert.assertTrue(test.logLikelihoodRatio(5, 0, 0) > 0);
+    Assert.assertThrows(IllegalArgumentException.class, () -> new Sprt(50, 0, 0.05, 0.05));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new Sprt(0, 50, 0, 0.05));
+  }
+
+  @Test
+  public void testRoundRobin() {
+    List<MatchResult> results = tournament.roundRobin(List.of(greedy, corners, cheater), 3);
+    Assert.assertEquals(3, results.size());
+    Assert.assertEquals("greedy", results.get(0).getFirst());
+    Assert.assertEquals("corners", results.get(0).getSecond());
+    for (MatchResult result : results) {
+      Assert.assertEquals(6, result.getGames());
+    }
+    // an illegal move loses the game
+    Assert.assertEquals(6, results.get(1).getWins());
+    Assert.assertEquals(6, results.get(2).getWins());
+  }
+
+  @Test
+  public void testSameSeedSameResults() {
+    Tournament again = new Tournament(SquareBitboardReversi::new, 4, 1, 1);
+    MatchResult first = tournament.gauntlet(greedy, List.of(corners), 4).get(0);
+    MatchResult second = again.gauntlet(greedy, List.of(corners), 4).get(0);
+    Assert.assertEquals(first.toString(), second.toString());
+  }
+
+  @Test
+  public void testSprtStopsEarly() {
+    MatchResult result = tournament.sprt(greedy, cheater, new Sprt(0, 50, 0.05, 0.05), 1_000);
+    Assert.assertTrue(result.getGames() < 2_000);
+    Assert.assertEquals(0, result.getLosses());
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new Tournament(null, 4, 2, 1));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> new Tournament(SquareBitboardReversi::new, 4, 0, 1));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> tournament.roundRobin(List.of(greedy), 1));
+    Assert.assertThrows(IllegalArgumentException.class,
+            () -> tournament.gauntlet(greedy, List.of(corners), 0));
+  }
+
+  // plays like CaptureMostPieces, and counts the instances created and closed
+  private static final class CountedStrategy implements FallibleReversiStrategy, AutoCloseable {
+    static final AtomicInteger created = new AtomicInteger();
+    static final AtomicInteger closed = new AtomicInteger();
+    private final CaptureMostPieces strategy = new CaptureMostPieces();
+
+    CountedStrategy() {
+      created.incrementAndGet();
+    }
+
+    @Override
+    public Optional<AxialCoords> chooseMove(ReadonlyReversi model, Tile turn) {
+      return strategy.chooseMove(model, turn);
+    }
+
+    @Override
+    public void close() {
+      closed.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testStrategiesAreClosed() {
+    Entrant counted = new Entrant("counted", CountedStrategy::new);
+    tournament.roundRobin(List.of(counted, corners), 3);
+    int afterRoundRobin = CountedStrategy.created.get();
+    Assert.assertTrue(afterRoundRobin > 0 && afterRoundRobin <= 2);
+    Assert.assertEquals(afterRoundRobin, CountedStrategy.closed.get());
+    // every call creates strategies of its own
+    tournament.gauntlet(counted, List.of(greedy), 2);
+    Assert.assertTrue(CountedStrategy.created.get() > afterRoundRobin);
+    Assert.assertEquals(CountedStrategy.created.get(), CountedStrategy.closed.get());
+  }
+}
@@ -0,0 +1,138 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.Reversi;
+import strategy.TranspositionTable;
+
+/**
+ * Tests the TranspositionTable class.
+ */
+public class TranspositionTableTests {
+  // these three keys all fall in the same bucket
+  static final long KEY1 = 1L;
+  static final long KEY2 = 1L << 32;
+  static final long KEY3 = (2L << 32) | 3L;
+
+  TranspositionTable table = new TranspositionTable(1);
+
+  @Test
+  public void testInvalidSize() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(-4));
+  }
+
+  @Test
+  public void testCapacity() {
+    // 1MB of 32-byte buckets with two entries each
+    Assert.assertEquals(65536, table.getCapacity());
+  }
+
+  @Test
+  public void testStoreAndProbe() {
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(KEY1));
+    table.store(KEY1, 42, -1_000_017, 7, TranspositionTable.LOWER_BOUND);
+    long entry = table.probe(KEY1);
+    Assert.assertNotEquals(TranspositionTable.MISS, entry);
+    Assert.assertEquals(42, TranspositionTable.move(entry));
+    Assert.assertEquals(-1_000_017, TranspositionTable.score(entry));
+    Assert.assertEquals(7, TranspositionTable.depth(entry));
+    Assert.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+    Assert.assertEquals(1, table.getHits());
+    Assert.assertEquals(1, table.getMisses());
+  }
+
+  @Test
+  public void testStorePass() {
+    table.store(KEY1, Reversi.PASS, 0, 0, TranspositionTable.EXACT);
+    long entry = table.probe(KEY1);
+    Assert.assertEquals(Reversi.PASS, TranspositionTable.move(entry));
+    Assert.assertEquals(0, TranspositionTable.score(entry));
+    Assert.assertEquals(TranspositionTable.EXACT, TranspositionTable.bound(entry));
+  }
+
+  @Test
+  public void testDepthPreferredReplacement() {
+    table.store(KEY1, 1, 10, 8, TranspositionTable.EXACT);
+    // shallower results go to the always-replace entry and don't evict the deep one
+    table.store(KEY2, 2, 20, 3, TranspositionTable.EXACT);
+    table.store(KEY3, 3, 30, 2, TranspositionTable.EXACT);
+    Assert.assertEquals(10, TranspositionTable.score(table.probe(KEY1)));
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(KEY2));
+    Assert.assertEquals(30, TranspositionTable.score(table.probe(KEY3)));
+    Assert.assertEquals(1, table.getCollisions());
+
+    // a deeper result replaces the depth-preferred entry
+    table.store(KEY2, 2, 20, 9, TranspositionTable.EXACT);
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(KEY1));
+    Assert.assertEquals(20, TranspositionTable.score(table.probe(KEY2)));
+    Assert.assertEquals(2, table.getCollisions());
+  }
+
+  @Test
+  public void testOldEntriesAreReplaced() {
+    table.store(KEY1, 1, 10, 8, TranspositionTable.EXACT);
+    table.newSearch();
+    table.store(KEY2, 2, 20, 1, TranspositionTable.EXACT);
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(KEY1));
+    Assert.assertEquals(20, TranspositionTable.score(table.probe(KEY2)));
+  }
+
+  @Test
+  public void testUpdateSamePosition() {
+    table.store(KEY1, 1, 10, 8, TranspositionTable.EXACT);
+    table.store(KEY1, 5, 50, 2, TranspositionTable.UPPER_BOUND);
+    Assert.assertEquals(50, TranspositionTable.score(table.probe(KEY1)));
+    Assert.assertEquals(0, table.getCollisions());
+  }
+
+  @Test
+  public void testClear() {
+    table.store(KEY1, 1, 10, 8, TranspositionTable.EXACT);
+    table.probe(KEY1);
+    table.clear();
+    Assert.assertEquals(0, table.getHits());
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(KEY1));
+    Assert.assertEquals(1, table.getMisses());
+  }
+
+  @Test
+  public void testConfiguredSize() {
+    System.setProperty(TranspositionTable.SIZE_PROPERTY, "2");
+    try {
+      Assert.assertEquals(131072, TranspositionTable.withConfiguredSize().getCapacity());
+    } finally {
+      System.clearProperty(TranspositionTable.SIZE_PROPERTY);
+    }
+  }
+
+  @Test
+  public void testSharedBetweenThreads() throws InterruptedException {
+    // threads writing different values for the same keys must never produce a mixed entry
+    Thread[] threads = new Thread[4];
+    AtomicInteger mixedEntries = new AtomicInteger();
+    for (int t = 0; t < threads.length; t++) {
+      int id = t;
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 100_000; i++) {
+          long key = (i % 64) * 0x9E3779B97F4A7C15L;
+          table.store(key, id, id * 1000 + id, id, TranspositionTable.EXACT);
+          long entry = table.probe(key);
+          if (entry != TranspositionTable.MISS) {
+            int move = TranspositionTable.move(entry);
+            if (TranspositionTable.score(entry) != move * 1000 + move
+                    || TranspositionTable.depth(entry) != move) {
+              mixedEntries.incrementAndGet();
+            }
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(0, mixedEntries.get());
+  }
+}